@@ -5,9 +5,12 @@ import com.homeputers.ebal2.api.admin.user.LastAdminRemovalException;
 import com.homeputers.ebal2.api.auth.InvalidCredentialsException;
 import com.homeputers.ebal2.api.auth.InvalidPasswordResetTokenException;
 import com.homeputers.ebal2.api.auth.InvalidRefreshTokenException;
+import com.homeputers.ebal2.api.live.TooManySubscribersException;
 import com.homeputers.ebal2.api.profile.support.InvalidEmailChangeTokenException;
 import com.homeputers.ebal2.api.profile.support.RateLimitExceededException;
+import com.homeputers.ebal2.api.storage.StorageObjectNotFoundException;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
@@ -39,6 +42,13 @@ public class ApiExceptionHandler {
         return problemDetail;
     }
 
+    @ExceptionHandler(StorageObjectNotFoundException.class)
+    public ProblemDetail handleStorageObjectNotFound(StorageObjectNotFoundException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatus(HttpStatus.NOT_FOUND);
+        problemDetail.setDetail(ex.getMessage());
+        return problemDetail;
+    }
+
     @ExceptionHandler({InvalidCredentialsException.class, InvalidRefreshTokenException.class})
     public ProblemDetail handleUnauthorized(RuntimeException ex) {
         ProblemDetail problemDetail = ProblemDetail.forStatus(HttpStatus.UNAUTHORIZED);
@@ -90,9 +100,20 @@ public class ApiExceptionHandler {
     }
 
     @ExceptionHandler(RateLimitExceededException.class)
-    public ProblemDetail handleRateLimitExceeded(RateLimitExceededException ex) {
+    public ResponseEntity<ProblemDetail> handleRateLimitExceeded(RateLimitExceededException ex) {
         ProblemDetail problemDetail = ProblemDetail.forStatus(HttpStatus.TOO_MANY_REQUESTS);
         problemDetail.setDetail(ex.getMessage());
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS);
+        if (ex.getRetryAfter() != null) {
+            response.header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, ex.getRetryAfter().toSeconds())));
+        }
+        return response.body(problemDetail);
+    }
+
+    @ExceptionHandler(TooManySubscribersException.class)
+    public ProblemDetail handleTooManySubscribers(TooManySubscribersException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatus(HttpStatus.SERVICE_UNAVAILABLE);
+        problemDetail.setDetail(ex.getMessage());
         return problemDetail;
     }
 }
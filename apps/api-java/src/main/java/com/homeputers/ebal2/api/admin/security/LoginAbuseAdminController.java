@@ -0,0 +1,43 @@
+package com.homeputers.ebal2.api.admin.security;
+
+import com.homeputers.ebal2.api.auth.LoginAbuseDetector;
+import com.homeputers.ebal2.api.generated.AdminSecurityApi;
+import com.homeputers.ebal2.api.generated.model.LoginOffender;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1")
+@PreAuthorize("hasRole('ADMIN')")
+public class LoginAbuseAdminController implements AdminSecurityApi {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final LoginAbuseDetector loginAbuseDetector;
+
+    public LoginAbuseAdminController(LoginAbuseDetector loginAbuseDetector) {
+        this.loginAbuseDetector = loginAbuseDetector;
+    }
+
+    @Override
+    public ResponseEntity<List<LoginOffender>> listLoginOffenders(Integer limit) {
+        int resolvedLimit = limit == null || limit <= 0 ? DEFAULT_LIMIT : limit;
+        List<LoginOffender> offenders = loginAbuseDetector.topOffenders(resolvedLimit).stream()
+                .map(LoginAbuseAdminController::toDto)
+                .toList();
+        return ResponseEntity.ok(offenders);
+    }
+
+    private static LoginOffender toDto(LoginAbuseDetector.Offender offender) {
+        LoginOffender dto = new LoginOffender();
+        dto.setDimension(LoginOffender.DimensionEnum.fromValue(offender.dimension().name()));
+        dto.setKey(offender.key());
+        dto.setEstimatedFailures(offender.estimatedFailures());
+        dto.setAction(LoginOffender.ActionEnum.fromValue(offender.action().name()));
+        return dto;
+    }
+}
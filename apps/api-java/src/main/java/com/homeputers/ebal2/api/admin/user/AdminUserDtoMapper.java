@@ -8,6 +8,7 @@ import org.springframework.data.domain.Page;
 
 import java.net.URI;
 import java.util.Objects;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 public final class AdminUserDtoMapper {
@@ -16,13 +17,20 @@ public final class AdminUserDtoMapper {
     }
 
     public static User toDto(AdminUser adminUser) {
+        return toDto(adminUser, UnaryOperator.identity());
+    }
+
+    /**
+     * @param avatarUrls maps the stored avatar URL to the one to expose, e.g. a downscaled variant
+     */
+    public static User toDto(AdminUser adminUser, UnaryOperator<String> avatarUrls) {
         Objects.requireNonNull(adminUser, "adminUser");
         User dto = new User();
         dto.setId(adminUser.user().id());
         dto.setEmail(adminUser.user().email());
         dto.setDisplayName(adminUser.user().displayName());
         if (adminUser.user().avatarUrl() != null) {
-            dto.setAvatarUrl(JsonNullable.of(URI.create(adminUser.user().avatarUrl())));
+            dto.setAvatarUrl(JsonNullable.of(URI.create(avatarUrls.apply(adminUser.user().avatarUrl()))));
         } else {
             dto.setAvatarUrl(JsonNullable.undefined());
         }
@@ -36,9 +44,9 @@ public final class AdminUserDtoMapper {
         return dto;
     }
 
-    public static PageUserResponse toPage(Page<AdminUser> page) {
+    public static PageUserResponse toPage(Page<AdminUser> page, UnaryOperator<String> avatarUrls) {
         PageUserResponse response = new PageUserResponse();
-        response.setContent(page.getContent().stream().map(AdminUserDtoMapper::toDto).toList());
+        response.setContent(page.getContent().stream().map(user -> toDto(user, avatarUrls)).toList());
         response.setTotalElements(Math.toIntExact(page.getTotalElements()));
         response.setTotalPages(page.getTotalPages());
         response.setNumber(page.getNumber());
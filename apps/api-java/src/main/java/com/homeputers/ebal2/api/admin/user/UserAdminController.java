@@ -1,11 +1,13 @@
 package com.homeputers.ebal2.api.admin.user;
 
+import com.homeputers.ebal2.api.fields.ResponseFields;
 import com.homeputers.ebal2.api.generated.AdminUsersApi;
 import com.homeputers.ebal2.api.generated.model.CreateUserRequest;
 import com.homeputers.ebal2.api.generated.model.PageUserResponse;
 import com.homeputers.ebal2.api.generated.model.Role;
 import com.homeputers.ebal2.api.generated.model.UpdateUserRequest;
 import com.homeputers.ebal2.api.generated.model.User;
+import com.homeputers.ebal2.api.profile.AvatarVariantService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -23,16 +25,25 @@ import java.util.UUID;
 public class UserAdminController implements AdminUsersApi {
 
     private final UserAdminService userAdminService;
+    private final AvatarVariantService avatarVariantService;
+    private final ResponseFields responseFields;
 
-    public UserAdminController(UserAdminService userAdminService) {
+    public UserAdminController(UserAdminService userAdminService,
+                               AvatarVariantService avatarVariantService,
+                               ResponseFields responseFields) {
         this.userAdminService = userAdminService;
+        this.avatarVariantService = avatarVariantService;
+        this.responseFields = responseFields;
     }
 
     @Override
-    public ResponseEntity<PageUserResponse> listUsers(String q, Role role, Boolean isActive, Integer page, Integer size) {
+    public ResponseEntity<PageUserResponse> listUsers(String q, Role role, Boolean isActive, Integer page, Integer size,
+                                                      Integer avatarSize, String fields) {
+        responseFields.select(fields, User.class);
         Pageable pageable = PageRequest.of(resolvePage(page), resolveSize(size));
         Page<AdminUser> users = userAdminService.searchUsers(q, role == null ? null : role.getValue(), isActive, pageable);
-        return ResponseEntity.ok(AdminUserDtoMapper.toPage(users));
+        return ResponseEntity.ok(AdminUserDtoMapper.toPage(users,
+                avatarUrl -> avatarVariantService.resolve(avatarUrl, avatarSize)));
     }
 
     @Override
@@ -42,9 +53,11 @@ public class UserAdminController implements AdminUsersApi {
     }
 
     @Override
-    public ResponseEntity<User> getUser(UUID id) {
+    public ResponseEntity<User> getUser(UUID id, Integer avatarSize, String fields) {
+        responseFields.select(fields, User.class);
         AdminUser user = userAdminService.getUser(id);
-        return ResponseEntity.ok(AdminUserDtoMapper.toDto(user));
+        return ResponseEntity.ok(AdminUserDtoMapper.toDto(user,
+                avatarUrl -> avatarVariantService.resolve(avatarUrl, avatarSize)));
     }
 
     @Override
@@ -6,6 +6,8 @@ import com.homeputers.ebal2.api.domain.user.User;
 import com.homeputers.ebal2.api.domain.user.UserMapper;
 import com.homeputers.ebal2.api.domain.user.UserRole;
 import com.homeputers.ebal2.api.domain.user.UserRoleMapper;
+import com.homeputers.ebal2.api.domain.user.UserSnapshot;
+import com.homeputers.ebal2.api.domain.user.UserSnapshotCache;
 import com.homeputers.ebal2.api.email.EmailSender;
 import com.homeputers.ebal2.api.generated.model.CreateUserRequest;
 import com.homeputers.ebal2.api.generated.model.UpdateUserRequest;
@@ -50,6 +52,7 @@ public class UserAdminService {
 
     private final UserMapper userMapper;
     private final UserRoleMapper userRoleMapper;
+    private final UserSnapshotCache userSnapshotCache;
     private final PasswordEncoder passwordEncoder;
     private final RefreshTokenService refreshTokenService;
     private final PasswordResetService passwordResetService;
@@ -57,12 +60,14 @@ public class UserAdminService {
 
     public UserAdminService(UserMapper userMapper,
                             UserRoleMapper userRoleMapper,
+                            UserSnapshotCache userSnapshotCache,
                             PasswordEncoder passwordEncoder,
                             RefreshTokenService refreshTokenService,
                             PasswordResetService passwordResetService,
                             EmailSender emailSender) {
         this.userMapper = userMapper;
         this.userRoleMapper = userRoleMapper;
+        this.userSnapshotCache = userSnapshotCache;
         this.passwordEncoder = passwordEncoder;
         this.refreshTokenService = refreshTokenService;
         this.passwordResetService = passwordResetService;
@@ -133,12 +138,11 @@ public class UserAdminService {
 
     @Transactional(readOnly = true)
     public AdminUser getUser(UUID id) {
-        User user = userMapper.findById(id);
-        if (user == null) {
+        UserSnapshot snapshot = userSnapshotCache.get(id);
+        if (snapshot == null) {
             throw new NoSuchElementException("User not found");
         }
-        List<String> roles = normalizeRoles(userRoleMapper.findRolesByUserId(id));
-        return new AdminUser(user, roles);
+        return new AdminUser(snapshot.user(), normalizeRoles(snapshot.roles()));
     }
 
     @Transactional
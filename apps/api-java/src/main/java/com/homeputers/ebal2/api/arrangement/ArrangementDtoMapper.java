@@ -1,10 +1,15 @@
 package com.homeputers.ebal2.api.arrangement;
 
+import com.homeputers.ebal2.api.batch.BatchGet;
 import com.homeputers.ebal2.api.domain.arrangement.Arrangement;
 import com.homeputers.ebal2.api.domain.song.Song;
+import com.homeputers.ebal2.api.generated.model.ArrangementBatchGetResponse;
+import com.homeputers.ebal2.api.generated.model.ArrangementBatchGetResult;
 import com.homeputers.ebal2.api.generated.model.ArrangementRequest;
 import com.homeputers.ebal2.api.generated.model.ArrangementResponse;
 
+import java.util.List;
+
 public class ArrangementDtoMapper {
     public static Arrangement toEntity(Song song, ArrangementRequest request) {
         return new Arrangement(
@@ -13,7 +18,8 @@ public class ArrangementDtoMapper {
                 request.getKey(),
                 request.getBpm(),
                 request.getMeter(),
-                request.getLyricsChordpro()
+                request.getLyricsChordpro(),
+                0
         );
     }
 
@@ -29,4 +35,18 @@ public class ArrangementDtoMapper {
         response.setLyricsChordpro(arrangement.lyricsChordpro());
         return response;
     }
+
+    public static ArrangementBatchGetResponse toBatchGetResponse(List<BatchGet.Result<Arrangement>> results) {
+        ArrangementBatchGetResponse response = new ArrangementBatchGetResponse();
+        response.setResults(results.stream().map(result -> {
+            ArrangementBatchGetResult item = new ArrangementBatchGetResult();
+            item.setId(result.id());
+            item.setFound(result.found());
+            if (result.found()) {
+                item.setArrangement(toResponse(result.value()));
+            }
+            return item;
+        }).toList());
+        return response;
+    }
 }
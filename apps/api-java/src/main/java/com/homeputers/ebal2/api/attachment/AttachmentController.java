@@ -0,0 +1,125 @@
+package com.homeputers.ebal2.api.attachment;
+
+import com.homeputers.ebal2.api.domain.attachment.Attachment;
+import com.homeputers.ebal2.api.generated.AttachmentsApi;
+import com.homeputers.ebal2.api.generated.model.AttachmentResponse;
+import com.homeputers.ebal2.api.generated.model.AttachmentUploadRequest;
+import com.homeputers.ebal2.api.generated.model.AttachmentUploadResponse;
+import com.homeputers.ebal2.api.storage.LocalObjectCache;
+import com.homeputers.ebal2.api.storage.RangeResponseWriter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1")
+@ConditionalOnProperty(prefix = "ebal.storage", name = "enabled", havingValue = "true")
+public class AttachmentController implements AttachmentsApi {
+    // attachments never change, but they can be deleted, so shared caches must not keep them
+    private static final CacheControl MEDIA_CACHE_CONTROL = CacheControl.maxAge(Duration.ofHours(1)).cachePrivate();
+
+    private final AttachmentService attachmentService;
+    private final AttachmentUploadService uploadService;
+
+    public AttachmentController(AttachmentService attachmentService, AttachmentUploadService uploadService) {
+        this.attachmentService = attachmentService;
+        this.uploadService = uploadService;
+    }
+
+    @Override
+    public ResponseEntity<List<AttachmentResponse>> listArrangementAttachments(UUID arrangementId) {
+        return ResponseEntity.ok(toResponses(attachmentService.list(Attachment.OWNER_ARRANGEMENT, arrangementId)));
+    }
+
+    @Override
+    public ResponseEntity<AttachmentResponse> uploadArrangementAttachment(UUID arrangementId, MultipartFile file) {
+        Attachment attachment = attachmentService.upload(Attachment.OWNER_ARRANGEMENT, arrangementId, file);
+        return ResponseEntity.status(HttpStatus.CREATED).body(AttachmentDtoMapper.toResponse(attachment));
+    }
+
+    @Override
+    public ResponseEntity<List<AttachmentResponse>> listServiceAttachments(UUID id) {
+        return ResponseEntity.ok(toResponses(attachmentService.list(Attachment.OWNER_SERVICE, id)));
+    }
+
+    @Override
+    public ResponseEntity<AttachmentResponse> uploadServiceAttachment(UUID id, MultipartFile file) {
+        Attachment attachment = attachmentService.upload(Attachment.OWNER_SERVICE, id, file);
+        return ResponseEntity.status(HttpStatus.CREATED).body(AttachmentDtoMapper.toResponse(attachment));
+    }
+
+    @Override
+    public ResponseEntity<AttachmentUploadResponse> createAttachmentUpload(AttachmentUploadRequest request) {
+        AttachmentUploadService.UploadSlot slot = uploadService.create(request.getOwnerType().getValue(),
+                request.getOwnerId(), request.getFileName(), request.getContentType(), request.getSizeBytes(),
+                request.getSha256());
+        return ResponseEntity.status(HttpStatus.CREATED).body(AttachmentDtoMapper.toUploadResponse(slot));
+    }
+
+    @Override
+    public ResponseEntity<AttachmentUploadResponse> completeAttachmentUpload(UUID uploadId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(AttachmentDtoMapper.toUploadResponse(uploadService.complete(uploadId)));
+    }
+
+    @Override
+    public ResponseEntity<AttachmentUploadResponse> getAttachmentUpload(UUID uploadId) {
+        return ResponseEntity.ok(AttachmentDtoMapper.toUploadResponse(uploadService.get(uploadId)));
+    }
+
+    @Override
+    public ResponseEntity<AttachmentResponse> getAttachment(UUID attachmentId) {
+        return ResponseEntity.ok(AttachmentDtoMapper.toResponse(attachmentService.get(attachmentId)));
+    }
+
+    @Override
+    public ResponseEntity<Void> downloadAttachment(UUID attachmentId) {
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .location(URI.create(attachmentService.downloadUrl(attachmentId)))
+                .build();
+    }
+
+    /**
+     * Writes the response itself so byte ranges can be handed to the container's sendfile; returning {@code null}
+     * tells Spring MVC the response is complete.
+     */
+    @Override
+    public ResponseEntity<Resource> streamAttachmentMedia(UUID attachmentId, String range, String ifRange) {
+        Attachment attachment = attachmentService.get(attachmentId);
+        LocalObjectCache.CachedObject content = attachmentService.openContent(attachment);
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        try {
+            RangeResponseWriter.write(attributes.getRequest(), attributes.getResponse(), content,
+                    MediaType.parseMediaType(attachment.contentType()).toString(), attachment.blobSha256(),
+                    attachment.createdAt().toInstant(), MEDIA_CACHE_CONTROL);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to stream attachment " + attachmentId, ex);
+        }
+        return null;
+    }
+
+    @Override
+    public ResponseEntity<Void> deleteAttachment(UUID attachmentId) {
+        attachmentService.delete(attachmentId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private static List<AttachmentResponse> toResponses(List<Attachment> attachments) {
+        return attachments.stream().map(AttachmentDtoMapper::toResponse).toList();
+    }
+}
@@ -0,0 +1,37 @@
+package com.homeputers.ebal2.api.attachment;
+
+import com.homeputers.ebal2.api.domain.attachment.Attachment;
+import com.homeputers.ebal2.api.domain.attachment.AttachmentUpload;
+import com.homeputers.ebal2.api.generated.model.AttachmentResponse;
+import com.homeputers.ebal2.api.generated.model.AttachmentUploadResponse;
+
+public class AttachmentDtoMapper {
+    public static AttachmentResponse toResponse(Attachment attachment) {
+        AttachmentResponse response = new AttachmentResponse();
+        response.setId(attachment.id());
+        response.setOwnerType(AttachmentResponse.OwnerTypeEnum.fromValue(attachment.ownerType()));
+        response.setOwnerId(attachment.ownerId());
+        response.setFileName(attachment.fileName());
+        response.setContentType(attachment.contentType());
+        response.setSizeBytes(attachment.sizeBytes());
+        response.setSha256(attachment.blobSha256());
+        response.setCreatedAt(attachment.createdAt());
+        return response;
+    }
+
+    public static AttachmentUploadResponse toUploadResponse(AttachmentUpload upload) {
+        AttachmentUploadResponse response = new AttachmentUploadResponse();
+        response.setId(upload.id());
+        response.setStatus(AttachmentUploadResponse.StatusEnum.fromValue(upload.status()));
+        response.setAttachmentId(upload.attachmentId());
+        response.setError(upload.error());
+        return response;
+    }
+
+    public static AttachmentUploadResponse toUploadResponse(AttachmentUploadService.UploadSlot slot) {
+        AttachmentUploadResponse response = toUploadResponse(slot.upload());
+        response.setUploadUrl(slot.uploadUrl());
+        response.setUploadExpiresAt(slot.uploadDeadline());
+        return response;
+    }
+}
@@ -0,0 +1,38 @@
+package com.homeputers.ebal2.api.attachment;
+
+import com.homeputers.ebal2.api.config.AttachmentProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically removes attachment blobs that no attachment refers to anymore.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ebal.storage", name = "enabled", havingValue = "true")
+public class AttachmentGarbageCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(AttachmentGarbageCollector.class);
+
+    private final AttachmentService attachmentService;
+    private final AttachmentProperties properties;
+
+    public AttachmentGarbageCollector(AttachmentService attachmentService, AttachmentProperties properties) {
+        this.attachmentService = attachmentService;
+        this.properties = properties;
+    }
+
+    @Scheduled(fixedDelayString = "${ebal.attachments.gc-interval:PT1H}")
+    public void collect() {
+        try {
+            while (attachmentService.collectGarbage() >= properties.getGcBatchSize()) {
+                // keep collecting while batches come back full
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Failed to collect unreferenced attachment blobs", ex);
+        }
+    }
+}
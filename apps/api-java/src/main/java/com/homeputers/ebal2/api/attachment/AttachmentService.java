@@ -0,0 +1,265 @@
+package com.homeputers.ebal2.api.attachment;
+
+import com.homeputers.ebal2.api.config.AttachmentProperties;
+import com.homeputers.ebal2.api.domain.arrangement.ArrangementMapper;
+import com.homeputers.ebal2.api.domain.attachment.Attachment;
+import com.homeputers.ebal2.api.domain.attachment.AttachmentBlob;
+import com.homeputers.ebal2.api.domain.attachment.AttachmentBlobMapper;
+import com.homeputers.ebal2.api.domain.attachment.AttachmentMapper;
+import com.homeputers.ebal2.api.domain.service.ServiceMapper;
+import com.homeputers.ebal2.api.storage.LocalObjectCache;
+import com.homeputers.ebal2.api.storage.StorageException;
+import com.homeputers.ebal2.api.storage.StorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Stores attachments of arrangements and services by content.
+ * <p>
+ * Bytes are addressed by their SHA-256 and written to {@link StorageService} only the first time that content is
+ * seen; later uploads of the same file only add an {@code attachments} row. Each blob counts the attachments
+ * referring to it, and {@link #collectGarbage()} removes blobs that have had no references for the configured grace
+ * period.
+ * <p>
+ * Uploads deliberately run without a surrounding transaction so no database connection is held while bytes are hashed
+ * and stored. Taking a reference only succeeds on a stored blob that still exists, and garbage collection holds row
+ * locks on the blobs it is removing, so an upload racing with collection either keeps the blob alive or stores it again.
+ */
+@Service
+@ConditionalOnProperty(prefix = "ebal.storage", name = "enabled", havingValue = "true")
+public class AttachmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttachmentService.class);
+    static final String OBJECT_PREFIX = "attachments/";
+    private static final int MAX_FILE_NAME_LENGTH = 255;
+    private static final int MAX_REFERENCE_ATTEMPTS = 3;
+
+    private final AttachmentMapper attachmentMapper;
+    private final AttachmentBlobMapper blobMapper;
+    private final ArrangementMapper arrangementMapper;
+    private final ServiceMapper serviceMapper;
+    private final StorageService storageService;
+    private final LocalObjectCache objectCache;
+    private final AttachmentProperties properties;
+    private final Clock clock;
+
+    @Autowired
+    public AttachmentService(AttachmentMapper attachmentMapper,
+                             AttachmentBlobMapper blobMapper,
+                             ArrangementMapper arrangementMapper,
+                             ServiceMapper serviceMapper,
+                             StorageService storageService,
+                             LocalObjectCache objectCache,
+                             AttachmentProperties properties) {
+        this(attachmentMapper, blobMapper, arrangementMapper, serviceMapper, storageService, objectCache, properties,
+                Clock.systemUTC());
+    }
+
+    AttachmentService(AttachmentMapper attachmentMapper,
+                      AttachmentBlobMapper blobMapper,
+                      ArrangementMapper arrangementMapper,
+                      ServiceMapper serviceMapper,
+                      StorageService storageService,
+                      LocalObjectCache objectCache,
+                      AttachmentProperties properties,
+                      Clock clock) {
+        this.attachmentMapper = attachmentMapper;
+        this.blobMapper = blobMapper;
+        this.arrangementMapper = arrangementMapper;
+        this.serviceMapper = serviceMapper;
+        this.storageService = storageService;
+        this.objectCache = objectCache;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    public List<Attachment> list(String ownerType, UUID ownerId) {
+        requireOwner(ownerType, ownerId);
+        return attachmentMapper.findByOwner(ownerType, ownerId);
+    }
+
+    public Attachment get(UUID id) {
+        Attachment attachment = attachmentMapper.findById(id);
+        if (attachment == null) {
+            throw new NoSuchElementException("Attachment not found");
+        }
+        return attachment;
+    }
+
+    public Attachment upload(String ownerType, UUID ownerId, MultipartFile file) {
+        Objects.requireNonNull(file, "file");
+        requireOwner(ownerType, ownerId);
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("Attachment file must not be empty");
+        }
+        long size = file.getSize();
+        if (size > properties.getMaxSizeBytes()) {
+            throw new IllegalArgumentException(
+                    "Attachment exceeds the maximum size of %d bytes".formatted(properties.getMaxSizeBytes()));
+        }
+        String fileName = sanitizeFileName(file.getOriginalFilename());
+        String contentType = resolveContentType(file.getContentType(), fileName);
+        String sha256 = sha256(file);
+        return attachContent(ownerType, ownerId, fileName, contentType, size, sha256, objectName -> {
+            try (InputStream data = file.getInputStream()) {
+                storageService.put(objectName, data, size, contentType);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to read attachment upload", ex);
+            }
+        });
+    }
+
+    /**
+     * Creates an attachment for content whose hash is already known, calling {@code store} with the blob's object
+     * name only if that content is not stored yet.
+     */
+    Attachment attachContent(String ownerType, UUID ownerId, String fileName, String contentType, long size,
+                             String sha256, Consumer<String> store) {
+        for (int attempt = 1; attempt <= MAX_REFERENCE_ATTEMPTS; attempt++) {
+            ensureStored(sha256, size, contentType, store);
+            Attachment attachment = new Attachment(null, ownerType, ownerId, fileName, contentType, size, sha256,
+                    OffsetDateTime.now(clock));
+            if (attachmentMapper.insertReferencingBlob(attachment) == 1) {
+                return attachment;
+            }
+            // the blob was collected between storing and referencing it; store it again
+            log.debug("Blob {} disappeared before it could be referenced, attempt {}", sha256, attempt);
+        }
+        throw new IllegalStateException("Failed to store attachment content " + sha256);
+    }
+
+    public String downloadUrl(UUID id) {
+        Attachment attachment = get(id);
+        return storageService.signedUrl(objectName(attachment.blobSha256()), properties.getDownloadUrlTtl());
+    }
+
+    /**
+     * Returns a local copy of the attachment's content for streaming. Blobs are immutable, so a cached copy is valid
+     * for as long as it exists.
+     */
+    public LocalObjectCache.CachedObject openContent(Attachment attachment) {
+        return objectCache.get(objectName(attachment.blobSha256()));
+    }
+
+    public void delete(UUID id) {
+        if (attachmentMapper.delete(id) == 0) {
+            throw new NoSuchElementException("Attachment not found");
+        }
+    }
+
+    /**
+     * Deletes up to one batch of blobs unreferenced for longer than the grace period, first from storage and then from
+     * the database. Blobs whose bytes could not be deleted stay registered and are retried on the next run.
+     *
+     * @return the number of blobs examined, which equals the batch size while more may be waiting
+     */
+    @Transactional
+    public int collectGarbage() {
+        OffsetDateTime cutoff = OffsetDateTime.now(clock).minus(properties.getGcGracePeriod());
+        List<String> candidates = blobMapper.lockUnreferenced(cutoff, properties.getGcBatchSize());
+        List<String> deleted = new ArrayList<>(candidates.size());
+        for (String sha256 : candidates) {
+            try {
+                storageService.delete(objectName(sha256));
+                objectCache.evict(objectName(sha256));
+                deleted.add(sha256);
+            } catch (StorageException ex) {
+                log.warn("Failed to delete attachment blob {}", sha256, ex);
+            }
+        }
+        if (!deleted.isEmpty()) {
+            blobMapper.deleteUnreferenced(deleted);
+        }
+        return candidates.size();
+    }
+
+    static String objectName(String sha256) {
+        return OBJECT_PREFIX + sha256.substring(0, 2) + "/" + sha256;
+    }
+
+    private void ensureStored(String sha256, long size, String contentType, Consumer<String> store) {
+        blobMapper.insertIfAbsent(sha256, size, contentType, OffsetDateTime.now(clock));
+        AttachmentBlob blob = blobMapper.findBySha256(sha256);
+        if (blob != null && blob.storedAt() != null) {
+            return;
+        }
+        // concurrent first uploads of the same content may both get here; they write identical bytes
+        store.accept(objectName(sha256));
+        blobMapper.markStored(sha256, OffsetDateTime.now(clock));
+    }
+
+    void requireOwner(String ownerType, UUID ownerId) {
+        boolean exists = switch (ownerType) {
+            case Attachment.OWNER_ARRANGEMENT -> arrangementMapper.findSummaryById(ownerId) != null;
+            case Attachment.OWNER_SERVICE -> serviceMapper.findById(ownerId) != null;
+            default -> throw new IllegalArgumentException("Unknown attachment owner type " + ownerType);
+        };
+        if (!exists) {
+            throw new NoSuchElementException(
+                    Attachment.OWNER_ARRANGEMENT.equals(ownerType) ? "Arrangement not found" : "Service not found");
+        }
+    }
+
+    private static String sha256(MultipartFile file) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream data = file.getInputStream()) {
+            int read;
+            while ((read = data.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read attachment upload", ex);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    static String sanitizeFileName(String originalFilename) {
+        String name = StringUtils.getFilename(StringUtils.cleanPath(
+                originalFilename == null ? "" : originalFilename.replace('\\', '/')));
+        if (!StringUtils.hasText(name)) {
+            return "attachment";
+        }
+        name = name.strip().replaceAll("\\p{Cntrl}", "");
+        return name.length() > MAX_FILE_NAME_LENGTH ? name.substring(0, MAX_FILE_NAME_LENGTH) : name;
+    }
+
+    static String resolveContentType(String declared, String fileName) {
+        if (StringUtils.hasText(declared)) {
+            try {
+                return MediaType.parseMediaType(declared).toString();
+            } catch (IllegalArgumentException ignored) {
+                // fall back to the file extension
+            }
+        }
+        return MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+    }
+}
@@ -0,0 +1,140 @@
+package com.homeputers.ebal2.api.attachment;
+
+import com.homeputers.ebal2.api.config.AttachmentProperties;
+import com.homeputers.ebal2.api.domain.attachment.AttachmentUpload;
+import com.homeputers.ebal2.api.domain.attachment.AttachmentUploadMapper;
+import com.homeputers.ebal2.api.storage.StorageService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Issues upload slots that let clients send attachment bytes straight to object storage.
+ * <p>
+ * A slot names a staging object and carries a signed {@code PUT} URL for it. Once the client confirms the upload, the
+ * {@link AttachmentUploadVerifier} checks the staged object against the declared size, type and SHA-256 in the
+ * background and turns it into an attachment; the API never receives the bytes in a request.
+ */
+@Service
+@ConditionalOnProperty(prefix = "ebal.storage", name = "enabled", havingValue = "true")
+public class AttachmentUploadService {
+
+    static final String STAGING_PREFIX = "uploads/";
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+    /**
+     * Time after the upload URL expires during which the client may still confirm an upload it finished in time.
+     */
+    private static final Duration CONFIRM_GRACE = Duration.ofHours(1);
+
+    private final AttachmentUploadMapper uploadMapper;
+    private final AttachmentService attachmentService;
+    private final StorageService storageService;
+    private final AttachmentProperties.DirectUpload properties;
+    private final Clock clock;
+
+    @Autowired
+    public AttachmentUploadService(AttachmentUploadMapper uploadMapper,
+                                   AttachmentService attachmentService,
+                                   StorageService storageService,
+                                   AttachmentProperties properties) {
+        this(uploadMapper, attachmentService, storageService, properties.getDirectUpload(), Clock.systemUTC());
+    }
+
+    AttachmentUploadService(AttachmentUploadMapper uploadMapper,
+                            AttachmentService attachmentService,
+                            StorageService storageService,
+                            AttachmentProperties.DirectUpload properties,
+                            Clock clock) {
+        this.uploadMapper = uploadMapper;
+        this.attachmentService = attachmentService;
+        this.storageService = storageService;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    public UploadSlot create(String ownerType, UUID ownerId, String fileName, String contentType, long sizeBytes,
+                             String sha256) {
+        attachmentService.requireOwner(ownerType, ownerId);
+        if (sizeBytes < 1 || sizeBytes > properties.getMaxSizeBytes()) {
+            throw new IllegalArgumentException(
+                    "Attachment size must be between 1 and %d bytes".formatted(properties.getMaxSizeBytes()));
+        }
+        String normalizedSha256 = sha256 == null ? "" : sha256.strip().toLowerCase(Locale.ROOT);
+        if (!SHA256.matcher(normalizedSha256).matches()) {
+            throw new IllegalArgumentException("sha256 must be 64 hexadecimal characters");
+        }
+        String normalizedContentType = normalizeContentType(contentType);
+        String sanitizedFileName = AttachmentService.sanitizeFileName(fileName);
+
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        UUID id = UUID.randomUUID();
+        String stagingObject = STAGING_PREFIX + id;
+        AttachmentUpload upload = new AttachmentUpload(id, ownerType, ownerId, sanitizedFileName,
+                normalizedContentType, sizeBytes, normalizedSha256, stagingObject, AttachmentUpload.STATUS_PENDING, 0,
+                null, now.plus(properties.getUrlTtl()).plus(CONFIRM_GRACE), null, null, now, now);
+        uploadMapper.insert(upload);
+        return new UploadSlot(upload,
+                storageService.signedUploadUrl(stagingObject, sizeBytes, properties.getUrlTtl()),
+                now.plus(properties.getUrlTtl()));
+    }
+
+    /**
+     * Queues the staged object for verification. Confirming an upload that is already queued or finished is a no-op.
+     */
+    public AttachmentUpload complete(UUID id) {
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        if (uploadMapper.markVerifying(id, now) == 0) {
+            AttachmentUpload upload = get(id);
+            if (AttachmentUpload.STATUS_PENDING.equals(upload.status())) {
+                throw new IllegalArgumentException("Upload slot has expired");
+            }
+            return upload;
+        }
+        return get(id);
+    }
+
+    public AttachmentUpload get(UUID id) {
+        AttachmentUpload upload = uploadMapper.findById(id);
+        if (upload == null) {
+            throw new NoSuchElementException("Upload not found");
+        }
+        return upload;
+    }
+
+    private String normalizeContentType(String contentType) {
+        if (!StringUtils.hasText(contentType)) {
+            throw new IllegalArgumentException("contentType is required");
+        }
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid contentType '%s'".formatted(contentType));
+        }
+        boolean allowed = properties.getAllowedContentTypes().stream()
+                .map(MediaType::parseMediaType)
+                .anyMatch(pattern -> pattern.includes(mediaType));
+        if (!allowed || mediaType.isWildcardType() || mediaType.isWildcardSubtype()) {
+            throw new IllegalArgumentException("Content type '%s' is not accepted for direct uploads"
+                    .formatted(contentType));
+        }
+        return mediaType.toString();
+    }
+
+    /**
+     * @param uploadUrl      signed URL the client sends the bytes to with {@code PUT}
+     * @param uploadDeadline when {@code uploadUrl} stops working
+     */
+    public record UploadSlot(AttachmentUpload upload, String uploadUrl, OffsetDateTime uploadDeadline) {
+    }
+}
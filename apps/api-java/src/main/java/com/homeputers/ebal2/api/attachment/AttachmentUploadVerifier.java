@@ -0,0 +1,275 @@
+package com.homeputers.ebal2.api.attachment;
+
+import com.homeputers.ebal2.api.config.AttachmentProperties;
+import com.homeputers.ebal2.api.domain.attachment.Attachment;
+import com.homeputers.ebal2.api.domain.attachment.AttachmentUpload;
+import com.homeputers.ebal2.api.domain.attachment.AttachmentUploadMapper;
+import com.homeputers.ebal2.api.storage.StorageException;
+import com.homeputers.ebal2.api.storage.StorageObjectNotFoundException;
+import com.homeputers.ebal2.api.storage.StorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verifies confirmed direct uploads and turns them into attachments.
+ * <p>
+ * Each poll leases due uploads with {@code FOR UPDATE SKIP LOCKED}, so replicas share the work, and checks them on a
+ * small worker pool: the staged object is streamed from storage once to measure its size, hash it and sniff its
+ * leading bytes. Matching content is copied server-side to its content-addressed blob (skipped when the blob already
+ * exists) and the staging object is removed. Mismatches fail the upload for good; storage or database errors are
+ * retried until {@code maxVerifyAttempts} is reached.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ebal.storage", name = "enabled", havingValue = "true")
+public class AttachmentUploadVerifier implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AttachmentUploadVerifier.class);
+    private static final Duration VERIFY_LEASE = Duration.ofMinutes(30);
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+    private static final int SWEEP_BATCH_SIZE = 100;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final AttachmentUploadMapper uploadMapper;
+    private final AttachmentService attachmentService;
+    private final StorageService storageService;
+    private final AttachmentProperties.DirectUpload properties;
+    private final Clock clock;
+    private final ExecutorService workers;
+
+    @Autowired
+    public AttachmentUploadVerifier(AttachmentUploadMapper uploadMapper,
+                                    AttachmentService attachmentService,
+                                    StorageService storageService,
+                                    AttachmentProperties properties) {
+        this(uploadMapper, attachmentService, storageService, properties.getDirectUpload(), Clock.systemUTC());
+    }
+
+    AttachmentUploadVerifier(AttachmentUploadMapper uploadMapper,
+                             AttachmentService attachmentService,
+                             StorageService storageService,
+                             AttachmentProperties.DirectUpload properties,
+                             Clock clock) {
+        this.uploadMapper = uploadMapper;
+        this.attachmentService = attachmentService;
+        this.storageService = storageService;
+        this.properties = properties;
+        this.clock = clock;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(properties.getVerifyConcurrency(), runnable -> {
+            Thread thread = new Thread(runnable, "attachment-verify-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${ebal.attachments.direct-upload.verify-interval:PT5S}")
+    public void verifyDue() {
+        try {
+            while (verifyBatch() >= properties.getVerifyConcurrency()) {
+                // keep verifying while batches come back full
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Failed to claim uploads for verification", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Fails expired slots, removing whatever the client staged, and forgets finished uploads past their retention.
+     */
+    @Scheduled(fixedDelayString = "${ebal.attachments.direct-upload.sweep-interval:PT10M}")
+    public void sweep() {
+        try {
+            OffsetDateTime now = OffsetDateTime.now(clock);
+            for (AttachmentUpload upload : uploadMapper.findExpiredPending(now, SWEEP_BATCH_SIZE)) {
+                deleteStagingQuietly(upload);
+                uploadMapper.markFailed(upload.id(), "Upload slot expired before it was confirmed", now);
+            }
+            uploadMapper.deleteFinishedBefore(now.minus(properties.getRetention()));
+        } catch (DataAccessException ex) {
+            log.warn("Failed to sweep attachment uploads", ex);
+        }
+    }
+
+    int verifyBatch() throws InterruptedException {
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        List<AttachmentUpload> batch =
+                uploadMapper.claimDue(now, now.plus(VERIFY_LEASE), properties.getVerifyConcurrency());
+        List<Future<?>> pending = new ArrayList<>(batch.size());
+        for (AttachmentUpload upload : batch) {
+            pending.add(workers.submit(() -> verify(upload)));
+        }
+        for (Future<?> future : pending) {
+            try {
+                future.get();
+            } catch (ExecutionException ex) {
+                log.warn("Upload verification worker failed", ex.getCause());
+            }
+        }
+        return batch.size();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    private void verify(AttachmentUpload upload) {
+        Attachment attachment;
+        try {
+            checkContent(upload);
+            attachmentService.requireOwner(upload.ownerType(), upload.ownerId());
+            attachment = attachmentService.attachContent(upload.ownerType(), upload.ownerId(), upload.fileName(),
+                    upload.contentType(), upload.sizeBytes(), upload.sha256(),
+                    objectName -> storageService.copy(upload.stagingObject(), objectName));
+        } catch (RejectedUploadException | NoSuchElementException ex) {
+            log.info("Rejected upload {}: {}", upload.id(), ex.getMessage());
+            deleteStagingQuietly(upload);
+            uploadMapper.markFailed(upload.id(), truncate(ex.getMessage()), OffsetDateTime.now(clock));
+            return;
+        } catch (RuntimeException ex) {
+            OffsetDateTime now = OffsetDateTime.now(clock);
+            if (upload.attempts() >= properties.getMaxVerifyAttempts()) {
+                log.error("Giving up on upload {} after {} attempts", upload.id(), upload.attempts(), ex);
+                deleteStagingQuietly(upload);
+                uploadMapper.markFailed(upload.id(), truncate(ex.toString()), now);
+            } else {
+                log.warn("Failed to verify upload {} (attempt {})", upload.id(), upload.attempts(), ex);
+                uploadMapper.markRetry(upload.id(), now.plus(RETRY_DELAY), truncate(ex.toString()), now);
+            }
+            return;
+        }
+        uploadMapper.markCompleted(upload.id(), attachment.id(), OffsetDateTime.now(clock));
+        deleteStagingQuietly(upload);
+    }
+
+    private void checkContent(AttachmentUpload upload) {
+        DigestingChannel digest = new DigestingChannel(upload.sizeBytes());
+        try {
+            storageService.transferTo(upload.stagingObject(), digest);
+        } catch (StorageObjectNotFoundException ex) {
+            throw new RejectedUploadException("Nothing was uploaded");
+        } catch (StorageException ex) {
+            if (digest.oversized) {
+                throw new RejectedUploadException("Uploaded more than the declared %d bytes"
+                        .formatted(upload.sizeBytes()));
+            }
+            throw ex;
+        }
+        if (digest.size != upload.sizeBytes()) {
+            throw new RejectedUploadException("Uploaded %d bytes, expected %d"
+                    .formatted(digest.size, upload.sizeBytes()));
+        }
+        if (!digest.sha256().equals(upload.sha256())) {
+            throw new RejectedUploadException("Uploaded content does not match the declared SHA-256");
+        }
+        if (!ContentSignatures.plausible(upload.contentType(), digest.head())) {
+            throw new RejectedUploadException("Uploaded content is not %s".formatted(upload.contentType()));
+        }
+    }
+
+    private void deleteStagingQuietly(AttachmentUpload upload) {
+        try {
+            storageService.delete(upload.stagingObject());
+        } catch (StorageException ex) {
+            log.warn("Failed to delete staged upload {}", upload.stagingObject(), ex);
+        }
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    /**
+     * Hashes and counts what is written to it, keeping the first bytes for sniffing. Writing more than expected fails,
+     * so an oversized upload is not read to the end.
+     */
+    private static final class DigestingChannel implements WritableByteChannel {
+        private final MessageDigest digest;
+        private final long expectedSize;
+        private final byte[] head = new byte[ContentSignatures.HEAD_LENGTH];
+        private long size;
+        private boolean oversized;
+
+        private DigestingChannel(long expectedSize) {
+            this.expectedSize = expectedSize;
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException("SHA-256 not available", ex);
+            }
+        }
+
+        @Override
+        public int write(ByteBuffer source) throws IOException {
+            int length = source.remaining();
+            if (size + length > expectedSize) {
+                oversized = true;
+                throw new IOException("Object is larger than %d bytes".formatted(expectedSize));
+            }
+            if (size < head.length) {
+                int copied = (int) Math.min(head.length - size, length);
+                source.duplicate().get(head, (int) size, copied);
+            }
+            digest.update(source);
+            size += length;
+            return length;
+        }
+
+        private byte[] head() {
+            return Arrays.copyOf(head, (int) Math.min(size, head.length));
+        }
+
+        private String sha256() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class RejectedUploadException extends RuntimeException {
+        private RejectedUploadException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.homeputers.ebal2.api.attachment;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Checks the leading bytes of a file against the magic numbers of common attachment formats.
+ */
+final class ContentSignatures {
+    /**
+     * Enough leading bytes for every signature checked here.
+     */
+    static final int HEAD_LENGTH = 16;
+
+    private ContentSignatures() {
+    }
+
+    /**
+     * @return {@code false} only when {@code contentType} is a known format and {@code head} does not start like it
+     */
+    static boolean plausible(String contentType, byte[] head) {
+        String type = contentType.toLowerCase(Locale.ROOT);
+        int parameters = type.indexOf(';');
+        if (parameters >= 0) {
+            type = type.substring(0, parameters).strip();
+        }
+        return switch (type) {
+            case "application/pdf" -> startsWith(head, 0, "%PDF-");
+            case "image/png" -> startsWith(head, 0, new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'});
+            case "image/jpeg" -> startsWith(head, 0, new byte[]{(byte) 0xff, (byte) 0xd8, (byte) 0xff});
+            case "image/gif" -> startsWith(head, 0, "GIF8");
+            case "image/webp" -> startsWith(head, 0, "RIFF") && startsWith(head, 8, "WEBP");
+            case "audio/wav", "audio/x-wav", "audio/wave" -> startsWith(head, 0, "RIFF") && startsWith(head, 8, "WAVE");
+            case "audio/ogg", "video/ogg", "application/ogg" -> startsWith(head, 0, "OggS");
+            case "audio/flac", "audio/x-flac" -> startsWith(head, 0, "fLaC");
+            case "audio/mpeg" -> startsWith(head, 0, "ID3")
+                    || head.length >= 2 && (head[0] & 0xff) == 0xff && (head[1] & 0xe0) == 0xe0;
+            case "audio/mp4", "audio/x-m4a", "audio/m4a", "video/mp4", "video/quicktime" -> startsWith(head, 4, "ftyp");
+            default -> true;
+        };
+    }
+
+    private static boolean startsWith(byte[] head, int offset, String prefix) {
+        return startsWith(head, offset, prefix.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static boolean startsWith(byte[] head, int offset, byte[] prefix) {
+        if (head.length < offset + prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (head[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -7,12 +7,12 @@ import com.homeputers.ebal2.api.generated.model.ChangePasswordRequest;
 import com.homeputers.ebal2.api.generated.model.ForgotPasswordRequest;
 import com.homeputers.ebal2.api.generated.model.RefreshTokenRequest;
 import com.homeputers.ebal2.api.generated.model.ResetPasswordRequest;
+import com.homeputers.ebal2.api.security.ClientIpResolver;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -23,15 +23,18 @@ public class AuthController implements AuthApi {
     private final AuthService authService;
     private final PasswordResetService passwordResetService;
     private final AuthRateLimiter authRateLimiter;
+    private final ClientIpResolver clientIpResolver;
     private final HttpServletRequest request;
 
     public AuthController(AuthService authService,
                          PasswordResetService passwordResetService,
                          AuthRateLimiter authRateLimiter,
+                         ClientIpResolver clientIpResolver,
                          HttpServletRequest request) {
         this.authService = authService;
         this.passwordResetService = passwordResetService;
         this.authRateLimiter = authRateLimiter;
+        this.clientIpResolver = clientIpResolver;
         this.request = request;
     }
 
@@ -90,10 +93,6 @@ public class AuthController implements AuthApi {
     }
 
     private String resolveClientIpAddress() {
-        String forwarded = request.getHeader("X-Forwarded-For");
-        if (StringUtils.hasText(forwarded)) {
-            return forwarded.split(",")[0].trim();
-        }
-        return request.getRemoteAddr();
+        return clientIpResolver.resolve(request);
     }
 }
@@ -2,12 +2,10 @@ package com.homeputers.ebal2.api.auth;
 
 import com.homeputers.ebal2.api.config.SecurityProperties;
 import com.homeputers.ebal2.api.profile.support.RateLimitExceededException;
+import com.homeputers.ebal2.api.ratelimit.RateLimiter;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
-import java.time.Instant;
-import java.util.concurrent.ConcurrentHashMap;
-
 /**
  * Basic in-memory rate limiter for sensitive auth flows.
  * TODO: replace with centralized gateway-level rate limiting.
@@ -15,53 +13,34 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 public class AuthRateLimiter {
 
-    private final ConcurrentHashMap<String, RateWindow> loginAttempts = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, RateWindow> forgotPasswordAttempts = new ConcurrentHashMap<>();
-    private final SecurityProperties.RateLimit loginRateLimit;
-    private final SecurityProperties.RateLimit forgotPasswordRateLimit;
+    private final RateLimiter<String> loginAttempts;
+    private final RateLimiter<String> forgotPasswordAttempts;
 
     public AuthRateLimiter(SecurityProperties securityProperties) {
-        this.loginRateLimit = securityProperties.getLoginRateLimit();
-        this.forgotPasswordRateLimit = securityProperties.getForgotPasswordRateLimit();
+        this.loginAttempts = new RateLimiter<>(securityProperties.getLoginRateLimit().toPolicy());
+        this.forgotPasswordAttempts = new RateLimiter<>(securityProperties.getForgotPasswordRateLimit().toPolicy());
     }
 
     public void assertLoginAllowed(String key) {
-        enforce(loginAttempts, key, loginRateLimit,
-                "Too many login attempts. Please try again later.");
+        enforce(loginAttempts, key, "Too many login attempts. Please try again later.");
     }
 
     public void resetLoginAttempts(String key) {
-        reset(loginAttempts, key);
+        loginAttempts.reset(normalizeKey(key));
     }
 
     public void assertForgotPasswordAllowed(String key) {
-        enforce(forgotPasswordAttempts, key, forgotPasswordRateLimit,
-                "Too many password reset attempts. Please try again later.");
+        enforce(forgotPasswordAttempts, key, "Too many password reset attempts. Please try again later.");
     }
 
     public void resetForgotPasswordAttempts(String key) {
-        reset(forgotPasswordAttempts, key);
-    }
-
-    private void enforce(ConcurrentHashMap<String, RateWindow> store,
-                         String key,
-                         SecurityProperties.RateLimit config,
-                         String message) {
-        String normalizedKey = normalizeKey(key);
-        store.compute(normalizedKey, (k, current) -> {
-            Instant now = Instant.now();
-            if (current == null || now.isAfter(current.windowStart().plus(config.getWindow()))) {
-                return new RateWindow(now, 1);
-            }
-            if (current.count() >= config.getMaxAttempts()) {
-                throw new RateLimitExceededException(message);
-            }
-            return new RateWindow(current.windowStart(), current.count() + 1);
-        });
+        forgotPasswordAttempts.reset(normalizeKey(key));
     }
 
-    private void reset(ConcurrentHashMap<String, RateWindow> store, String key) {
-        store.remove(normalizeKey(key));
+    private void enforce(RateLimiter<String> limiter, String key, String message) {
+        if (!limiter.tryAcquire(normalizeKey(key))) {
+            throw new RateLimitExceededException(message);
+        }
     }
 
     private String normalizeKey(String key) {
@@ -70,7 +49,4 @@ public class AuthRateLimiter {
         }
         return key.trim();
     }
-
-    private record RateWindow(Instant windowStart, int count) {
-    }
 }
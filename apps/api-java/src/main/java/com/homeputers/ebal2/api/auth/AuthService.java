@@ -5,12 +5,19 @@ import com.homeputers.ebal2.api.domain.user.RefreshToken;
 import com.homeputers.ebal2.api.domain.user.User;
 import com.homeputers.ebal2.api.domain.user.UserMapper;
 import com.homeputers.ebal2.api.domain.user.UserRoleMapper;
+import com.homeputers.ebal2.api.domain.user.UserSnapshot;
+import com.homeputers.ebal2.api.domain.user.UserSnapshotCache;
 import com.homeputers.ebal2.api.generated.model.AuthTokenPair;
+import com.homeputers.ebal2.api.profile.support.RateLimitExceededException;
 import com.homeputers.ebal2.api.security.JwtTokenService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Locale;
@@ -19,33 +26,55 @@ import java.util.Objects;
 @Service
 public class AuthService {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
     private final UserMapper userMapper;
     private final UserRoleMapper userRoleMapper;
+    private final UserSnapshotCache userSnapshotCache;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenService jwtTokenService;
     private final RefreshTokenService refreshTokenService;
     private final SecurityProperties securityProperties;
+    private final LoginAbuseDetector loginAbuseDetector;
 
     public AuthService(UserMapper userMapper,
                        UserRoleMapper userRoleMapper,
+                       UserSnapshotCache userSnapshotCache,
                        PasswordEncoder passwordEncoder,
                        JwtTokenService jwtTokenService,
                        RefreshTokenService refreshTokenService,
-                       SecurityProperties securityProperties) {
+                       SecurityProperties securityProperties,
+                       LoginAbuseDetector loginAbuseDetector) {
         this.userMapper = userMapper;
         this.userRoleMapper = userRoleMapper;
+        this.userSnapshotCache = userSnapshotCache;
         this.passwordEncoder = passwordEncoder;
         this.jwtTokenService = jwtTokenService;
         this.refreshTokenService = refreshTokenService;
         this.securityProperties = securityProperties;
+        this.loginAbuseDetector = loginAbuseDetector;
     }
 
     public AuthTokenPair login(String email, String password, String userAgent, String ipAddress) {
+        LoginAbuseDetector.Assessment assessment = loginAbuseDetector.assess(email, ipAddress);
+        if (assessment.blocked()) {
+            throw new RateLimitExceededException("Too many failed login attempts. Please try again later.",
+                    assessment.retryAfter());
+        }
+        pause(assessment.delay());
+
         refreshTokenService.deleteExpired();
-        User user = findActiveUser(email);
-        if (!passwordEncoder.matches(password, user.passwordHash())) {
-            throw new InvalidCredentialsException();
+        User user;
+        try {
+            user = findActiveUser(email);
+            if (!passwordEncoder.matches(password, user.passwordHash())) {
+                throw new InvalidCredentialsException();
+            }
+        } catch (InvalidCredentialsException ex) {
+            loginAbuseDetector.recordFailure(email, ipAddress);
+            throw ex;
         }
+        upgradePasswordHashIfNeeded(user, password);
         List<String> roles = userRoleMapper.findRolesByUserId(user.id());
         return issueTokens(user, roles, userAgent, ipAddress);
     }
@@ -55,15 +84,14 @@ public class AuthService {
         RefreshToken existing = refreshTokenService.findActive(refreshTokenValue)
                 .orElseThrow(InvalidRefreshTokenException::new);
 
-        User user = userMapper.findById(existing.userId());
-        if (user == null || !user.isActive()) {
+        UserSnapshot snapshot = userSnapshotCache.get(existing.userId());
+        if (snapshot == null || !snapshot.user().isActive()) {
             refreshTokenService.revoke(refreshTokenValue);
             throw new InvalidRefreshTokenException();
         }
 
         refreshTokenService.revoke(existing.token());
-        List<String> roles = userRoleMapper.findRolesByUserId(user.id());
-        return issueTokens(user, roles, userAgent, ipAddress);
+        return issueTokens(snapshot.user(), snapshot.roles(), userAgent, ipAddress);
     }
 
     public void changePassword(String email, String currentPassword, String newPassword) {
@@ -77,6 +105,30 @@ public class AuthService {
         refreshTokenService.revokeAllForUser(user.id());
     }
 
+    // bounded by SecurityProperties.LoginAbuse.MAX_DELAY_LIMIT, so a burst cannot hold request threads for long
+    private void pause(Duration delay) {
+        if (delay.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void upgradePasswordHashIfNeeded(User user, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(user.passwordHash())) {
+            return;
+        }
+        try {
+            // Guarded by the current hash so a concurrent password change is never overwritten.
+            userMapper.rehashPassword(user.id(), user.passwordHash(), passwordEncoder.encode(rawPassword));
+        } catch (DataAccessException ex) {
+            log.warn("Failed to upgrade password hash for user {}", user.id(), ex);
+        }
+    }
+
     private AuthTokenPair issueTokens(User user, List<String> roles, String userAgent, String ipAddress) {
         RefreshToken refreshToken = refreshTokenService.create(user.id(), userAgent, ipAddress);
         String accessToken = jwtTokenService.createAccessToken(user.id(), user.email(), roles);
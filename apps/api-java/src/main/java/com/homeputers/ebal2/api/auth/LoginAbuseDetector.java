@@ -0,0 +1,311 @@
+package com.homeputers.ebal2.api.auth;
+
+import com.homeputers.ebal2.api.config.SecurityProperties;
+import com.homeputers.ebal2.api.ratelimit.CountMinSketch;
+import com.homeputers.ebal2.api.ratelimit.TopKTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tracks failed logins per IP, per email, per email and IP, and per subnet with fixed-memory sketches, so memory use
+ * does not grow with the number of distinct sources. Counts cover a sliding window built from the current and previous
+ * sketch; sources over the configured thresholds get an exponentially growing delay, capped at
+ * {@link SecurityProperties.LoginAbuse#MAX_DELAY_LIMIT}.
+ * <p>
+ * Only the IP and the email-and-IP pair are ever blocked. Anyone can fail logins for someone else's email, and many
+ * people may share a subnet, so blocking on those alone would let an attacker lock legitimate users out.
+ */
+@Component
+public class LoginAbuseDetector {
+
+    private static final int MAX_DELAY_DOUBLINGS = 20;
+
+    private final SecurityProperties.LoginAbuse properties;
+    private final Clock clock;
+    private final long windowMillis;
+    private final Map<Dimension, Tracker> trackers = new EnumMap<>(Dimension.class);
+
+    @Autowired
+    public LoginAbuseDetector(SecurityProperties securityProperties) {
+        this(securityProperties.getLoginAbuse(), Clock.systemUTC());
+    }
+
+    LoginAbuseDetector(SecurityProperties.LoginAbuse properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.windowMillis = properties.getWindow().toMillis();
+        for (Dimension dimension : Dimension.values()) {
+            trackers.put(dimension, new Tracker(properties));
+        }
+    }
+
+    public Assessment assess(String email, String ipAddress) {
+        if (!properties.isEnabled()) {
+            return Assessment.ALLOWED;
+        }
+        long now = clock.millis();
+        Duration delay = Duration.ZERO;
+        for (Map.Entry<Dimension, String> source : sources(email, ipAddress).entrySet()) {
+            SecurityProperties.LoginAbuse.Threshold threshold = threshold(source.getKey());
+            long failures = trackers.get(source.getKey()).estimate(source.getValue(), now, windowMillis);
+            if (source.getKey().blocks() && failures >= threshold.getBlockAfter()) {
+                // the sliding count needs up to two windows to drain, but one is usually enough to fall below the threshold
+                return new Assessment(true, Duration.ZERO, properties.getWindow());
+            }
+            Duration candidate = delayFor(failures, threshold);
+            if (candidate.compareTo(delay) > 0) {
+                delay = candidate;
+            }
+        }
+        return new Assessment(false, delay, Duration.ZERO);
+    }
+
+    public void recordFailure(String email, String ipAddress) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long now = clock.millis();
+        for (Map.Entry<Dimension, String> source : sources(email, ipAddress).entrySet()) {
+            trackers.get(source.getKey()).record(source.getValue(), now, windowMillis);
+        }
+    }
+
+    public List<Offender> topOffenders(int limit) {
+        long now = clock.millis();
+        List<Offender> offenders = new ArrayList<>();
+        for (Map.Entry<Dimension, Tracker> entry : trackers.entrySet()) {
+            Dimension dimension = entry.getKey();
+            Tracker tracker = entry.getValue();
+            SecurityProperties.LoginAbuse.Threshold threshold = threshold(dimension);
+            for (String key : tracker.candidates(limit)) {
+                long failures = tracker.estimate(key, now, windowMillis);
+                if (failures > 0) {
+                    offenders.add(new Offender(dimension, key, failures, actionFor(dimension, failures, threshold)));
+                }
+            }
+        }
+        offenders.sort(Comparator.comparingLong(Offender::estimatedFailures).reversed());
+        return offenders.size() > limit ? List.copyOf(offenders.subList(0, limit)) : offenders;
+    }
+
+    private Duration delayFor(long failures, SecurityProperties.LoginAbuse.Threshold threshold) {
+        if (failures < threshold.getDelayAfter()) {
+            return Duration.ZERO;
+        }
+        int doublings = (int) Math.min(failures - threshold.getDelayAfter(), MAX_DELAY_DOUBLINGS);
+        Duration delay = properties.getBaseDelay().multipliedBy(1L << doublings);
+        return delay.compareTo(properties.getMaxDelay()) > 0 ? properties.getMaxDelay() : delay;
+    }
+
+    private static Action actionFor(Dimension dimension,
+                                    long failures,
+                                    SecurityProperties.LoginAbuse.Threshold threshold) {
+        if (dimension.blocks() && failures >= threshold.getBlockAfter()) {
+            return Action.BLOCK;
+        }
+        return failures >= threshold.getDelayAfter() ? Action.DELAY : Action.NONE;
+    }
+
+    private SecurityProperties.LoginAbuse.Threshold threshold(Dimension dimension) {
+        return switch (dimension) {
+            case IP -> properties.getIp();
+            case EMAIL, EMAIL_IP -> properties.getEmail();
+            case SUBNET -> properties.getSubnet();
+        };
+    }
+
+    private static Map<Dimension, String> sources(String email, String ipAddress) {
+        Map<Dimension, String> sources = new LinkedHashMap<>();
+        String ip = StringUtils.hasText(ipAddress) ? ipAddress.trim() : null;
+        if (ip != null) {
+            sources.put(Dimension.IP, ip);
+            String subnet = subnetOf(ip);
+            if (subnet != null) {
+                sources.put(Dimension.SUBNET, subnet);
+            }
+        }
+        if (StringUtils.hasText(email)) {
+            String normalizedEmail = email.trim().toLowerCase(Locale.ROOT);
+            sources.put(Dimension.EMAIL, normalizedEmail);
+            if (ip != null) {
+                sources.put(Dimension.EMAIL_IP, normalizedEmail + " " + ip);
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Returns the /24 (IPv4) or /64 (IPv6) network of a literal address, or {@code null} if it is not one.
+     */
+    static String subnetOf(String ipAddress) {
+        if (!isAddressLiteral(ipAddress)) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            // only literals reach this point, so no name lookup happens
+            bytes = InetAddress.getByName(ipAddress).getAddress();
+        } catch (UnknownHostException ex) {
+            return null;
+        }
+        if (bytes.length == 4) {
+            return "%d.%d.%d.0/24".formatted(bytes[0] & 0xFF, bytes[1] & 0xFF, bytes[2] & 0xFF);
+        }
+        StringBuilder prefix = new StringBuilder();
+        for (int i = 0; i < 8; i += 2) {
+            prefix.append(Integer.toHexString(((bytes[i] & 0xFF) << 8) | (bytes[i + 1] & 0xFF))).append(':');
+        }
+        return prefix.append(":/64").toString();
+    }
+
+    private static boolean isAddressLiteral(String value) {
+        if (value.isEmpty() || value.length() > 45) {
+            return false;
+        }
+        boolean ipv6 = value.indexOf(':') >= 0;
+        boolean hasSeparator = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '.' || c == ':') {
+                hasSeparator = true;
+            } else if (Character.digit(c, ipv6 ? 16 : 10) < 0) {
+                return false;
+            }
+        }
+        return hasSeparator;
+    }
+
+    public enum Dimension {
+        IP(true),
+        EMAIL(false),
+        SUBNET(false),
+        EMAIL_IP(true);
+
+        private final boolean blocks;
+
+        Dimension(boolean blocks) {
+            this.blocks = blocks;
+        }
+
+        /**
+         * @return {@code false} for sources an attacker can fail logins for on behalf of others, which are only delayed
+         */
+        public boolean blocks() {
+            return blocks;
+        }
+    }
+
+    public enum Action {
+        NONE,
+        DELAY,
+        BLOCK
+    }
+
+    /**
+     * @param delay      how long to hold the attempt before checking the password
+     * @param retryAfter for blocked attempts, when the client may reasonably try again
+     */
+    public record Assessment(boolean blocked, Duration delay, Duration retryAfter) {
+        static final Assessment ALLOWED = new Assessment(false, Duration.ZERO, Duration.ZERO);
+    }
+
+    public record Offender(Dimension dimension, String key, long estimatedFailures, Action action) {
+    }
+
+    /**
+     * Current and previous window of one dimension. Rotation reuses the two sketches, so memory stays fixed.
+     */
+    private static final class Tracker {
+        private CountMinSketch current;
+        private CountMinSketch previous;
+        private TopKTracker currentTop;
+        private TopKTracker previousTop;
+        private long windowIndex = Long.MIN_VALUE;
+
+        private Tracker(SecurityProperties.LoginAbuse properties) {
+            int depth = properties.getSketchDepth();
+            int width = properties.getSketchWidth();
+            this.current = new CountMinSketch(depth, width);
+            this.previous = new CountMinSketch(depth, width);
+            this.currentTop = new TopKTracker(properties.getTrackedOffenders());
+            this.previousTop = new TopKTracker(properties.getTrackedOffenders());
+        }
+
+        private synchronized void rotate(long now, long windowMillis) {
+            long index = Math.floorDiv(now, windowMillis);
+            if (index == windowIndex) {
+                return;
+            }
+            CountMinSketch recycled = previous;
+            TopKTracker recycledTop = previousTop;
+            recycled.clear();
+            recycledTop.clear();
+            if (index == windowIndex + 1) {
+                previous = current;
+                previousTop = currentTop;
+            } else {
+                current.clear();
+                currentTop.clear();
+                previous = current;
+                previousTop = currentTop;
+            }
+            current = recycled;
+            currentTop = recycledTop;
+            windowIndex = index;
+        }
+
+        private void record(String key, long now, long windowMillis) {
+            rotate(now, windowMillis);
+            CountMinSketch sketch;
+            TopKTracker top;
+            synchronized (this) {
+                sketch = current;
+                top = currentTop;
+            }
+            sketch.add(key);
+            top.offer(key);
+        }
+
+        private long estimate(String key, long now, long windowMillis) {
+            rotate(now, windowMillis);
+            CountMinSketch currentSketch;
+            CountMinSketch previousSketch;
+            synchronized (this) {
+                currentSketch = current;
+                previousSketch = previous;
+            }
+            double remainingFraction = 1.0 - (double) Math.floorMod(now, windowMillis) / windowMillis;
+            return currentSketch.estimate(key) + (long) Math.ceil(previousSketch.estimate(key) * remainingFraction);
+        }
+
+        private List<String> candidates(int limit) {
+            TopKTracker currentTopKeys;
+            TopKTracker previousTopKeys;
+            synchronized (this) {
+                currentTopKeys = currentTop;
+                previousTopKeys = previousTop;
+            }
+            List<String> keys = new ArrayList<>();
+            currentTopKeys.top(limit).forEach(hitter -> keys.add(hitter.key()));
+            previousTopKeys.top(limit).forEach(hitter -> {
+                if (!keys.contains(hitter.key())) {
+                    keys.add(hitter.key());
+                }
+            });
+            return keys;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.homeputers.ebal2.api.batch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Shared rules for the {@code :batchGet} endpoints: how many ids a request may carry and how the rows of the single
+ * lookup statement are put back into request order.
+ */
+public final class BatchGet {
+
+    public static final int MAX_IDS = 100;
+
+    private BatchGet() {
+    }
+
+    /**
+     * @return the distinct ids to look up
+     * @throws IllegalArgumentException if {@code ids} is empty, too long or contains {@code null}
+     */
+    public static Set<UUID> distinctIds(List<UUID> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one id is required");
+        }
+        if (ids.size() > MAX_IDS) {
+            throw new IllegalArgumentException("At most %d ids can be requested at once".formatted(MAX_IDS));
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Ids must not be null");
+        }
+        return new LinkedHashSet<>(ids);
+    }
+
+    /**
+     * Pairs every requested id, duplicates included, with the row found for it.
+     */
+    public static <T> List<Result<T>> inRequestOrder(List<UUID> ids, Collection<T> found, Function<T, UUID> idOf) {
+        Map<UUID, T> byId = new HashMap<>(found.size() * 2);
+        for (T value : found) {
+            byId.put(idOf.apply(value), value);
+        }
+        List<Result<T>> results = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            results.add(new Result<>(id, byId.get(id)));
+        }
+        return results;
+    }
+
+    /**
+     * @param value the entity, or {@code null} if nothing exists with {@code id}
+     */
+    public record Result<T>(UUID id, T value) {
+
+        public boolean found() {
+            return value != null;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.homeputers.ebal2.api.chordpro;
+
+public enum ChartFormat {
+    HTML,
+    TEXT,
+    /**
+     * Structured lines with chord positions, for clients that lay out the chart themselves.
+     */
+    JSON
+}
@@ -0,0 +1,55 @@
+package com.homeputers.ebal2.api.chordpro;
+
+/**
+ * A chord symbol split into the parts transposition touches: root, quality suffix and optional bass note. Symbols
+ * that do not start with a note letter, such as {@code N.C.}, keep only their text and are never transposed.
+ *
+ * @param root     pitch of the root, or {@code -1} when the symbol is not a chord
+ * @param flat     whether the root was spelled with a flat
+ * @param suffix   everything between the root and the bass, e.g. {@code m7} or {@code sus4}
+ * @param bass     pitch of the bass note, or {@code -1} without one
+ * @param bassFlat whether the bass was spelled with a flat
+ * @param text     the symbol as written
+ */
+public record Chord(int root, boolean flat, String suffix, int bass, boolean bassFlat, String text) {
+
+    public boolean transposable() {
+        return root != Notes.NONE;
+    }
+
+    static Chord parse(String text) {
+        int length = text.length();
+        int root = length == 0 ? Notes.NONE : Notes.letter(text.charAt(0));
+        if (root == Notes.NONE) {
+            return new Chord(Notes.NONE, false, text, Notes.NONE, false, text);
+        }
+        int index = 1;
+        boolean flat = false;
+        if (index < length) {
+            int accidental = Notes.accidental(text.charAt(index));
+            if (accidental != 0) {
+                root += accidental;
+                flat = accidental < 0;
+                index++;
+            }
+        }
+        int slash = text.lastIndexOf('/');
+        if (slash >= index && slash + 1 < length) {
+            int bass = Notes.letter(text.charAt(slash + 1));
+            int end = slash + 2;
+            boolean bassFlat = false;
+            if (bass != Notes.NONE && end < length) {
+                int accidental = Notes.accidental(text.charAt(end));
+                bass += accidental;
+                bassFlat = accidental < 0;
+                end += accidental == 0 ? 0 : 1;
+            }
+            // "C6/9" has no bass note, only a slash in its suffix
+            if (bass != Notes.NONE && end == length) {
+                return new Chord(Notes.normalize(root), flat, text.substring(index, slash), Notes.normalize(bass),
+                        bassFlat, text);
+            }
+        }
+        return new Chord(Notes.normalize(root), flat, text.substring(index), Notes.NONE, false, text);
+    }
+}
@@ -0,0 +1,40 @@
+package com.homeputers.ebal2.api.chordpro;
+
+import java.util.List;
+
+/**
+ * Parsed form of a ChordPro document. Each lyric line keeps its text without chord markup plus the chords and the
+ * offsets they sit at, so transposing and rendering never re-scan the source.
+ *
+ * @param key the {@code {key}} directive as written, or {@code null}
+ */
+public record ChordChart(String title, String subtitle, String key, List<Line> lines) {
+
+    public enum LineType {
+        LYRICS,
+        COMMENT,
+        SECTION_START,
+        SECTION_END,
+        TAB,
+        EMPTY
+    }
+
+    /**
+     * @param section   the enclosing section, e.g. {@code chorus}, or {@code null} outside any section
+     * @param text      lyrics, comment text, section label or tab line; {@code ""} when there is none
+     * @param positions offset in {@code text} of each chord, ascending
+     */
+    public record Line(LineType type, String section, String text, int[] positions, Chord[] chords) {
+
+        static final int[] NO_POSITIONS = new int[0];
+        static final Chord[] NO_CHORDS = new Chord[0];
+
+        static Line of(LineType type, String section, String text) {
+            return new Line(type, section, text, NO_POSITIONS, NO_CHORDS);
+        }
+
+        public int chordCount() {
+            return chords.length;
+        }
+    }
+}
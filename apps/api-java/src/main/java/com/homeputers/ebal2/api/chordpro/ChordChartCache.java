@@ -0,0 +1,80 @@
+package com.homeputers.ebal2.api.chordpro;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of rendered charts.
+ * <p>
+ * Keys include the arrangement version, which every update bumps, so entries never go stale; superseded versions
+ * simply stop being read and age out. When full, the least recently read entry of a small sample is evicted.
+ */
+final class ChordChartCache {
+
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+
+    private final int maxEntries;
+    private final AtomicLong clock = new AtomicLong();
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    ChordChartCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    RenderedChart get(Key key, Supplier<RenderedChart> renderer) {
+        if (maxEntries <= 0) {
+            return renderer.get();
+        }
+        Entry cached = entries.get(key);
+        if (cached != null) {
+            cached.lastRead = clock.incrementAndGet();
+            return cached.chart;
+        }
+        RenderedChart chart = renderer.get();
+        makeRoom(key);
+        Entry entry = new Entry(chart);
+        entry.lastRead = clock.incrementAndGet();
+        entries.put(key, entry);
+        return chart;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void makeRoom(Key incoming) {
+        while (entries.size() >= maxEntries && !entries.containsKey(incoming)) {
+            Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+            Map.Entry<Key, Entry> oldest = null;
+            for (int i = 0; i < EVICTION_SAMPLE_SIZE && iterator.hasNext(); i++) {
+                Map.Entry<Key, Entry> candidate = iterator.next();
+                if (oldest == null || candidate.getValue().lastRead < oldest.getValue().lastRead) {
+                    oldest = candidate;
+                }
+            }
+            if (oldest == null || !entries.remove(oldest.getKey(), oldest.getValue())) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param transpose normalized to 0..11, since transposing by an octave changes nothing
+     */
+    record Key(UUID arrangementId, int version, int transpose, int capo, ChordNotation notation,
+               ChartFormat format) {
+    }
+
+    private static final class Entry {
+        private final RenderedChart chart;
+        private volatile long lastRead;
+
+        private Entry(RenderedChart chart) {
+            this.chart = chart;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.homeputers.ebal2.api.chordpro;
+
+import com.homeputers.ebal2.api.generated.ChartsApi;
+import com.homeputers.ebal2.api.generated.model.ChordChartFormat;
+import com.homeputers.ebal2.api.generated.model.ChordChartNotation;
+import com.homeputers.ebal2.api.generated.model.ChordChartResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1")
+public class ChordChartController implements ChartsApi {
+    private final ChordChartService service;
+
+    public ChordChartController(ChordChartService service) {
+        this.service = service;
+    }
+
+    @Override
+    public ResponseEntity<ChordChartResponse> getArrangementChart(UUID arrangementId, Integer transpose, Integer capo,
+                                                                  ChordChartNotation notation,
+                                                                  ChordChartFormat format) {
+        ChordChartService.Chart chart = service.renderArrangement(arrangementId, transpose, capo,
+                ChordChartDtoMapper.toNotation(notation), ChordChartDtoMapper.toFormat(format));
+        return ResponseEntity.ok(ChordChartDtoMapper.toResponse(chart));
+    }
+
+    @Override
+    public ResponseEntity<ChordChartResponse> getSongSetItemChart(UUID id, Integer transpose, Integer capo,
+                                                                  ChordChartNotation notation,
+                                                                  ChordChartFormat format) {
+        ChordChartService.Chart chart = service.renderSongSetItem(id, transpose, capo,
+                ChordChartDtoMapper.toNotation(notation), ChordChartDtoMapper.toFormat(format));
+        return ResponseEntity.ok(ChordChartDtoMapper.toResponse(chart));
+    }
+}
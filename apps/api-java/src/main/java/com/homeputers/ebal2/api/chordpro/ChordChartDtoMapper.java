@@ -0,0 +1,56 @@
+package com.homeputers.ebal2.api.chordpro;
+
+import com.homeputers.ebal2.api.generated.model.ChordChartChord;
+import com.homeputers.ebal2.api.generated.model.ChordChartFormat;
+import com.homeputers.ebal2.api.generated.model.ChordChartLine;
+import com.homeputers.ebal2.api.generated.model.ChordChartNotation;
+import com.homeputers.ebal2.api.generated.model.ChordChartResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ChordChartDtoMapper {
+
+    public static ChordChartResponse toResponse(ChordChartService.Chart chart) {
+        RenderedChart rendered = chart.rendered();
+        ChordChartResponse response = new ChordChartResponse();
+        response.setArrangementId(chart.arrangementId());
+        response.setFormat(ChordChartFormat.fromValue(chart.format().name()));
+        response.setNotation(ChordChartNotation.fromValue(chart.notation().name()));
+        response.setTranspose(chart.transpose());
+        response.setCapo(chart.capo());
+        response.setTitle(rendered.title());
+        response.setSubtitle(rendered.subtitle());
+        response.setSoundingKey(rendered.soundingKey());
+        response.setPlayedKey(rendered.playedKey());
+        response.setContent(rendered.content());
+        if (rendered.lines() != null) {
+            response.setLines(rendered.lines().stream().map(ChordChartDtoMapper::toLine).toList());
+        }
+        return response;
+    }
+
+    public static ChartFormat toFormat(ChordChartFormat format) {
+        return format == null ? null : ChartFormat.valueOf(format.getValue());
+    }
+
+    public static ChordNotation toNotation(ChordChartNotation notation) {
+        return notation == null ? null : ChordNotation.valueOf(notation.getValue());
+    }
+
+    private static ChordChartLine toLine(RenderedChart.Line line) {
+        ChordChartLine response = new ChordChartLine();
+        response.setType(ChordChartLine.TypeEnum.fromValue(line.type().name()));
+        response.setSection(line.section());
+        response.setText(line.text());
+        List<ChordChartChord> chords = new ArrayList<>(line.chords().length);
+        for (int i = 0; i < line.chords().length; i++) {
+            ChordChartChord chord = new ChordChartChord();
+            chord.setPosition(line.positions()[i]);
+            chord.setName(line.chords()[i]);
+            chords.add(chord);
+        }
+        response.setChords(chords);
+        return response;
+    }
+}
@@ -0,0 +1,88 @@
+package com.homeputers.ebal2.api.chordpro;
+
+import com.homeputers.ebal2.api.config.ChordProProperties;
+import com.homeputers.ebal2.api.domain.arrangement.Arrangement;
+import com.homeputers.ebal2.api.domain.songsetitem.SongSetItem;
+import com.homeputers.ebal2.api.song.SongService;
+import com.homeputers.ebal2.api.songsetitem.SongSetItemService;
+import org.springframework.stereotype.Service;
+
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Renders arrangement charts, caching the result per arrangement version and rendering options.
+ * <p>
+ * Lookups go through the arrangement summary, so the lyrics are only read from the database when the chart is not
+ * cached yet.
+ */
+@Service
+public class ChordChartService {
+
+    private static final int MAX_CAPO = 11;
+
+    private final SongService songService;
+    private final SongSetItemService songSetItemService;
+    private final ChordChartCache cache;
+
+    public ChordChartService(SongService songService,
+                             SongSetItemService songSetItemService,
+                             ChordProProperties properties) {
+        this.songService = songService;
+        this.songSetItemService = songSetItemService;
+        this.cache = new ChordChartCache(properties.getRenderCacheMaxEntries());
+    }
+
+    public Chart renderArrangement(UUID arrangementId, Integer transpose, Integer capo, ChordNotation notation,
+                                   ChartFormat format) {
+        return render(songService.getArrangement(arrangementId, false), orZero(transpose), orZero(capo), notation, format);
+    }
+
+    /**
+     * Renders the item's arrangement with the item's transpose and capo unless the caller overrides them.
+     */
+    public Chart renderSongSetItem(UUID itemId, Integer transpose, Integer capo, ChordNotation notation,
+                                   ChartFormat format) {
+        SongSetItem item = songSetItemService.get(itemId);
+        if (item.arrangement() == null) {
+            throw new NoSuchElementException("Item has no arrangement");
+        }
+        return render(item.arrangement(),
+                transpose != null ? transpose : orZero(item.transpose()),
+                capo != null ? capo : orZero(item.capo()),
+                notation, format);
+    }
+
+    public Chart render(Arrangement arrangement, int transpose, int capo, ChordNotation notation, ChartFormat format) {
+        if (capo < 0 || capo > MAX_CAPO) {
+            throw new IllegalArgumentException("capo must be between 0 and %d".formatted(MAX_CAPO));
+        }
+        ChordNotation effectiveNotation = notation == null ? ChordNotation.LETTERS : notation;
+        ChartFormat effectiveFormat = format == null ? ChartFormat.JSON : format;
+        ChordChartCache.Key key = new ChordChartCache.Key(arrangement.id(), arrangement.version(),
+                Math.floorMod(transpose, 12), capo, effectiveNotation, effectiveFormat);
+        RenderedChart rendered = cache.get(key, () -> ChordProRenderer.render(
+                ChordProParser.parse(lyrics(arrangement)), arrangement.key(), transpose, capo,
+                effectiveNotation, effectiveFormat));
+        return new Chart(arrangement.id(), transpose, capo, effectiveNotation, effectiveFormat, rendered);
+    }
+
+    private String lyrics(Arrangement arrangement) {
+        if (arrangement.lyricsChordpro() != null) {
+            return arrangement.lyricsChordpro();
+        }
+        // a summary; should the arrangement have changed since, readers of the old version get the newer chart
+        return songService.getArrangement(arrangement.id()).lyricsChordpro();
+    }
+
+    private static int orZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * A rendered chart together with the options it was rendered with.
+     */
+    public record Chart(UUID arrangementId, int transpose, int capo, ChordNotation notation, ChartFormat format,
+                        RenderedChart rendered) {
+    }
+}
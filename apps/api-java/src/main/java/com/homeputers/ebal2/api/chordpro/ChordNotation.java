@@ -0,0 +1,12 @@
+package com.homeputers.ebal2.api.chordpro;
+
+public enum ChordNotation {
+    /**
+     * Chord names in the played key, e.g. {@code G}, {@code Em7}, {@code D/F#}.
+     */
+    LETTERS,
+    /**
+     * Scale degrees relative to the key, e.g. {@code 1}, {@code 6m7}, {@code 5/7}, which read the same in any key.
+     */
+    NASHVILLE
+}
@@ -0,0 +1,174 @@
+package com.homeputers.ebal2.api.chordpro;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Single-pass ChordPro tokenizer.
+ * <p>
+ * Walks the source once, character by character, splitting lines, reading {@code {directive: value}} lines and
+ * lifting {@code [chord]} markers out of lyric lines. It never throws on malformed input: an unclosed brace or
+ * bracket is kept as literal text, and unknown directives are ignored. Lines inside {@code start_of_tab} are kept
+ * verbatim.
+ */
+public final class ChordProParser {
+
+    private static final String TAB_SECTION = "tab";
+
+    private final String source;
+    private final List<ChordChart.Line> lines = new ArrayList<>();
+    private final StringBuilder text = new StringBuilder();
+    private int[] positions = new int[8];
+    private Chord[] chords = new Chord[8];
+    private int chordCount;
+    private String title;
+    private String subtitle;
+    private String key;
+    private String section;
+
+    private ChordProParser(String source) {
+        this.source = source;
+    }
+
+    public static ChordChart parse(String source) {
+        if (source == null || source.isEmpty()) {
+            return new ChordChart(null, null, null, List.of());
+        }
+        return new ChordProParser(source).parse();
+    }
+
+    private ChordChart parse() {
+        int length = source.length();
+        int start = 0;
+        while (start < length) {
+            int end = start;
+            while (end < length && source.charAt(end) != '\n') {
+                end++;
+            }
+            int contentEnd = end > start && source.charAt(end - 1) == '\r' ? end - 1 : end;
+            line(start, contentEnd);
+            start = end + 1;
+        }
+        int size = lines.size();
+        while (size > 0 && lines.get(size - 1).type() == ChordChart.LineType.EMPTY) {
+            size--;
+        }
+        return new ChordChart(title, subtitle, key, List.copyOf(lines.subList(0, size)));
+    }
+
+    private void line(int start, int end) {
+        int first = skipWhitespace(start, end);
+        if (first < end && source.charAt(first) == '{') {
+            int close = source.indexOf('}', first);
+            if (close >= 0 && close < end) {
+                directive(first + 1, close);
+                return;
+            }
+        }
+        if (TAB_SECTION.equals(section)) {
+            lines.add(ChordChart.Line.of(ChordChart.LineType.TAB, section, source.substring(start, end)));
+        } else if (first == end) {
+            lines.add(ChordChart.Line.of(ChordChart.LineType.EMPTY, section, ""));
+        } else if (source.charAt(first) != '#') {
+            lyrics(start, end);
+        }
+    }
+
+    private void directive(int start, int end) {
+        int colon = start;
+        while (colon < end && source.charAt(colon) != ':' && source.charAt(colon) != ' ') {
+            colon++;
+        }
+        String name = source.substring(start, colon).toLowerCase(Locale.ROOT);
+        String value = colon < end ? source.substring(colon + 1, end).strip() : "";
+        if (TAB_SECTION.equals(section) && !name.equals("end_of_tab") && !name.equals("eot")) {
+            lines.add(ChordChart.Line.of(ChordChart.LineType.TAB, section, source.substring(start - 1, end + 1)));
+            return;
+        }
+        switch (name) {
+            case "title", "t" -> title = value;
+            case "subtitle", "st" -> subtitle = value;
+            case "key" -> key = value;
+            case "comment", "c", "comment_italic", "ci", "comment_box", "cb", "highlight" ->
+                    lines.add(ChordChart.Line.of(ChordChart.LineType.COMMENT, section, value));
+            case "soc" -> startSection("chorus", value);
+            case "sov" -> startSection("verse", value);
+            case "sob" -> startSection("bridge", value);
+            case "sot" -> startSection(TAB_SECTION, value);
+            case "eoc", "eov", "eob", "eot" -> endSection();
+            default -> {
+                if (name.startsWith("start_of_") && name.length() > 9) {
+                    startSection(name.substring(9), value);
+                } else if (name.startsWith("end_of_")) {
+                    endSection();
+                }
+            }
+        }
+    }
+
+    private void startSection(String name, String label) {
+        if (section != null) {
+            endSection();
+        }
+        section = name;
+        lines.add(ChordChart.Line.of(ChordChart.LineType.SECTION_START, section, label));
+    }
+
+    private void endSection() {
+        if (section != null) {
+            lines.add(ChordChart.Line.of(ChordChart.LineType.SECTION_END, section, ""));
+            section = null;
+        }
+    }
+
+    private void lyrics(int start, int end) {
+        text.setLength(0);
+        chordCount = 0;
+        int index = start;
+        while (index < end) {
+            char c = source.charAt(index);
+            if (c == '[') {
+                int close = index + 1;
+                while (close < end && source.charAt(close) != ']' && source.charAt(close) != '[') {
+                    close++;
+                }
+                if (close < end && source.charAt(close) == ']') {
+                    String symbol = source.substring(index + 1, close).strip();
+                    if (!symbol.isEmpty()) {
+                        addChord(Chord.parse(symbol));
+                    }
+                    index = close + 1;
+                    continue;
+                }
+            }
+            text.append(c);
+            index++;
+        }
+        if (chordCount == 0) {
+            lines.add(ChordChart.Line.of(ChordChart.LineType.LYRICS, section, text.toString()));
+        } else {
+            lines.add(new ChordChart.Line(ChordChart.LineType.LYRICS, section, text.toString(),
+                    Arrays.copyOf(positions, chordCount), Arrays.copyOf(chords, chordCount)));
+        }
+    }
+
+    private void addChord(Chord chord) {
+        if (chordCount == chords.length) {
+            positions = Arrays.copyOf(positions, chordCount * 2);
+            chords = Arrays.copyOf(chords, chordCount * 2);
+        }
+        positions[chordCount] = text.length();
+        chords[chordCount] = chord;
+        chordCount++;
+    }
+
+    private int skipWhitespace(int start, int end) {
+        int index = start;
+        while (index < end && Character.isWhitespace(source.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+}
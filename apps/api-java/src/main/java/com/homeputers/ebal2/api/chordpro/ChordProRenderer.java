@@ -0,0 +1,267 @@
+package com.homeputers.ebal2.api.chordpro;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders a {@link ChordChart} transposed for a capo position, as HTML, aligned plain text or structured lines.
+ * <p>
+ * The chart's key comes from the arrangement, falling back to the {@code {key}} directive. Transposing moves the
+ * sounding key; a capo then lowers the chord shapes by the same number of semitones, so
+ * {@code shape = original + transpose - capo}. Transposed chords are spelled with the sharps or flats of the played
+ * key; when the key is unknown each chord keeps the accidental it was written with. Nashville numbers are relative
+ * to the key and therefore unaffected by transpose and capo. Without any transposition chords are emitted exactly as
+ * written.
+ */
+public final class ChordProRenderer {
+
+    private final ChordChart chart;
+    private final MusicalKey sourceKey;
+    private final MusicalKey soundingKey;
+    private final MusicalKey playedKey;
+    private final int shift;
+    private final boolean nashville;
+
+    private ChordProRenderer(ChordChart chart, String arrangementKey, int transpose, int capo,
+                             ChordNotation notation) {
+        MusicalKey key = MusicalKey.parse(arrangementKey);
+        this.chart = chart;
+        this.sourceKey = key != null ? key : MusicalKey.parse(chart.key());
+        this.soundingKey = sourceKey == null ? null : sourceKey.transpose(transpose);
+        this.playedKey = soundingKey == null ? null : soundingKey.transpose(-capo);
+        this.shift = Notes.normalize(transpose - capo);
+        this.nashville = notation == ChordNotation.NASHVILLE;
+        if (nashville && sourceKey == null) {
+            throw new IllegalArgumentException("Nashville numbers need the arrangement key");
+        }
+    }
+
+    /**
+     * @param arrangementKey the arrangement's key, or {@code null} to use the chart's {@code {key}} directive
+     * @param transpose      semitones to move the sounding key by
+     * @param capo           fret the capo sits on
+     */
+    public static RenderedChart render(ChordChart chart, String arrangementKey, int transpose, int capo,
+                                       ChordNotation notation, ChartFormat format) {
+        ChordProRenderer renderer = new ChordProRenderer(chart, arrangementKey, transpose, capo, notation);
+        return switch (format) {
+            case HTML -> renderer.result(renderer.html(), null);
+            case TEXT -> renderer.result(renderer.text(), null);
+            case JSON -> renderer.result(null, renderer.lines());
+        };
+    }
+
+    private RenderedChart result(String content, List<RenderedChart.Line> lines) {
+        return new RenderedChart(chart.title(), chart.subtitle(),
+                soundingKey == null ? null : soundingKey.name(),
+                playedKey == null ? null : playedKey.name(),
+                content, lines);
+    }
+
+    private String html() {
+        StringBuilder out = new StringBuilder(estimateSize() * 2);
+        out.append("<div class=\"chordpro\">\n");
+        if (chart.title() != null) {
+            out.append("<h1 class=\"title\">");
+            escape(out, chart.title());
+            out.append("</h1>\n");
+        }
+        if (chart.subtitle() != null) {
+            out.append("<h2 class=\"subtitle\">");
+            escape(out, chart.subtitle());
+            out.append("</h2>\n");
+        }
+        boolean inSection = false;
+        for (ChordChart.Line line : chart.lines()) {
+            switch (line.type()) {
+                case SECTION_START -> {
+                    out.append("<section class=\"");
+                    escape(out, line.section());
+                    out.append("\">");
+                    if (!line.text().isEmpty()) {
+                        out.append("<h3 class=\"label\">");
+                        escape(out, line.text());
+                        out.append("</h3>");
+                    }
+                    out.append('\n');
+                    inSection = true;
+                }
+                case SECTION_END -> {
+                    out.append("</section>\n");
+                    inSection = false;
+                }
+                case COMMENT -> {
+                    out.append("<div class=\"comment\">");
+                    escape(out, line.text());
+                    out.append("</div>\n");
+                }
+                case TAB -> {
+                    out.append("<pre class=\"tab\">");
+                    escape(out, line.text());
+                    out.append("</pre>\n");
+                }
+                case EMPTY -> out.append("<div class=\"empty\"></div>\n");
+                case LYRICS -> htmlLyrics(out, line);
+            }
+        }
+        if (inSection) {
+            out.append("</section>\n");
+        }
+        return out.append("</div>\n").toString();
+    }
+
+    private void htmlLyrics(StringBuilder out, ChordChart.Line line) {
+        out.append("<div class=\"line\">");
+        String text = line.text();
+        int[] positions = line.positions();
+        int leading = positions.length == 0 ? text.length() : positions[0];
+        if (leading > 0) {
+            out.append("<span class=\"segment\"><span class=\"lyrics\">");
+            escape(out, text, 0, leading);
+            out.append("</span></span>");
+        }
+        for (int i = 0; i < positions.length; i++) {
+            int end = i + 1 < positions.length ? positions[i + 1] : text.length();
+            out.append("<span class=\"segment\"><span class=\"chord\">");
+            escape(out, name(line.chords()[i]));
+            out.append("</span><span class=\"lyrics\">");
+            escape(out, text, positions[i], end);
+            out.append("</span></span>");
+        }
+        out.append("</div>\n");
+    }
+
+    private String text() {
+        StringBuilder out = new StringBuilder(estimateSize());
+        if (chart.title() != null) {
+            out.append(chart.title()).append('\n');
+        }
+        if (chart.subtitle() != null) {
+            out.append(chart.subtitle()).append('\n');
+        }
+        if (chart.title() != null || chart.subtitle() != null) {
+            out.append('\n');
+        }
+        StringBuilder chordLine = new StringBuilder();
+        StringBuilder lyricLine = new StringBuilder();
+        for (ChordChart.Line line : chart.lines()) {
+            switch (line.type()) {
+                case SECTION_START -> out.append(line.text().isEmpty() ? label(line.section()) : line.text())
+                        .append('\n');
+                case SECTION_END -> {
+                }
+                case COMMENT, TAB -> out.append(line.text()).append('\n');
+                case EMPTY -> out.append('\n');
+                case LYRICS -> {
+                    if (line.chordCount() == 0) {
+                        out.append(line.text()).append('\n');
+                    } else {
+                        alignChords(line, chordLine, lyricLine);
+                        out.append(chordLine).append('\n');
+                        if (!line.text().isBlank()) {
+                            out.append(lyricLine).append('\n');
+                        }
+                    }
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Lays chords out above the lyrics, each starting over the character it precedes. A chord wider than its lyric
+     * segment pushes the rest of the line right.
+     */
+    private void alignChords(ChordChart.Line line, StringBuilder chordLine, StringBuilder lyricLine) {
+        chordLine.setLength(0);
+        lyricLine.setLength(0);
+        String text = line.text();
+        int[] positions = line.positions();
+        lyricLine.append(text, 0, positions[0]);
+        for (int i = 0; i < positions.length; i++) {
+            int column = Math.max(lyricLine.length(), chordLine.length());
+            pad(chordLine, column);
+            pad(lyricLine, column);
+            chordLine.append(name(line.chords()[i])).append(' ');
+            int end = i + 1 < positions.length ? positions[i + 1] : text.length();
+            lyricLine.append(text, positions[i], end);
+        }
+        trimTrailing(chordLine);
+        trimTrailing(lyricLine);
+    }
+
+    private List<RenderedChart.Line> lines() {
+        List<RenderedChart.Line> lines = new ArrayList<>(chart.lines().size());
+        for (ChordChart.Line line : chart.lines()) {
+            String[] names = new String[line.chordCount()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = name(line.chords()[i]);
+            }
+            lines.add(new RenderedChart.Line(line.type(), line.section(), line.text(), line.positions(), names));
+        }
+        return List.copyOf(lines);
+    }
+
+    String name(Chord chord) {
+        if (!chord.transposable()) {
+            return chord.text();
+        }
+        if (nashville) {
+            String number = Notes.degree(chord.root(), sourceKey.tonic()) + chord.suffix();
+            return chord.bass() < 0 ? number : number + "/" + Notes.degree(chord.bass(), sourceKey.tonic());
+        }
+        if (shift == 0) {
+            return chord.text();
+        }
+        String root = Notes.name(chord.root() + shift, playedKey == null ? chord.flat() : playedKey.flats());
+        if (chord.bass() < 0) {
+            return root + chord.suffix();
+        }
+        return root + chord.suffix() + "/"
+                + Notes.name(chord.bass() + shift, playedKey == null ? chord.bassFlat() : playedKey.flats());
+    }
+
+    private int estimateSize() {
+        int size = 64;
+        for (ChordChart.Line line : chart.lines()) {
+            size += line.text().length() + line.chordCount() * 8 + 1;
+        }
+        return size;
+    }
+
+    private static String label(String section) {
+        return Character.toUpperCase(section.charAt(0)) + section.substring(1) + ":";
+    }
+
+    private static void pad(StringBuilder line, int length) {
+        while (line.length() < length) {
+            line.append(' ');
+        }
+    }
+
+    private static void trimTrailing(StringBuilder line) {
+        int length = line.length();
+        while (length > 0 && line.charAt(length - 1) == ' ') {
+            length--;
+        }
+        line.setLength(length);
+    }
+
+    private static void escape(StringBuilder out, String text) {
+        escape(out, text, 0, text.length());
+    }
+
+    private static void escape(StringBuilder out, String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.homeputers.ebal2.api.chordpro;
+
+/**
+ * A key signature, used to spell transposed chords and as the reference for Nashville numbers.
+ *
+ * @param flats whether chords in this key are spelled with flats rather than sharps
+ */
+public record MusicalKey(int tonic, boolean minor, boolean flats) {
+
+    // tonics of the keys written with flats; F# major and G# minor are preferred over their flat spellings
+    private static final boolean[] MAJOR_FLATS =
+            {false, true, false, true, false, true, false, false, true, false, true, false};
+    private static final boolean[] MINOR_FLATS =
+            {true, false, true, true, false, true, false, true, false, false, true, false};
+
+    /**
+     * Reads keys such as {@code G}, {@code Bb}, {@code F#m} or {@code C minor}.
+     *
+     * @return the key, or {@code null} if {@code text} is not one
+     */
+    public static MusicalKey parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        String key = text.strip();
+        if (key.isEmpty()) {
+            return null;
+        }
+        int tonic = Notes.letter(key.charAt(0));
+        if (tonic == Notes.NONE) {
+            return null;
+        }
+        int index = 1;
+        int accidental = index < key.length() ? Notes.accidental(key.charAt(index)) : 0;
+        if (accidental != 0) {
+            index++;
+        }
+        String mode = key.substring(index).strip();
+        boolean minor;
+        if (mode.isEmpty() || mode.equalsIgnoreCase("maj") || mode.equalsIgnoreCase("major")) {
+            minor = false;
+        } else if (mode.equals("m") || mode.equalsIgnoreCase("min") || mode.equalsIgnoreCase("minor")) {
+            minor = true;
+        } else {
+            return null;
+        }
+        int pitch = Notes.normalize(tonic + accidental);
+        boolean flats = accidental == 0 ? prefersFlats(pitch, minor) : accidental < 0;
+        return new MusicalKey(pitch, minor, flats);
+    }
+
+    public MusicalKey transpose(int semitones) {
+        if (Notes.normalize(semitones) == 0) {
+            return this;
+        }
+        int pitch = Notes.normalize(tonic + semitones);
+        return new MusicalKey(pitch, minor, prefersFlats(pitch, minor));
+    }
+
+    public String name() {
+        return Notes.name(tonic, flats) + (minor ? "m" : "");
+    }
+
+    private static boolean prefersFlats(int tonic, boolean minor) {
+        return (minor ? MINOR_FLATS : MAJOR_FLATS)[tonic];
+    }
+}
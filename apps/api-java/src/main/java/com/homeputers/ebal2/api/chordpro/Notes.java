@@ -0,0 +1,55 @@
+package com.homeputers.ebal2.api.chordpro;
+
+/**
+ * Pitch-class arithmetic shared by chords and keys. Pitches are 0 (C) to 11 (B).
+ */
+final class Notes {
+
+    static final int NONE = -1;
+
+    private static final String[] SHARP_NAMES = {"C", "C#", "D", "D#", "E", "F", "F#", "G", "G#", "A", "A#", "B"};
+    private static final String[] FLAT_NAMES = {"C", "Db", "D", "Eb", "E", "F", "Gb", "G", "Ab", "A", "Bb", "B"};
+    private static final String[] DEGREES = {"1", "b2", "2", "b3", "3", "4", "#4", "5", "b6", "6", "b7", "7"};
+
+    private Notes() {
+    }
+
+    /**
+     * @return the pitch of a note letter, or {@link #NONE} if {@code letter} is not A to G
+     */
+    static int letter(char letter) {
+        return switch (letter) {
+            case 'C' -> 0;
+            case 'D' -> 2;
+            case 'E' -> 4;
+            case 'F' -> 5;
+            case 'G' -> 7;
+            case 'A' -> 9;
+            case 'B' -> 11;
+            default -> NONE;
+        };
+    }
+
+    /**
+     * @return {@code +1} for a sharp, {@code -1} for a flat, {@code 0} for anything else
+     */
+    static int accidental(char symbol) {
+        return switch (symbol) {
+            case '#', '♯' -> 1;
+            case 'b', '♭' -> -1;
+            default -> 0;
+        };
+    }
+
+    static int normalize(int pitch) {
+        return Math.floorMod(pitch, 12);
+    }
+
+    static String name(int pitch, boolean flats) {
+        return (flats ? FLAT_NAMES : SHARP_NAMES)[normalize(pitch)];
+    }
+
+    static String degree(int pitch, int tonic) {
+        return DEGREES[normalize(pitch - tonic)];
+    }
+}
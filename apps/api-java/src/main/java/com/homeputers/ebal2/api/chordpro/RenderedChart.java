@@ -0,0 +1,27 @@
+package com.homeputers.ebal2.api.chordpro;
+
+import java.util.List;
+
+/**
+ * Output of {@link ChordProRenderer}. Instances are shared through the render cache and must not be modified.
+ *
+ * @param soundingKey the key the song sounds in after transposition, or {@code null} if the key is unknown
+ * @param playedKey   the key of the chord shapes played with the capo, or {@code null} if the key is unknown
+ * @param content     the rendered document for {@link ChartFormat#HTML} and {@link ChartFormat#TEXT}
+ * @param lines       the chart for {@link ChartFormat#JSON}
+ */
+public record RenderedChart(
+        String title,
+        String subtitle,
+        String soundingKey,
+        String playedKey,
+        String content,
+        List<Line> lines
+) {
+
+    /**
+     * @param positions offset in {@code text} of each chord, parallel to {@code chords}
+     */
+    public record Line(ChordChart.LineType type, String section, String text, int[] positions, String[] chords) {
+    }
+}
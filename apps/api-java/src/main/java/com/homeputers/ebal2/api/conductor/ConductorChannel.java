@@ -0,0 +1,103 @@
+package com.homeputers.ebal2.api.conductor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+
+/**
+ * The conductor state of one service: a sequence counter, a ring of the last serialized positions, and the open
+ * connections.
+ * <p>
+ * Publishing and joining take the channel lock, which covers only assigning the sequence number, writing the ring
+ * slot and handing the frame to each follower's coalescing slot; sends happen asynchronously outside it. Holding the
+ * lock while offering keeps every follower's positions in sequence order, and keeps a joining follower from missing
+ * a position published between its replay and its registration.
+ */
+final class ConductorChannel {
+
+    private final String[] ring;
+    private final int maxFollowers;
+    private final Set<ConductorFollower> followers = ConcurrentHashMap.newKeySet();
+    private long seq;
+    private volatile long lastActivityNanos = System.nanoTime();
+
+    ConductorChannel(int ringSize, int maxFollowers) {
+        this.ring = new String[ringSize];
+        this.maxFollowers = maxFollowers;
+    }
+
+    /**
+     * Assigns the next sequence number, stores the frame built for it and offers it to every follower.
+     */
+    synchronized long publish(LongFunction<String> frameForSeq) {
+        long next = seq + 1;
+        String frame = frameForSeq.apply(next);
+        seq = next;
+        ring[slot(next)] = frame;
+        lastActivityNanos = System.nanoTime();
+        for (ConductorFollower follower : followers) {
+            follower.offerPosition(frame);
+        }
+        return next;
+    }
+
+    /**
+     * Registers {@code follower} and queues its replay frame: the positions after {@code lastSeq} when they are all
+     * still in the ring, otherwise only the latest position.
+     *
+     * @return {@code false} if the channel is full
+     */
+    synchronized boolean join(ConductorFollower follower, Long lastSeq) {
+        if (followers.size() >= maxFollowers) {
+            return false;
+        }
+        followers.add(follower);
+        lastActivityNanos = System.nanoTime();
+        follower.offerControl(replayFrame(lastSeq));
+        return true;
+    }
+
+    void leave(ConductorFollower follower) {
+        followers.remove(follower);
+        lastActivityNanos = System.nanoTime();
+    }
+
+    Set<ConductorFollower> followers() {
+        return followers;
+    }
+
+    synchronized long seq() {
+        return seq;
+    }
+
+    boolean isIdleSince(long nanos) {
+        return followers.isEmpty() && lastActivityNanos - nanos < 0;
+    }
+
+    synchronized List<String> positionsAfter(Long lastSeq) {
+        if (seq == 0) {
+            return List.of();
+        }
+        long oldest = Math.max(1, seq - ring.length + 1);
+        // a cursor ahead of seq comes from before a restart; one older than the ring has a gap
+        if (lastSeq == null || lastSeq < oldest - 1 || lastSeq > seq) {
+            return List.of(ring[slot(seq)]);
+        }
+        List<String> positions = new ArrayList<>((int) (seq - lastSeq));
+        for (long s = lastSeq + 1; s <= seq; s++) {
+            positions.add(ring[slot(s)]);
+        }
+        return positions;
+    }
+
+    private String replayFrame(Long lastSeq) {
+        return "{\"type\":\"replay\",\"seq\":" + seq + ",\"positions\":["
+                + String.join(",", positionsAfter(lastSeq)) + "]}";
+    }
+
+    private int slot(long s) {
+        return (int) (s % ring.length);
+    }
+}
@@ -0,0 +1,152 @@
+package com.homeputers.ebal2.api.conductor;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeputers.ebal2.api.service.ServiceService;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.CloseReason.CloseCodes;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * One conductor connection at {@code /api/v1/services/{id}/conductor}.
+ * <p>
+ * On connect the client receives a {@code replay} frame with the positions after its {@code lastSeq} query parameter,
+ * or just the latest position; after that it receives every {@code position} frame, coalesced to the newest one while
+ * it is behind. Leaders publish by sending {@code {"type":"position","itemId":...,"section":...,"bar":...}}. The
+ * service is looked up once at connect time; messages never touch the database.
+ */
+final class ConductorEndpoint extends Endpoint {
+
+    static final String SERVICE_ID = "id";
+    static final String LAST_SEQ = "lastSeq";
+
+    private static final Logger log = LoggerFactory.getLogger(ConductorEndpoint.class);
+
+    private final ConductorHub hub;
+    private final ServiceService serviceService;
+    private final ObjectMapper objectMapper;
+    private UUID serviceId;
+    private ConductorIdentity identity;
+    private ConductorFollower follower;
+
+    ConductorEndpoint(ConductorHub hub, ServiceService serviceService, ObjectMapper objectMapper) {
+        this.hub = hub;
+        this.serviceService = serviceService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void onOpen(Session session, EndpointConfig config) {
+        identity = (ConductorIdentity) session.getUserProperties().get(ConductorHandshake.IDENTITY);
+        if (identity == null) {
+            close(session, CloseCodes.VIOLATED_POLICY, "Authentication required");
+            return;
+        }
+        Long lastSeq;
+        try {
+            serviceId = UUID.fromString(session.getPathParameters().get(SERVICE_ID));
+            serviceService.get(serviceId);
+            lastSeq = lastSeq(session);
+        } catch (IllegalArgumentException | NoSuchElementException ex) {
+            close(session, CloseCodes.CANNOT_ACCEPT, ex.getMessage());
+            return;
+        }
+        session.setMaxTextMessageBufferSize(hub.maxMessageBytes());
+        session.getAsyncRemote().setSendTimeout(hub.sendTimeout().toMillis());
+        follower = hub.join(serviceId, new SessionSink(session), identity.leader(), lastSeq);
+        if (follower == null) {
+            close(session, CloseCodes.TRY_AGAIN_LATER, "Too many conductor connections");
+            return;
+        }
+        session.addMessageHandler(String.class, this::onMessage);
+    }
+
+    @Override
+    public void onClose(Session session, CloseReason closeReason) {
+        if (follower != null) {
+            hub.leave(serviceId, follower);
+        }
+    }
+
+    @Override
+    public void onError(Session session, Throwable error) {
+        log.debug("Conductor connection for service {} failed", serviceId, error);
+        if (follower != null) {
+            follower.close("Connection failed");
+        }
+    }
+
+    private void onMessage(String message) {
+        if (!identity.leader()) {
+            hub.reject(follower, "Only admins and planners can lead");
+            return;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(message);
+            if (!PositionFrame.TYPE.equals(node.path("type").asText())) {
+                hub.reject(follower, "Unsupported message type");
+                return;
+            }
+            hub.publish(serviceId, objectMapper.treeToValue(node, ConductorPosition.class), identity.name());
+        } catch (JsonProcessingException ex) {
+            hub.reject(follower, "Malformed message");
+        } catch (IllegalArgumentException ex) {
+            hub.reject(follower, ex.getMessage());
+        }
+    }
+
+    private static Long lastSeq(Session session) {
+        List<String> values = session.getRequestParameterMap().get(LAST_SEQ);
+        if (values == null || values.isEmpty() || values.get(0).isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(values.get(0));
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid lastSeq '%s'".formatted(values.get(0)));
+        }
+    }
+
+    private static void close(Session session, CloseCodes code, String reason) {
+        try {
+            session.close(new CloseReason(code, reason));
+        } catch (IOException ex) {
+            log.debug("Failed to close conductor connection", ex);
+        }
+    }
+
+    private static final class SessionSink implements ConductorFollower.Sink {
+        private final Session session;
+
+        private SessionSink(Session session) {
+            this.session = session;
+        }
+
+        @Override
+        public void send(String frame, Consumer<Boolean> onDone) {
+            try {
+                session.getAsyncRemote().sendText(frame, result -> onDone.accept(result.isOK()));
+            } catch (IllegalStateException ex) {
+                // the session closed underneath us
+                onDone.accept(false);
+            }
+        }
+
+        @Override
+        public void close(String reason) {
+            // closing writes a close frame, which may wait for a stalled client; keep it off the publishing thread
+            Thread.ofVirtual().start(() -> ConductorEndpoint.close(session, CloseCodes.TRY_AGAIN_LATER, reason));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.homeputers.ebal2.api.conductor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeputers.ebal2.api.config.SecurityProperties;
+import com.homeputers.ebal2.api.security.JwtAuthenticationConverter;
+import com.homeputers.ebal2.api.service.ServiceService;
+import jakarta.servlet.ServletContext;
+import jakarta.websocket.DeploymentException;
+import jakarta.websocket.server.ServerContainer;
+import jakarta.websocket.server.ServerEndpointConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.ServletContextAware;
+
+/**
+ * Registers {@link ConductorEndpoint} with the servlet container's WebSocket server.
+ * <p>
+ * The endpoint uses the container's Jakarta WebSocket API directly, so there is no dependency on spring-websocket.
+ * Without a container WebSocket server, as in tests on a mock servlet context, the endpoint is not registered.
+ */
+@Component
+public class ConductorEndpointRegistrar implements ServletContextAware, SmartInitializingSingleton {
+
+    static final String PATH = "/api/v1/services/{" + ConductorEndpoint.SERVICE_ID + "}/conductor";
+
+    private static final Logger log = LoggerFactory.getLogger(ConductorEndpointRegistrar.class);
+
+    private final ConductorHub hub;
+    private final ServiceService serviceService;
+    private final ObjectMapper objectMapper;
+    private final JwtDecoder jwtDecoder;
+    private final JwtAuthenticationConverter authenticationConverter;
+    private final SecurityProperties securityProperties;
+    private ServletContext servletContext;
+
+    public ConductorEndpointRegistrar(ConductorHub hub,
+                                      ServiceService serviceService,
+                                      ObjectMapper objectMapper,
+                                      JwtDecoder jwtDecoder,
+                                      JwtAuthenticationConverter authenticationConverter,
+                                      SecurityProperties securityProperties) {
+        this.hub = hub;
+        this.serviceService = serviceService;
+        this.objectMapper = objectMapper;
+        this.jwtDecoder = jwtDecoder;
+        this.authenticationConverter = authenticationConverter;
+        this.securityProperties = securityProperties;
+    }
+
+    @Override
+    public void setServletContext(ServletContext servletContext) {
+        this.servletContext = servletContext;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        ServerContainer container = servletContext == null
+                ? null
+                : (ServerContainer) servletContext.getAttribute(ServerContainer.class.getName());
+        if (container == null) {
+            log.info("No WebSocket server container, conductor channels are disabled");
+            return;
+        }
+        ConductorHandshake handshake = new ConductorHandshake(jwtDecoder, authenticationConverter,
+                securityProperties.isEnabled(), () -> new ConductorEndpoint(hub, serviceService, objectMapper));
+        try {
+            container.addEndpoint(ServerEndpointConfig.Builder.create(ConductorEndpoint.class, PATH)
+                    .configurator(handshake)
+                    .build());
+        } catch (DeploymentException ex) {
+            throw new IllegalStateException("Failed to register conductor endpoint", ex);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.homeputers.ebal2.api.conductor;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * One connection to a conductor channel, with at most one frame in flight.
+ * <p>
+ * Positions are coalesced: while a send is in flight only the newest position is kept, so a follower on a slow link
+ * skips intermediate positions instead of falling further behind. Control frames (replay, errors, heartbeats) are
+ * queued in order ahead of positions; a follower that lets {@code maxControlFrames} of them pile up is closed.
+ */
+final class ConductorFollower {
+
+    /**
+     * The transport, so the coalescing logic can be tested without a socket.
+     */
+    interface Sink {
+
+        /**
+         * Sends one text frame without blocking and reports through {@code onDone} whether it was written.
+         */
+        void send(String frame, Consumer<Boolean> onDone);
+
+        void close(String reason);
+    }
+
+    private final Sink sink;
+    private final boolean leader;
+    private final int maxControlFrames;
+    private final Queue<String> control = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger controlSize = new AtomicInteger();
+    private final AtomicReference<String> position = new AtomicReference<>();
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    ConductorFollower(Sink sink, boolean leader, int maxControlFrames) {
+        this.sink = sink;
+        this.leader = leader;
+        this.maxControlFrames = maxControlFrames;
+    }
+
+    boolean isLeader() {
+        return leader;
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    void offerPosition(String frame) {
+        position.set(frame);
+        pump();
+    }
+
+    void offerControl(String frame) {
+        if (controlSize.incrementAndGet() > maxControlFrames) {
+            close("Follower is not keeping up");
+            return;
+        }
+        control.add(frame);
+        pump();
+    }
+
+    void close(String reason) {
+        if (closed.compareAndSet(false, true)) {
+            control.clear();
+            position.set(null);
+            sink.close(reason);
+        }
+    }
+
+    private void pump() {
+        while (!closed.get() && sending.compareAndSet(false, true)) {
+            String next = control.poll();
+            if (next != null) {
+                controlSize.decrementAndGet();
+            } else {
+                next = position.getAndSet(null);
+            }
+            if (next == null) {
+                sending.set(false);
+                // a frame offered between the poll and the reset would otherwise wait for the next offer
+                if (control.isEmpty() && position.get() == null) {
+                    return;
+                }
+                continue;
+            }
+            sink.send(next, this::sent);
+            return;
+        }
+    }
+
+    private void sent(boolean written) {
+        if (!written) {
+            close("Send failed");
+            return;
+        }
+        sending.set(false);
+        pump();
+    }
+}
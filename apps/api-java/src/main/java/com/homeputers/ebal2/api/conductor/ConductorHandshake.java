@@ -0,0 +1,88 @@
+package com.homeputers.ebal2.api.conductor;
+
+import com.homeputers.ebal2.api.security.JwtAuthenticationConverter;
+import jakarta.websocket.HandshakeResponse;
+import jakarta.websocket.server.HandshakeRequest;
+import jakarta.websocket.server.ServerEndpointConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Authenticates the WebSocket handshake and creates an endpoint per connection.
+ * <p>
+ * Browsers cannot set headers on a WebSocket handshake, so the access token is read from the {@code access_token}
+ * query parameter when there is no {@code Authorization} header. A connection without a valid token is still upgraded
+ * but closed as soon as it opens, since the handshake cannot be refused portably.
+ */
+final class ConductorHandshake extends ServerEndpointConfig.Configurator {
+
+    static final String IDENTITY = ConductorIdentity.class.getName();
+    static final String ACCESS_TOKEN = "access_token";
+
+    private static final Logger log = LoggerFactory.getLogger(ConductorHandshake.class);
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final Set<String> LEADER_ROLES = Set.of("ROLE_ADMIN", "ROLE_PLANNER");
+
+    private final JwtDecoder jwtDecoder;
+    private final JwtAuthenticationConverter authenticationConverter;
+    private final boolean securityEnabled;
+    private final Supplier<ConductorEndpoint> endpoints;
+
+    ConductorHandshake(JwtDecoder jwtDecoder, JwtAuthenticationConverter authenticationConverter,
+                       boolean securityEnabled, Supplier<ConductorEndpoint> endpoints) {
+        this.jwtDecoder = jwtDecoder;
+        this.authenticationConverter = authenticationConverter;
+        this.securityEnabled = securityEnabled;
+        this.endpoints = endpoints;
+    }
+
+    @Override
+    public void modifyHandshake(ServerEndpointConfig config, HandshakeRequest request, HandshakeResponse response) {
+        ConductorIdentity identity = securityEnabled
+                ? authenticate(token(request))
+                : new ConductorIdentity("anonymous", true);
+        if (identity != null) {
+            // the config passed in is a per-connection copy, so this does not leak between connections
+            config.getUserProperties().put(IDENTITY, identity);
+        }
+    }
+
+    @Override
+    public <T> T getEndpointInstance(Class<T> endpointClass) {
+        return endpointClass.cast(endpoints.get());
+    }
+
+    private ConductorIdentity authenticate(String token) {
+        if (token == null) {
+            return null;
+        }
+        try {
+            AbstractAuthenticationToken authentication = authenticationConverter.convert(jwtDecoder.decode(token));
+            boolean leader = authentication.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .anyMatch(LEADER_ROLES::contains);
+            return new ConductorIdentity(authentication.getName(), leader);
+        } catch (JwtException ex) {
+            log.debug("Rejected conductor handshake: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    private static String token(HandshakeRequest request) {
+        List<String> authorization = request.getHeaders().get("Authorization");
+        if (authorization != null && !authorization.isEmpty()
+                && authorization.get(0).regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return authorization.get(0).substring(BEARER_PREFIX.length()).trim();
+        }
+        List<String> parameter = request.getParameterMap().get(ACCESS_TOKEN);
+        return parameter == null || parameter.isEmpty() || parameter.get(0).isBlank() ? null : parameter.get(0);
+    }
+}
@@ -0,0 +1,161 @@
+package com.homeputers.ebal2.api.conductor;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeputers.ebal2.api.config.ConductorProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds one {@link ConductorChannel} per service that has a conductor connection.
+ * <p>
+ * Channels live in memory only: a position is serialized once, stored in the channel's ring and offered to the
+ * followers, without touching the database. A channel outlives its connections for {@code idleTimeout} so followers
+ * that reconnect after a network blip still get the last position; after a restart they start from an empty channel.
+ */
+@Component
+public class ConductorHub implements DisposableBean {
+
+    static final int MAX_SECTION_LENGTH = 100;
+
+    private static final String HEARTBEAT = "{\"type\":\"heartbeat\"}";
+    private static final int MAX_CONTROL_FRAMES = 8;
+
+    private final ObjectMapper objectMapper;
+    private final ConductorProperties properties;
+    private final Clock clock;
+    private final ConcurrentHashMap<UUID, ConductorChannel> channels = new ConcurrentHashMap<>();
+
+    public ConductorHub(ObjectMapper objectMapper, ConductorProperties properties) {
+        this(objectMapper, properties, Clock.systemUTC());
+    }
+
+    ConductorHub(ObjectMapper objectMapper, ConductorProperties properties, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    /**
+     * Connects {@code sink} to the service's channel and queues its replay frame.
+     *
+     * @return the connection, or {@code null} if the channel or the hub is full
+     */
+    ConductorFollower join(UUID serviceId, ConductorFollower.Sink sink, boolean leader, Long lastSeq) {
+        ConductorFollower follower = new ConductorFollower(sink, leader, MAX_CONTROL_FRAMES);
+        while (true) {
+            ConductorChannel channel = channels.get(serviceId);
+            if (channel == null) {
+                if (channels.size() >= properties.getMaxChannels()) {
+                    return null;
+                }
+                channel = channels.computeIfAbsent(serviceId,
+                        id -> new ConductorChannel(properties.getRingSize(), properties.getMaxFollowers()));
+            }
+            if (!channel.join(follower, lastSeq)) {
+                return null;
+            }
+            if (channels.get(serviceId) == channel) {
+                return follower;
+            }
+            // the heartbeat dropped the channel as idle while we were joining it
+            channel.leave(follower);
+        }
+    }
+
+    void leave(UUID serviceId, ConductorFollower follower) {
+        ConductorChannel channel = channels.get(serviceId);
+        if (channel != null) {
+            channel.leave(follower);
+        }
+    }
+
+    /**
+     * Publishes {@code position} to the service's followers.
+     *
+     * @return the sequence number assigned to the position
+     * @throws IllegalArgumentException if the position is incomplete
+     */
+    long publish(UUID serviceId, ConductorPosition position, String leader) {
+        if (position.itemId() == null) {
+            throw new IllegalArgumentException("itemId is required");
+        }
+        if (position.section() != null && position.section().length() > MAX_SECTION_LENGTH) {
+            throw new IllegalArgumentException("section must be at most " + MAX_SECTION_LENGTH + " characters");
+        }
+        if (position.bar() != null && position.bar() < 0) {
+            throw new IllegalArgumentException("bar must not be negative");
+        }
+        ConductorChannel channel = channels.get(serviceId);
+        if (channel == null) {
+            throw new IllegalStateException("No conductor channel for service " + serviceId);
+        }
+        return channel.publish(seq -> toJson(new PositionFrame(seq, position, leader, clock.instant())));
+    }
+
+    /**
+     * Keeps idle connections from being closed by proxies and drops channels nobody has used for
+     * {@code idleTimeout}. A follower that stopped reading accumulates heartbeats until it is closed.
+     */
+    @Scheduled(fixedDelayString = "${ebal.conductor.heartbeat-interval:PT25S}")
+    public void heartbeat() {
+        long idleBefore = System.nanoTime() - properties.getIdleTimeout().toNanos();
+        for (Map.Entry<UUID, ConductorChannel> entry : channels.entrySet()) {
+            ConductorChannel channel = entry.getValue();
+            for (ConductorFollower follower : channel.followers()) {
+                if (follower.isClosed()) {
+                    channel.leave(follower);
+                } else {
+                    follower.offerControl(HEARTBEAT);
+                }
+            }
+            if (channel.isIdleSince(idleBefore)) {
+                channels.remove(entry.getKey(), channel);
+            }
+        }
+    }
+
+    /**
+     * Tells {@code follower} that its last message was not accepted.
+     */
+    void reject(ConductorFollower follower, String message) {
+        follower.offerControl(toJson(Map.of("type", "error", "message", message)));
+    }
+
+    int channelCount() {
+        return channels.size();
+    }
+
+    Duration sendTimeout() {
+        return properties.getSendTimeout();
+    }
+
+    int maxMessageBytes() {
+        return properties.getMaxMessageBytes();
+    }
+
+    private String toJson(Object frame) {
+        try {
+            return objectMapper.writeValueAsString(frame);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize conductor frame", ex);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (ConductorChannel channel : channels.values()) {
+            for (ConductorFollower follower : channel.followers()) {
+                follower.close("Server shutting down");
+            }
+        }
+        channels.clear();
+    }
+}
@@ -0,0 +1,9 @@
+package com.homeputers.ebal2.api.conductor;
+
+/**
+ * Who opened a conductor connection, resolved from the access token during the handshake.
+ *
+ * @param leader whether the connection may publish positions
+ */
+record ConductorIdentity(String name, boolean leader) {
+}
@@ -0,0 +1,9 @@
+package com.homeputers.ebal2.api.conductor;
+
+import java.util.UUID;
+
+/**
+ * Where the leader is: the plan or song set item on stage, the section being played and optionally the bar.
+ */
+public record ConductorPosition(UUID itemId, String section, Integer bar) {
+}
@@ -0,0 +1,16 @@
+package com.homeputers.ebal2.api.conductor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A position as followers receive it, serialized once per publish and kept in the channel's ring.
+ */
+record PositionFrame(String type, long seq, UUID itemId, String section, Integer bar, String leader, Instant at) {
+
+    static final String TYPE = "position";
+
+    PositionFrame(long seq, ConductorPosition position, String leader, Instant at) {
+        this(TYPE, seq, position.itemId(), position.section(), position.bar(), leader, at);
+    }
+}
@@ -0,0 +1,204 @@
+package com.homeputers.ebal2.api.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties("ebal.attachments")
+@Validated
+public class AttachmentProperties {
+
+    @Min(1)
+    private long maxSizeBytes = 100L * 1024 * 1024;
+
+    @NotNull
+    private Duration gcInterval = Duration.ofHours(1);
+
+    /**
+     * How long content stays in storage after its last attachment is removed. Deleting and re-uploading the same file
+     * within this window reuses the stored bytes.
+     */
+    @NotNull
+    private Duration gcGracePeriod = Duration.ofHours(24);
+
+    @Min(1)
+    private int gcBatchSize = 100;
+
+    @NotNull
+    private Duration downloadUrlTtl = Duration.ofMinutes(15);
+
+    @Valid
+    private DirectUpload directUpload = new DirectUpload();
+
+    public long getMaxSizeBytes() {
+        return maxSizeBytes;
+    }
+
+    public void setMaxSizeBytes(long maxSizeBytes) {
+        this.maxSizeBytes = maxSizeBytes;
+    }
+
+    public Duration getGcInterval() {
+        return gcInterval;
+    }
+
+    public void setGcInterval(Duration gcInterval) {
+        this.gcInterval = gcInterval;
+    }
+
+    public Duration getGcGracePeriod() {
+        return gcGracePeriod;
+    }
+
+    public void setGcGracePeriod(Duration gcGracePeriod) {
+        this.gcGracePeriod = gcGracePeriod;
+    }
+
+    public int getGcBatchSize() {
+        return gcBatchSize;
+    }
+
+    public void setGcBatchSize(int gcBatchSize) {
+        this.gcBatchSize = gcBatchSize;
+    }
+
+    public Duration getDownloadUrlTtl() {
+        return downloadUrlTtl;
+    }
+
+    public void setDownloadUrlTtl(Duration downloadUrlTtl) {
+        this.downloadUrlTtl = downloadUrlTtl;
+    }
+
+    public DirectUpload getDirectUpload() {
+        return directUpload;
+    }
+
+    public void setDirectUpload(DirectUpload directUpload) {
+        this.directUpload = directUpload;
+    }
+
+    @AssertTrue(message = "gcGracePeriod must not be negative")
+    public boolean isGcGracePeriodValid() {
+        return gcGracePeriod != null && !gcGracePeriod.isNegative();
+    }
+
+    @AssertTrue(message = "downloadUrlTtl must be positive")
+    public boolean isDownloadUrlTtlPositive() {
+        return downloadUrlTtl != null && !downloadUrlTtl.isNegative() && !downloadUrlTtl.isZero();
+    }
+
+    /**
+     * Uploads that clients send straight to object storage and the API verifies afterwards.
+     */
+    public static class DirectUpload {
+        /**
+         * Server-side copies are limited to 5 GiB by S3.
+         */
+        @Min(1)
+        private long maxSizeBytes = 5L * 1024 * 1024 * 1024;
+
+        @NotNull
+        private Duration urlTtl = Duration.ofHours(1);
+
+        /**
+         * Media types clients may declare; a trailing {@code /*} matches any subtype.
+         */
+        private List<String> allowedContentTypes = new ArrayList<>(
+                List.of("audio/*", "video/*", "image/*", "application/pdf"));
+
+        @NotNull
+        private Duration verifyInterval = Duration.ofSeconds(5);
+
+        @Min(1)
+        private int verifyConcurrency = 2;
+
+        @Min(1)
+        private int maxVerifyAttempts = 3;
+
+        @NotNull
+        private Duration sweepInterval = Duration.ofMinutes(10);
+
+        /**
+         * How long finished uploads stay queryable.
+         */
+        @NotNull
+        private Duration retention = Duration.ofDays(7);
+
+        public long getMaxSizeBytes() {
+            return maxSizeBytes;
+        }
+
+        public void setMaxSizeBytes(long maxSizeBytes) {
+            this.maxSizeBytes = maxSizeBytes;
+        }
+
+        public Duration getUrlTtl() {
+            return urlTtl;
+        }
+
+        public void setUrlTtl(Duration urlTtl) {
+            this.urlTtl = urlTtl;
+        }
+
+        public List<String> getAllowedContentTypes() {
+            return allowedContentTypes;
+        }
+
+        public void setAllowedContentTypes(List<String> allowedContentTypes) {
+            this.allowedContentTypes = allowedContentTypes;
+        }
+
+        public Duration getVerifyInterval() {
+            return verifyInterval;
+        }
+
+        public void setVerifyInterval(Duration verifyInterval) {
+            this.verifyInterval = verifyInterval;
+        }
+
+        public int getVerifyConcurrency() {
+            return verifyConcurrency;
+        }
+
+        public void setVerifyConcurrency(int verifyConcurrency) {
+            this.verifyConcurrency = verifyConcurrency;
+        }
+
+        public int getMaxVerifyAttempts() {
+            return maxVerifyAttempts;
+        }
+
+        public void setMaxVerifyAttempts(int maxVerifyAttempts) {
+            this.maxVerifyAttempts = maxVerifyAttempts;
+        }
+
+        public Duration getSweepInterval() {
+            return sweepInterval;
+        }
+
+        public void setSweepInterval(Duration sweepInterval) {
+            this.sweepInterval = sweepInterval;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        @AssertTrue(message = "urlTtl must be positive")
+        public boolean isUrlTtlPositive() {
+            return urlTtl != null && !urlTtl.isNegative() && !urlTtl.isZero();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.homeputers.ebal2.api.config;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties("ebal.chordpro")
+@Validated
+public class ChordProProperties {
+
+    /**
+     * Rendered charts kept in memory, keyed by arrangement version, transposition, capo, notation and format.
+     * {@code 0} disables the cache.
+     */
+    @Min(0)
+    private int renderCacheMaxEntries = 2_000;
+
+    public int getRenderCacheMaxEntries() {
+        return renderCacheMaxEntries;
+    }
+
+    public void setRenderCacheMaxEntries(int renderCacheMaxEntries) {
+        this.renderCacheMaxEntries = renderCacheMaxEntries;
+    }
+}
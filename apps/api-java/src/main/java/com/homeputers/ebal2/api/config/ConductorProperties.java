@@ -0,0 +1,106 @@
+package com.homeputers.ebal2.api.config;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@ConfigurationProperties("ebal.conductor")
+@Validated
+public class ConductorProperties {
+
+    /**
+     * Position updates kept per service for replay to followers that reconnect.
+     */
+    @Min(1)
+    @Max(4096)
+    private int ringSize = 64;
+
+    /**
+     * Services with a live conductor channel; connections to further services are refused.
+     */
+    @Min(1)
+    private int maxChannels = 1_000;
+
+    /**
+     * Connections to one service's channel, leaders included.
+     */
+    @Min(1)
+    private int maxFollowers = 500;
+
+    /**
+     * Largest message a client may send, in bytes.
+     */
+    @Min(256)
+    private int maxMessageBytes = 4_096;
+
+    /**
+     * How long one frame may take to reach a follower before it counts as stalled and is disconnected.
+     */
+    @NotNull
+    private Duration sendTimeout = Duration.ofSeconds(5);
+
+    /**
+     * How long a channel without connections keeps its last position before it is dropped.
+     */
+    @NotNull
+    private Duration idleTimeout = Duration.ofHours(12);
+
+    public int getRingSize() {
+        return ringSize;
+    }
+
+    public void setRingSize(int ringSize) {
+        this.ringSize = ringSize;
+    }
+
+    public int getMaxChannels() {
+        return maxChannels;
+    }
+
+    public void setMaxChannels(int maxChannels) {
+        this.maxChannels = maxChannels;
+    }
+
+    public int getMaxFollowers() {
+        return maxFollowers;
+    }
+
+    public void setMaxFollowers(int maxFollowers) {
+        this.maxFollowers = maxFollowers;
+    }
+
+    public int getMaxMessageBytes() {
+        return maxMessageBytes;
+    }
+
+    public void setMaxMessageBytes(int maxMessageBytes) {
+        this.maxMessageBytes = maxMessageBytes;
+    }
+
+    public Duration getSendTimeout() {
+        return sendTimeout;
+    }
+
+    public void setSendTimeout(Duration sendTimeout) {
+        this.sendTimeout = sendTimeout;
+    }
+
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public void setIdleTimeout(Duration idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    @AssertTrue(message = "sendTimeout and idleTimeout must be positive")
+    public boolean isTimeoutsPositive() {
+        return sendTimeout != null && !sendTimeout.isNegative() && !sendTimeout.isZero()
+                && idleTimeout != null && !idleTimeout.isNegative() && !idleTimeout.isZero();
+    }
+}
@@ -0,0 +1,9 @@
+package com.homeputers.ebal2.api.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(DomainEventProperties.class)
+public class DomainEventConfig {
+}
@@ -0,0 +1,63 @@
+package com.homeputers.ebal2.api.config;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@ConfigurationProperties("ebal.events")
+@Validated
+public class DomainEventProperties {
+
+    /**
+     * Events queued per subscriber, rounded up to a power of two. Events beyond it are dropped and counted.
+     */
+    @Min(2)
+    @Max(1 << 20)
+    private int queueCapacity = 4096;
+
+    /**
+     * Most events handed to a subscriber in one call.
+     */
+    @Min(1)
+    private int batchSize = 64;
+
+    /**
+     * How long shutdown waits for subscribers to finish their queued events.
+     */
+    @NotNull
+    private Duration shutdownTimeout = Duration.ofSeconds(5);
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public void setShutdownTimeout(Duration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    @AssertTrue(message = "shutdownTimeout must not be negative")
+    public boolean isShutdownTimeoutValid() {
+        return shutdownTimeout != null && !shutdownTimeout.isNegative();
+    }
+}
@@ -0,0 +1,33 @@
+package com.homeputers.ebal2.api.config;
+
+import com.homeputers.ebal2.api.mybatis.IdentityMapFilter;
+import com.homeputers.ebal2.api.mybatis.IdentityMapInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableConfigurationProperties(IdentityMapProperties.class)
+@ConditionalOnProperty(prefix = "ebal.identity-map", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdentityMapConfig {
+
+    @Bean
+    IdentityMapInterceptor identityMapInterceptor() {
+        return new IdentityMapInterceptor();
+    }
+
+    @Bean
+    FilterRegistrationBean<IdentityMapFilter> identityMapFilterRegistration(IdentityMapProperties properties,
+                                                                            MeterRegistry meterRegistry) {
+        IdentityMapFilter filter = new IdentityMapFilter(properties.getMaxEntries(), meterRegistry);
+        FilterRegistrationBean<IdentityMapFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setName("identityMapFilter");
+        // inside the tracing filter, ahead of security so lookups made while authorizing are covered too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 30);
+        return registration;
+    }
+}
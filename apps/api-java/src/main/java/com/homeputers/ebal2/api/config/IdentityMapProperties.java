@@ -0,0 +1,34 @@
+package com.homeputers.ebal2.api.config;
+
+import jakarta.validation.constraints.Min;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties("ebal.identity-map")
+@Validated
+public class IdentityMapProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Rows kept per request. Lookups beyond it still work, they just are not remembered.
+     */
+    @Min(1)
+    private int maxEntries = 1_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+}
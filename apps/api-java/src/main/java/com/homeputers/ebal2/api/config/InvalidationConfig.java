@@ -0,0 +1,42 @@
+package com.homeputers.ebal2.api.config;
+
+import com.homeputers.ebal2.api.domain.invalidation.InvalidationMapper;
+import com.homeputers.ebal2.api.invalidation.InvalidationListener;
+import com.homeputers.ebal2.api.invalidation.InvalidationPublisher;
+import com.homeputers.ebal2.api.invalidation.InvalidationTarget;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.sql.DriverManager;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(InvalidationProperties.class)
+@ConditionalOnProperty(prefix = "ebal.invalidation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class InvalidationConfig {
+
+    @Bean
+    InvalidationPublisher invalidationPublisher(InvalidationMapper invalidationMapper,
+                                                InvalidationProperties properties) {
+        return new InvalidationPublisher(invalidationMapper, properties.getChannel());
+    }
+
+    // a connection of its own rather than one from the pool, which would hold a pool slot forever
+    @Bean
+    InvalidationListener invalidationListener(DataSourceProperties dataSourceProperties,
+                                              InvalidationProperties properties,
+                                              InvalidationPublisher publisher,
+                                              List<InvalidationTarget> targets) {
+        return new InvalidationListener(
+                () -> DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                        dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword()),
+                properties.getChannel(),
+                publisher,
+                targets,
+                properties.getPollInterval(),
+                properties.getMaxReconnectDelay());
+    }
+}
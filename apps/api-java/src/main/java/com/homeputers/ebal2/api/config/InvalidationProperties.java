@@ -0,0 +1,72 @@
+package com.homeputers.ebal2.api.config;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@ConfigurationProperties("ebal.invalidation")
+@Validated
+public class InvalidationProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Postgres notification channel shared by all replicas of one deployment.
+     */
+    @Pattern(regexp = "[a-z_][a-z0-9_]{0,62}")
+    private String channel = "ebal_invalidation";
+
+    /**
+     * How long the listener waits for a notification before checking that its connection is still alive.
+     */
+    @NotNull
+    private Duration pollInterval = Duration.ofSeconds(10);
+
+    /**
+     * Upper bound of the exponential backoff between reconnect attempts.
+     */
+    @NotNull
+    private Duration maxReconnectDelay = Duration.ofSeconds(30);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public void setChannel(String channel) {
+        this.channel = channel;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public Duration getMaxReconnectDelay() {
+        return maxReconnectDelay;
+    }
+
+    public void setMaxReconnectDelay(Duration maxReconnectDelay) {
+        this.maxReconnectDelay = maxReconnectDelay;
+    }
+
+    @AssertTrue(message = "pollInterval and maxReconnectDelay must be positive")
+    public boolean isIntervalsPositive() {
+        return pollInterval != null && !pollInterval.isNegative() && !pollInterval.isZero()
+                && maxReconnectDelay != null && !maxReconnectDelay.isNegative() && !maxReconnectDelay.isZero();
+    }
+}
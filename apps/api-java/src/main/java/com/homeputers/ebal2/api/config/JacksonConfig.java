@@ -1,12 +1,17 @@
 package com.homeputers.ebal2.api.config;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.homeputers.ebal2.api.fields.ResponseFields;
 import org.openapitools.jackson.nullable.JsonNullableModule;
 import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
- * Configures Jackson to understand OpenAPI's {@link org.openapitools.jackson.nullable.JsonNullable} wrapper.
+ * Configures Jackson to understand OpenAPI's {@link org.openapitools.jackson.nullable.JsonNullable} wrapper and to
+ * honour {@code fields=} selections.
  */
 @Configuration
 public class JacksonConfig {
@@ -17,4 +22,16 @@ public class JacksonConfig {
         // generated from the OpenAPI models that expose nullable string fields.
         return builder -> builder.modulesToInstall(new JsonNullableModule());
     }
+
+    @Bean
+    Jackson2ObjectMapperBuilderCustomizer responseFieldsFilter() {
+        // Every bean names the filter; it writes all properties unless ResponseFieldsAdvice supplies a selection.
+        return builder -> builder
+                .mixIn(Object.class, ResponseFieldsMixin.class)
+                .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    @JsonFilter(ResponseFields.FILTER_ID)
+    abstract static class ResponseFieldsMixin {
+    }
 }
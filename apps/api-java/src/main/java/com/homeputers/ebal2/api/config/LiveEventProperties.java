@@ -0,0 +1,61 @@
+package com.homeputers.ebal2.api.config;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@ConfigurationProperties("ebal.live-events")
+@Validated
+public class LiveEventProperties {
+
+    /**
+     * Events queued for one subscriber before it counts as a slow consumer and is disconnected.
+     */
+    @Min(1)
+    private int bufferSize = 64;
+
+    /**
+     * Open streams across all services and song sets; further subscriptions are refused with 503.
+     */
+    @Min(1)
+    private int maxSubscribers = 10_000;
+
+    /**
+     * Lifetime of one stream. Clients reconnect when it ends, which also sheds connections a proxy silently dropped.
+     */
+    @NotNull
+    private Duration timeout = Duration.ofMinutes(30);
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getMaxSubscribers() {
+        return maxSubscribers;
+    }
+
+    public void setMaxSubscribers(int maxSubscribers) {
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    @AssertTrue(message = "timeout must be positive")
+    public boolean isTimeoutPositive() {
+        return timeout != null && !timeout.isNegative() && !timeout.isZero();
+    }
+}
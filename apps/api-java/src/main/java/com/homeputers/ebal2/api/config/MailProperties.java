@@ -1,9 +1,15 @@
 package com.homeputers.ebal2.api.config;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+
 @Validated
 @ConfigurationProperties("ebal.mail")
 public class MailProperties {
@@ -11,8 +17,15 @@ public class MailProperties {
     @NotBlank
     private String frontendBaseUrl = "http://localhost:5173";
 
+    @Valid
     private final Smtp smtp = new Smtp();
 
+    @Valid
+    private final Outbox outbox = new Outbox();
+
+    @Valid
+    private final Broadcast broadcast = new Broadcast();
+
     public String getFrontendBaseUrl() {
         return frontendBaseUrl;
     }
@@ -25,6 +38,14 @@ public class MailProperties {
         return smtp;
     }
 
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    public Broadcast getBroadcast() {
+        return broadcast;
+    }
+
     public static class Smtp {
         private boolean enabled = false;
         private String host;
@@ -35,6 +56,15 @@ public class MailProperties {
         private boolean auth = true;
         private String fromAddress = "no-reply@example.com";
 
+        @Min(1)
+        private int poolSize = 4;
+
+        @NotNull
+        private Duration idleTimeout = Duration.ofSeconds(30);
+
+        @NotNull
+        private Duration timeout = Duration.ofSeconds(10);
+
         public boolean isEnabled() {
             return enabled;
         }
@@ -98,5 +128,222 @@ public class MailProperties {
         public void setFromAddress(String fromAddress) {
             this.fromAddress = fromAddress;
         }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public static class Outbox {
+        private boolean enabled = true;
+
+        @Min(1)
+        private int batchSize = 20;
+
+        @Min(1)
+        private int concurrency = 4;
+
+        @Min(1)
+        private int maxAttempts = 8;
+
+        @NotNull
+        private Duration pollInterval = Duration.ofSeconds(1);
+
+        @NotNull
+        private Duration lease = Duration.ofMinutes(5);
+
+        @NotNull
+        private Duration initialBackoff = Duration.ofSeconds(30);
+
+        @NotNull
+        private Duration maxBackoff = Duration.ofHours(1);
+
+        @NotNull
+        private Duration retention = Duration.ofDays(7);
+
+        @NotNull
+        private Duration cleanupInterval = Duration.ofHours(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        public Duration getCleanupInterval() {
+            return cleanupInterval;
+        }
+
+        public void setCleanupInterval(Duration cleanupInterval) {
+            this.cleanupInterval = cleanupInterval;
+        }
+
+        @AssertTrue(message = "Outbox lease and initial backoff must be positive")
+        public boolean isLeaseAndBackoffPositive() {
+            return lease != null && !lease.isNegative() && !lease.isZero()
+                    && initialBackoff != null && !initialBackoff.isNegative() && !initialBackoff.isZero();
+        }
+
+        @AssertTrue(message = "Outbox max backoff must not be shorter than the initial backoff")
+        public boolean isMaxBackoffValid() {
+            return maxBackoff == null || initialBackoff == null || maxBackoff.compareTo(initialBackoff) >= 0;
+        }
+    }
+
+    public static class Broadcast {
+        @Min(1)
+        private int batchSize = 50;
+
+        @Min(1)
+        private int concurrency = 4;
+
+        /**
+         * Upper bound on messages handed to the transport per second; {@code 0} disables throttling.
+         */
+        @Min(0)
+        private int maxPerSecond = 100;
+
+        /**
+         * How long a dispatcher owns a broadcast without making progress before another one may take it over.
+         */
+        @NotNull
+        private Duration lease = Duration.ofMinutes(5);
+
+        /**
+         * How often unfinished broadcasts, such as those left behind by a crash or redeploy, are looked for.
+         */
+        @NotNull
+        private Duration recoveryInterval = Duration.ofMinutes(1);
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getMaxPerSecond() {
+            return maxPerSecond;
+        }
+
+        public void setMaxPerSecond(int maxPerSecond) {
+            this.maxPerSecond = maxPerSecond;
+        }
+
+        public Duration getLease() {
+            return lease;
+        }
+
+        public void setLease(Duration lease) {
+            this.lease = lease;
+        }
+
+        public Duration getRecoveryInterval() {
+            return recoveryInterval;
+        }
+
+        public void setRecoveryInterval(Duration recoveryInterval) {
+            this.recoveryInterval = recoveryInterval;
+        }
+
+        @AssertTrue(message = "Broadcast lease must be positive")
+        public boolean isLeasePositive() {
+            return lease != null && !lease.isNegative() && !lease.isZero();
+        }
     }
 }
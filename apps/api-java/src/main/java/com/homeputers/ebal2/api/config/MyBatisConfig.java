@@ -1,10 +1,22 @@
 package com.homeputers.ebal2.api.config;
 
+import com.homeputers.ebal2.api.domain.user.UserSnapshotCache;
+import com.homeputers.ebal2.api.invalidation.InvalidationPublisher;
+import com.homeputers.ebal2.api.mybatis.UserCacheInvalidationInterceptor;
 import org.mybatis.spring.annotation.MapperScan;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 @MapperScan("com.homeputers.ebal2.api.domain")
+@EnableConfigurationProperties(UserCacheProperties.class)
 public class MyBatisConfig {
-}
 
+    @Bean
+    UserCacheInvalidationInterceptor userCacheInvalidationInterceptor(ObjectProvider<UserSnapshotCache> cache,
+                                                                      ObjectProvider<InvalidationPublisher> publisher) {
+        return new UserCacheInvalidationInterceptor(cache, publisher);
+    }
+}
@@ -5,6 +5,7 @@ import com.homeputers.ebal2.api.profile.storage.LocalAvatarStorage;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -12,6 +13,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 
 @Configuration
 @EnableConfigurationProperties(SelfServiceProperties.class)
@@ -32,7 +34,8 @@ public class ProfileConfig implements WebMvcConfigurer {
             throw new IllegalStateException("Failed to initialize avatar storage", ex);
         }
         return new LocalAvatarStorage(storagePath, ensureTrailingSlash(properties.getAvatar().getPublicBaseUrl()),
-                properties.getAvatar().getMaxSizeBytes());
+                properties.getAvatar().getMaxSizeBytes(), properties.getAvatar().getVariantSizes(),
+                properties.getAvatar().getMaxDecodePixels());
     }
 
     @Override
@@ -43,8 +46,10 @@ public class ProfileConfig implements WebMvcConfigurer {
         }
         String pattern = baseUrl + "**";
         String location = resolveStoragePath().toUri().toString();
+        // stored avatars are never rewritten under the same name, so clients may cache them indefinitely
         registry.addResourceHandler(pattern)
-                .addResourceLocations(location.endsWith("/") ? location : location + "/");
+                .addResourceLocations(location.endsWith("/") ? location : location + "/")
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable());
     }
 
     private Path resolveStoragePath() {
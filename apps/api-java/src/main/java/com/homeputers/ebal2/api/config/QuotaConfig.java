@@ -0,0 +1,49 @@
+package com.homeputers.ebal2.api.config;
+
+import com.homeputers.ebal2.api.domain.quota.ApiQuotaMapper;
+import com.homeputers.ebal2.api.ratelimit.ApiQuotaFilter;
+import com.homeputers.ebal2.api.ratelimit.DistributedQuotaLimiter;
+import com.homeputers.ebal2.api.ratelimit.PostgresQuotaStore;
+import com.homeputers.ebal2.api.ratelimit.QuotaStore;
+import com.homeputers.ebal2.api.security.ClientIpResolver;
+import com.homeputers.ebal2.api.security.ProblemDetailHttpWriter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(QuotaProperties.class)
+@ConditionalOnProperty(prefix = "ebal.quota", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class QuotaConfig {
+
+    // Spring Security's filter chain is registered at -100; quotas need the authenticated user.
+    private static final int QUOTA_FILTER_ORDER =
+            org.springframework.boot.autoconfigure.security.SecurityProperties.DEFAULT_FILTER_ORDER + 10;
+
+    @Bean
+    @ConditionalOnMissingBean
+    QuotaStore quotaStore(ApiQuotaMapper apiQuotaMapper) {
+        return new PostgresQuotaStore(apiQuotaMapper);
+    }
+
+    @Bean
+    DistributedQuotaLimiter distributedQuotaLimiter(QuotaStore quotaStore, QuotaProperties properties) {
+        return new DistributedQuotaLimiter(quotaStore, properties.getLocalBatchSize());
+    }
+
+    @Bean
+    FilterRegistrationBean<ApiQuotaFilter> apiQuotaFilterRegistration(QuotaProperties properties,
+                                                                      DistributedQuotaLimiter limiter,
+                                                                      ProblemDetailHttpWriter problemDetailHttpWriter,
+                                                                      ClientIpResolver clientIpResolver) {
+        ApiQuotaFilter filter = new ApiQuotaFilter(properties.getGroups(), limiter, problemDetailHttpWriter,
+                clientIpResolver);
+        FilterRegistrationBean<ApiQuotaFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setName("apiQuotaFilter");
+        registration.setOrder(QUOTA_FILTER_ORDER);
+        return registration;
+    }
+}
@@ -0,0 +1,135 @@
+package com.homeputers.ebal2.api.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@ConfigurationProperties("ebal.quota")
+@Validated
+public class QuotaProperties {
+
+    private boolean enabled = true;
+
+    @Min(1)
+    private int localBatchSize = 10;
+
+    @NotNull
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    @NotNull
+    private Duration cleanupInterval = Duration.ofMinutes(10);
+
+    @Valid
+    private Map<String, RouteGroup> groups = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getLocalBatchSize() {
+        return localBatchSize;
+    }
+
+    public void setLocalBatchSize(int localBatchSize) {
+        this.localBatchSize = localBatchSize;
+    }
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public Duration getCleanupInterval() {
+        return cleanupInterval;
+    }
+
+    public void setCleanupInterval(Duration cleanupInterval) {
+        this.cleanupInterval = cleanupInterval;
+    }
+
+    public Map<String, RouteGroup> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(Map<String, RouteGroup> groups) {
+        this.groups = groups;
+    }
+
+    public static class RouteGroup {
+        @NotEmpty
+        private List<String> paths = new ArrayList<>();
+
+        private List<String> methods = new ArrayList<>();
+
+        @Min(0)
+        private int perUser;
+
+        @Min(0)
+        private int perIp;
+
+        @NotNull
+        private Duration window = Duration.ofMinutes(1);
+
+        @AssertTrue(message = "window must be at least one second")
+        public boolean isWindowValid() {
+            return window != null && window.toSeconds() >= 1;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+
+        public int getPerUser() {
+            return perUser;
+        }
+
+        public void setPerUser(int perUser) {
+            this.perUser = perUser;
+        }
+
+        public int getPerIp() {
+            return perIp;
+        }
+
+        public void setPerIp(int perIp) {
+            this.perIp = perIp;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+    }
+}
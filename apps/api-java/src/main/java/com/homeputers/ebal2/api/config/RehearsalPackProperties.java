@@ -0,0 +1,62 @@
+package com.homeputers.ebal2.api.config;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@ConfigurationProperties("ebal.rehearsal-packs")
+@Validated
+public class RehearsalPackProperties {
+
+    /**
+     * Memory for finished packs, shared by all song sets and services. {@code 0} disables the cache.
+     */
+    @Min(0)
+    private long cacheMaxBytes = 64L * 1024 * 1024;
+
+    /**
+     * Packs larger than this are streamed but not cached.
+     */
+    @Min(1)
+    private long cacheMaxPackBytes = 8L * 1024 * 1024;
+
+    /**
+     * How long a download waits for an identical pack that another request is already building before building its
+     * own.
+     */
+    @NotNull
+    private Duration buildWait = Duration.ofSeconds(30);
+
+    public long getCacheMaxBytes() {
+        return cacheMaxBytes;
+    }
+
+    public void setCacheMaxBytes(long cacheMaxBytes) {
+        this.cacheMaxBytes = cacheMaxBytes;
+    }
+
+    public long getCacheMaxPackBytes() {
+        return cacheMaxPackBytes;
+    }
+
+    public void setCacheMaxPackBytes(long cacheMaxPackBytes) {
+        this.cacheMaxPackBytes = cacheMaxPackBytes;
+    }
+
+    public Duration getBuildWait() {
+        return buildWait;
+    }
+
+    public void setBuildWait(Duration buildWait) {
+        this.buildWait = buildWait;
+    }
+
+    @AssertTrue(message = "buildWait must not be negative")
+    public boolean isBuildWaitValid() {
+        return buildWait != null && !buildWait.isNegative();
+    }
+}
@@ -3,6 +3,7 @@ package com.homeputers.ebal2.api.config;
 import com.homeputers.ebal2.api.security.ApiAccessDeniedHandler;
 import com.homeputers.ebal2.api.security.ApiAuthenticationEntryPoint;
 import com.homeputers.ebal2.api.security.JwtAuthenticationConverter;
+import com.homeputers.ebal2.api.security.PasswordHashCalibrator;
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -13,7 +14,9 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.annotation.web.configurers.oauth2.server.resource.OAuth2ResourceServerConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
@@ -27,7 +30,9 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
@@ -37,6 +42,9 @@ import javax.crypto.spec.SecretKeySpec;
 @EnableConfigurationProperties(SecurityProperties.class)
 public class SecurityConfig {
 
+    private static final String BCRYPT_ENCODER_ID = "bcrypt";
+    private static final String ARGON2_ENCODER_ID = "argon2";
+
     private static final String[] AUTH_PUBLIC_ENDPOINTS = {
             "/api/v1/auth/login",
             "/api/v1/auth/refresh",
@@ -47,10 +55,21 @@ public class SecurityConfig {
     private static final String[] PUBLIC_GET_ENDPOINTS = {
             "/api/v1/health",
             "/api/v1/storage/health",
+            "/api/v1/storage/objects",
             "/api/v1/services/ical",
             "/api/v1/meta/git"
     };
 
+    // authorized by the signature in the query string
+    private static final String[] PUBLIC_PUT_ENDPOINTS = {
+            "/api/v1/storage/objects"
+    };
+
+    // authorized by the access token in the WebSocket handshake
+    private static final String[] HANDSHAKE_AUTHENTICATED_ENDPOINTS = {
+            "/api/v1/services/*/conductor"
+    };
+
     private static final String[] SWAGGER_ENDPOINTS = {
             "/v3/api-docs/**",
             "/swagger-ui/**",
@@ -65,7 +84,17 @@ public class SecurityConfig {
             "/api/v1/song-sets/**",
             "/api/v1/song-set-items/**",
             "/api/v1/service-plan-items/**",
-            "/api/v1/search"
+            "/api/v1/attachments/**",
+            "/api/v1/search",
+            "/api/v1/sync"
+    };
+
+    // reads that take their ids in a POST body
+    private static final String[] DOMAIN_READ_POST_ENDPOINTS = {
+            "/api/v1/members:batchGet",
+            "/api/v1/songs:batchGet",
+            "/api/v1/arrangements:batchGet",
+            "/api/v1/services:batchGet"
     };
 
     private static final String[] SELF_SERVICE_ENDPOINTS = {
@@ -98,6 +127,8 @@ public class SecurityConfig {
                         .requestMatchers(SWAGGER_ENDPOINTS).permitAll()
                         .requestMatchers(AUTH_PUBLIC_ENDPOINTS).permitAll()
                         .requestMatchers(HttpMethod.GET, PUBLIC_GET_ENDPOINTS).permitAll()
+                        .requestMatchers(HttpMethod.PUT, PUBLIC_PUT_ENDPOINTS).permitAll()
+                        .requestMatchers(HttpMethod.GET, HANDSHAKE_AUTHENTICATED_ENDPOINTS).permitAll()
                         .requestMatchers("/api/v1/auth/change-password").authenticated()
                         .requestMatchers("/api/v1/admin/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, SELF_SERVICE_ENDPOINTS)
@@ -111,6 +142,8 @@ public class SecurityConfig {
                         .hasAnyRole("ADMIN", "PLANNER", "MUSICIAN", "VIEWER")
                         .requestMatchers(HttpMethod.GET, DOMAIN_ENDPOINTS)
                         .hasAnyRole("ADMIN", "PLANNER", "MUSICIAN", "VIEWER")
+                        .requestMatchers(HttpMethod.POST, DOMAIN_READ_POST_ENDPOINTS)
+                        .hasAnyRole("ADMIN", "PLANNER", "MUSICIAN", "VIEWER")
                         .requestMatchers(HttpMethod.POST, DOMAIN_ENDPOINTS)
                         .hasAnyRole("ADMIN", "PLANNER")
                         .requestMatchers(HttpMethod.PUT, DOMAIN_ENDPOINTS)
@@ -137,7 +170,8 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(allowedOrigins);
         configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("Authorization", "Content-Type", "Accept", "Origin", "X-Requested-With"));
-        configuration.setExposedHeaders(List.of("Authorization"));
+        configuration.setExposedHeaders(List.of("Authorization", "Retry-After", "RateLimit-Limit", "RateLimit-Remaining",
+                "RateLimit-Reset", "RateLimit-Policy"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(Duration.ofHours(1));
 
@@ -166,8 +200,24 @@ public class SecurityConfig {
     }
 
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    PasswordEncoder passwordEncoder(SecurityProperties properties) {
+        SecurityProperties.PasswordHashing hashing = properties.getPasswordHashing();
+        int strength = hashing.getStrength() != null
+                ? hashing.getStrength()
+                : new PasswordHashCalibrator(hashing).calibrate();
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT_ENCODER_ID, bcrypt);
+        encoders.put(ARGON2_ENCODER_ID, Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+
+        String idForEncode = hashing.getAlgorithm() == SecurityProperties.PasswordHashing.Algorithm.ARGON2
+                ? ARGON2_ENCODER_ID
+                : BCRYPT_ENCODER_ID;
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(idForEncode, encoders);
+        // Hashes stored before prefixed encoding was introduced are plain BCrypt strings.
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 
     private SecretKey secretKey(SecurityProperties properties) {
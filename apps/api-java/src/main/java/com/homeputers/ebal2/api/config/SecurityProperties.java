@@ -1,6 +1,8 @@
 package com.homeputers.ebal2.api.config;
 
+import com.homeputers.ebal2.api.ratelimit.RateLimitPolicy;
 import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -19,8 +21,17 @@ public class SecurityProperties {
     private final Cors cors = new Cors();
     private final Jwt jwt = new Jwt();
     private final PasswordReset passwordReset = new PasswordReset();
+    private final PasswordHashing passwordHashing = new PasswordHashing();
     private final RateLimit loginRateLimit = new RateLimit(10, Duration.ofMinutes(1));
     private final RateLimit forgotPasswordRateLimit = new RateLimit(5, Duration.ofMinutes(15));
+    private final LoginAbuse loginAbuse = new LoginAbuse();
+
+    /**
+     * Addresses or CIDR ranges of reverse proxies whose {@code X-Forwarded-For} is believed. Empty means the header is
+     * ignored and the connection's address is the client's.
+     */
+    @NotNull
+    private List<String> trustedProxies = List.of();
 
     public boolean isEnabled() {
         return enabled;
@@ -30,6 +41,14 @@ public class SecurityProperties {
         this.enabled = enabled;
     }
 
+    public List<String> getTrustedProxies() {
+        return trustedProxies;
+    }
+
+    public void setTrustedProxies(List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies;
+    }
+
     public Cors getCors() {
         return cors;
     }
@@ -42,6 +61,10 @@ public class SecurityProperties {
         return passwordReset;
     }
 
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+
     public RateLimit getLoginRateLimit() {
         return loginRateLimit;
     }
@@ -50,6 +73,10 @@ public class SecurityProperties {
         return forgotPasswordRateLimit;
     }
 
+    public LoginAbuse getLoginAbuse() {
+        return loginAbuse;
+    }
+
     public static class Cors {
         private String devOrigin;
         private String prodOrigin;
@@ -141,6 +168,256 @@ public class SecurityProperties {
         }
     }
 
+    public static class PasswordHashing {
+        @NotNull
+        private Algorithm algorithm = Algorithm.BCRYPT;
+
+        @NotNull
+        private Duration targetDuration = Duration.ofMillis(250);
+
+        /**
+         * Lowest cost calibration may pick. Defaults to 12, the cost used before calibration, so slow hosts never end
+         * up with weaker hashes than they had; lower it explicitly to let them.
+         */
+        @Min(4)
+        @Max(31)
+        private int minStrength = 12;
+
+        @Min(4)
+        @Max(31)
+        private int maxStrength = 16;
+
+        /**
+         * Fixed BCrypt cost. When set, startup calibration is skipped.
+         */
+        private Integer strength;
+
+        public Algorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(Algorithm algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        public Duration getTargetDuration() {
+            return targetDuration;
+        }
+
+        public void setTargetDuration(Duration targetDuration) {
+            this.targetDuration = targetDuration;
+        }
+
+        public int getMinStrength() {
+            return minStrength;
+        }
+
+        public void setMinStrength(int minStrength) {
+            this.minStrength = minStrength;
+        }
+
+        public int getMaxStrength() {
+            return maxStrength;
+        }
+
+        public void setMaxStrength(int maxStrength) {
+            this.maxStrength = maxStrength;
+        }
+
+        public Integer getStrength() {
+            return strength;
+        }
+
+        public void setStrength(Integer strength) {
+            this.strength = strength;
+        }
+
+        @AssertTrue(message = "Password hashing target duration must be positive")
+        public boolean isTargetDurationPositive() {
+            return targetDuration != null && !targetDuration.isNegative() && !targetDuration.isZero();
+        }
+
+        @AssertTrue(message = "Password hashing min-strength must not exceed max-strength")
+        public boolean isStrengthRangeValid() {
+            return minStrength <= maxStrength;
+        }
+
+        @AssertTrue(message = "Password hashing strength must be between 4 and 31")
+        public boolean isFixedStrengthValid() {
+            return strength == null || (strength >= 4 && strength <= 31);
+        }
+
+        public enum Algorithm {
+            BCRYPT,
+            ARGON2
+        }
+    }
+
+    public static class LoginAbuse {
+        /**
+         * Upper bound for {@code max-delay}: the delay is served on the request thread, so a long one would let a burst
+         * of attempts tie up the whole pool.
+         */
+        public static final Duration MAX_DELAY_LIMIT = Duration.ofSeconds(1);
+
+        private boolean enabled = true;
+
+        @NotNull
+        private Duration window = Duration.ofMinutes(15);
+
+        @Min(64)
+        private int sketchWidth = 4096;
+
+        @Min(1)
+        @Max(16)
+        private int sketchDepth = 4;
+
+        @Min(1)
+        private int trackedOffenders = 64;
+
+        @NotNull
+        private Duration baseDelay = Duration.ofMillis(250);
+
+        @NotNull
+        private Duration maxDelay = Duration.ofSeconds(1);
+
+        private final Threshold ip = new Threshold(5, 50);
+
+        /**
+         * Delays are counted per email; blocks only per email and source IP, so others cannot lock an account out.
+         */
+        private final Threshold email = new Threshold(5, 25);
+
+        /**
+         * Subnets are only ever delayed, since a whole congregation may share one address block.
+         */
+        private final Threshold subnet = new Threshold(20, 200);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getSketchWidth() {
+            return sketchWidth;
+        }
+
+        public void setSketchWidth(int sketchWidth) {
+            this.sketchWidth = sketchWidth;
+        }
+
+        public int getSketchDepth() {
+            return sketchDepth;
+        }
+
+        public void setSketchDepth(int sketchDepth) {
+            this.sketchDepth = sketchDepth;
+        }
+
+        public int getTrackedOffenders() {
+            return trackedOffenders;
+        }
+
+        public void setTrackedOffenders(int trackedOffenders) {
+            this.trackedOffenders = trackedOffenders;
+        }
+
+        public Duration getBaseDelay() {
+            return baseDelay;
+        }
+
+        public void setBaseDelay(Duration baseDelay) {
+            this.baseDelay = baseDelay;
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        public Threshold getIp() {
+            return ip;
+        }
+
+        public Threshold getEmail() {
+            return email;
+        }
+
+        public Threshold getSubnet() {
+            return subnet;
+        }
+
+        @AssertTrue(message = "Login abuse window must be positive")
+        public boolean isWindowPositive() {
+            return window != null && !window.isNegative() && !window.isZero();
+        }
+
+        @AssertTrue(message = "Login abuse base-delay must not exceed max-delay")
+        public boolean isDelayRangeValid() {
+            return baseDelay != null && maxDelay != null && !baseDelay.isNegative() && baseDelay.compareTo(maxDelay) <= 0;
+        }
+
+        @AssertTrue(message = "Login abuse max-delay must not exceed PT1S")
+        public boolean isMaxDelayWithinLimit() {
+            return maxDelay == null || maxDelay.compareTo(MAX_DELAY_LIMIT) <= 0;
+        }
+
+        /**
+         * Failed-login counts per window at which a source is slowed down and then blocked.
+         */
+        public static class Threshold {
+            @Min(1)
+            private int delayAfter;
+
+            @Min(1)
+            private int blockAfter;
+
+            public Threshold() {
+                this(5, 50);
+            }
+
+            public Threshold(int delayAfter, int blockAfter) {
+                this.delayAfter = delayAfter;
+                this.blockAfter = blockAfter;
+            }
+
+            public int getDelayAfter() {
+                return delayAfter;
+            }
+
+            public void setDelayAfter(int delayAfter) {
+                this.delayAfter = delayAfter;
+            }
+
+            public int getBlockAfter() {
+                return blockAfter;
+            }
+
+            public void setBlockAfter(int blockAfter) {
+                this.blockAfter = blockAfter;
+            }
+
+            @AssertTrue(message = "block-after must not be lower than delay-after")
+            public boolean isRangeValid() {
+                return delayAfter <= blockAfter;
+            }
+        }
+    }
+
     public static class RateLimit {
         @Min(1)
         private int maxAttempts;
@@ -148,6 +425,12 @@ public class SecurityProperties {
         @NotNull
         private Duration window;
 
+        @NotNull
+        private RateLimitPolicy.Mode mode = RateLimitPolicy.Mode.FIXED_WINDOW;
+
+        @Min(1)
+        private int maxTrackedKeys = RateLimitPolicy.DEFAULT_MAX_KEYS;
+
         public RateLimit() {
             this(5, Duration.ofMinutes(1));
         }
@@ -173,6 +456,26 @@ public class SecurityProperties {
             this.window = window;
         }
 
+        public RateLimitPolicy.Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(RateLimitPolicy.Mode mode) {
+            this.mode = mode;
+        }
+
+        public int getMaxTrackedKeys() {
+            return maxTrackedKeys;
+        }
+
+        public void setMaxTrackedKeys(int maxTrackedKeys) {
+            this.maxTrackedKeys = maxTrackedKeys;
+        }
+
+        public RateLimitPolicy toPolicy() {
+            return new RateLimitPolicy(mode, maxAttempts, window, maxTrackedKeys);
+        }
+
         @AssertTrue(message = "window must be positive")
         public boolean isWindowPositive() {
             return window != null && !window.isNegative() && !window.isZero();
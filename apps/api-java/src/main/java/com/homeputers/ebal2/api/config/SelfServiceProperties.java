@@ -1,5 +1,6 @@
 package com.homeputers.ebal2.api.config;
 
+import com.homeputers.ebal2.api.ratelimit.RateLimitPolicy;
 import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
@@ -8,6 +9,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 @ConfigurationProperties("ebal.profile")
 @Validated
@@ -39,6 +42,30 @@ public class SelfServiceProperties {
         @Min(1)
         private long maxSizeBytes = 2 * 1024 * 1024;
 
+        /**
+         * Widths, in pixels, of the square variants generated after each upload.
+         */
+        @NotNull
+        private List<Integer> variantSizes = new ArrayList<>(List.of(32, 64, 128, 256));
+
+        /**
+         * Images whose header announces more pixels than this get no variants.
+         */
+        @Min(1)
+        private long maxDecodePixels = 40_000_000L;
+
+        /**
+         * Variant jobs waiting beyond this are dropped; the original is served until the next request retries.
+         */
+        @Min(1)
+        private int variantQueueCapacity = 100;
+
+        @AssertTrue(message = "variantSizes must be between 1 and 1024")
+        public boolean isVariantSizesValid() {
+            return variantSizes != null
+                    && variantSizes.stream().allMatch(size -> size != null && size >= 1 && size <= 1024);
+        }
+
         public String getStoragePath() {
             return storagePath;
         }
@@ -62,6 +89,30 @@ public class SelfServiceProperties {
         public void setMaxSizeBytes(long maxSizeBytes) {
             this.maxSizeBytes = maxSizeBytes;
         }
+
+        public List<Integer> getVariantSizes() {
+            return variantSizes;
+        }
+
+        public void setVariantSizes(List<Integer> variantSizes) {
+            this.variantSizes = variantSizes;
+        }
+
+        public long getMaxDecodePixels() {
+            return maxDecodePixels;
+        }
+
+        public void setMaxDecodePixels(long maxDecodePixels) {
+            this.maxDecodePixels = maxDecodePixels;
+        }
+
+        public int getVariantQueueCapacity() {
+            return variantQueueCapacity;
+        }
+
+        public void setVariantQueueCapacity(int variantQueueCapacity) {
+            this.variantQueueCapacity = variantQueueCapacity;
+        }
     }
 
     public static class EmailChange {
@@ -89,6 +140,12 @@ public class SelfServiceProperties {
         @NotNull
         private Duration window = Duration.ofMinutes(5);
 
+        @NotNull
+        private RateLimitPolicy.Mode mode = RateLimitPolicy.Mode.FIXED_WINDOW;
+
+        @Min(1)
+        private int maxTrackedKeys = RateLimitPolicy.DEFAULT_MAX_KEYS;
+
         @AssertTrue(message = "window must be positive")
         public boolean isWindowPositive() {
             return window != null && !window.isNegative() && !window.isZero();
@@ -109,5 +166,25 @@ public class SelfServiceProperties {
         public void setWindow(Duration window) {
             this.window = window;
         }
+
+        public RateLimitPolicy.Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(RateLimitPolicy.Mode mode) {
+            this.mode = mode;
+        }
+
+        public int getMaxTrackedKeys() {
+            return maxTrackedKeys;
+        }
+
+        public void setMaxTrackedKeys(int maxTrackedKeys) {
+            this.maxTrackedKeys = maxTrackedKeys;
+        }
+
+        public RateLimitPolicy toPolicy() {
+            return new RateLimitPolicy(mode, maxAttempts, window, maxTrackedKeys);
+        }
     }
 }
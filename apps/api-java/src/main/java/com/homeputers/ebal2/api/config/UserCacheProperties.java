@@ -0,0 +1,55 @@
+package com.homeputers.ebal2.api.config;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@ConfigurationProperties("ebal.user-cache")
+@Validated
+public class UserCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Upper bound on how long an entry is served without reloading, which also limits staleness when another
+     * replica changes the user.
+     */
+    @NotNull
+    private Duration ttl = Duration.ofMinutes(5);
+
+    @Min(1)
+    private int maxEntries = 10_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    @AssertTrue(message = "ttl must be positive")
+    public boolean isTtlPositive() {
+        return ttl != null && !ttl.isNegative() && !ttl.isZero();
+    }
+}
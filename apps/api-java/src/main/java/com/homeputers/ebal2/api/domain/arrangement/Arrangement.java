@@ -4,6 +4,10 @@ import com.homeputers.ebal2.api.domain.song.Song;
 
 import java.util.UUID;
 
+/**
+ * @param lyricsChordpro the chart; {@code null} when loaded as a summary
+ * @param version        incremented on every update
+ */
 public record Arrangement(
         UUID id,
 
@@ -13,7 +17,9 @@ public record Arrangement(
         Integer bpm,
         String meter,
 
-        String lyricsChordpro
+        String lyricsChordpro,
+
+        int version
 ) {
     public Arrangement {
         if (id == null) {
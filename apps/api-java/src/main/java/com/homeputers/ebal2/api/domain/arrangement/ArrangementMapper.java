@@ -3,6 +3,7 @@ package com.homeputers.ebal2.api.domain.arrangement;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -10,8 +11,30 @@ import java.util.UUID;
 public interface ArrangementMapper {
     Arrangement findById(@Param("id") UUID id);
 
+    /**
+     * Like {@link #findById} but without {@code lyrics_chordpro}, which can be tens of KB; the returned
+     * arrangement's lyrics are {@code null}.
+     */
+    Arrangement findSummaryById(@Param("id") UUID id);
+
+    /**
+     * Loads summaries of the given arrangements with their songs in a single statement; unknown ids are skipped and
+     * the order of the result is unspecified.
+     */
+    List<Arrangement> findSummariesWithSongByIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Like {@link #findSummariesWithSongByIds} but with lyrics.
+     */
+    List<Arrangement> findWithSongByIds(@Param("ids") Collection<UUID> ids);
+
     List<Arrangement> findBySongId(@Param("songId") UUID songId);
 
+    /**
+     * Like {@link #findBySongId} but without lyrics.
+     */
+    List<Arrangement> findSummariesBySongId(@Param("songId") UUID songId);
+
     void insert(@Param("id") UUID id,
               @Param("songId") UUID songId,
               @Param("key") String key,
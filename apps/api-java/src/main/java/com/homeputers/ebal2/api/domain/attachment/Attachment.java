@@ -0,0 +1,27 @@
+package com.homeputers.ebal2.api.domain.attachment;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public record Attachment(
+        UUID id,
+        String ownerType,
+        UUID ownerId,
+        String fileName,
+        String contentType,
+        long sizeBytes,
+        String blobSha256,
+        OffsetDateTime createdAt
+) {
+    public static final String OWNER_ARRANGEMENT = "ARRANGEMENT";
+    public static final String OWNER_SERVICE = "SERVICE";
+
+    public Attachment {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+        if (createdAt == null) {
+            createdAt = OffsetDateTime.now();
+        }
+    }
+}
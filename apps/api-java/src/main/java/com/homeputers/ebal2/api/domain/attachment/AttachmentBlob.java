@@ -0,0 +1,17 @@
+package com.homeputers.ebal2.api.domain.attachment;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Distinct attachment content, stored once in object storage under a name derived from {@link #sha256()}.
+ */
+public record AttachmentBlob(
+        String sha256,
+        long sizeBytes,
+        String contentType,
+        int refCount,
+        OffsetDateTime storedAt,
+        OffsetDateTime createdAt,
+        OffsetDateTime unreferencedSince
+) {
+}
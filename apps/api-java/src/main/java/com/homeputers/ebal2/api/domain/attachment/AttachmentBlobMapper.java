@@ -0,0 +1,32 @@
+package com.homeputers.ebal2.api.domain.attachment;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Mapper
+public interface AttachmentBlobMapper {
+    AttachmentBlob findBySha256(@Param("sha256") String sha256);
+
+    /**
+     * Registers new content with no references. It counts as unreferenced from {@code createdAt}, so content whose
+     * upload is abandoned is eventually collected.
+     */
+    int insertIfAbsent(@Param("sha256") String sha256,
+                       @Param("sizeBytes") long sizeBytes,
+                       @Param("contentType") String contentType,
+                       @Param("createdAt") OffsetDateTime createdAt);
+
+    int markStored(@Param("sha256") String sha256, @Param("storedAt") OffsetDateTime storedAt);
+
+    /**
+     * Locks up to {@code limit} blobs unreferenced since before {@code cutoff}, skipping rows other transactions hold.
+     * Must run inside a transaction; the locks keep concurrent uploads from re-referencing the blobs until it ends.
+     */
+    List<String> lockUnreferenced(@Param("cutoff") OffsetDateTime cutoff, @Param("limit") int limit);
+
+    int deleteUnreferenced(@Param("sha256s") Collection<String> sha256s);
+}
@@ -0,0 +1,35 @@
+package com.homeputers.ebal2.api.domain.attachment;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Every statement that adds or removes attachments adjusts {@code attachment_blobs.ref_count} in the same statement,
+ * so the count can never drift from the rows that reference a blob.
+ */
+@Mapper
+public interface AttachmentMapper {
+    Attachment findById(@Param("id") UUID id);
+
+    List<Attachment> findByOwner(@Param("ownerType") String ownerType, @Param("ownerId") UUID ownerId);
+
+    /**
+     * Inserts the attachment and takes a reference on its blob, provided the blob's bytes are stored.
+     *
+     * @return 0 if the blob is missing or not stored yet (for example, garbage-collected meanwhile)
+     */
+    int insertReferencingBlob(Attachment attachment);
+
+    /**
+     * @return the number of attachments removed
+     */
+    int delete(@Param("id") UUID id);
+
+    /**
+     * Removes every attachment of an owner, for use when the owner itself is deleted.
+     */
+    int deleteByOwner(@Param("ownerType") String ownerType, @Param("ownerId") UUID ownerId);
+}
@@ -0,0 +1,40 @@
+package com.homeputers.ebal2.api.domain.attachment;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public record AttachmentUpload(
+        UUID id,
+        String ownerType,
+        UUID ownerId,
+        String fileName,
+        String contentType,
+        long sizeBytes,
+        String sha256,
+        String stagingObject,
+        String status,
+        int attempts,
+        OffsetDateTime nextAttemptAt,
+        OffsetDateTime expiresAt,
+        String error,
+        UUID attachmentId,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt
+) {
+    /**
+     * Slot issued; the client has not confirmed its upload yet.
+     */
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_VERIFYING = "VERIFYING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    public AttachmentUpload {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+        if (status == null) {
+            status = STATUS_PENDING;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.homeputers.ebal2.api.domain.attachment;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Mapper
+public interface AttachmentUploadMapper {
+    int insert(AttachmentUpload upload);
+
+    AttachmentUpload findById(@Param("id") UUID id);
+
+    /**
+     * Queues a pending, unexpired upload for verification.
+     *
+     * @return 0 if the upload is not pending or its slot has expired
+     */
+    int markVerifying(@Param("id") UUID id, @Param("now") OffsetDateTime now);
+
+    /**
+     * Leases uploads due for verification until {@code leaseUntil}, so an upload whose verifier dies is picked up
+     * again once the lease runs out.
+     */
+    List<AttachmentUpload> claimDue(@Param("now") OffsetDateTime now,
+                                    @Param("leaseUntil") OffsetDateTime leaseUntil,
+                                    @Param("limit") int limit);
+
+    int markCompleted(@Param("id") UUID id,
+                      @Param("attachmentId") UUID attachmentId,
+                      @Param("now") OffsetDateTime now);
+
+    int markRetry(@Param("id") UUID id,
+                  @Param("nextAttemptAt") OffsetDateTime nextAttemptAt,
+                  @Param("error") String error,
+                  @Param("now") OffsetDateTime now);
+
+    int markFailed(@Param("id") UUID id, @Param("error") String error, @Param("now") OffsetDateTime now);
+
+    List<AttachmentUpload> findExpiredPending(@Param("now") OffsetDateTime now, @Param("limit") int limit);
+
+    int deleteFinishedBefore(@Param("cutoff") OffsetDateTime cutoff);
+}
@@ -0,0 +1,40 @@
+package com.homeputers.ebal2.api.domain.broadcast;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * A bulk email to a group. The counts are derived from {@code group_broadcast_recipients} when the row is read.
+ */
+public record GroupBroadcast(
+        UUID id,
+        UUID groupId,
+        String subject,
+        String renderedSubject,
+        String renderedBody,
+        String locale,
+        String status,
+        int totalRecipients,
+        int sentCount,
+        int failedCount,
+        int skippedCount,
+        OffsetDateTime createdAt,
+        OffsetDateTime completedAt
+) {
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SENDING = "SENDING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_COMPLETED_WITH_ERRORS = "COMPLETED_WITH_ERRORS";
+
+    public GroupBroadcast {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+        if (status == null) {
+            status = STATUS_PENDING;
+        }
+        if (createdAt == null) {
+            createdAt = OffsetDateTime.now();
+        }
+    }
+}
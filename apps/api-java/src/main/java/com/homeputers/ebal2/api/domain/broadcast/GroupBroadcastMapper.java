@@ -0,0 +1,58 @@
+package com.homeputers.ebal2.api.domain.broadcast;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Mapper
+public interface GroupBroadcastMapper {
+    GroupBroadcast findById(@Param("id") UUID id);
+
+    void insert(GroupBroadcast broadcast);
+
+    void insertRecipients(@Param("recipients") List<GroupBroadcastRecipient> recipients);
+
+    List<GroupBroadcastRecipient> findRecipients(@Param("broadcastId") UUID broadcastId);
+
+    List<GroupBroadcastRecipient> findPendingRecipients(@Param("broadcastId") UUID broadcastId);
+
+    /**
+     * Moves a broadcast from {@code PENDING} to {@code SENDING} and leases it to the caller until {@code leaseUntil}.
+     * A {@code SENDING} broadcast whose lease ran out is taken over the same way.
+     *
+     * @return {@code 0} if another dispatcher holds it or it is finished
+     */
+    int markSending(@Param("id") UUID id,
+                    @Param("now") OffsetDateTime now,
+                    @Param("leaseUntil") OffsetDateTime leaseUntil);
+
+    /**
+     * Leases up to {@code limit} broadcasts that are still {@code PENDING} or whose {@code SENDING} lease ran out, oldest
+     * first, skipping rows another dispatcher is claiming. This picks up broadcasts left behind by a crash or redeploy.
+     */
+    List<UUID> claimUnfinished(@Param("now") OffsetDateTime now,
+                               @Param("leaseUntil") OffsetDateTime leaseUntil,
+                               @Param("limit") int limit);
+
+    int renewLease(@Param("id") UUID id, @Param("leaseUntil") OffsetDateTime leaseUntil);
+
+    int markCompleted(@Param("id") UUID id,
+                      @Param("status") String status,
+                      @Param("completedAt") OffsetDateTime completedAt);
+
+    int markRecipientsSent(@Param("broadcastId") UUID broadcastId,
+                           @Param("memberIds") Collection<UUID> memberIds,
+                           @Param("sentAt") OffsetDateTime sentAt);
+
+    int markRecipientFailed(@Param("broadcastId") UUID broadcastId,
+                            @Param("memberId") UUID memberId,
+                            @Param("error") String error);
+
+    int markRecipientsFailed(@Param("broadcastId") UUID broadcastId,
+                             @Param("memberIds") Collection<UUID> memberIds,
+                             @Param("error") String error);
+}
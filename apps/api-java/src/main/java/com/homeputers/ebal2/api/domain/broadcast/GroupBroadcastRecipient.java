@@ -0,0 +1,18 @@
+package com.homeputers.ebal2.api.domain.broadcast;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public record GroupBroadcastRecipient(
+        UUID broadcastId,
+        UUID memberId,
+        String email,
+        String status,
+        String error,
+        OffsetDateTime sentAt
+) {
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_SKIPPED = "SKIPPED";
+}
@@ -0,0 +1,20 @@
+package com.homeputers.ebal2.api.domain.changelog;
+
+import java.util.UUID;
+
+/**
+ * The latest change to one synced entity; {@code seq} grows with every change and is the clients' sync cursor.
+ */
+public record ChangeLogEntry(
+        String entityType,
+        UUID entityId,
+        long seq,
+        boolean deleted
+) {
+    public static final String SONG = "SONG";
+    public static final String ARRANGEMENT = "ARRANGEMENT";
+    public static final String SONG_SET = "SONG_SET";
+    public static final String SONG_SET_ITEM = "SONG_SET_ITEM";
+    public static final String SERVICE = "SERVICE";
+    public static final String SERVICE_PLAN_ITEM = "SERVICE_PLAN_ITEM";
+}
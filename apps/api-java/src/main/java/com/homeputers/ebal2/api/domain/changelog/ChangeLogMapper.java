@@ -0,0 +1,23 @@
+package com.homeputers.ebal2.api.domain.changelog;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+@Mapper
+public interface ChangeLogMapper {
+    /**
+     * Moves the entity to the end of the log. Holds a transaction-scoped lock until commit, so changes become visible
+     * in {@code seq} order and a reader never skips a change that commits after it has read a later one.
+     */
+    void record(@Param("entityType") String entityType,
+                @Param("entityId") UUID entityId,
+                @Param("deleted") boolean deleted);
+
+    /**
+     * @return up to {@code limit} entries with a {@code seq} greater than {@code since}, in {@code seq} order
+     */
+    List<ChangeLogEntry> findAfter(@Param("since") long since, @Param("limit") int limit);
+}
@@ -0,0 +1,41 @@
+package com.homeputers.ebal2.api.domain.email;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Mapper
+public interface EmailOutboxMapper {
+    /**
+     * @return {@code 0} if a message with the same dedupe key is already queued
+     */
+    int insert(EmailOutboxMessage message);
+
+    /**
+     * Leases up to {@code limit} due messages to the caller until {@code leaseUntil}, skipping rows another dispatcher
+     * is already claiming. Messages left in {@code SENDING} by a crashed dispatcher become due again once their lease
+     * runs out.
+     */
+    List<EmailOutboxMessage> claimDue(@Param("now") OffsetDateTime now,
+                                      @Param("leaseUntil") OffsetDateTime leaseUntil,
+                                      @Param("limit") int limit);
+
+    int markSent(@Param("id") UUID id, @Param("sentAt") OffsetDateTime sentAt);
+
+    int markRetry(@Param("id") UUID id,
+                  @Param("nextAttemptAt") OffsetDateTime nextAttemptAt,
+                  @Param("lastError") String lastError);
+
+    /**
+     * Gives up on a message and clears its payload, which may carry a one-time secret nobody will receive.
+     */
+    int markFailed(@Param("id") UUID id, @Param("lastError") String lastError);
+
+    /**
+     * Deletes messages sent before {@code cutoff} and failed messages created before it.
+     */
+    int deleteFinishedBefore(@Param("cutoff") OffsetDateTime cutoff);
+}
@@ -0,0 +1,39 @@
+package com.homeputers.ebal2.api.domain.email;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public record EmailOutboxMessage(
+        UUID id,
+        String kind,
+        String recipient,
+        String locale,
+        String payload,
+        String dedupeKey,
+        String status,
+        int attempts,
+        OffsetDateTime nextAttemptAt,
+        String lastError,
+        OffsetDateTime createdAt,
+        OffsetDateTime sentAt
+) {
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SENDING = "SENDING";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_FAILED = "FAILED";
+
+    public EmailOutboxMessage {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+        if (status == null) {
+            status = STATUS_PENDING;
+        }
+        if (createdAt == null) {
+            createdAt = OffsetDateTime.now();
+        }
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.homeputers.ebal2.api.domain.invalidation;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface InvalidationMapper {
+
+    /**
+     * Queues a notification on {@code channel}. Inside a transaction Postgres delivers it when the transaction commits
+     * and drops it on rollback.
+     */
+    void notify(@Param("channel") String channel, @Param("payload") String payload);
+}
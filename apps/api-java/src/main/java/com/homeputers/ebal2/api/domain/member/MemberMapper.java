@@ -3,6 +3,7 @@ package com.homeputers.ebal2.api.domain.member;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -10,6 +11,11 @@ import java.util.UUID;
 public interface MemberMapper {
     Member findById(@Param("id") UUID id);
 
+    /**
+     * Loads the given members in one statement; unknown ids are skipped and the order is unspecified.
+     */
+    List<Member> findByIds(@Param("ids") Collection<UUID> ids);
+
     List<Member> findPage(@Param("query") String query,
                           @Param("offset") int offset,
                           @Param("limit") int limit);
@@ -19,6 +25,8 @@ public interface MemberMapper {
 
     int count(@Param("query") String query);
 
+    List<Member> findByGroupId(@Param("groupId") UUID groupId);
+
     void insert(
             @Param("id") UUID id,
             @Param("displayName") String displayName,
@@ -0,0 +1,22 @@
+package com.homeputers.ebal2.api.domain.quota;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.OffsetDateTime;
+
+@Mapper
+public interface ApiQuotaMapper {
+    long increment(@Param("bucketKey") String bucketKey,
+                   @Param("windowStart") OffsetDateTime windowStart,
+                   @Param("delta") int delta,
+                   @Param("expiresAt") OffsetDateTime expiresAt);
+
+    Long tryIncrement(@Param("bucketKey") String bucketKey,
+                      @Param("windowStart") OffsetDateTime windowStart,
+                      @Param("delta") int delta,
+                      @Param("limit") int limit,
+                      @Param("expiresAt") OffsetDateTime expiresAt);
+
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
@@ -4,6 +4,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -11,6 +12,11 @@ import java.util.UUID;
 public interface ServiceMapper {
     Service findById(@Param("id") UUID id);
 
+    /**
+     * Loads the given services in one statement; unknown ids are skipped and the order is unspecified.
+     */
+    List<Service> findByIds(@Param("ids") Collection<UUID> ids);
+
     List<Service> findPage(@Param("offset") int offset,
                            @Param("limit") int limit);
 
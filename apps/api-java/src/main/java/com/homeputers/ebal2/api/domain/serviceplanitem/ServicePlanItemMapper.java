@@ -3,6 +3,7 @@ package com.homeputers.ebal2.api.domain.serviceplanitem;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -12,6 +13,12 @@ public interface ServicePlanItemMapper {
 
     List<ServicePlanItem> findByServiceId(@Param("serviceId") UUID serviceId);
 
+    /**
+     * Loads the given plan items with their services in a single statement; unknown ids are skipped and the order of
+     * the result is unspecified.
+     */
+    List<ServicePlanItem> findJoinedByIds(@Param("ids") Collection<UUID> ids);
+
     void insert(ServicePlanItem item);
 
     void update(ServicePlanItem item);
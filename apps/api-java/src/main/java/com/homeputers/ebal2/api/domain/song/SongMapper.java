@@ -3,17 +3,29 @@ package com.homeputers.ebal2.api.domain.song;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Mapper
 public interface SongMapper {
     Song findById(@Param("id") UUID id);
 
+    /**
+     * Loads the given songs in one statement; unknown ids are skipped and the order is unspecified.
+     */
+    List<Song> findByIds(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * @param fields response field names whose columns to read, or {@code null} for all; columns left out come back
+     *               as {@code null} (an empty list for tags)
+     */
     List<Song> search(@Param("title") String title,
                       @Param("tag") String tag,
                       @Param("offset") int offset,
-                      @Param("limit") int limit);
+                      @Param("limit") int limit,
+                      @Param("fields") Set<String> fields);
 
     int countSearch(@Param("title") String title,
                     @Param("tag") String tag);
@@ -3,6 +3,7 @@ package com.homeputers.ebal2.api.domain.songset;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -10,6 +11,8 @@ import java.util.UUID;
 public interface SongSetMapper {
     SongSet findById(@Param("id") UUID id);
 
+    List<SongSet> findByIds(@Param("ids") Collection<UUID> ids);
+
     List<SongSet> findPage(@Param("offset") int offset,
                            @Param("limit") int limit);
 
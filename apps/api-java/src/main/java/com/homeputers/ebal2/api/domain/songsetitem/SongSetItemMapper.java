@@ -3,6 +3,7 @@ package com.homeputers.ebal2.api.domain.songsetitem;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -12,6 +13,18 @@ public interface SongSetItemMapper {
 
     List<SongSetItem> findBySongSetId(@Param("songSetId") UUID songSetId);
 
+    /**
+     * Loads the items of several song sets, with set, arrangement summary and song, in a single statement, ordered by
+     * set and position.
+     */
+    List<SongSetItem> findJoinedBySongSetIds(@Param("songSetIds") Collection<UUID> songSetIds);
+
+    /**
+     * Loads the given items like {@link #findJoinedBySongSetIds}; unknown ids are skipped and the order of the result
+     * is unspecified.
+     */
+    List<SongSetItem> findJoinedByIds(@Param("ids") Collection<UUID> ids);
+
     void insert(SongSetItem item);
 
     void update(SongSetItem item);
@@ -27,6 +27,10 @@ public interface UserMapper {
                         @Param("passwordHash") String passwordHash,
                         @Param("updatedAt") OffsetDateTime updatedAt);
 
+    int rehashPassword(@Param("id") UUID id,
+                       @Param("currentHash") String currentHash,
+                       @Param("newHash") String newHash);
+
     void updateActive(@Param("id") UUID id,
                       @Param("isActive") boolean isActive,
                       @Param("updatedAt") OffsetDateTime updatedAt);
@@ -48,6 +52,14 @@ public interface UserMapper {
                       @Param("avatarUrl") String avatarUrl,
                       @Param("updatedAt") OffsetDateTime updatedAt);
 
+    /**
+     * Sets the avatar URL, or clears it when {@code avatarUrl} is {@code null}, and returns the one it replaced, read
+     * under the same row lock.
+     */
+    String replaceAvatar(@Param("id") UUID id,
+                         @Param("avatarUrl") String avatarUrl,
+                         @Param("updatedAt") OffsetDateTime updatedAt);
+
     void updateEmail(@Param("id") UUID id,
                      @Param("email") String email,
                      @Param("updatedAt") OffsetDateTime updatedAt);
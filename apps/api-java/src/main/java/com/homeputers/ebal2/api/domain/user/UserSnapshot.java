@@ -0,0 +1,18 @@
+package com.homeputers.ebal2.api.domain.user;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A user row together with its roles, as loaded at {@link User#version()}.
+ */
+public record UserSnapshot(User user, List<String> roles) {
+    public UserSnapshot {
+        Objects.requireNonNull(user, "user");
+        roles = List.copyOf(roles);
+    }
+
+    public int version() {
+        return user.version();
+    }
+}
@@ -0,0 +1,145 @@
+package com.homeputers.ebal2.api.domain.user;
+
+import com.homeputers.ebal2.api.config.UserCacheProperties;
+import com.homeputers.ebal2.api.invalidation.Invalidation;
+import com.homeputers.ebal2.api.invalidation.InvalidationTarget;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache of {@link UserSnapshot}s keyed by user id.
+ * <p>
+ * Every write through {@link UserMapper} or {@link UserRoleMapper} invalidates the affected user (see
+ * {@code UserCacheInvalidationInterceptor}). Each invalidation bumps a generation counter, and a load only populates the
+ * cache if no invalidation happened while it was reading, so a slow reader can never re-insert data that a concurrent
+ * write has already replaced. Among competing loads the snapshot with the higher {@code users.version} wins. Writes on
+ * other replicas arrive through {@link InvalidationTarget}.
+ */
+@Component
+public class UserSnapshotCache implements InvalidationTarget {
+
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+
+    private final UserMapper userMapper;
+    private final UserRoleMapper userRoleMapper;
+    private final UserCacheProperties properties;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public UserSnapshotCache(UserMapper userMapper, UserRoleMapper userRoleMapper, UserCacheProperties properties) {
+        this(userMapper, userRoleMapper, properties, System::nanoTime);
+    }
+
+    UserSnapshotCache(UserMapper userMapper,
+                      UserRoleMapper userRoleMapper,
+                      UserCacheProperties properties,
+                      LongSupplier nanoClock) {
+        this.userMapper = userMapper;
+        this.userRoleMapper = userRoleMapper;
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return the user and its roles, or {@code null} if no such user exists
+     */
+    public UserSnapshot get(UUID userId) {
+        if (userId == null) {
+            return null;
+        }
+        if (!properties.isEnabled()) {
+            return load(userId);
+        }
+        long now = nanoClock.getAsLong();
+        Entry cached = entries.get(userId);
+        if (cached != null && now - cached.loadedAtNanos < properties.getTtl().toNanos()) {
+            return cached.snapshot;
+        }
+
+        long observedGeneration = generation.get();
+        UserSnapshot loaded = load(userId);
+        if (loaded == null) {
+            return null;
+        }
+        makeRoom(userId);
+        entries.compute(userId, (id, existing) -> {
+            if (generation.get() != observedGeneration) {
+                return existing;
+            }
+            if (existing != null && existing.snapshot.version() > loaded.version()) {
+                return existing;
+            }
+            return new Entry(loaded, now);
+        });
+        return loaded;
+    }
+
+    public void invalidate(UUID userId) {
+        generation.incrementAndGet();
+        if (userId != null) {
+            entries.remove(userId);
+        }
+    }
+
+    @Override
+    public String entityType() {
+        return Invalidation.USER;
+    }
+
+    @Override
+    public void invalidate(UUID userId, Long version) {
+        Entry cached = userId == null ? null : entries.get(userId);
+        if (version != null && cached != null && cached.snapshot.version() >= version) {
+            return;
+        }
+        invalidate(userId);
+    }
+
+    @Override
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private UserSnapshot load(UUID userId) {
+        User user = userMapper.findById(userId);
+        if (user == null) {
+            return null;
+        }
+        List<String> roles = userRoleMapper.findRolesByUserId(userId);
+        return new UserSnapshot(user, roles == null ? List.of() : roles);
+    }
+
+    private void makeRoom(UUID incoming) {
+        while (entries.size() >= properties.getMaxEntries() && !entries.containsKey(incoming)) {
+            Iterator<Map.Entry<UUID, Entry>> iterator = entries.entrySet().iterator();
+            Map.Entry<UUID, Entry> oldest = null;
+            for (int i = 0; i < EVICTION_SAMPLE_SIZE && iterator.hasNext(); i++) {
+                Map.Entry<UUID, Entry> candidate = iterator.next();
+                if (oldest == null || candidate.getValue().loadedAtNanos - oldest.getValue().loadedAtNanos < 0) {
+                    oldest = candidate;
+                }
+            }
+            if (oldest == null || !entries.remove(oldest.getKey(), oldest.getValue())) {
+                return;
+            }
+        }
+    }
+
+    private record Entry(UserSnapshot snapshot, long loadedAtNanos) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.homeputers.ebal2.api.email;
+
+/**
+ * Outcome of one {@link OutgoingEmail}; {@code error} is set only when {@code sent} is {@code false}.
+ */
+public record DeliveryResult(OutgoingEmail email, boolean sent, String error) {
+
+    public static DeliveryResult sent(OutgoingEmail email) {
+        return new DeliveryResult(email, true, null);
+    }
+
+    public static DeliveryResult failed(OutgoingEmail email, String error) {
+        return new DeliveryResult(email, false, error);
+    }
+}
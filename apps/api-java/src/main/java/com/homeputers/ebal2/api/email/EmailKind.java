@@ -0,0 +1,10 @@
+package com.homeputers.ebal2.api.email;
+
+/**
+ * The kinds of email the outbox can hold; each maps to one {@link EmailSender} method.
+ */
+public enum EmailKind {
+    PASSWORD_RESET,
+    USER_INVITATION,
+    EMAIL_CHANGE_CONFIRMATION
+}
@@ -0,0 +1,196 @@
+package com.homeputers.ebal2.api.email;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeputers.ebal2.api.config.MailProperties;
+import com.homeputers.ebal2.api.domain.email.EmailOutboxMapper;
+import com.homeputers.ebal2.api.domain.email.EmailOutboxMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers queued {@code email_outbox} messages through the real {@link EmailSender}.
+ * <p>
+ * Each poll claims due messages in batches with {@code FOR UPDATE SKIP LOCKED}, so several replicas can dispatch
+ * without sending a message twice, and hands them to a fixed pool of {@code concurrency} workers. Failed sends are
+ * retried with exponential backoff until {@code maxAttempts} is reached; messages that cannot be decoded fail
+ * immediately.
+ */
+public class EmailOutboxDispatcher implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int MAX_BACKOFF_DOUBLINGS = 30;
+    private static final TypeReference<Map<String, String>> PAYLOAD_TYPE = new TypeReference<>() {
+    };
+
+    private final EmailOutboxMapper outboxMapper;
+    private final EmailSender deliverySender;
+    private final ObjectMapper objectMapper;
+    private final MailProperties.Outbox properties;
+    private final Clock clock;
+    private final ExecutorService workers;
+
+    public EmailOutboxDispatcher(EmailOutboxMapper outboxMapper,
+                                 EmailSender deliverySender,
+                                 ObjectMapper objectMapper,
+                                 MailProperties.Outbox properties) {
+        this(outboxMapper, deliverySender, objectMapper, properties, Clock.systemUTC());
+    }
+
+    EmailOutboxDispatcher(EmailOutboxMapper outboxMapper,
+                          EmailSender deliverySender,
+                          ObjectMapper objectMapper,
+                          MailProperties.Outbox properties,
+                          Clock clock) {
+        this.outboxMapper = outboxMapper;
+        this.deliverySender = deliverySender;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.clock = clock;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(properties.getConcurrency(), runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sends due messages until the outbox has no full batch left.
+     */
+    @Scheduled(fixedDelayString = "${ebal.mail.outbox.poll-interval:PT1S}")
+    public void dispatch() {
+        try {
+            while (dispatchBatch() >= properties.getBatchSize()) {
+                // keep draining while batches come back full
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Failed to claim outbox emails", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ebal.mail.outbox.cleanup-interval:PT1H}")
+    public void purgeFinished() {
+        try {
+            int deleted = outboxMapper.deleteFinishedBefore(OffsetDateTime.now(clock).minus(properties.getRetention()));
+            log.debug("Purged {} sent or failed outbox emails", deleted);
+        } catch (DataAccessException ex) {
+            log.warn("Failed to purge finished outbox emails", ex);
+        }
+    }
+
+    int dispatchBatch() throws InterruptedException {
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        List<EmailOutboxMessage> batch =
+                outboxMapper.claimDue(now, now.plus(properties.getLease()), properties.getBatchSize());
+        List<Future<?>> pending = new ArrayList<>(batch.size());
+        for (EmailOutboxMessage message : batch) {
+            pending.add(workers.submit(() -> deliver(message)));
+        }
+        for (Future<?> future : pending) {
+            try {
+                future.get();
+            } catch (ExecutionException ex) {
+                log.warn("Outbox worker failed", ex.getCause());
+            }
+        }
+        return batch.size();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    private void deliver(EmailOutboxMessage message) {
+        try {
+            send(message);
+        } catch (UndeliverableEmailException ex) {
+            log.error("Dropping outbox email {}: {}", message.id(), ex.getMessage());
+            outboxMapper.markFailed(message.id(), truncate(ex.getMessage()));
+            return;
+        } catch (RuntimeException ex) {
+            if (message.attempts() >= properties.getMaxAttempts()) {
+                log.error("Giving up on outbox email {} after {} attempts", message.id(), message.attempts(), ex);
+                outboxMapper.markFailed(message.id(), truncate(ex.toString()));
+            } else {
+                OffsetDateTime retryAt = OffsetDateTime.now(clock).plus(backoff(message.attempts()));
+                log.warn("Failed to send outbox email {} (attempt {}); retrying at {}",
+                        message.id(), message.attempts(), retryAt, ex);
+                outboxMapper.markRetry(message.id(), retryAt, truncate(ex.toString()));
+            }
+            return;
+        }
+        outboxMapper.markSent(message.id(), OffsetDateTime.now(clock));
+    }
+
+    private void send(EmailOutboxMessage message) {
+        EmailKind kind;
+        Map<String, String> values;
+        try {
+            kind = EmailKind.valueOf(message.kind());
+            values = message.payload() == null ? Map.of() : objectMapper.readValue(message.payload(), PAYLOAD_TYPE);
+        } catch (IllegalArgumentException | IOException ex) {
+            throw new UndeliverableEmailException("unreadable " + message.kind() + " message: " + ex.getMessage());
+        }
+        Locale locale = Locale.forLanguageTag(message.locale());
+        switch (kind) {
+            case PASSWORD_RESET -> deliverySender.sendPasswordResetEmail(
+                    message.recipient(), values.get(OutboxEmailSender.URL), locale);
+            case USER_INVITATION -> deliverySender.sendUserInvitationEmail(
+                    message.recipient(),
+                    values.get(OutboxEmailSender.DISPLAY_NAME),
+                    values.get(OutboxEmailSender.TEMPORARY_PASSWORD),
+                    locale);
+            case EMAIL_CHANGE_CONFIRMATION -> deliverySender.sendEmailChangeConfirmationEmail(
+                    message.recipient(), values.get(OutboxEmailSender.URL), locale);
+        }
+    }
+
+    /**
+     * Delay before the attempt following {@code attempts} failed ones: {@code initialBackoff * 2^(attempts - 1)},
+     * capped at {@code maxBackoff}.
+     */
+    Duration backoff(int attempts) {
+        int doublings = Math.min(Math.max(attempts - 1, 0), MAX_BACKOFF_DOUBLINGS);
+        Duration delay = properties.getInitialBackoff().multipliedBy(1L << doublings);
+        return delay.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : delay;
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static final class UndeliverableEmailException extends RuntimeException {
+        private UndeliverableEmailException(String message) {
+            super(message);
+        }
+    }
+}
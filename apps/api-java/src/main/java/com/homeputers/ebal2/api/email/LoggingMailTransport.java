@@ -0,0 +1,23 @@
+package com.homeputers.ebal2.api.email;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Local stand-in for SMTP that only logs what would have been sent.
+ */
+public class LoggingMailTransport implements MailTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingMailTransport.class);
+
+    @Override
+    public List<DeliveryResult> send(List<OutgoingEmail> batch) {
+        for (OutgoingEmail email : batch) {
+            log.info("Email to {} with subject: {}", email.to(), email.subject());
+            log.debug("Email body: {}", email.body());
+        }
+        return batch.stream().map(DeliveryResult::sent).toList();
+    }
+}
@@ -0,0 +1,15 @@
+package com.homeputers.ebal2.api.email;
+
+import java.util.List;
+
+/**
+ * Low-level delivery of already rendered emails. Implementations send a whole batch over one connection where they
+ * can, and report failures per message instead of aborting the batch.
+ */
+public interface MailTransport {
+
+    /**
+     * @return one result per email, in the order of {@code batch}
+     */
+    List<DeliveryResult> send(List<OutgoingEmail> batch);
+}
@@ -0,0 +1,105 @@
+package com.homeputers.ebal2.api.email;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeputers.ebal2.api.domain.email.EmailOutboxMapper;
+import com.homeputers.ebal2.api.domain.email.EmailOutboxMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@link EmailSender} that only queues the message in the {@code email_outbox} table, so it commits or rolls back
+ * together with the caller's transaction. {@link EmailOutboxDispatcher} performs the actual delivery.
+ * <p>
+ * Each message gets a dedupe key derived from its content; enqueueing the same message twice keeps a single row.
+ */
+public class OutboxEmailSender implements EmailSender {
+
+    static final String URL = "url";
+    static final String DISPLAY_NAME = "displayName";
+    static final String TEMPORARY_PASSWORD = "temporaryPassword";
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxEmailSender.class);
+
+    private final EmailOutboxMapper outboxMapper;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    public OutboxEmailSender(EmailOutboxMapper outboxMapper, ObjectMapper objectMapper) {
+        this(outboxMapper, objectMapper, Clock.systemUTC());
+    }
+
+    OutboxEmailSender(EmailOutboxMapper outboxMapper, ObjectMapper objectMapper, Clock clock) {
+        this.outboxMapper = outboxMapper;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    @Override
+    public void sendPasswordResetEmail(String to, String resetUrl, Locale locale) {
+        enqueue(EmailKind.PASSWORD_RESET, to, locale, values(URL, resetUrl));
+    }
+
+    @Override
+    public void sendUserInvitationEmail(String to, String displayName, String temporaryPassword, Locale locale) {
+        enqueue(EmailKind.USER_INVITATION, to, locale,
+                values(DISPLAY_NAME, displayName, TEMPORARY_PASSWORD, temporaryPassword));
+    }
+
+    @Override
+    public void sendEmailChangeConfirmationEmail(String to, String confirmationUrl, Locale locale) {
+        enqueue(EmailKind.EMAIL_CHANGE_CONFIRMATION, to, locale, values(URL, confirmationUrl));
+    }
+
+    private void enqueue(EmailKind kind, String to, Locale locale, Map<String, String> values) {
+        String languageTag = (locale == null ? Locale.ENGLISH : locale).toLanguageTag();
+        String payload = toJson(values);
+        String dedupeKey = dedupeKey(kind, to, languageTag, payload);
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        EmailOutboxMessage message = new EmailOutboxMessage(null, kind.name(), to, languageTag, payload, dedupeKey,
+                EmailOutboxMessage.STATUS_PENDING, 0, now, null, now, null);
+        if (outboxMapper.insert(message) == 0) {
+            log.debug("Skipped duplicate {} email to {}", kind, to);
+        }
+    }
+
+    private String toJson(Map<String, String> values) {
+        try {
+            return objectMapper.writeValueAsString(values);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to serialize email payload", ex);
+        }
+    }
+
+    // sorted keys keep the serialized form, and therefore the dedupe key, stable across JVMs
+    private static Map<String, String> values(String... keysAndValues) {
+        Map<String, String> values = new TreeMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            values.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return values;
+    }
+
+    static String dedupeKey(EmailKind kind, String to, String languageTag, String payload) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[]{kind.name(), to, languageTag, payload}) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
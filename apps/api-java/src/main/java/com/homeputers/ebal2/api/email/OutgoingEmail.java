@@ -0,0 +1,7 @@
+package com.homeputers.ebal2.api.email;
+
+/**
+ * A fully rendered plain-text email.
+ */
+public record OutgoingEmail(String to, String subject, String body) {
+}
@@ -0,0 +1,208 @@
+package com.homeputers.ebal2.api.email;
+
+import com.homeputers.ebal2.api.config.MailProperties;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.function.LongSupplier;
+
+/**
+ * SMTP transport that keeps up to {@code poolSize} authenticated connections open and sends each batch over a single
+ * one, instead of paying the connect, TLS and AUTH round trips for every message.
+ * <p>
+ * Connections idle for longer than {@code idleTimeout} are replaced rather than reused, since servers drop them. A
+ * rejected recipient only fails that message; any other error is treated as a broken connection, which is reopened
+ * once for the message before it is reported as failed.
+ */
+public class PooledSmtpTransport implements MailTransport, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PooledSmtpTransport.class);
+
+    private final MailProperties.Smtp smtp;
+    private final Session session;
+    private final Semaphore permits;
+    private final long idleTimeoutNanos;
+    private final LongSupplier nanoClock;
+    private final Deque<Connection> idle = new ConcurrentLinkedDeque<>();
+    private volatile boolean closed;
+
+    public PooledSmtpTransport(MailProperties.Smtp smtp) {
+        this(smtp, System::nanoTime);
+    }
+
+    PooledSmtpTransport(MailProperties.Smtp smtp, LongSupplier nanoClock) {
+        this.smtp = smtp;
+        this.session = Session.getInstance(sessionProperties(smtp));
+        this.permits = new Semaphore(smtp.getPoolSize());
+        this.idleTimeoutNanos = smtp.getIdleTimeout().toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public List<DeliveryResult> send(List<OutgoingEmail> batch) {
+        if (batch.isEmpty()) {
+            return List.of();
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return failAll(batch, "interrupted while waiting for an SMTP connection");
+        }
+        Connection connection = null;
+        try {
+            connection = borrow();
+            List<DeliveryResult> results = new ArrayList<>(batch.size());
+            for (OutgoingEmail email : batch) {
+                results.add(send(connection, email));
+            }
+            return results;
+        } catch (MessagingException ex) {
+            log.warn("Unable to connect to SMTP server {}:{}", smtp.getHost(), smtp.getPort(), ex);
+            return failAll(batch, ex.toString());
+        } finally {
+            release(connection);
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes every idle connection. Connections currently in use are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            connection.close();
+        }
+    }
+
+    int idleConnections() {
+        return idle.size();
+    }
+
+    private DeliveryResult send(Connection connection, OutgoingEmail email) {
+        MimeMessage message;
+        try {
+            message = toMimeMessage(email);
+        } catch (MessagingException ex) {
+            return DeliveryResult.failed(email, ex.toString());
+        }
+        try {
+            connection.transport.sendMessage(message, message.getAllRecipients());
+            return DeliveryResult.sent(email);
+        } catch (SendFailedException ex) {
+            return DeliveryResult.failed(email, ex.toString());
+        } catch (MessagingException ex) {
+            log.debug("SMTP connection failed while sending to {}; reconnecting", email.to(), ex);
+        }
+        try {
+            connection.reopen();
+            connection.transport.sendMessage(message, message.getAllRecipients());
+            return DeliveryResult.sent(email);
+        } catch (MessagingException ex) {
+            return DeliveryResult.failed(email, ex.toString());
+        }
+    }
+
+    private MimeMessage toMimeMessage(OutgoingEmail email) throws MessagingException {
+        MimeMessage message = new MimeMessage(session);
+        message.setFrom(new InternetAddress(smtp.getFromAddress()));
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(email.to(), true));
+        message.setSubject(email.subject(), StandardCharsets.UTF_8.name());
+        message.setText(email.body(), StandardCharsets.UTF_8.name());
+        message.setSentDate(new Date());
+        message.saveChanges();
+        return message;
+    }
+
+    private Connection borrow() throws MessagingException {
+        long now = nanoClock.getAsLong();
+        Connection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            if (now - connection.lastUsedNanos < idleTimeoutNanos && connection.transport.isConnected()) {
+                return connection;
+            }
+            connection.close();
+        }
+        Connection opened = new Connection();
+        opened.reopen();
+        return opened;
+    }
+
+    private void release(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        if (closed || !connection.transport.isConnected()) {
+            connection.close();
+            return;
+        }
+        connection.lastUsedNanos = nanoClock.getAsLong();
+        // most recently used first, so warm connections are preferred and cold ones age out
+        idle.offerFirst(connection);
+        if (closed && idle.remove(connection)) {
+            connection.close();
+        }
+    }
+
+    private List<DeliveryResult> failAll(List<OutgoingEmail> batch, String error) {
+        return batch.stream().map(email -> DeliveryResult.failed(email, error)).toList();
+    }
+
+    private static Properties sessionProperties(MailProperties.Smtp smtp) {
+        Properties properties = new Properties();
+        String timeout = Long.toString(smtp.getTimeout().toMillis());
+        properties.put("mail.transport.protocol", "smtp");
+        properties.put("mail.smtp.auth", Boolean.toString(smtp.isAuth()));
+        properties.put("mail.smtp.starttls.enable", Boolean.toString(smtp.isStartTls()));
+        properties.put("mail.smtp.connectiontimeout", timeout);
+        properties.put("mail.smtp.timeout", timeout);
+        properties.put("mail.smtp.writetimeout", timeout);
+        return properties;
+    }
+
+    private final class Connection {
+        private Transport transport;
+        private long lastUsedNanos;
+
+        private void reopen() throws MessagingException {
+            close();
+            transport = session.getTransport("smtp");
+            int port = smtp.getPort() == null ? -1 : smtp.getPort();
+            if (smtp.isAuth()) {
+                transport.connect(smtp.getHost(), port, smtp.getUsername(), smtp.getPassword());
+            } else {
+                transport.connect(smtp.getHost(), port, null, null);
+            }
+            lastUsedNanos = nanoClock.getAsLong();
+        }
+
+        private void close() {
+            if (transport == null) {
+                return;
+            }
+            try {
+                transport.close();
+            } catch (MessagingException ex) {
+                log.debug("Failed to close SMTP connection", ex);
+            }
+        }
+    }
+}
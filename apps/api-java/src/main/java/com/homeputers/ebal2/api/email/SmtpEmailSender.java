@@ -2,20 +2,20 @@ package com.homeputers.ebal2.api.email;
 
 import com.homeputers.ebal2.api.config.MailProperties;
 import org.springframework.context.MessageSource;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.MailSendException;
 
+import java.util.List;
 import java.util.Locale;
 
 public class SmtpEmailSender implements EmailSender {
 
-    private final JavaMailSender mailSender;
+    private final MailTransport mailTransport;
     private final MailProperties mailProperties;
     private final MessageSource messageSource;
 
-    public SmtpEmailSender(JavaMailSender mailSender, MailProperties mailProperties,
+    public SmtpEmailSender(MailTransport mailTransport, MailProperties mailProperties,
                           MessageSource messageSource) {
-        this.mailSender = mailSender;
+        this.mailTransport = mailTransport;
         this.mailProperties = mailProperties;
         this.messageSource = messageSource;
     }
@@ -24,13 +24,7 @@ public class SmtpEmailSender implements EmailSender {
     public void sendPasswordResetEmail(String to, String resetUrl, Locale locale) {
         String subject = messageSource.getMessage("mail.password-reset.subject", null, locale);
         String body = messageSource.getMessage("mail.password-reset.body", new Object[]{resetUrl}, locale);
-
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(mailProperties.getSmtp().getFromAddress());
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(body);
-        mailSender.send(message);
+        send(new OutgoingEmail(to, subject, body));
     }
 
     @Override
@@ -40,25 +34,20 @@ public class SmtpEmailSender implements EmailSender {
                 "mail.user-invite.body",
                 new Object[]{displayName, temporaryPassword, mailProperties.getFrontendBaseUrl()},
                 locale);
-
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(mailProperties.getSmtp().getFromAddress());
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(body);
-        mailSender.send(message);
+        send(new OutgoingEmail(to, subject, body));
     }
 
     @Override
     public void sendEmailChangeConfirmationEmail(String to, String confirmationUrl, Locale locale) {
         String subject = messageSource.getMessage("mail.email-change.subject", null, locale);
         String body = messageSource.getMessage("mail.email-change.body", new Object[]{confirmationUrl}, locale);
+        send(new OutgoingEmail(to, subject, body));
+    }
 
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(mailProperties.getSmtp().getFromAddress());
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(body);
-        mailSender.send(message);
+    private void send(OutgoingEmail email) {
+        DeliveryResult result = mailTransport.send(List.of(email)).get(0);
+        if (!result.sent()) {
+            throw new MailSendException("Failed to send email to " + email.to() + ": " + result.error());
+        }
     }
 }
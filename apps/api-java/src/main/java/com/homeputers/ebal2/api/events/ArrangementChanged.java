@@ -0,0 +1,6 @@
+package com.homeputers.ebal2.api.events;
+
+import java.util.UUID;
+
+public record ArrangementChanged(UUID arrangementId, ChangeKind kind) implements DomainEvent {
+}
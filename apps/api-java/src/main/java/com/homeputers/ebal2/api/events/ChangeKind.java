@@ -0,0 +1,7 @@
+package com.homeputers.ebal2.api.events;
+
+public enum ChangeKind {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,9 @@
+package com.homeputers.ebal2.api.events;
+
+/**
+ * Something that happened to the domain, published by a service method through {@link DomainEvents} and delivered to
+ * {@link DomainEventSubscriber}s after the transaction commits. Events carry ids, not entity state.
+ */
+public sealed interface DomainEvent permits ArrangementChanged, MemberChanged, PlanItemChanged, ServiceChanged,
+        SongChanged, SongSetChanged, SongSetItemChanged, SongSetItemsReordered {
+}
@@ -0,0 +1,183 @@
+package com.homeputers.ebal2.api.events;
+
+import com.homeputers.ebal2.api.config.DomainEventProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+/**
+ * Delivers committed domain events to every {@link DomainEventSubscriber}, each on its own consumer thread.
+ * <p>
+ * Dispatching only offers the event to the {@link EventRing} of each subscriber whose type matches; it never blocks,
+ * and an event that finds a ring full is dropped and counted. A consumer drains its ring in batches and parks when it
+ * is empty. On shutdown consumers finish what is queued, up to {@code shutdownTimeout}.
+ * <p>
+ * Metrics, tagged by subscriber: {@code ebal.events.queue.depth} (gauge), {@code ebal.events.lag} (time from commit
+ * to pickup), {@code ebal.events.dropped} and {@code ebal.events.failed} (events in batches that threw).
+ */
+@Component
+public class DomainEventDispatcher implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(DomainEventDispatcher.class);
+
+    private final List<Subscription<?>> subscriptions;
+    private final Duration shutdownTimeout;
+    private volatile boolean running;
+
+    public DomainEventDispatcher(List<DomainEventSubscriber<?>> subscribers,
+                                 DomainEventProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.subscriptions = subscribers.stream()
+                .<Subscription<?>>map(subscriber -> new Subscription<>(subscriber, properties, meterRegistry))
+                .toList();
+        this.shutdownTimeout = properties.getShutdownTimeout();
+    }
+
+    /**
+     * Queues {@code event} for its subscribers. Callers publish through {@link DomainEvents}, which defers this until
+     * the transaction commits.
+     */
+    void dispatch(DomainEvent event) {
+        long now = System.nanoTime();
+        for (Subscription<?> subscription : subscriptions) {
+            subscription.offer(event, now);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (Subscription<?> subscription : subscriptions) {
+            subscription.start();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        for (Subscription<?> subscription : subscriptions) {
+            subscription.stop(deadline);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static final class Subscription<E extends DomainEvent> implements Runnable {
+        private final DomainEventSubscriber<E> subscriber;
+        private final EventRing ring;
+        private final int batchSize;
+        private final Counter dropped;
+        private final Counter failed;
+        private final LongConsumer lag;
+        private volatile Thread consumer;
+        private volatile boolean parked;
+        private volatile boolean stopping;
+
+        private Subscription(DomainEventSubscriber<E> subscriber,
+                             DomainEventProperties properties,
+                             MeterRegistry meterRegistry) {
+            this.subscriber = subscriber;
+            this.ring = new EventRing(properties.getQueueCapacity());
+            this.batchSize = properties.getBatchSize();
+            String name = subscriber.name();
+            Gauge.builder("ebal.events.queue.depth", ring, EventRing::size)
+                    .tag("subscriber", name)
+                    .description("Domain events waiting for the subscriber")
+                    .register(meterRegistry);
+            this.dropped = Counter.builder("ebal.events.dropped")
+                    .tag("subscriber", name)
+                    .description("Domain events dropped because the subscriber's queue was full")
+                    .register(meterRegistry);
+            this.failed = Counter.builder("ebal.events.failed")
+                    .tag("subscriber", name)
+                    .description("Domain events in batches the subscriber failed to handle")
+                    .register(meterRegistry);
+            Timer lagTimer = Timer.builder("ebal.events.lag")
+                    .tag("subscriber", name)
+                    .description("Time from commit until the subscriber picked the event up")
+                    .register(meterRegistry);
+            this.lag = nanos -> lagTimer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        private void offer(DomainEvent event, long nowNanos) {
+            if (!subscriber.eventType().isInstance(event)) {
+                return;
+            }
+            if (!ring.offer(event, nowNanos)) {
+                dropped.increment();
+                return;
+            }
+            if (parked) {
+                LockSupport.unpark(consumer);
+            }
+        }
+
+        private void start() {
+            stopping = false;
+            consumer = Thread.ofPlatform().name("domain-events-" + subscriber.name()).daemon().start(this);
+        }
+
+        private void stop(long deadlineNanos) {
+            stopping = true;
+            Thread thread = consumer;
+            if (thread == null) {
+                return;
+            }
+            LockSupport.unpark(thread);
+            try {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+                thread.join(Math.max(1, remainingMillis));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                log.warn("Subscriber {} did not finish its queued domain events before shutdown", subscriber.name());
+                thread.interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            List<E> batch = new ArrayList<>(batchSize);
+            while (true) {
+                int count = ring.drain(batch, batchSize, System.nanoTime(), lag);
+                if (count == 0) {
+                    if (stopping || Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                    parked = true;
+                    // re-check after announcing the park, so an offer racing with it is not missed
+                    if (ring.isEmpty() && !stopping) {
+                        LockSupport.park(this);
+                    }
+                    parked = false;
+                    continue;
+                }
+                try {
+                    subscriber.onEvents(batch);
+                } catch (RuntimeException ex) {
+                    failed.increment(count);
+                    log.warn("Subscriber {} failed to handle {} domain events", subscriber.name(), count, ex);
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+}
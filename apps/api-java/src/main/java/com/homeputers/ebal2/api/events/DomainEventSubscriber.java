@@ -0,0 +1,28 @@
+package com.homeputers.ebal2.api.events;
+
+import java.util.List;
+
+/**
+ * Receives committed domain events of one type on a dedicated consumer thread.
+ * <p>
+ * Each subscriber has its own bounded queue, so a slow subscriber only delays and drops its own events. Events arrive
+ * in commit order, in batches of up to {@code ebal.events.batch-size}.
+ *
+ * @param <E> the event type, or {@link DomainEvent} for every event
+ */
+public interface DomainEventSubscriber<E extends DomainEvent> {
+
+    Class<E> eventType();
+
+    /**
+     * Handles a batch of events. The list is reused for the next batch and must not be kept after returning.
+     */
+    void onEvents(List<E> events);
+
+    /**
+     * @return the name used for the consumer thread and the metrics tag
+     */
+    default String name() {
+        return getClass().getSimpleName();
+    }
+}
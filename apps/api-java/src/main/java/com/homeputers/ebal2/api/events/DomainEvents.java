@@ -0,0 +1,59 @@
+package com.homeputers.ebal2.api.events;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes domain events from service methods.
+ * <p>
+ * Inside a transaction the events are collected and handed to the {@link DomainEventDispatcher} together once it
+ * commits; a rolled back transaction publishes nothing. Outside a transaction they are dispatched right away.
+ */
+@Component
+public class DomainEvents {
+
+    private final DomainEventDispatcher dispatcher;
+
+    public DomainEvents(DomainEventDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    public void publish(DomainEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatcher.dispatch(event);
+            return;
+        }
+        pendingEvents().events.add(event);
+    }
+
+    // one synchronization per transaction; a suspended outer transaction's synchronizations are not visible here
+    private PendingEvents pendingEvents() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingEvents pending && pending.owner() == this) {
+                return pending;
+            }
+        }
+        PendingEvents pending = new PendingEvents();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private final class PendingEvents implements TransactionSynchronization {
+        private final List<DomainEvent> events = new ArrayList<>(4);
+
+        private DomainEvents owner() {
+            return DomainEvents.this;
+        }
+
+        @Override
+        public void afterCommit() {
+            for (DomainEvent event : events) {
+                dispatcher.dispatch(event);
+            }
+        }
+    }
+}
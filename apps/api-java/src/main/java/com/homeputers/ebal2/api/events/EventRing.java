@@ -0,0 +1,93 @@
+package com.homeputers.ebal2.api.events;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongConsumer;
+
+/**
+ * Bounded ring buffer with many producers and one consumer, preallocated so that offering and draining allocate
+ * nothing.
+ * <p>
+ * Producers claim a sequence number with a CAS on {@code tail}, fill the slot, then mark it published by storing the
+ * sequence number in {@code published}. The consumer reads slots in sequence order up to the first one that is not
+ * published yet, so a producer that claimed a slot but has not filled it holds back later slots instead of exposing a
+ * half-written one. A full ring rejects the offer rather than blocking the committing thread.
+ */
+final class EventRing {
+
+    private final Object[] events;
+    private final long[] offeredAtNanos;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    EventRing(int minCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, minCapacity) - 1) << 1;
+        this.events = new Object[capacity];
+        this.offeredAtNanos = new long[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return {@code false} if the ring is full
+     */
+    boolean offer(Object event, long nowNanos) {
+        long seq;
+        do {
+            seq = tail.get();
+            if (seq - head >= events.length) {
+                return false;
+            }
+        } while (!tail.compareAndSet(seq, seq + 1));
+        int slot = (int) (seq & mask);
+        events[slot] = event;
+        offeredAtNanos[slot] = nowNanos;
+        published.set(slot, seq);
+        return true;
+    }
+
+    /**
+     * Moves up to {@code max} published events into {@code into}, reporting how long each one waited. Only the
+     * consumer thread may call this.
+     *
+     * @return the number of events moved
+     */
+    @SuppressWarnings("unchecked")
+    <E> int drain(List<E> into, int max, long nowNanos, LongConsumer waitedNanos) {
+        long next = head;
+        int count = 0;
+        while (count < max) {
+            int slot = (int) (next & mask);
+            if (published.get(slot) != next) {
+                break;
+            }
+            into.add((E) events[slot]);
+            waitedNanos.accept(nowNanos - offeredAtNanos[slot]);
+            events[slot] = null;
+            next++;
+            count++;
+        }
+        // publishing the new head hands the drained slots back to producers
+        head = next;
+        return count;
+    }
+
+    boolean isEmpty() {
+        long next = head;
+        return published.get((int) (next & mask)) != next;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return events.length;
+    }
+}
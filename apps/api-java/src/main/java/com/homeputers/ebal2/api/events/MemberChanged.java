@@ -0,0 +1,6 @@
+package com.homeputers.ebal2.api.events;
+
+import java.util.UUID;
+
+public record MemberChanged(UUID memberId, ChangeKind kind) implements DomainEvent {
+}
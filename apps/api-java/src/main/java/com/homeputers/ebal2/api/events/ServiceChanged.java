@@ -0,0 +1,6 @@
+package com.homeputers.ebal2.api.events;
+
+import java.util.UUID;
+
+public record ServiceChanged(UUID serviceId, ChangeKind kind) implements DomainEvent {
+}
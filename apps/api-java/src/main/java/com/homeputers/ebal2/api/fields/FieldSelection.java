@@ -0,0 +1,32 @@
+package com.homeputers.ebal2.api.fields;
+
+import java.util.Set;
+
+/**
+ * The response fields a client asked for with {@code fields=}.
+ */
+public final class FieldSelection {
+
+    public static final FieldSelection ALL = new FieldSelection(null);
+
+    private final Set<String> names;
+
+    FieldSelection(Set<String> names) {
+        this.names = names == null ? null : Set.copyOf(names);
+    }
+
+    public boolean isAll() {
+        return names == null;
+    }
+
+    public boolean includes(String field) {
+        return names == null || names.contains(field);
+    }
+
+    /**
+     * @return the selected JSON property names, or {@code null} when every field is selected
+     */
+    public Set<String> names() {
+        return names;
+    }
+}
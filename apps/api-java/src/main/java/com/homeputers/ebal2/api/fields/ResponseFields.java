@@ -0,0 +1,117 @@
+package com.homeputers.ebal2.api.fields;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parses {@code fields=} selectors and limits the JSON written for the current request to the selected fields.
+ * <p>
+ * Field names are the JSON property names of the response type and are checked against it when parsed, so a typo
+ * fails with 400 instead of silently returning nothing. The selection applies to every instance of the response type
+ * in the body, which covers single objects, lists and pages alike; {@code id} is always kept. Services may also
+ * consult the returned selection to leave unselected columns out of their queries.
+ */
+@Component
+public class ResponseFields {
+
+    public static final String FILTER_ID = "responseFields";
+    static final String REQUEST_ATTRIBUTE = ResponseFields.class.getName() + ".selection";
+
+    private static final String ID_FIELD = "id";
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, Set<String>> knownFields = new ConcurrentHashMap<>();
+
+    public ResponseFields(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Parses {@code fields} against {@code responseType} and applies the selection to the current response.
+     *
+     * @return {@link FieldSelection#ALL} when {@code fields} is absent or blank
+     * @throws IllegalArgumentException if a name is not a field of {@code responseType}
+     */
+    public FieldSelection select(String fields, Class<?> responseType) {
+        FieldSelection selection = parse(fields, responseType);
+        if (!selection.isAll()) {
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            if (attributes != null) {
+                attributes.setAttribute(REQUEST_ATTRIBUTE, new Selected(responseType, selection.names()),
+                        RequestAttributes.SCOPE_REQUEST);
+            }
+        }
+        return selection;
+    }
+
+    FieldSelection parse(String fields, Class<?> responseType) {
+        if (fields == null || fields.isBlank()) {
+            return FieldSelection.ALL;
+        }
+        Set<String> known = knownFields.computeIfAbsent(responseType, this::introspect);
+        Set<String> names = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!known.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '%s'; expected one of %s".formatted(name, known));
+            }
+            names.add(name);
+        }
+        if (known.contains(ID_FIELD)) {
+            names.add(ID_FIELD);
+        }
+        return new FieldSelection(names);
+    }
+
+    private Set<String> introspect(Class<?> responseType) {
+        BeanDescription description = objectMapper.getSerializationConfig()
+                .introspect(objectMapper.constructType(responseType));
+        Set<String> names = new TreeSet<>();
+        for (BeanPropertyDefinition property : description.findProperties()) {
+            if (property.couldSerialize()) {
+                names.add(property.getName());
+            }
+        }
+        return Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Writes only the selected properties of {@code type} instances and everything else unchanged.
+     */
+    record Selected(Class<?> type, Set<String> names) {
+
+        SimpleBeanPropertyFilter filter() {
+            return new SimpleBeanPropertyFilter() {
+                @Override
+                public void serializeAsField(Object pojo, JsonGenerator generator, SerializerProvider provider,
+                                             PropertyWriter writer) throws Exception {
+                    if (type.isInstance(pojo) && !names.contains(writer.getName())) {
+                        if (!generator.canOmitFields()) {
+                            writer.serializeAsOmittedField(pojo, generator, provider);
+                        }
+                        return;
+                    }
+                    writer.serializeAsField(pojo, generator, provider);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.homeputers.ebal2.api.fields;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+/**
+ * Applies the selection recorded by {@link ResponseFields#select} when the response body is serialized.
+ */
+@RestControllerAdvice
+public class ResponseFieldsAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return;
+        }
+        HttpServletRequest servlet = servletRequest.getServletRequest();
+        if (servlet.getAttribute(ResponseFields.REQUEST_ATTRIBUTE) instanceof ResponseFields.Selected selected) {
+            bodyContainer.setFilters(new SimpleFilterProvider()
+                    .addFilter(ResponseFields.FILTER_ID, selected.filter())
+                    .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+        }
+    }
+}
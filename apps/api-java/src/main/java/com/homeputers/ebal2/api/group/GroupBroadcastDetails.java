@@ -0,0 +1,9 @@
+package com.homeputers.ebal2.api.group;
+
+import com.homeputers.ebal2.api.domain.broadcast.GroupBroadcast;
+import com.homeputers.ebal2.api.domain.broadcast.GroupBroadcastRecipient;
+
+import java.util.List;
+
+public record GroupBroadcastDetails(GroupBroadcast broadcast, List<GroupBroadcastRecipient> recipients) {
+}
@@ -0,0 +1,249 @@
+package com.homeputers.ebal2.api.group;
+
+import com.homeputers.ebal2.api.config.MailProperties;
+import com.homeputers.ebal2.api.domain.broadcast.GroupBroadcast;
+import com.homeputers.ebal2.api.domain.broadcast.GroupBroadcastMapper;
+import com.homeputers.ebal2.api.domain.broadcast.GroupBroadcastRecipient;
+import com.homeputers.ebal2.api.email.DeliveryResult;
+import com.homeputers.ebal2.api.email.MailTransport;
+import com.homeputers.ebal2.api.email.OutgoingEmail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Sends group broadcasts in the background.
+ * <p>
+ * Pending recipients are split into batches of {@code batchSize}; up to {@code concurrency} batches are in flight at
+ * once, each sent over one pooled transport connection. A shared pacer keeps the overall rate at or below
+ * {@code maxPerSecond}. Per-recipient outcomes are written back as each batch completes; a batch the transport throws
+ * on is marked failed with the error.
+ * <p>
+ * A dispatcher leases the broadcast it sends and renews the lease as batches complete. Broadcasts left {@code PENDING}
+ * or {@code SENDING} by a crash or redeploy are claimed with {@code FOR UPDATE SKIP LOCKED} once their lease runs out,
+ * at startup and every {@code recoveryInterval}, and resumed with the recipients still pending.
+ */
+@Component
+public class GroupBroadcastDispatcher implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupBroadcastDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final GroupBroadcastMapper broadcastMapper;
+    private final MailTransport mailTransport;
+    private final MailProperties.Broadcast properties;
+    private final LongSupplier nanoClock;
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(threadFactory("group-broadcast"));
+    private final ExecutorService senders;
+    private final AtomicBoolean recoveryQueued = new AtomicBoolean();
+    private long nextSlotNanos;
+
+    @Autowired
+    public GroupBroadcastDispatcher(GroupBroadcastMapper broadcastMapper,
+                                    MailTransport mailTransport,
+                                    MailProperties mailProperties) {
+        this(broadcastMapper, mailTransport, mailProperties.getBroadcast(), System::nanoTime);
+    }
+
+    GroupBroadcastDispatcher(GroupBroadcastMapper broadcastMapper,
+                             MailTransport mailTransport,
+                             MailProperties.Broadcast properties,
+                             LongSupplier nanoClock) {
+        this.broadcastMapper = broadcastMapper;
+        this.mailTransport = mailTransport;
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+        this.senders = Executors.newFixedThreadPool(properties.getConcurrency(), threadFactory("group-broadcast-send"));
+        this.nextSlotNanos = nanoClock.getAsLong();
+    }
+
+    public void submit(UUID broadcastId) {
+        runner.execute(() -> {
+            try {
+                run(broadcastId);
+            } catch (RuntimeException ex) {
+                log.error("Broadcast {} aborted", broadcastId, ex);
+            }
+        });
+    }
+
+    /**
+     * Queues a look for unfinished broadcasts behind the broadcasts already submitted.
+     */
+    @Scheduled(fixedDelayString = "${ebal.mail.broadcast.recovery-interval:PT1M}")
+    public void recover() {
+        if (!recoveryQueued.compareAndSet(false, true)) {
+            return;
+        }
+        runner.execute(() -> {
+            recoveryQueued.set(false);
+            try {
+                resumeUnfinished();
+            } catch (DataAccessException ex) {
+                log.warn("Failed to claim unfinished broadcasts", ex);
+            }
+        });
+    }
+
+    void run(UUID broadcastId) {
+        OffsetDateTime now = OffsetDateTime.now();
+        if (broadcastMapper.markSending(broadcastId, now, now.plus(properties.getLease())) == 0) {
+            return;
+        }
+        send(broadcastId);
+    }
+
+    // claims one at a time, so a broadcast is only leased once this thread is ready to send it
+    void resumeUnfinished() {
+        while (true) {
+            OffsetDateTime now = OffsetDateTime.now();
+            List<UUID> claimed = broadcastMapper.claimUnfinished(now, now.plus(properties.getLease()), 1);
+            if (claimed.isEmpty()) {
+                return;
+            }
+            UUID broadcastId = claimed.get(0);
+            log.info("Resuming unfinished broadcast {}", broadcastId);
+            try {
+                send(broadcastId);
+            } catch (RuntimeException ex) {
+                log.error("Broadcast {} aborted", broadcastId, ex);
+                return;
+            }
+        }
+    }
+
+    private void send(UUID broadcastId) {
+        GroupBroadcast broadcast = broadcastMapper.findById(broadcastId);
+        List<GroupBroadcastRecipient> pending = broadcastMapper.findPendingRecipients(broadcastId);
+        List<Future<Boolean>> batches = new ArrayList<>();
+        for (int from = 0; from < pending.size(); from += properties.getBatchSize()) {
+            List<GroupBroadcastRecipient> batch =
+                    pending.subList(from, Math.min(from + properties.getBatchSize(), pending.size()));
+            batches.add(senders.submit(() -> sendBatch(broadcast, batch)));
+        }
+
+        // a resumed broadcast may have failed recipients from before the restart
+        boolean failures = broadcast.failedCount() > 0;
+        for (Future<Boolean> batch : batches) {
+            try {
+                failures |= !batch.get();
+            } catch (ExecutionException ex) {
+                log.error("Broadcast {} batch failed", broadcastId, ex.getCause());
+                failures = true;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while sending broadcast {}", broadcastId);
+                return;
+            }
+            broadcastMapper.renewLease(broadcastId, OffsetDateTime.now().plus(properties.getLease()));
+        }
+        String status = failures ? GroupBroadcast.STATUS_COMPLETED_WITH_ERRORS : GroupBroadcast.STATUS_COMPLETED;
+        broadcastMapper.markCompleted(broadcastId, status, OffsetDateTime.now());
+        log.info("Broadcast {} to group {} finished with status {} ({} recipients)",
+                broadcastId, broadcast.groupId(), status, pending.size());
+    }
+
+    /**
+     * @return {@code true} if every message in the batch was accepted by the transport
+     */
+    private boolean sendBatch(GroupBroadcast broadcast, List<GroupBroadcastRecipient> batch)
+            throws InterruptedException {
+        pace(batch.size());
+        List<OutgoingEmail> emails = batch.stream()
+                .map(recipient -> new OutgoingEmail(recipient.email(), broadcast.renderedSubject(),
+                        broadcast.renderedBody()))
+                .toList();
+        List<DeliveryResult> results;
+        try {
+            results = mailTransport.send(emails);
+        } catch (RuntimeException ex) {
+            log.warn("Transport failed for a batch of {} recipients of broadcast {}", batch.size(), broadcast.id(), ex);
+            List<UUID> memberIds = batch.stream().map(GroupBroadcastRecipient::memberId).toList();
+            broadcastMapper.markRecipientsFailed(broadcast.id(), memberIds, truncate(ex.toString()));
+            return false;
+        }
+
+        List<UUID> sent = new ArrayList<>(batch.size());
+        boolean allSent = true;
+        for (int i = 0; i < batch.size(); i++) {
+            DeliveryResult result = results.get(i);
+            UUID memberId = batch.get(i).memberId();
+            if (result.sent()) {
+                sent.add(memberId);
+            } else {
+                allSent = false;
+                broadcastMapper.markRecipientFailed(broadcast.id(), memberId, truncate(result.error()));
+            }
+        }
+        if (!sent.isEmpty()) {
+            broadcastMapper.markRecipientsSent(broadcast.id(), sent, OffsetDateTime.now());
+        }
+        return allSent;
+    }
+
+    /**
+     * Blocks until {@code messages} more sends fit under {@code maxPerSecond}.
+     */
+    void pace(int messages) throws InterruptedException {
+        if (properties.getMaxPerSecond() <= 0) {
+            return;
+        }
+        long cost = TimeUnit.SECONDS.toNanos(messages) / properties.getMaxPerSecond();
+        long waitNanos;
+        synchronized (this) {
+            long now = nanoClock.getAsLong();
+            long start = nextSlotNanos - now > 0 ? nextSlotNanos : now;
+            nextSlotNanos = start + cost;
+            waitNanos = start - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        runner.shutdown();
+        senders.shutdown();
+        if (!runner.awaitTermination(10, TimeUnit.SECONDS)) {
+            runner.shutdownNow();
+        }
+        if (!senders.awaitTermination(10, TimeUnit.SECONDS)) {
+            senders.shutdownNow();
+        }
+    }
+
+    private static String truncate(String error) {
+        if (error == null || error.length() <= MAX_ERROR_LENGTH) {
+            return error;
+        }
+        return error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
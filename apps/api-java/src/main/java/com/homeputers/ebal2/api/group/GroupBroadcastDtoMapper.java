@@ -0,0 +1,40 @@
+package com.homeputers.ebal2.api.group;
+
+import com.homeputers.ebal2.api.domain.broadcast.GroupBroadcast;
+import com.homeputers.ebal2.api.domain.broadcast.GroupBroadcastRecipient;
+import com.homeputers.ebal2.api.generated.model.GroupBroadcastResponse;
+
+public final class GroupBroadcastDtoMapper {
+
+    private GroupBroadcastDtoMapper() {
+    }
+
+    public static GroupBroadcastResponse toResponse(GroupBroadcastDetails details) {
+        GroupBroadcast broadcast = details.broadcast();
+        GroupBroadcastResponse response = new GroupBroadcastResponse();
+        response.setId(broadcast.id());
+        response.setGroupId(broadcast.groupId());
+        response.setSubject(broadcast.subject());
+        response.setStatus(GroupBroadcastResponse.StatusEnum.fromValue(broadcast.status()));
+        response.setTotalRecipients(broadcast.totalRecipients());
+        response.setSentCount(broadcast.sentCount());
+        response.setFailedCount(broadcast.failedCount());
+        response.setSkippedCount(broadcast.skippedCount());
+        response.setCreatedAt(broadcast.createdAt());
+        response.setCompletedAt(broadcast.completedAt());
+        response.setRecipients(details.recipients().stream().map(GroupBroadcastDtoMapper::toRecipient).toList());
+        return response;
+    }
+
+    private static com.homeputers.ebal2.api.generated.model.GroupBroadcastRecipient toRecipient(
+            GroupBroadcastRecipient recipient) {
+        var dto = new com.homeputers.ebal2.api.generated.model.GroupBroadcastRecipient();
+        dto.setMemberId(recipient.memberId());
+        dto.setEmail(recipient.email());
+        dto.setStatus(com.homeputers.ebal2.api.generated.model.GroupBroadcastRecipient.StatusEnum
+                .fromValue(recipient.status()));
+        dto.setError(recipient.error());
+        dto.setSentAt(recipient.sentAt());
+        return dto;
+    }
+}
@@ -0,0 +1,148 @@
+package com.homeputers.ebal2.api.group;
+
+import com.homeputers.ebal2.api.domain.broadcast.GroupBroadcast;
+import com.homeputers.ebal2.api.domain.broadcast.GroupBroadcastMapper;
+import com.homeputers.ebal2.api.domain.broadcast.GroupBroadcastRecipient;
+import com.homeputers.ebal2.api.domain.group.Group;
+import com.homeputers.ebal2.api.domain.member.Member;
+import com.homeputers.ebal2.api.domain.member.MemberMapper;
+import com.homeputers.ebal2.api.generated.model.GroupBroadcastRequest;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+@Service
+public class GroupBroadcastService {
+
+    private static final int RECIPIENT_INSERT_CHUNK = 1000;
+
+    private final GroupService groupService;
+    private final MemberMapper memberMapper;
+    private final GroupBroadcastMapper broadcastMapper;
+    private final GroupBroadcastDispatcher dispatcher;
+    private final MessageSource messageSource;
+
+    public GroupBroadcastService(GroupService groupService,
+                                 MemberMapper memberMapper,
+                                 GroupBroadcastMapper broadcastMapper,
+                                 GroupBroadcastDispatcher dispatcher,
+                                 MessageSource messageSource) {
+        this.groupService = groupService;
+        this.memberMapper = memberMapper;
+        this.broadcastMapper = broadcastMapper;
+        this.dispatcher = dispatcher;
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * Records the broadcast and its recipients, then hands it to the dispatcher once the transaction commits. The
+     * message is rendered here, once, so sending is pure I/O.
+     */
+    @Transactional
+    public GroupBroadcastDetails create(UUID groupId, GroupBroadcastRequest request, String acceptLanguage) {
+        Objects.requireNonNull(request, "request");
+        Group group = groupService.get(groupId);
+        Locale locale = resolveLocale(request.getLocale(), acceptLanguage);
+        String groupName = group.name() == null ? "" : group.name();
+
+        GroupBroadcast broadcast = new GroupBroadcast(
+                null,
+                groupId,
+                request.getSubject(),
+                messageSource.getMessage("mail.group-broadcast.subject",
+                        new Object[]{groupName, request.getSubject()}, locale),
+                messageSource.getMessage("mail.group-broadcast.body",
+                        new Object[]{groupName, request.getBody()}, locale),
+                locale.toLanguageTag(),
+                GroupBroadcast.STATUS_PENDING,
+                0, 0, 0, 0,
+                OffsetDateTime.now(),
+                null);
+        broadcastMapper.insert(broadcast);
+
+        List<GroupBroadcastRecipient> recipients = recipients(broadcast.id(), memberMapper.findByGroupId(groupId));
+        for (int from = 0; from < recipients.size(); from += RECIPIENT_INSERT_CHUNK) {
+            broadcastMapper.insertRecipients(
+                    recipients.subList(from, Math.min(from + RECIPIENT_INSERT_CHUNK, recipients.size())));
+        }
+
+        dispatchAfterCommit(broadcast.id());
+        return new GroupBroadcastDetails(broadcastMapper.findById(broadcast.id()), recipients);
+    }
+
+    @Transactional(readOnly = true)
+    public GroupBroadcastDetails get(UUID groupId, UUID broadcastId) {
+        GroupBroadcast broadcast = broadcastMapper.findById(broadcastId);
+        if (broadcast == null || !broadcast.groupId().equals(groupId)) {
+            throw new NoSuchElementException("Broadcast not found");
+        }
+        return new GroupBroadcastDetails(broadcast, broadcastMapper.findRecipients(broadcastId));
+    }
+
+    private static List<GroupBroadcastRecipient> recipients(UUID broadcastId, List<Member> members) {
+        List<GroupBroadcastRecipient> recipients = new ArrayList<>(members.size());
+        Set<String> seen = new HashSet<>();
+        for (Member member : members) {
+            String email = StringUtils.hasText(member.email()) ? member.email().trim() : null;
+            String status = GroupBroadcastRecipient.STATUS_PENDING;
+            String reason = null;
+            if (email == null) {
+                status = GroupBroadcastRecipient.STATUS_SKIPPED;
+                reason = "Member has no email address";
+            } else if (!seen.add(email.toLowerCase(Locale.ROOT))) {
+                status = GroupBroadcastRecipient.STATUS_SKIPPED;
+                reason = "Duplicate email address";
+            }
+            recipients.add(new GroupBroadcastRecipient(broadcastId, member.id(), email, status, reason, null));
+        }
+        return recipients;
+    }
+
+    private void dispatchAfterCommit(UUID broadcastId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatcher.submit(broadcastId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatcher.submit(broadcastId);
+            }
+        });
+    }
+
+    private static Locale resolveLocale(String requested, String acceptLanguage) {
+        if (StringUtils.hasText(requested)) {
+            Locale locale = Locale.forLanguageTag(requested.trim());
+            if (StringUtils.hasText(locale.getLanguage())) {
+                return locale;
+            }
+        }
+        if (StringUtils.hasText(acceptLanguage)) {
+            try {
+                for (Locale.LanguageRange range : Locale.LanguageRange.parse(acceptLanguage)) {
+                    Locale locale = Locale.forLanguageTag(range.getRange());
+                    if (StringUtils.hasText(locale.getLanguage())) {
+                        return locale;
+                    }
+                }
+            } catch (IllegalArgumentException ignored) {
+                // ignore malformed headers and fall back to default
+            }
+        }
+        return Locale.ENGLISH;
+    }
+}
@@ -2,6 +2,8 @@ package com.homeputers.ebal2.api.group;
 
 import com.homeputers.ebal2.api.domain.group.Group;
 import com.homeputers.ebal2.api.generated.GroupsApi;
+import com.homeputers.ebal2.api.generated.model.GroupBroadcastRequest;
+import com.homeputers.ebal2.api.generated.model.GroupBroadcastResponse;
 import com.homeputers.ebal2.api.generated.model.GroupRequest;
 import com.homeputers.ebal2.api.generated.model.GroupResponse;
 import com.homeputers.ebal2.api.generated.model.PageGroupResponse;
@@ -18,9 +20,11 @@ import java.util.UUID;
 @RequestMapping("/api/v1")
 public class GroupController implements GroupsApi {
     private final GroupService service;
+    private final GroupBroadcastService broadcastService;
 
-    public GroupController(GroupService service) {
+    public GroupController(GroupService service, GroupBroadcastService broadcastService) {
         this.service = service;
+        this.broadcastService = broadcastService;
     }
 
     @Override
@@ -63,4 +67,17 @@ public class GroupController implements GroupsApi {
         service.removeMember(id, memberId);
         return ResponseEntity.noContent().build();
     }
+
+    @Override
+    public ResponseEntity<GroupBroadcastResponse> createGroupBroadcast(UUID id,
+                                                                       GroupBroadcastRequest groupBroadcastRequest,
+                                                                       String acceptLanguage) {
+        GroupBroadcastDetails created = broadcastService.create(id, groupBroadcastRequest, acceptLanguage);
+        return new ResponseEntity<>(GroupBroadcastDtoMapper.toResponse(created), HttpStatus.ACCEPTED);
+    }
+
+    @Override
+    public ResponseEntity<GroupBroadcastResponse> getGroupBroadcast(UUID id, UUID broadcastId) {
+        return ResponseEntity.ok(GroupBroadcastDtoMapper.toResponse(broadcastService.get(id, broadcastId)));
+    }
 }
@@ -0,0 +1,47 @@
+package com.homeputers.ebal2.api.invalidation;
+
+import java.util.UUID;
+
+/**
+ * Tells other replicas that their cached copy of an entity is stale.
+ * <p>
+ * On the wire it is {@code origin|entityType|id|version}, with empty fields for a missing id or version, which keeps
+ * it far below the 8000 byte limit of a notification payload.
+ *
+ * @param entityType the kind of entity, or {@link #ALL} to drop every cache
+ * @param id         the entity, or {@code null} for every entity of the type
+ * @param version    the entity version the writer produced, when known; caches holding this version or newer keep it
+ */
+public record Invalidation(String entityType, UUID id, Long version) {
+
+    public static final String ALL = "*";
+    public static final String USER = "USER";
+
+    private static final String SEPARATOR = "|";
+
+    public static Invalidation all() {
+        return new Invalidation(ALL, null, null);
+    }
+
+    String encode(String origin) {
+        return origin + SEPARATOR + entityType
+                + SEPARATOR + (id == null ? "" : id.toString())
+                + SEPARATOR + (version == null ? "" : version.toString());
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code payload} is not an encoded invalidation
+     */
+    static Message decode(String payload) {
+        String[] fields = payload.split("\\|", -1);
+        if (fields.length != 4 || fields[0].isEmpty() || fields[1].isEmpty()) {
+            throw new IllegalArgumentException("Malformed invalidation '%s'".formatted(payload));
+        }
+        UUID id = fields[2].isEmpty() ? null : UUID.fromString(fields[2]);
+        Long version = fields[3].isEmpty() ? null : Long.valueOf(fields[3]);
+        return new Message(fields[0], new Invalidation(fields[1], id, version));
+    }
+
+    record Message(String origin, Invalidation invalidation) {
+    }
+}
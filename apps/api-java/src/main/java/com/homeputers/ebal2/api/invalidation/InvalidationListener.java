@@ -0,0 +1,178 @@
+package com.homeputers.ebal2.api.invalidation;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Applies invalidations published by other replicas to this replica's caches.
+ * <p>
+ * Listens on a dedicated connection outside the pool, since a pooled connection would be handed back and lose its
+ * {@code LISTEN}. Postgres only delivers notifications to sessions that are listening, so anything published while
+ * the connection was down is lost: every (re)connect therefore starts with a full flush of all targets. The
+ * connection is checked with a query whenever no notification arrived for {@code pollInterval}, and reconnects back
+ * off exponentially up to {@code maxReconnectDelay}.
+ */
+public class InvalidationListener implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationListener.class);
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+    private static final Duration MIN_RECONNECT_DELAY = Duration.ofMillis(500);
+
+    /**
+     * Opens the dedicated listening connection.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection connect() throws SQLException;
+    }
+
+    private final ConnectionFactory connectionFactory;
+    private final String channel;
+    private final String origin;
+    private final Map<String, InvalidationTarget> targets;
+    private final Duration pollInterval;
+    private final Duration maxReconnectDelay;
+    private volatile boolean running;
+    private volatile Thread thread;
+
+    public InvalidationListener(ConnectionFactory connectionFactory,
+                                String channel,
+                                InvalidationPublisher publisher,
+                                List<InvalidationTarget> targets,
+                                Duration pollInterval,
+                                Duration maxReconnectDelay) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid notification channel '%s'".formatted(channel));
+        }
+        this.connectionFactory = connectionFactory;
+        this.channel = channel;
+        this.origin = publisher.origin();
+        this.targets = targets.stream()
+                .collect(Collectors.toUnmodifiableMap(InvalidationTarget::entityType, Function.identity()));
+        this.pollInterval = pollInterval;
+        this.maxReconnectDelay = maxReconnectDelay;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        thread = Thread.ofPlatform().name("cache-invalidation-listener").daemon().start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = thread;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Applies one notification payload. Payloads from this replica are skipped, since it evicted locally already;
+     * payloads that cannot be read flush everything, as the entity they were about is unknown.
+     */
+    void dispatch(String payload) {
+        Invalidation.Message message;
+        try {
+            message = Invalidation.decode(payload);
+        } catch (IllegalArgumentException ex) {
+            log.warn("Flushing caches after unreadable invalidation: {}", ex.getMessage());
+            flushAll();
+            return;
+        }
+        if (origin.equals(message.origin())) {
+            return;
+        }
+        Invalidation invalidation = message.invalidation();
+        if (Invalidation.ALL.equals(invalidation.entityType())) {
+            flushAll();
+            return;
+        }
+        InvalidationTarget target = targets.get(invalidation.entityType());
+        if (target == null) {
+            // published by a replica that caches more than this one
+            return;
+        }
+        if (invalidation.id() == null) {
+            target.invalidateAll();
+        } else {
+            target.invalidate(invalidation.id(), invalidation.version());
+        }
+    }
+
+    void flushAll() {
+        for (InvalidationTarget target : targets.values()) {
+            target.invalidateAll();
+        }
+    }
+
+    private void run() {
+        Duration reconnectDelay = MIN_RECONNECT_DELAY;
+        while (running) {
+            try (Connection connection = connectionFactory.connect()) {
+                PGConnection notifications = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                flushAll();
+                reconnectDelay = MIN_RECONNECT_DELAY;
+                log.debug("Listening for cache invalidations on {}", channel);
+                listen(connection, notifications);
+            } catch (SQLException ex) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener lost its connection, reconnecting in {}", reconnectDelay, ex);
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                reconnectDelay = reconnectDelay.multipliedBy(2);
+                if (reconnectDelay.compareTo(maxReconnectDelay) > 0) {
+                    reconnectDelay = maxReconnectDelay;
+                }
+            }
+        }
+    }
+
+    private void listen(Connection connection, PGConnection notifications) throws SQLException {
+        int timeoutMillis = (int) pollInterval.toMillis();
+        while (running) {
+            PGNotification[] received = notifications.getNotifications(timeoutMillis);
+            if (received == null || received.length == 0) {
+                // waiting for notifications does not notice a server that went away; a round trip does
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+                continue;
+            }
+            for (PGNotification notification : received) {
+                try {
+                    dispatch(notification.getParameter());
+                } catch (RuntimeException ex) {
+                    log.warn("Failed to apply cache invalidation '{}'", notification.getParameter(), ex);
+                }
+            }
+        }
+    }
+}
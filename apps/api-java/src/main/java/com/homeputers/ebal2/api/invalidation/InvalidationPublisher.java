@@ -0,0 +1,34 @@
+package com.homeputers.ebal2.api.invalidation;
+
+import com.homeputers.ebal2.api.domain.invalidation.InvalidationMapper;
+
+import java.util.UUID;
+
+/**
+ * Announces invalidations to the other replicas through {@code pg_notify}.
+ * <p>
+ * The notification is queued on the writing transaction's own connection, so Postgres delivers it only once that
+ * transaction commits, after the change is visible to the replicas that reload, and never for a rollback.
+ */
+public class InvalidationPublisher {
+
+    private final InvalidationMapper mapper;
+    private final String channel;
+    private final String origin = UUID.randomUUID().toString();
+
+    public InvalidationPublisher(InvalidationMapper mapper, String channel) {
+        this.mapper = mapper;
+        this.channel = channel;
+    }
+
+    public void publish(Invalidation invalidation) {
+        mapper.notify(channel, invalidation.encode(origin));
+    }
+
+    /**
+     * @return the id stamped on this replica's notifications, so its own listener can skip them
+     */
+    String origin() {
+        return origin;
+    }
+}
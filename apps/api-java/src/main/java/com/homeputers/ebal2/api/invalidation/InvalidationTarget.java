@@ -0,0 +1,23 @@
+package com.homeputers.ebal2.api.invalidation;
+
+import java.util.UUID;
+
+/**
+ * An in-process cache that evicts entries when another replica changes them.
+ */
+public interface InvalidationTarget {
+
+    /**
+     * @return the {@link Invalidation#entityType()} this cache holds
+     */
+    String entityType();
+
+    /**
+     * Evicts {@code id}, unless the cached copy is already at {@code version} or newer.
+     *
+     * @param version {@code null} when the writer did not know the new version
+     */
+    void invalidate(UUID id, Long version);
+
+    void invalidateAll();
+}
@@ -0,0 +1,24 @@
+package com.homeputers.ebal2.api.live;
+
+import java.util.UUID;
+
+/**
+ * A change pushed to live subscribers. Events carry no entity state; clients refetch what {@code id} names, or catch
+ * up through {@code GET /sync}.
+ *
+ * @param type the SSE event name, e.g. {@code plan-item.updated}
+ * @param id   the changed entity
+ */
+public record LiveEvent(String type, UUID id) {
+    public static final String SERVICE_UPDATED = "service.updated";
+    public static final String SERVICE_DELETED = "service.deleted";
+    public static final String PLAN_ITEM_CREATED = "plan-item.created";
+    public static final String PLAN_ITEM_UPDATED = "plan-item.updated";
+    public static final String PLAN_ITEM_DELETED = "plan-item.deleted";
+    public static final String SONG_SET_UPDATED = "song-set.updated";
+    public static final String SONG_SET_DELETED = "song-set.deleted";
+    public static final String SONG_SET_ITEM_CREATED = "song-set-item.created";
+    public static final String SONG_SET_ITEM_UPDATED = "song-set-item.updated";
+    public static final String SONG_SET_ITEM_DELETED = "song-set-item.deleted";
+    public static final String SONG_SET_ITEMS_REORDERED = "song-set-items.reordered";
+}
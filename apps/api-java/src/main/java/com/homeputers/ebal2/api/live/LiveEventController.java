@@ -0,0 +1,44 @@
+package com.homeputers.ebal2.api.live;
+
+import com.homeputers.ebal2.api.service.ServiceService;
+import com.homeputers.ebal2.api.songset.SongSetService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
+
+/**
+ * Server-sent event streams of changes to one service or song set.
+ * <p>
+ * Mapped here rather than through the OpenAPI spec because the generated interfaces cannot return an
+ * {@link SseEmitter}. Each event is named after its {@link LiveEvent} type and carries {@code {"type", "id"}} as
+ * JSON; comment lines are heartbeats.
+ */
+@RestController
+@RequestMapping("/api/v1")
+public class LiveEventController {
+    private final LiveEventHub hub;
+    private final ServiceService serviceService;
+    private final SongSetService songSetService;
+
+    public LiveEventController(LiveEventHub hub, ServiceService serviceService, SongSetService songSetService) {
+        this.hub = hub;
+        this.serviceService = serviceService;
+        this.songSetService = songSetService;
+    }
+
+    @GetMapping("/services/{id}/events")
+    public SseEmitter streamServiceEvents(@PathVariable UUID id) {
+        serviceService.get(id);
+        return hub.subscribe(LiveTopic.service(id));
+    }
+
+    @GetMapping("/song-sets/{id}/events")
+    public SseEmitter streamSongSetEvents(@PathVariable UUID id) {
+        songSetService.get(id);
+        return hub.subscribe(LiveTopic.songSet(id));
+    }
+}
@@ -0,0 +1,209 @@
+package com.homeputers.ebal2.api.live;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeputers.ebal2.api.config.LiveEventProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans live events out to server-sent event streams, one stream per subscribed service or song set.
+ * <p>
+ * An open stream is an async servlet response plus a small queue, so idle subscribers hold no thread. Publishing
+ * serializes the event once and only offers it to each subscriber's bounded queue; a subscriber whose queue is full
+ * is a slow consumer and is disconnected instead of slowing the others down. Queues are drained on virtual threads,
+ * one drain at a time per subscriber, so a client that stops reading blocks only its own drain.
+ */
+@Component
+public class LiveEventHub implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveEventHub.class);
+    private static final Set<DataWithMediaType> CONNECTED = SseEmitter.event().comment("connected").build();
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final Executor senders;
+    private final ConcurrentHashMap<LiveTopic, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Autowired
+    public LiveEventHub(ObjectMapper objectMapper, LiveEventProperties properties) {
+        this(objectMapper, properties, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    LiveEventHub(ObjectMapper objectMapper, LiveEventProperties properties, Executor senders) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = properties.getBufferSize();
+        this.maxSubscribers = properties.getMaxSubscribers();
+        this.timeoutMillis = properties.getTimeout().toMillis();
+        this.senders = senders;
+    }
+
+    /**
+     * Opens a stream that receives every event published to {@code topic} from now on.
+     *
+     * @throws TooManySubscribersException if {@code maxSubscribers} streams are already open
+     */
+    public SseEmitter subscribe(LiveTopic topic) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new TooManySubscribersException("Too many live event subscribers");
+        }
+        Subscriber subscriber = new Subscriber(topic, newEmitter(timeoutMillis), new ArrayBlockingQueue<>(bufferSize));
+        subscribers.compute(topic, (key, set) -> {
+            Set<Subscriber> target = set != null ? set : ConcurrentHashMap.newKeySet();
+            target.add(subscriber);
+            return target;
+        });
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(ex -> remove(subscriber));
+        offer(subscriber, CONNECTED);
+        return subscriber.emitter;
+    }
+
+    /**
+     * Sends {@code event} to the streams of {@code topic}. Called by {@link LiveEventRelay} once the change committed.
+     */
+    void publish(LiveTopic topic, LiveEvent event) {
+        Set<Subscriber> targets = subscribers.get(topic);
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+        Set<DataWithMediaType> frame = SseEmitter.event()
+                .id(Long.toString(sequence.incrementAndGet()))
+                .name(event.type())
+                .data(toJson(event))
+                .build();
+        for (Subscriber subscriber : targets) {
+            offer(subscriber, frame);
+        }
+    }
+
+    /**
+     * Keeps idle streams from being closed by proxies, and finds clients that went away without closing.
+     */
+    @Scheduled(fixedDelayString = "${ebal.live-events.heartbeat-interval:PT25S}")
+    public void heartbeat() {
+        for (Set<Subscriber> targets : subscribers.values()) {
+            for (Subscriber subscriber : targets) {
+                offer(subscriber, HEARTBEAT);
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void offer(Subscriber subscriber, Set<DataWithMediaType> frame) {
+        if (!subscriber.queue.offer(frame)) {
+            evict(subscriber);
+            return;
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            Set<DataWithMediaType> frame;
+            while (!subscriber.closed.get() && (frame = subscriber.queue.poll()) != null) {
+                try {
+                    subscriber.emitter.send(frame);
+                } catch (IOException | IllegalStateException ex) {
+                    // the client went away or the stream already ended
+                    remove(subscriber);
+                    return;
+                }
+            }
+            subscriber.draining.set(false);
+        } while (!subscriber.closed.get() && !subscriber.queue.isEmpty()
+                && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void evict(Subscriber subscriber) {
+        if (remove(subscriber)) {
+            log.debug("Disconnecting slow live event subscriber of {} {}", subscriber.topic.kind(),
+                    subscriber.topic.id());
+            // complete() waits for a send in progress, so it must not run on the publishing thread
+            senders.execute(subscriber.emitter::complete);
+        }
+    }
+
+    private boolean remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return false;
+        }
+        subscribers.computeIfPresent(subscriber.topic, (key, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+        subscriber.queue.clear();
+        subscriberCount.decrementAndGet();
+        return true;
+    }
+
+    private String toJson(LiveEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize live event " + event.type(), ex);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (Set<Subscriber> targets : subscribers.values()) {
+            for (Subscriber subscriber : targets) {
+                if (remove(subscriber)) {
+                    subscriber.emitter.complete();
+                }
+            }
+        }
+        if (senders instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class Subscriber {
+        private final LiveTopic topic;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscriber(LiveTopic topic, SseEmitter emitter, BlockingQueue<Set<DataWithMediaType>> queue) {
+            this.topic = topic;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.homeputers.ebal2.api.live;
+
+import com.homeputers.ebal2.api.events.ChangeKind;
+import com.homeputers.ebal2.api.events.DomainEvent;
+import com.homeputers.ebal2.api.events.DomainEventSubscriber;
+import com.homeputers.ebal2.api.events.PlanItemChanged;
+import com.homeputers.ebal2.api.events.ServiceChanged;
+import com.homeputers.ebal2.api.events.SongSetChanged;
+import com.homeputers.ebal2.api.events.SongSetItemChanged;
+import com.homeputers.ebal2.api.events.SongSetItemsReordered;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Turns committed service and song set events into live events for their streams. A service or song set that was
+ * just created has no streams yet, so its creation is not relayed.
+ */
+@Component
+public class LiveEventRelay implements DomainEventSubscriber<DomainEvent> {
+
+    private final LiveEventHub hub;
+
+    public LiveEventRelay(LiveEventHub hub) {
+        this.hub = hub;
+    }
+
+    @Override
+    public Class<DomainEvent> eventType() {
+        return DomainEvent.class;
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            switch (event) {
+                case ServiceChanged e -> {
+                    if (e.kind() != ChangeKind.CREATED) {
+                        hub.publish(LiveTopic.service(e.serviceId()), new LiveEvent(e.kind() == ChangeKind.DELETED
+                                ? LiveEvent.SERVICE_DELETED
+                                : LiveEvent.SERVICE_UPDATED, e.serviceId()));
+                    }
+                }
+                case PlanItemChanged e -> hub.publish(LiveTopic.service(e.serviceId()), new LiveEvent(type(e.kind(),
+                        LiveEvent.PLAN_ITEM_CREATED, LiveEvent.PLAN_ITEM_UPDATED, LiveEvent.PLAN_ITEM_DELETED),
+                        e.itemId()));
+                case SongSetChanged e -> {
+                    if (e.kind() != ChangeKind.CREATED) {
+                        hub.publish(LiveTopic.songSet(e.songSetId()), new LiveEvent(e.kind() == ChangeKind.DELETED
+                                ? LiveEvent.SONG_SET_DELETED
+                                : LiveEvent.SONG_SET_UPDATED, e.songSetId()));
+                    }
+                }
+                case SongSetItemChanged e -> hub.publish(LiveTopic.songSet(e.songSetId()), new LiveEvent(type(e.kind(),
+                        LiveEvent.SONG_SET_ITEM_CREATED, LiveEvent.SONG_SET_ITEM_UPDATED,
+                        LiveEvent.SONG_SET_ITEM_DELETED), e.itemId()));
+                case SongSetItemsReordered e -> hub.publish(LiveTopic.songSet(e.songSetId()),
+                        new LiveEvent(LiveEvent.SONG_SET_ITEMS_REORDERED, e.songSetId()));
+                default -> {
+                    // songs, arrangements and members have no live streams
+                }
+            }
+        }
+    }
+
+    private static String type(ChangeKind kind, String created, String updated, String deleted) {
+        return switch (kind) {
+            case CREATED -> created;
+            case UPDATED -> updated;
+            case DELETED -> deleted;
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.homeputers.ebal2.api.live;
+
+import java.util.UUID;
+
+/**
+ * What a live event stream is subscribed to: one service or one song set.
+ */
+public record LiveTopic(String kind, UUID id) {
+    public static final String SERVICE = "service";
+    public static final String SONG_SET = "song-set";
+
+    public static LiveTopic service(UUID id) {
+        return new LiveTopic(SERVICE, id);
+    }
+
+    public static LiveTopic songSet(UUID id) {
+        return new LiveTopic(SONG_SET, id);
+    }
+}
@@ -0,0 +1,8 @@
+package com.homeputers.ebal2.api.live;
+
+public class TooManySubscribersException extends RuntimeException {
+
+    public TooManySubscribersException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,10 @@
 package com.homeputers.ebal2.api.member;
 
 import com.homeputers.ebal2.api.domain.member.Member;
+import com.homeputers.ebal2.api.fields.ResponseFields;
 import com.homeputers.ebal2.api.generated.MembersApi;
+import com.homeputers.ebal2.api.generated.model.BatchGetRequest;
+import com.homeputers.ebal2.api.generated.model.MemberBatchGetResponse;
 import com.homeputers.ebal2.api.generated.model.MemberRequest;
 import com.homeputers.ebal2.api.generated.model.MemberResponse;
 import com.homeputers.ebal2.api.generated.model.PageMemberResponse;
@@ -18,19 +21,28 @@ import java.util.UUID;
 @RequestMapping("/api/v1")
 public class MemberController implements MembersApi {
     private final MemberService service;
+    private final ResponseFields responseFields;
 
-    public MemberController(MemberService service) {
+    public MemberController(MemberService service, ResponseFields responseFields) {
         this.service = service;
+        this.responseFields = responseFields;
     }
 
     @Override
-    public ResponseEntity<PageMemberResponse> listMembers(String q, Integer page, Integer size) {
+    public ResponseEntity<PageMemberResponse> listMembers(String q, Integer page, Integer size, String fields) {
+        responseFields.select(fields, MemberResponse.class);
         Page<Member> members = service.search(q, PageRequest.of(page, size));
         return ResponseEntity.ok(MemberMapper.toPageResponse(members));
     }
 
     @Override
-    public ResponseEntity<MemberResponse> getMember(UUID id) {
+    public ResponseEntity<MemberBatchGetResponse> batchGetMembers(BatchGetRequest batchGetRequest) {
+        return ResponseEntity.ok(MemberMapper.toBatchGetResponse(service.getAll(batchGetRequest.getIds())));
+    }
+
+    @Override
+    public ResponseEntity<MemberResponse> getMember(UUID id, String fields) {
+        responseFields.select(fields, MemberResponse.class);
         return ResponseEntity.ok(MemberMapper.toResponse(service.get(id)));
     }
 
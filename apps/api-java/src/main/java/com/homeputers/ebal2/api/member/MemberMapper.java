@@ -1,11 +1,16 @@
 package com.homeputers.ebal2.api.member;
 
+import com.homeputers.ebal2.api.batch.BatchGet;
 import com.homeputers.ebal2.api.domain.member.Member;
+import com.homeputers.ebal2.api.generated.model.MemberBatchGetResponse;
+import com.homeputers.ebal2.api.generated.model.MemberBatchGetResult;
 import com.homeputers.ebal2.api.generated.model.MemberRequest;
 import com.homeputers.ebal2.api.generated.model.MemberResponse;
 import com.homeputers.ebal2.api.generated.model.PageMemberResponse;
 import org.springframework.data.domain.Page;
 
+import java.util.List;
+
 public class MemberMapper {
     public static Member toEntity(MemberRequest request) {
         return new Member(
@@ -39,4 +44,18 @@ public class MemberMapper {
         response.setSize(page.getSize());
         return response;
     }
+
+    public static MemberBatchGetResponse toBatchGetResponse(List<BatchGet.Result<Member>> results) {
+        MemberBatchGetResponse response = new MemberBatchGetResponse();
+        response.setResults(results.stream().map(result -> {
+            MemberBatchGetResult item = new MemberBatchGetResult();
+            item.setId(result.id());
+            item.setFound(result.found());
+            if (result.found()) {
+                item.setMember(toResponse(result.value()));
+            }
+            return item;
+        }).toList());
+        return response;
+    }
 }
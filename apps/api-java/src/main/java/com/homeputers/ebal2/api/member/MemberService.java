@@ -1,6 +1,10 @@
 package com.homeputers.ebal2.api.member;
 
+import com.homeputers.ebal2.api.batch.BatchGet;
 import com.homeputers.ebal2.api.domain.member.Member;
+import com.homeputers.ebal2.api.events.ChangeKind;
+import com.homeputers.ebal2.api.events.DomainEvents;
+import com.homeputers.ebal2.api.events.MemberChanged;
 import org.springframework.data.domain.PageImpl;
 import com.homeputers.ebal2.api.generated.model.MemberRequest;
 import org.springframework.transaction.annotation.Transactional;
@@ -8,15 +12,18 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.UUID;
 
 @Service
 public class MemberService {
     private final com.homeputers.ebal2.api.domain.member.MemberMapper mapper;
+    private final DomainEvents events;
 
-    public MemberService(com.homeputers.ebal2.api.domain.member.MemberMapper mapper) {
+    public MemberService(com.homeputers.ebal2.api.domain.member.MemberMapper mapper, DomainEvents events) {
         this.mapper = mapper;
+        this.events = events;
     }
 
     public Member get(UUID id) {
@@ -27,6 +34,13 @@ public class MemberService {
         return member;
     }
 
+    /**
+     * Looks up several members with one statement, in the order of {@code ids}.
+     */
+    public List<BatchGet.Result<Member>> getAll(List<UUID> ids) {
+        return BatchGet.inRequestOrder(ids, mapper.findByIds(BatchGet.distinctIds(ids)), Member::id);
+    }
+
     public Page<Member> search(String query, Pageable pageable) {
         int offset = (int) pageable.getOffset();
         int limit = pageable.getPageSize();
@@ -46,6 +60,7 @@ public class MemberService {
                 member.phoneNumber(),
                 member.birthdayMonth(),
                 member.birthdayDay());
+        events.publish(new MemberChanged(member.id(), ChangeKind.CREATED));
         return member;
     }
 
@@ -68,11 +83,13 @@ public class MemberService {
                 request.getPhoneNumber(),
                 request.getBirthdayMonth(),
                 request.getBirthdayDay());
+        events.publish(new MemberChanged(id, ChangeKind.UPDATED));
         return updated;
     }
 
     @Transactional
     public void delete(UUID id) {
         mapper.delete(id);
+        events.publish(new MemberChanged(id, ChangeKind.DELETED));
     }
 }
@@ -0,0 +1,88 @@
+package com.homeputers.ebal2.api.mybatis;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Opens a {@link RequestIdentityMap} for each request and reports how it was used once the request is done.
+ * <p>
+ * Metrics, tagged by statement: {@code ebal.identity-map.lookups} with {@code outcome} {@code load} for lookups that
+ * queried and {@code hit} for duplicate loads answered from the map. Requests with duplicates are also logged at
+ * debug level.
+ */
+public class IdentityMapFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(IdentityMapFilter.class);
+
+    private final int maxEntries;
+    private final MeterRegistry meterRegistry;
+
+    public IdentityMapFilter(int maxEntries, MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestIdentityMap map = RequestIdentityMap.open(maxEntries);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            map.close();
+            report(request, map.stats());
+        }
+    }
+
+    private void report(HttpServletRequest request, Map<String, RequestIdentityMap.Stats> stats) {
+        int hits = 0;
+        for (Map.Entry<String, RequestIdentityMap.Stats> entry : stats.entrySet()) {
+            String statement = shortName(entry.getKey());
+            RequestIdentityMap.Stats counts = entry.getValue();
+            increment(statement, "load", counts.loads());
+            increment(statement, "hit", counts.hits());
+            hits += counts.hits();
+        }
+        if (hits > 0 && log.isDebugEnabled()) {
+            StringBuilder summary = new StringBuilder();
+            stats.forEach((statement, counts) -> {
+                if (counts.hits() > 0) {
+                    summary.append(summary.isEmpty() ? "" : ", ")
+                            .append(shortName(statement)).append('=').append(counts.hits());
+                }
+            });
+            log.debug("{} {} answered {} duplicate loads from the identity map ({})",
+                    request.getMethod(), request.getRequestURI(), hits, summary);
+        }
+    }
+
+    private void increment(String statement, String outcome, int amount) {
+        if (amount == 0) {
+            return;
+        }
+        Counter.builder("ebal.identity-map.lookups")
+                .tag("statement", statement)
+                .tag("outcome", outcome)
+                .description("By-id lookups per request, split into database loads and repeats served by the map")
+                .register(meterRegistry)
+                .increment(amount);
+    }
+
+    // SongMapper.findById rather than the fully qualified statement id
+    private static String shortName(String statementId) {
+        int method = statementId.lastIndexOf('.');
+        int type = statementId.lastIndexOf('.', method - 1);
+        return statementId.substring(type + 1);
+    }
+}
@@ -0,0 +1,177 @@
+package com.homeputers.ebal2.api.mybatis;
+
+import com.homeputers.ebal2.api.domain.arrangement.ArrangementMapper;
+import com.homeputers.ebal2.api.domain.service.ServiceMapper;
+import com.homeputers.ebal2.api.domain.song.SongMapper;
+import com.homeputers.ebal2.api.domain.songset.SongSetMapper;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Answers repeated by-id lookups of songs, arrangements, song sets and services from the {@link RequestIdentityMap}
+ * of the current request, and evicts rows from it when the request writes them.
+ * <p>
+ * Lookups are intercepted at the {@link StatementHandler} rather than the {@link Executor}, because the nested
+ * selects that load a plan item's service or a song set item's arrangement run on the executor directly and never
+ * reach executor plugins. A hit hands back the records loaded first, so callers see the same instances.
+ * <p>
+ * A cached record can embed rows of another table through a nested select, like an arrangement's song. A write to
+ * that table therefore also drops every entry of the statements embedding it; which ones do is read from the result
+ * maps once.
+ */
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class IdentityMapInterceptor implements Interceptor {
+
+    static final Set<String> CACHED_STATEMENTS = Set.of(
+            SongMapper.class.getName() + ".findById",
+            ArrangementMapper.class.getName() + ".findById",
+            ArrangementMapper.class.getName() + ".findSummaryById",
+            SongSetMapper.class.getName() + ".findById",
+            ServiceMapper.class.getName() + ".findById");
+
+    private static final Set<String> CACHED_NAMESPACES = Set.of(
+            SongMapper.class.getName(),
+            ArrangementMapper.class.getName(),
+            SongSetMapper.class.getName(),
+            ServiceMapper.class.getName());
+
+    private volatile Map<String, Set<String>> embeddingStatements;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        RequestIdentityMap map = RequestIdentityMap.current();
+        if (map == null) {
+            return invocation.proceed();
+        }
+        if (invocation.getTarget() instanceof StatementHandler handler) {
+            return query(map, handler, invocation);
+        }
+        return update(map, invocation);
+    }
+
+    private static Object query(RequestIdentityMap map, StatementHandler handler, Invocation invocation)
+            throws Throwable {
+        MetaObject meta = SystemMetaObject.forObject(handler);
+        if (!meta.hasGetter("delegate.mappedStatement")) {
+            return invocation.proceed();
+        }
+        String statementId = ((MappedStatement) meta.getValue("delegate.mappedStatement")).getId();
+        if (!CACHED_STATEMENTS.contains(statementId)) {
+            return invocation.proceed();
+        }
+        UUID id = extractId(handler.getBoundSql().getParameterObject());
+        if (id == null) {
+            return invocation.proceed();
+        }
+        List<?> cached = map.get(statementId, id);
+        if (cached != null) {
+            // the executor's local cache keeps what it is handed, so give it a list of its own
+            return new ArrayList<>(cached);
+        }
+        List<?> loaded = (List<?>) invocation.proceed();
+        map.put(statementId, id, new ArrayList<>(loaded));
+        return loaded;
+    }
+
+    private Object update(RequestIdentityMap map, Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        String namespace = statement.getId().substring(0, statement.getId().lastIndexOf('.'));
+        if (!CACHED_NAMESPACES.contains(namespace)) {
+            return invocation.proceed();
+        }
+        UUID id = extractId(invocation.getArgs()[1]);
+        // deletes cascade to rows of other tables, so they drop everything
+        if (id == null || statement.getSqlCommandType() == SqlCommandType.DELETE) {
+            map.clear();
+        } else {
+            map.evict(id);
+        }
+        map.evictStatements(embeddingStatements(statement.getConfiguration()).getOrDefault(namespace, Set.of()));
+        map.clearOnRollback();
+        return invocation.proceed();
+    }
+
+    // namespace -> cached statements whose records embed rows loaded through that namespace, directly or not
+    private Map<String, Set<String>> embeddingStatements(Configuration configuration) {
+        Map<String, Set<String>> embedding = embeddingStatements;
+        if (embedding != null) {
+            return embedding;
+        }
+        Map<String, Set<String>> nestedNamespaces = new HashMap<>();
+        for (String statementId : CACHED_STATEMENTS) {
+            Set<String> namespaces = new HashSet<>();
+            if (configuration.hasStatement(statementId)) {
+                for (ResultMap resultMap : configuration.getMappedStatement(statementId).getResultMaps()) {
+                    collectNestedNamespaces(configuration, resultMap, namespaces, new HashSet<>());
+                }
+            }
+            nestedNamespaces.put(statementId, namespaces);
+        }
+        Map<String, Set<String>> result = new HashMap<>();
+        nestedNamespaces.forEach((statementId, namespaces) -> namespaces.forEach(
+                namespace -> result.computeIfAbsent(namespace, ignored -> new HashSet<>()).add(statementId)));
+        embeddingStatements = result;
+        return result;
+    }
+
+    private static void collectNestedNamespaces(Configuration configuration,
+                                                ResultMap resultMap,
+                                                Set<String> namespaces,
+                                                Set<String> visited) {
+        if (!visited.add(resultMap.getId())) {
+            return;
+        }
+        List<ResultMapping> mappings = new ArrayList<>(resultMap.getConstructorResultMappings());
+        mappings.addAll(resultMap.getPropertyResultMappings());
+        for (ResultMapping mapping : mappings) {
+            if (mapping.getNestedQueryId() != null) {
+                String nestedQueryId = mapping.getNestedQueryId();
+                namespaces.add(nestedQueryId.substring(0, nestedQueryId.lastIndexOf('.')));
+                if (configuration.hasStatement(nestedQueryId)) {
+                    for (ResultMap nested : configuration.getMappedStatement(nestedQueryId).getResultMaps()) {
+                        collectNestedNamespaces(configuration, nested, namespaces, visited);
+                    }
+                }
+            }
+            if (mapping.getNestedResultMapId() != null && configuration.hasResultMap(mapping.getNestedResultMapId())) {
+                collectNestedNamespaces(configuration, configuration.getResultMap(mapping.getNestedResultMapId()),
+                        namespaces, visited);
+            }
+        }
+    }
+
+    // mapper calls pass a param map; nested selects pass the column value itself
+    private static UUID extractId(Object parameter) {
+        if (parameter instanceof UUID id) {
+            return id;
+        }
+        if (parameter instanceof Map<?, ?> params && params.containsKey("id") && params.get("id") instanceof UUID id) {
+            return id;
+        }
+        return null;
+    }
+}
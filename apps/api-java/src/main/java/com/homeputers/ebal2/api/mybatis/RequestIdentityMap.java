@@ -0,0 +1,155 @@
+package com.homeputers.ebal2.api.mybatis;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Rows loaded by id during one request, keyed by the statement that loaded them, so a repeated lookup returns the
+ * record loaded first instead of querying again.
+ * <p>
+ * The map is bound to the request thread between {@link #open(int)} and {@link #close()}; threads without one (async
+ * work, schedulers) always query. It is not thread-safe, which is fine as it never leaves the thread that opened it.
+ * Writes through the cached mappers evict the row they touch, or everything when the row is not known, and a rolled
+ * back transaction that wrote clears the map, since rows read after that write were never committed.
+ */
+public final class RequestIdentityMap {
+
+    private static final ThreadLocal<RequestIdentityMap> CURRENT = new ThreadLocal<>();
+
+    private final Map<Key, List<?>> rows = new HashMap<>();
+    private final Map<String, Stats> stats = new HashMap<>();
+    private final int maxEntries;
+
+    private RequestIdentityMap(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Binds a new map to the calling thread, replacing any map left behind.
+     */
+    public static RequestIdentityMap open(int maxEntries) {
+        RequestIdentityMap map = new RequestIdentityMap(maxEntries);
+        CURRENT.set(map);
+        return map;
+    }
+
+    /**
+     * @return the map bound to the calling thread, or {@code null} outside a request
+     */
+    public static RequestIdentityMap current() {
+        return CURRENT.get();
+    }
+
+    public void close() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * @return the rows {@code statementId} loaded for {@code id} earlier in the request, or {@code null} if it has to
+     * query; either way the lookup is counted
+     */
+    List<?> get(String statementId, UUID id) {
+        List<?> cached = rows.get(new Key(statementId, id));
+        Stats counts = stats.computeIfAbsent(statementId, ignored -> new Stats());
+        if (cached == null) {
+            counts.loads++;
+        } else {
+            counts.hits++;
+        }
+        return cached;
+    }
+
+    void put(String statementId, UUID id, List<?> loaded) {
+        if (rows.size() < maxEntries) {
+            rows.put(new Key(statementId, id), loaded);
+        }
+    }
+
+    /**
+     * Drops every row loaded for {@code id}, whichever statement loaded it.
+     */
+    void evict(UUID id) {
+        rows.keySet().removeIf(key -> key.id().equals(id));
+    }
+
+    /**
+     * Drops every row loaded by one of {@code statementIds}.
+     */
+    void evictStatements(Set<String> statementIds) {
+        if (!statementIds.isEmpty()) {
+            rows.keySet().removeIf(key -> statementIds.contains(key.statementId()));
+        }
+    }
+
+    void clear() {
+        rows.clear();
+    }
+
+    /**
+     * Clears the map if the current transaction rolls back. Registered at most once per transaction.
+     */
+    void clearOnRollback() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof ClearOnRollback registered && registered.owner() == this) {
+                return;
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new ClearOnRollback());
+    }
+
+    int size() {
+        return rows.size();
+    }
+
+    /**
+     * @return lookups per statement id, in no particular order
+     */
+    public Map<String, Stats> stats() {
+        return stats;
+    }
+
+    /**
+     * Lookups of one statement during the request: {@code loads} went to the database, {@code hits} were repeats
+     * answered from the map.
+     */
+    public static final class Stats {
+        private int loads;
+        private int hits;
+
+        public int loads() {
+            return loads;
+        }
+
+        public int hits() {
+            return hits;
+        }
+    }
+
+    private record Key(String statementId, UUID id) {
+    }
+
+    private final class ClearOnRollback implements TransactionSynchronization {
+        private RequestIdentityMap owner() {
+            return RequestIdentityMap.this;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status != STATUS_COMMITTED) {
+                clear();
+            }
+        }
+    }
+}
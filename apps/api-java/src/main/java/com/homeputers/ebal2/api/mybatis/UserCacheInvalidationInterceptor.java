@@ -0,0 +1,125 @@
+package com.homeputers.ebal2.api.mybatis;
+
+import com.homeputers.ebal2.api.domain.user.UserMapper;
+import com.homeputers.ebal2.api.domain.user.UserRoleMapper;
+import com.homeputers.ebal2.api.domain.user.UserSnapshotCache;
+import com.homeputers.ebal2.api.invalidation.Invalidation;
+import com.homeputers.ebal2.api.invalidation.InvalidationPublisher;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Invalidates {@link UserSnapshotCache} entries on every insert, update or delete issued through {@link UserMapper} or
+ * {@link UserRoleMapper}. Inside a transaction the entry is invalidated again after completion, so snapshots read
+ * before the commit became visible are dropped. Other replicas are told through {@link InvalidationPublisher}, which
+ * Postgres delivers once the write commits.
+ * <p>
+ * Writes that need {@code returning} are mapped as selects; those are marked {@code flushCache="true"} and are
+ * treated as writes too.
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class})
+})
+public class UserCacheInvalidationInterceptor implements Interceptor {
+
+    private static final String USER_MAPPER_PREFIX = UserMapper.class.getName() + ".";
+    private static final String USER_ROLE_MAPPER_PREFIX = UserRoleMapper.class.getName() + ".";
+
+    // resolved lazily: the cache and the publisher depend on mappers, which depend on this interceptor
+    private final ObjectProvider<UserSnapshotCache> cacheProvider;
+    private final ObjectProvider<InvalidationPublisher> publisherProvider;
+
+    public UserCacheInvalidationInterceptor(ObjectProvider<UserSnapshotCache> cacheProvider,
+                                            ObjectProvider<InvalidationPublisher> publisherProvider) {
+        this.cacheProvider = cacheProvider;
+        this.publisherProvider = publisherProvider;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        if (statement.getSqlCommandType() == SqlCommandType.SELECT && !statement.isFlushCacheRequired()) {
+            return invocation.proceed();
+        }
+        String statementId = statement.getId();
+        Object parameter = invocation.getArgs()[1];
+        UUID userId;
+        if (statementId.startsWith(USER_MAPPER_PREFIX)) {
+            userId = extractUserId(parameter, "id");
+        } else if (statementId.startsWith(USER_ROLE_MAPPER_PREFIX)) {
+            userId = extractUserId(parameter, "userId");
+        } else {
+            return invocation.proceed();
+        }
+        invalidate(userId);
+        Object result = invocation.proceed();
+        publish(userId, parameter);
+        return result;
+    }
+
+    private void invalidate(UUID userId) {
+        UserSnapshotCache cache = cacheProvider.getIfAvailable();
+        if (cache == null) {
+            return;
+        }
+        evict(cache, userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(cache, userId);
+                }
+            });
+        }
+    }
+
+    private void publish(UUID userId, Object parameter) {
+        InvalidationPublisher publisher = publisherProvider.getIfAvailable();
+        if (publisher == null) {
+            return;
+        }
+        publisher.publish(userId == null
+                ? new Invalidation(Invalidation.USER, null, null)
+                : new Invalidation(Invalidation.USER, userId, extractNewVersion(parameter)));
+    }
+
+    private static void evict(UserSnapshotCache cache, UUID userId) {
+        if (userId == null) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(userId);
+        }
+    }
+
+    private static UUID extractUserId(Object parameter, String name) {
+        if (parameter instanceof Map<?, ?> params && params.containsKey(name)
+                && params.get(name) instanceof UUID userId) {
+            return userId;
+        }
+        return null;
+    }
+
+    // optimistic updates bump the version they checked by one
+    private static Long extractNewVersion(Object parameter) {
+        if (parameter instanceof Map<?, ?> params && params.containsKey("expectedVersion")
+                && params.get("expectedVersion") instanceof Number expected) {
+            return expected.longValue() + 1;
+        }
+        return null;
+    }
+}
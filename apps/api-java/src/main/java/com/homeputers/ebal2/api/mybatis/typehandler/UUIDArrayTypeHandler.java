@@ -0,0 +1,45 @@
+package com.homeputers.ebal2.api.mybatis.typehandler;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binds a collection of ids as a single {@code uuid[]} parameter, for {@code id = any(...)} lookups whose statement
+ * text does not depend on the number of ids.
+ */
+public class UUIDArrayTypeHandler extends BaseTypeHandler<Collection<UUID>> {
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, Collection<UUID> parameter, JdbcType jdbcType) throws SQLException {
+        Array array = ps.getConnection().createArrayOf("uuid", parameter.toArray());
+        ps.setArray(i, array);
+    }
+
+    @Override
+    public Collection<UUID> getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return toList(rs.getArray(columnName));
+    }
+
+    @Override
+    public Collection<UUID> getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return toList(rs.getArray(columnIndex));
+    }
+
+    @Override
+    public Collection<UUID> getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return toList(cs.getArray(columnIndex));
+    }
+
+    private List<UUID> toList(Array array) throws SQLException {
+        if (array == null) {
+            return new ArrayList<>();
+        }
+        return Arrays.asList((UUID[]) array.getArray());
+    }
+}
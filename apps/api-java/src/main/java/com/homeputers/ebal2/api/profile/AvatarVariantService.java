@@ -0,0 +1,88 @@
+package com.homeputers.ebal2.api.profile;
+
+import com.homeputers.ebal2.api.config.SelfServiceProperties;
+import com.homeputers.ebal2.api.profile.storage.AvatarStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates avatar variants off the request thread and resolves the URL to serve for a requested size.
+ * <p>
+ * A single worker keeps at most one image decoding at a time. Jobs beyond the queue capacity are dropped; a request
+ * for a variant that is still missing falls back to the original and queues the job again, which also backfills
+ * avatars uploaded before variants existed.
+ */
+@Service
+public class AvatarVariantService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AvatarVariantService.class);
+
+    private final AvatarStorage avatarStorage;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public AvatarVariantService(AvatarStorage avatarStorage, SelfServiceProperties properties) {
+        this.avatarStorage = avatarStorage;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getAvatar().getVariantQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "avatar-variants");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public void generateAsync(String avatarUrl) {
+        if (avatarUrl == null || !pending.add(avatarUrl)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    avatarStorage.generateVariants(avatarUrl);
+                } catch (IOException | RuntimeException ex) {
+                    log.warn("Failed to generate variants for avatar {}", avatarUrl, ex);
+                } finally {
+                    pending.remove(avatarUrl);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            pending.remove(avatarUrl);
+            log.debug("Variant queue full, skipping avatar {}", avatarUrl);
+        }
+    }
+
+    /**
+     * @return the URL to serve for {@code size}; the original when {@code size} is {@code null} or the variant is not
+     * ready yet
+     */
+    public String resolve(String avatarUrl, Integer size) {
+        if (avatarUrl == null || size == null) {
+            return avatarUrl;
+        }
+        String variantUrl = avatarStorage.variantUrl(avatarUrl, size);
+        if (variantUrl == null) {
+            generateAsync(avatarUrl);
+            return avatarUrl;
+        }
+        return variantUrl;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+}
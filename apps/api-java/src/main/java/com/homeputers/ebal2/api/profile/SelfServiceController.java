@@ -31,13 +31,13 @@ public class SelfServiceController implements ProfileApi {
     }
 
     @Override
-    public ResponseEntity<MyProfile> getMyProfile() {
+    public ResponseEntity<MyProfile> getMyProfile(Integer avatarSize) {
         Optional<UUID> userId = resolveUserId();
         if (userId.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).<MyProfile>build();
         }
 
-        MyProfileView view = selfServiceService.getMyProfile(userId.get());
+        MyProfileView view = selfServiceService.getMyProfile(userId.get(), avatarSize);
         return ResponseEntity.ok(MyProfileDtoMapper.toDto(view));
     }
 
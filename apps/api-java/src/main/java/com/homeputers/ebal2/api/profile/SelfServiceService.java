@@ -9,7 +9,8 @@ import com.homeputers.ebal2.api.domain.user.EmailChangeToken;
 import com.homeputers.ebal2.api.domain.user.EmailChangeTokenMapper;
 import com.homeputers.ebal2.api.domain.user.User;
 import com.homeputers.ebal2.api.domain.user.UserMapper;
-import com.homeputers.ebal2.api.domain.user.UserRoleMapper;
+import com.homeputers.ebal2.api.domain.user.UserSnapshot;
+import com.homeputers.ebal2.api.domain.user.UserSnapshotCache;
 import com.homeputers.ebal2.api.email.EmailSender;
 import com.homeputers.ebal2.api.generated.model.ChangeMyEmailRequest;
 import com.homeputers.ebal2.api.generated.model.ChangePasswordRequest;
@@ -18,9 +19,13 @@ import com.homeputers.ebal2.api.generated.model.UploadAvatarResponse;
 import com.homeputers.ebal2.api.profile.storage.AvatarStorage;
 import com.homeputers.ebal2.api.profile.support.InvalidEmailChangeTokenException;
 import com.homeputers.ebal2.api.profile.support.RateLimitExceededException;
+import com.homeputers.ebal2.api.ratelimit.RateLimiter;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -28,14 +33,12 @@ import org.springframework.context.i18n.LocaleContextHolder;
 
 import java.io.IOException;
 import java.net.URI;
-import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @Transactional
@@ -45,43 +48,58 @@ public class SelfServiceService {
     private static final int DISPLAY_NAME_MAX = 120;
 
     private final UserMapper userMapper;
-    private final UserRoleMapper userRoleMapper;
+    private final UserSnapshotCache userSnapshotCache;
     private final RefreshTokenService refreshTokenService;
     private final PasswordEncoder passwordEncoder;
     private final AvatarStorage avatarStorage;
+    private final AvatarVariantService avatarVariantService;
     private final EmailChangeTokenMapper emailChangeTokenMapper;
     private final MailProperties mailProperties;
     private final EmailSender emailSender;
     private final SelfServiceProperties properties;
 
-    private final ConcurrentHashMap<UUID, RateWindow> passwordRateLimiter = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<UUID, RateWindow> emailRateLimiter = new ConcurrentHashMap<>();
+    private final RateLimiter<UUID> passwordRateLimiter;
+    private final RateLimiter<UUID> emailRateLimiter;
 
     public SelfServiceService(UserMapper userMapper,
-                              UserRoleMapper userRoleMapper,
+                              UserSnapshotCache userSnapshotCache,
                               RefreshTokenService refreshTokenService,
                               PasswordEncoder passwordEncoder,
                               AvatarStorage avatarStorage,
+                              AvatarVariantService avatarVariantService,
                               EmailChangeTokenMapper emailChangeTokenMapper,
                               MailProperties mailProperties,
                               EmailSender emailSender,
                               SelfServiceProperties properties) {
         this.userMapper = userMapper;
-        this.userRoleMapper = userRoleMapper;
+        this.userSnapshotCache = userSnapshotCache;
         this.refreshTokenService = refreshTokenService;
         this.passwordEncoder = passwordEncoder;
         this.avatarStorage = avatarStorage;
+        this.avatarVariantService = avatarVariantService;
         this.emailChangeTokenMapper = emailChangeTokenMapper;
         this.mailProperties = mailProperties;
         this.emailSender = emailSender;
         this.properties = properties;
+        this.passwordRateLimiter = new RateLimiter<>(properties.getRateLimit().toPolicy());
+        this.emailRateLimiter = new RateLimiter<>(properties.getRateLimit().toPolicy());
     }
 
     @Transactional(readOnly = true)
     public MyProfileView getMyProfile(UUID userId) {
-        User user = requireUser(userId);
-        List<String> roles = userRoleMapper.findRolesByUserId(user.id());
-        return mapToProfile(user, roles);
+        return getMyProfile(userId, null);
+    }
+
+    /**
+     * @param avatarSize preferred avatar width in pixels, or {@code null} for the original upload
+     */
+    @Transactional(readOnly = true)
+    public MyProfileView getMyProfile(UUID userId, Integer avatarSize) {
+        UserSnapshot snapshot = userSnapshotCache.get(userId);
+        if (snapshot == null || !snapshot.user().isActive()) {
+            throw new NoSuchElementException("User not found");
+        }
+        return mapToProfile(snapshot.user(), snapshot.roles(), avatarSize);
     }
 
     public MyProfileView updateMyProfile(UUID userId, UpdateMyProfileRequest request) {
@@ -94,7 +112,6 @@ public class SelfServiceService {
                 OffsetDateTime now = OffsetDateTime.now();
                 userMapper.updateDisplayName(userId, desiredDisplayName, now);
                 updated = true;
-                user = userMapper.findById(userId);
             }
         }
 
@@ -107,27 +124,42 @@ public class SelfServiceService {
         return getMyProfile(userId);
     }
 
+    /**
+     * Runs without a transaction: the upload is streamed to disk first, and only then is the new URL saved in a
+     * single-statement update, so no pooled connection is held during file I/O. The update hands back the URL it
+     * replaced, and only that avatar is deleted, so a concurrent upload's file is never touched.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UploadAvatarResponse uploadAvatar(UUID userId, MultipartFile file) {
         Objects.requireNonNull(file, "file");
+        String avatarUrl;
         try {
-            String avatarUrl = avatarStorage.store(userId, file);
-            OffsetDateTime now = OffsetDateTime.now();
-            userMapper.updateAvatar(userId, avatarUrl, now);
-            UploadAvatarResponse response = new UploadAvatarResponse();
-            response.setAvatarUrl(URI.create(avatarUrl));
-            return response;
+            avatarUrl = avatarStorage.store(userId, file);
         } catch (IOException ex) {
             throw new IllegalStateException("Failed to store avatar", ex);
         }
+        String replacedUrl = userMapper.replaceAvatar(userId, avatarUrl, OffsetDateTime.now());
+        afterCommit(() -> {
+            avatarVariantService.generateAsync(avatarUrl);
+            // identical uploads share a file name
+            if (replacedUrl != null && !replacedUrl.equals(avatarUrl)) {
+                avatarStorage.deleteAvatar(replacedUrl);
+            }
+        });
+        UploadAvatarResponse response = new UploadAvatarResponse();
+        response.setAvatarUrl(URI.create(avatarUrl));
+        return response;
     }
 
+    /**
+     * Deletes only the avatar the update cleared, like {@link #uploadAvatar}, so an upload still in flight keeps its
+     * file.
+     */
     public void removeAvatar(UUID userId) {
-        try {
-            avatarStorage.delete(userId);
-        } catch (IOException ignored) {
-            // swallow deletion issues for local storage
+        String removedUrl = userMapper.replaceAvatar(userId, null, OffsetDateTime.now());
+        if (removedUrl != null) {
+            afterCommit(() -> avatarStorage.deleteAvatar(removedUrl));
         }
-        userMapper.updateAvatar(userId, null, OffsetDateTime.now());
     }
 
     public void changePassword(UUID userId, ChangePasswordRequest request) {
@@ -211,12 +243,12 @@ public class SelfServiceService {
         }
     }
 
-    private MyProfileView mapToProfile(User user, List<String> roles) {
+    private MyProfileView mapToProfile(User user, List<String> roles, Integer avatarSize) {
         return new MyProfileView(
                 user.id(),
                 user.email(),
                 user.displayName(),
-                user.avatarUrl(),
+                avatarVariantService.resolve(user.avatarUrl(), avatarSize),
                 roles,
                 user.isActive(),
                 user.createdAt(),
@@ -252,22 +284,41 @@ public class SelfServiceService {
         return uri.toString();
     }
 
-    private void enforceRateLimit(ConcurrentHashMap<UUID, RateWindow> limiter, UUID userId) {
-        if (userId == null) {
+    /**
+     * Runs file cleanup once the surrounding transaction (if any) has committed, so a rollback never leaves the
+     * database pointing at a deleted file. Cleanup failures are ignored; at worst an unused file stays behind.
+     */
+    private void afterCommit(AvatarCleanup cleanup) {
+        Runnable task = () -> {
+            try {
+                cleanup.run();
+            } catch (IOException ignored) {
+                // swallow deletion issues for local storage
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            task.run();
             return;
         }
-        Instant now = Instant.now();
-        limiter.compute(userId, (id, current) -> {
-            if (current == null || now.isAfter(current.windowStart().plus(properties.getRateLimit().getWindow()))) {
-                return new RateWindow(now, 1);
-            }
-            if (current.count() >= properties.getRateLimit().getMaxAttempts()) {
-                throw new RateLimitExceededException("Too many attempts. Please try again later.");
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                task.run();
             }
-            return new RateWindow(current.windowStart(), current.count() + 1);
         });
     }
 
-    private record RateWindow(Instant windowStart, int count) {
+    @FunctionalInterface
+    private interface AvatarCleanup {
+        void run() throws IOException;
+    }
+
+    private void enforceRateLimit(RateLimiter<UUID> limiter, UUID userId) {
+        if (userId == null) {
+            return;
+        }
+        if (!limiter.tryAcquire(userId)) {
+            throw new RateLimitExceededException("Too many attempts. Please try again later.");
+        }
     }
 }
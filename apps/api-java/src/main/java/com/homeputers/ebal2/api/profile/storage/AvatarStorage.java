@@ -7,7 +7,31 @@ import java.util.UUID;
 
 public interface AvatarStorage {
 
+    /**
+     * Stores the upload under a content-hashed name and returns its public URL. Earlier avatars of the user stay in
+     * place until {@link #deleteAvatar(String)} is called for them, so the old URL keeps working until the new one
+     * has been saved.
+     */
     String store(UUID userId, MultipartFile file) throws IOException;
 
+    /**
+     * Removes the avatar at {@code avatarUrl} and its variants. URLs this storage did not issue are ignored.
+     */
+    void deleteAvatar(String avatarUrl) throws IOException;
+
     void delete(UUID userId) throws IOException;
+
+    /**
+     * Writes the downscaled variants of the avatar at {@code avatarUrl} next to it. Formats that cannot be decoded,
+     * and images over the decode limit, are skipped; callers then keep serving the original.
+     */
+    void generateVariants(String avatarUrl) throws IOException;
+
+    /**
+     * Picks the URL to serve for a requested width: the smallest variant at least {@code size} pixels wide, or the
+     * original when no variant is large enough or the format has none.
+     *
+     * @return the chosen URL, or {@code null} if a suitable variant should exist but has not been generated yet
+     */
+    String variantUrl(String avatarUrl, int size);
 }
@@ -1,28 +1,86 @@
 package com.homeputers.ebal2.api.profile.storage;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
+/**
+ * Stores avatars on the local filesystem.
+ * <p>
+ * Uploads are streamed through a small buffer into a temp file while the size cap, the image signature and a SHA-256
+ * digest are checked on the fly, so the upload is never held in memory. The finished file is atomically renamed to
+ * {@code avatar-<hash>.<ext>}: readers never see a partial file, and since a name always maps to the same bytes the
+ * files can be cached forever.
+ * <p>
+ * Square variants for the configured widths are written next to the original as {@code avatar-<hash>-<size>.<ext>}.
+ * Decoding is bounded: the pixel count is read from the header first, and the image is subsampled while it is decoded
+ * so that only about the largest variant's worth of pixels is ever held in memory. WebP has no built-in decoder and
+ * gets no variants.
+ */
 public class LocalAvatarStorage implements AvatarStorage {
 
+    static final String INCOMING_DIRECTORY = ".incoming";
+    static final List<Integer> DEFAULT_VARIANT_SIZES = List.of(32, 64, 128, 256);
+    static final long DEFAULT_MAX_DECODE_PIXELS = 40_000_000L;
+
+    private static final Logger log = LoggerFactory.getLogger(LocalAvatarStorage.class);
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int HASH_PREFIX_LENGTH = 16;
+    private static final String FILE_PREFIX = "avatar-";
+    private static final Pattern FILE_NAME = Pattern.compile("avatar-[0-9a-f]{16}\\.(png|jpg|webp)");
+
     private final Path root;
     private final String publicBaseUrl;
     private final long maxSizeBytes;
+    private final int[] variantSizes;
+    private final long maxDecodePixels;
 
     public LocalAvatarStorage(Path root, String publicBaseUrl, long maxSizeBytes) {
+        this(root, publicBaseUrl, maxSizeBytes, DEFAULT_VARIANT_SIZES, DEFAULT_MAX_DECODE_PIXELS);
+    }
+
+    public LocalAvatarStorage(Path root, String publicBaseUrl, long maxSizeBytes, List<Integer> variantSizes,
+                              long maxDecodePixels) {
         this.root = Objects.requireNonNull(root, "root");
         this.publicBaseUrl = normalizeBaseUrl(publicBaseUrl);
         this.maxSizeBytes = maxSizeBytes;
+        this.variantSizes = variantSizes.stream().mapToInt(Integer::intValue).filter(size -> size > 0)
+                .distinct().sorted().toArray();
+        this.maxDecodePixels = maxDecodePixels;
     }
 
     @Override
@@ -34,26 +92,37 @@ public class LocalAvatarStorage implements AvatarStorage {
             throw new IllegalArgumentException("Avatar file is required.");
         }
         if (file.getSize() > maxSizeBytes) {
-            throw new IllegalArgumentException("Avatar file exceeds the maximum allowed size of " + maxSizeBytes + " bytes.");
+            throw tooLarge();
         }
 
-        byte[] data = file.getBytes();
-        if (data.length == 0) {
-            throw new IllegalArgumentException("Avatar file is empty.");
-        }
-        if (data.length > maxSizeBytes) {
-            throw new IllegalArgumentException("Avatar file exceeds the maximum allowed size of " + maxSizeBytes + " bytes.");
+        Path incoming = Files.createDirectories(root.resolve(INCOMING_DIRECTORY));
+        Path temp = Files.createTempFile(incoming, "upload-", ".part");
+        try {
+            StreamedImage image;
+            try (InputStream input = file.getInputStream()) {
+                image = copyAndInspect(input, temp);
+            }
+            String fileName = FILE_PREFIX + image.hash() + "." + image.type().extension;
+            Path userDirectory = Files.createDirectories(root.resolve(userId.toString()));
+            moveAtomically(temp, userDirectory.resolve(fileName));
+            return publicBaseUrl + userId + "/" + fileName;
+        } finally {
+            Files.deleteIfExists(temp);
         }
+    }
 
-        ImageType type = detectImageType(data);
-        Path userDirectory = root.resolve(userId.toString());
-        Files.createDirectories(userDirectory);
-        clearDirectory(userDirectory);
-
-        String fileName = "avatar." + type.extension;
-        Path target = userDirectory.resolve(fileName);
-        Files.write(target, data, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
-        return publicBaseUrl + userId + "/" + fileName;
+    @Override
+    public void deleteAvatar(String avatarUrl) throws IOException {
+        StoredAvatar avatar = parse(avatarUrl);
+        if (avatar == null || !Files.isDirectory(avatar.directory())) {
+            return;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(avatar.directory(),
+                avatar.stem() + "{." + avatar.type().extension + ",-*}")) {
+            for (Path entry : entries) {
+                Files.deleteIfExists(entry);
+            }
+        }
     }
 
     @Override
@@ -65,28 +134,229 @@ public class LocalAvatarStorage implements AvatarStorage {
         if (!Files.exists(userDirectory)) {
             return;
         }
-        clearDirectory(userDirectory);
-        Files.deleteIfExists(userDirectory);
+        deleteRecursively(userDirectory);
+    }
+
+    @Override
+    public void generateVariants(String avatarUrl) throws IOException {
+        StoredAvatar avatar = parse(avatarUrl);
+        if (avatar == null || avatar.type().formatName == null || variantSizes.length == 0) {
+            return;
+        }
+        Path source = avatar.directory().resolve(avatar.fileName());
+        if (!Files.exists(source)) {
+            return;
+        }
+        BufferedImage decoded = decodeBounded(source, variantSizes[variantSizes.length - 1]);
+        if (decoded == null) {
+            return;
+        }
+        BufferedImage current = cropSquare(decoded, avatar.type());
+        Path incoming = Files.createDirectories(root.resolve(INCOMING_DIRECTORY));
+        // largest first, so each step downscales the previous result instead of the full decode
+        for (int i = variantSizes.length - 1; i >= 0; i--) {
+            int size = variantSizes[i];
+            current = scale(current, size, avatar.type());
+            Path target = avatar.directory().resolve(avatar.variantName(size));
+            if (Files.exists(target)) {
+                continue;
+            }
+            Path temp = Files.createTempFile(incoming, "variant-", ".part");
+            try {
+                if (!ImageIO.write(current, avatar.type().formatName, temp.toFile())) {
+                    return;
+                }
+                if (!Files.exists(source)) {
+                    // replaced by a newer upload meanwhile; its cleanup has already run
+                    return;
+                }
+                moveAtomically(temp, target);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
     }
 
-    private ImageType detectImageType(byte[] data) {
-        if (ImageType.PNG.matches(data)) {
-            return ImageType.PNG;
+    @Override
+    public String variantUrl(String avatarUrl, int size) {
+        StoredAvatar avatar = parse(avatarUrl);
+        if (avatar == null || avatar.type().formatName == null) {
+            return avatarUrl;
+        }
+        for (int variantSize : variantSizes) {
+            if (variantSize >= size) {
+                String name = avatar.variantName(variantSize);
+                return Files.exists(avatar.directory().resolve(name)) ? avatar.urlPrefix() + name : null;
+            }
         }
-        if (ImageType.JPEG.matches(data)) {
-            return ImageType.JPEG;
+        return avatarUrl;
+    }
+
+    /**
+     * Decodes at most about {@code targetSize} pixels along the shorter side, or returns {@code null} if the image
+     * cannot be decoded or its header announces more than {@code maxDecodePixels}.
+     */
+    private BufferedImage decodeBounded(Path source, int targetSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxDecodePixels) {
+                    log.warn("Skipping avatar variants for {}: {}x{} exceeds the decode limit", source, width, height);
+                    return null;
+                }
+                int subsampling = Math.max(1, Math.min(width, height) / targetSize);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } catch (IOException | RuntimeException ex) {
+                log.warn("Skipping avatar variants for {}: {}", source, ex.getMessage());
+                return null;
+            } finally {
+                reader.dispose();
+            }
         }
-        if (ImageType.WEBP.matches(data)) {
-            return ImageType.WEBP;
+    }
+
+    private static BufferedImage cropSquare(BufferedImage image, ImageType type) {
+        int side = Math.min(image.getWidth(), image.getHeight());
+        BufferedImage square = new BufferedImage(side, side, type.imageType());
+        Graphics2D graphics = square.createGraphics();
+        try {
+            int x = (image.getWidth() - side) / 2;
+            int y = (image.getHeight() - side) / 2;
+            graphics.drawImage(image, 0, 0, side, side, x, y, x + side, y + side, null);
+        } finally {
+            graphics.dispose();
         }
-        throw new IllegalArgumentException("Unsupported avatar format. Only PNG, JPEG, or WebP images are allowed.");
+        return square;
+    }
+
+    /**
+     * Scales a square image to {@code size}, halving step by step when shrinking a lot so bilinear filtering does
+     * not skip source pixels.
+     */
+    private static BufferedImage scale(BufferedImage image, int size, ImageType type) {
+        BufferedImage current = image;
+        do {
+            int next = current.getWidth() / 2 >= size ? current.getWidth() / 2 : size;
+            BufferedImage scaled = new BufferedImage(next, next, type.imageType());
+            Graphics2D graphics = scaled.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                        RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, next, next, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = scaled;
+        } while (current.getWidth() != size);
+        return current;
     }
 
-    private void clearDirectory(Path directory) throws IOException {
-        if (!Files.exists(directory)) {
+    private StreamedImage copyAndInspect(InputStream input, Path temp) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] header = new byte[ImageType.HEADER_LENGTH];
+        int headerLength = 0;
+        byte[] trailer = new byte[2];
+        long total = 0;
+
+        try (ReadableByteChannel source = Channels.newChannel(input);
+             FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                int length = buffer.remaining();
+                if (length == 0) {
+                    buffer.clear();
+                    continue;
+                }
+                total += length;
+                if (total > maxSizeBytes) {
+                    throw tooLarge();
+                }
+                byte[] chunk = buffer.array();
+                if (headerLength < header.length) {
+                    int copied = Math.min(length, header.length - headerLength);
+                    System.arraycopy(chunk, 0, header, headerLength, copied);
+                    headerLength += copied;
+                    if (headerLength == header.length && ImageType.detect(header, headerLength) == null) {
+                        throw unsupported();
+                    }
+                }
+                if (length >= 2) {
+                    trailer[0] = chunk[length - 2];
+                    trailer[1] = chunk[length - 1];
+                } else {
+                    trailer[0] = trailer[1];
+                    trailer[1] = chunk[0];
+                }
+                digest.update(chunk, 0, length);
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                buffer.clear();
+            }
+            target.force(false);
+        }
+
+        if (total == 0) {
+            throw new IllegalArgumentException("Avatar file is empty.");
+        }
+        ImageType type = ImageType.detect(header, headerLength);
+        if (type == null || (type == ImageType.JPEG && !ImageType.hasJpegTrailer(trailer))) {
+            throw unsupported();
+        }
+        String hash = HexFormat.of().formatHex(digest.digest()).substring(0, HASH_PREFIX_LENGTH);
+        return new StreamedImage(type, hash);
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * @return the stored original behind a URL issued by {@link #store}, or {@code null} for anything else
+     */
+    private StoredAvatar parse(String avatarUrl) {
+        if (avatarUrl == null || !avatarUrl.startsWith(publicBaseUrl)) {
+            return null;
+        }
+        String path = avatarUrl.substring(publicBaseUrl.length());
+        int slash = path.indexOf('/');
+        if (slash < 0 || !FILE_NAME.matcher(path.substring(slash + 1)).matches()) {
+            return null;
+        }
+        UUID userId;
+        try {
+            userId = UUID.fromString(path.substring(0, slash));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+        String fileName = path.substring(slash + 1);
+        int dot = fileName.lastIndexOf('.');
+        return new StoredAvatar(userId, root.resolve(userId.toString()), publicBaseUrl + userId + "/",
+                fileName.substring(0, dot), ImageType.fromExtension(fileName.substring(dot + 1)));
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            Files.deleteIfExists(path);
             return;
         }
-        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+        Files.walkFileTree(path, new SimpleFileVisitor<>() {
             @Override
             public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
                 Files.deleteIfExists(file);
@@ -95,14 +365,30 @@ public class LocalAvatarStorage implements AvatarStorage {
 
             @Override
             public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
-                if (!dir.equals(directory)) {
-                    Files.deleteIfExists(dir);
-                }
+                Files.deleteIfExists(dir);
                 return FileVisitResult.CONTINUE;
             }
         });
     }
 
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private IllegalArgumentException tooLarge() {
+        return new IllegalArgumentException(
+                "Avatar file exceeds the maximum allowed size of " + maxSizeBytes + " bytes.");
+    }
+
+    private static IllegalArgumentException unsupported() {
+        return new IllegalArgumentException(
+                "Unsupported avatar format. Only PNG, JPEG, or WebP images are allowed.");
+    }
+
     private String normalizeBaseUrl(String value) {
         String candidate = StringUtils.hasText(value) ? value.trim() : "/static/avatars/";
         if (!candidate.startsWith("/")) {
@@ -114,41 +400,85 @@ public class LocalAvatarStorage implements AvatarStorage {
         return candidate;
     }
 
+    private record StreamedImage(ImageType type, String hash) {
+    }
+
+    private record StoredAvatar(UUID userId, Path directory, String urlPrefix, String stem, ImageType type) {
+
+        String fileName() {
+            return stem + "." + type.extension;
+        }
+
+        String variantName(int size) {
+            return stem + "-" + size + "." + type.extension;
+        }
+    }
+
     private enum ImageType {
-        PNG("png", new byte[]{(byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A}),
-        JPEG("jpg", new byte[]{(byte) 0xFF, (byte) 0xD8}),
-        WEBP("webp", new byte[]{0x52, 0x49, 0x46, 0x46});
+        PNG("png", "png", new byte[]{(byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A}),
+        JPEG("jpg", "jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8}),
+        WEBP("webp", null, new byte[]{0x52, 0x49, 0x46, 0x46});
+
+        /**
+         * Bytes needed to tell the formats apart ({@code RIFF....WEBP} is the longest).
+         */
+        static final int HEADER_LENGTH = 12;
 
         private final String extension;
+        /**
+         * ImageIO format used for variants, or {@code null} if the JDK cannot decode the type.
+         */
+        private final String formatName;
         private final byte[] signature;
 
-        ImageType(String extension, byte[] signature) {
+        ImageType(String extension, String formatName, byte[] signature) {
             this.extension = extension;
+            this.formatName = formatName;
             this.signature = signature;
         }
 
-        boolean matches(byte[] data) {
-            if (data.length < signature.length) {
-                return false;
+        static ImageType fromExtension(String extension) {
+            for (ImageType type : values()) {
+                if (type.extension.equals(extension)) {
+                    return type;
+                }
             }
-            for (int i = 0; i < signature.length; i++) {
-                if (data[i] != signature[i]) {
-                    return false;
+            throw new IllegalArgumentException("Unknown avatar extension: " + extension);
+        }
+
+        int imageType() {
+            // JPEG has no alpha channel
+            return this == JPEG ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        }
+
+        /**
+         * @return the type, or {@code null} if the header (possibly shorter than {@link #HEADER_LENGTH} for tiny
+         * files) matches none
+         */
+        static ImageType detect(byte[] header, int length) {
+            for (ImageType type : values()) {
+                if (type.matches(header, length)) {
+                    return type;
                 }
             }
-            if (this == WEBP) {
-                return data.length >= 12
-                        && data[8] == 0x57
-                        && data[9] == 0x45
-                        && data[10] == 0x42
-                        && data[11] == 0x50;
+            return null;
+        }
+
+        static boolean hasJpegTrailer(byte[] trailer) {
+            return trailer[0] == (byte) 0xFF && trailer[1] == (byte) 0xD9;
+        }
+
+        private boolean matches(byte[] header, int length) {
+            if (length < signature.length
+                    || !Arrays.equals(header, 0, signature.length, signature, 0, signature.length)) {
+                return false;
             }
-            if (this == JPEG) {
-                return data.length >= 2
-                        && data[0] == (byte) 0xFF
-                        && data[1] == (byte) 0xD8
-                        && data[data.length - 2] == (byte) 0xFF
-                        && data[data.length - 1] == (byte) 0xD9;
+            if (this == WEBP) {
+                return length >= 12
+                        && header[8] == 0x57
+                        && header[9] == 0x45
+                        && header[10] == 0x42
+                        && header[11] == 0x50;
             }
             return true;
         }
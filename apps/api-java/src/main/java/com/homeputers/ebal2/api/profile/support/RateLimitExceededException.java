@@ -1,8 +1,24 @@
 package com.homeputers.ebal2.api.profile.support;
 
+import java.time.Duration;
+
 public class RateLimitExceededException extends RuntimeException {
 
+    private final Duration retryAfter;
+
     public RateLimitExceededException(String message) {
+        this(message, null);
+    }
+
+    public RateLimitExceededException(String message, Duration retryAfter) {
         super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @return when the client may try again, or {@code null} if unknown
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
     }
 }
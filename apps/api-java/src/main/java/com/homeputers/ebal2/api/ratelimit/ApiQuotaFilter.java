@@ -0,0 +1,139 @@
+package com.homeputers.ebal2.api.ratelimit;
+
+import com.homeputers.ebal2.api.config.QuotaProperties;
+import com.homeputers.ebal2.api.security.ClientIpResolver;
+import com.homeputers.ebal2.api.security.ProblemDetailHttpWriter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Enforces per-user and per-IP quotas for configured route groups and reports them through the
+ * {@code RateLimit-Limit}, {@code RateLimit-Remaining}, {@code RateLimit-Reset} and {@code RateLimit-Policy} headers.
+ * Must run after the security filter chain so the authenticated user is known.
+ */
+public class ApiQuotaFilter extends OncePerRequestFilter {
+
+    static final String LIMIT_HEADER = "RateLimit-Limit";
+    static final String REMAINING_HEADER = "RateLimit-Remaining";
+    static final String RESET_HEADER = "RateLimit-Reset";
+    static final String POLICY_HEADER = "RateLimit-Policy";
+
+    private final List<RouteQuota> routes;
+    private final DistributedQuotaLimiter limiter;
+    private final ProblemDetailHttpWriter problemDetailHttpWriter;
+    private final ClientIpResolver clientIpResolver;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public ApiQuotaFilter(Map<String, QuotaProperties.RouteGroup> groups,
+                          DistributedQuotaLimiter limiter,
+                          ProblemDetailHttpWriter problemDetailHttpWriter,
+                          ClientIpResolver clientIpResolver) {
+        this.routes = groups.entrySet().stream()
+                .map(entry -> RouteQuota.of(entry.getKey(), entry.getValue()))
+                .toList();
+        this.limiter = limiter;
+        this.problemDetailHttpWriter = problemDetailHttpWriter;
+        this.clientIpResolver = clientIpResolver;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RouteQuota route = match(request);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        QuotaDecision decision = null;
+        String user = resolveUser();
+        if (route.perUser() > 0 && user != null) {
+            decision = acquire(route, "user:" + user, route.perUser());
+        }
+        if (route.perIp() > 0 && (decision == null || decision.allowed())) {
+            decision = mostRestrictive(decision, acquire(route, "ip:" + clientIpResolver.resolve(request), route.perIp()));
+        }
+        if (decision == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        response.setHeader(LIMIT_HEADER, Integer.toString(decision.limit()));
+        response.setHeader(REMAINING_HEADER, Long.toString(decision.remaining()));
+        response.setHeader(RESET_HEADER, Long.toString(decision.resetSeconds()));
+        response.setHeader(POLICY_HEADER, "%d;w=%d".formatted(decision.limit(), route.window().toSeconds()));
+        if (!decision.allowed()) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(decision.resetSeconds()));
+            ProblemDetail problemDetail = ProblemDetail.forStatus(HttpStatus.TOO_MANY_REQUESTS);
+            problemDetail.setDetail("Too many requests. Please try again later.");
+            problemDetailHttpWriter.write(response, problemDetail);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private QuotaDecision acquire(RouteQuota route, String subject, int limit) {
+        return limiter.acquire(route.name() + ":" + subject, limit, route.window());
+    }
+
+    private RouteQuota match(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod().toUpperCase(Locale.ROOT);
+        for (RouteQuota route : routes) {
+            if (!route.methods().isEmpty() && !route.methods().contains(method)) {
+                continue;
+            }
+            for (String pattern : route.paths()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return route;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static QuotaDecision mostRestrictive(QuotaDecision current, QuotaDecision candidate) {
+        if (current == null || !candidate.allowed() || candidate.remaining() < current.remaining()) {
+            return candidate;
+        }
+        return current;
+    }
+
+    private static String resolveUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private record RouteQuota(String name, List<String> paths, List<String> methods, int perUser, int perIp,
+                              Duration window) {
+
+        private static RouteQuota of(String name, QuotaProperties.RouteGroup group) {
+            List<String> methods = group.getMethods().stream()
+                    .map(method -> method.toUpperCase(Locale.ROOT))
+                    .toList();
+            return new RouteQuota(name, List.copyOf(group.getPaths()), methods, group.getPerUser(), group.getPerIp(),
+                    group.getWindow());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.homeputers.ebal2.api.ratelimit;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Fixed-size frequency sketch. Estimates never undercount; they overcount by at most {@code 2N/width} with
+ * probability {@code 1 - 0.5^depth}, where {@code N} is the total number of additions.
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final AtomicIntegerArray counters;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("depth and width must be positive");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counters = new AtomicIntegerArray(depth * width);
+    }
+
+    /**
+     * Counts one occurrence of {@code key}.
+     *
+     * @return the estimate for {@code key} including this occurrence
+     */
+    public int add(String key) {
+        long hash = hash(key);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int value = counters.incrementAndGet(index(hash, row));
+            if (value < 0) {
+                // saturate instead of wrapping around
+                counters.set(index(hash, row), Integer.MAX_VALUE);
+                value = Integer.MAX_VALUE;
+            }
+            estimate = Math.min(estimate, value);
+        }
+        return estimate;
+    }
+
+    public int estimate(String key) {
+        long hash = hash(key);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    public void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return row * width + Math.floorMod(h1 + row * h2, width);
+    }
+
+    private static long hash(String key) {
+        // FNV-1a followed by the MurmurHash3 finalizer to spread the bits across both halves
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,184 @@
+package com.homeputers.ebal2.api.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixed-window quotas shared across replicas through a {@link QuotaStore}.
+ * <p>
+ * While a bucket has plenty of headroom, admitted requests are only counted locally and pushed to the store in batches
+ * of {@code batchSize} (or on {@link #flush()}), so the store sees one write per batch instead of one per request.
+ * Once the last known shared count gets within one batch of the limit, each request reserves its slot in the store
+ * directly. Overshoot is therefore bounded by {@code replicas * batchSize} per window. If the store is unreachable the
+ * limiter keeps counting locally and retries the flush later.
+ */
+public class DistributedQuotaLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(DistributedQuotaLimiter.class);
+
+    private final QuotaStore store;
+    private final int batchSize;
+    private final Clock clock;
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public DistributedQuotaLimiter(QuotaStore store, int batchSize) {
+        this(store, batchSize, Clock.systemUTC());
+    }
+
+    DistributedQuotaLimiter(QuotaStore store, int batchSize, Clock clock) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.store = Objects.requireNonNull(store, "store");
+        this.batchSize = batchSize;
+        this.clock = Objects.requireNonNull(clock, "clock");
+    }
+
+    public QuotaDecision acquire(String bucketKey, int limit, Duration window) {
+        Objects.requireNonNull(bucketKey, "bucketKey");
+        long windowSeconds = window.toSeconds();
+        if (limit < 1 || windowSeconds < 1) {
+            throw new IllegalArgumentException("limit and window (in seconds) must be positive");
+        }
+        long nowSeconds = clock.instant().getEpochSecond();
+        long windowStart = Math.floorDiv(nowSeconds, windowSeconds) * windowSeconds;
+        long resetSeconds = windowStart + windowSeconds - nowSeconds;
+
+        while (true) {
+            Bucket bucket = buckets.computeIfAbsent(bucketKey, key -> new Bucket(key, windowSeconds));
+            synchronized (bucket) {
+                if (bucket.retired) {
+                    continue;
+                }
+                if (bucket.windowStart != windowStart) {
+                    flush(bucket);
+                    bucket.roll(windowStart);
+                }
+                return acquire(bucket, limit, resetSeconds);
+            }
+        }
+    }
+
+    /**
+     * Pushes pending local counts to the store and drops buckets whose window has ended. Counts for an ended window
+     * that still cannot be flushed are discarded, since they no longer affect any decision.
+     */
+    @Scheduled(fixedDelayString = "${ebal.quota.flush-interval:PT1S}")
+    public void flush() {
+        long nowSeconds = clock.instant().getEpochSecond();
+        for (Bucket bucket : buckets.values()) {
+            synchronized (bucket) {
+                flush(bucket);
+                if (bucket.windowStart + bucket.windowSeconds <= nowSeconds) {
+                    bucket.retired = true;
+                    buckets.remove(bucket.key, bucket);
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ebal.quota.cleanup-interval:PT10M}")
+    public void purgeExpired() {
+        try {
+            int deleted = store.deleteExpired(OffsetDateTime.now(clock));
+            log.debug("Purged {} expired quota counters", deleted);
+        } catch (DataAccessException ex) {
+            log.warn("Failed to purge expired quota counters", ex);
+        }
+    }
+
+    int trackedBuckets() {
+        return buckets.size();
+    }
+
+    private QuotaDecision acquire(Bucket bucket, int limit, long resetSeconds) {
+        long used = bucket.knownUsed + bucket.pending;
+        if (used >= limit) {
+            return new QuotaDecision(false, limit, 0, resetSeconds);
+        }
+        if (limit - used > batchSize) {
+            bucket.pending++;
+            if (bucket.pending >= batchSize) {
+                flush(bucket);
+            }
+            return allowed(bucket, limit, resetSeconds);
+        }
+
+        // Close to the limit: settle local counts and reserve this request in the shared store.
+        flush(bucket);
+        if (bucket.pending > 0) {
+            // Store unavailable; fall back to the local view.
+            bucket.pending++;
+            return allowed(bucket, limit, resetSeconds);
+        }
+        try {
+            Long total = store.tryIncrement(bucket.key, bucket.windowStartTime(), 1, limit, bucket.expiresAt());
+            if (total == null) {
+                bucket.knownUsed = limit;
+                return new QuotaDecision(false, limit, 0, resetSeconds);
+            }
+            bucket.knownUsed = total;
+        } catch (DataAccessException ex) {
+            log.warn("Failed to reserve quota for {}; counting locally", bucket.key, ex);
+            bucket.pending++;
+        }
+        return allowed(bucket, limit, resetSeconds);
+    }
+
+    private QuotaDecision allowed(Bucket bucket, int limit, long resetSeconds) {
+        long remaining = Math.max(0, limit - bucket.knownUsed - bucket.pending);
+        return new QuotaDecision(true, limit, remaining, resetSeconds);
+    }
+
+    private void flush(Bucket bucket) {
+        if (bucket.pending == 0) {
+            return;
+        }
+        try {
+            bucket.knownUsed = store.increment(bucket.key, bucket.windowStartTime(), bucket.pending,
+                    bucket.expiresAt());
+            bucket.pending = 0;
+        } catch (DataAccessException ex) {
+            log.warn("Failed to flush {} quota hits for {}", bucket.pending, bucket.key, ex);
+        }
+    }
+
+    private static final class Bucket {
+        private final String key;
+        private final long windowSeconds;
+        private long windowStart = Long.MIN_VALUE;
+        private long knownUsed;
+        private int pending;
+        private boolean retired;
+
+        private Bucket(String key, long windowSeconds) {
+            this.key = key;
+            this.windowSeconds = windowSeconds;
+        }
+
+        private void roll(long newWindowStart) {
+            windowStart = newWindowStart;
+            knownUsed = 0;
+            pending = 0;
+        }
+
+        private OffsetDateTime windowStartTime() {
+            return OffsetDateTime.ofInstant(Instant.ofEpochSecond(windowStart), ZoneOffset.UTC);
+        }
+
+        private OffsetDateTime expiresAt() {
+            // keep the row for one extra window so late flushes from other replicas still land on it
+            return OffsetDateTime.ofInstant(Instant.ofEpochSecond(windowStart + 2 * windowSeconds), ZoneOffset.UTC);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.homeputers.ebal2.api.ratelimit;
+
+import com.homeputers.ebal2.api.domain.quota.ApiQuotaMapper;
+
+import java.time.OffsetDateTime;
+
+public class PostgresQuotaStore implements QuotaStore {
+
+    private final ApiQuotaMapper mapper;
+
+    public PostgresQuotaStore(ApiQuotaMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    @Override
+    public long increment(String bucketKey, OffsetDateTime windowStart, int delta, OffsetDateTime expiresAt) {
+        return mapper.increment(bucketKey, windowStart, delta, expiresAt);
+    }
+
+    @Override
+    public Long tryIncrement(String bucketKey, OffsetDateTime windowStart, int delta, int limit,
+                             OffsetDateTime expiresAt) {
+        return mapper.tryIncrement(bucketKey, windowStart, delta, limit, expiresAt);
+    }
+
+    @Override
+    public int deleteExpired(OffsetDateTime now) {
+        return mapper.deleteExpired(now);
+    }
+}
@@ -0,0 +1,9 @@
+package com.homeputers.ebal2.api.ratelimit;
+
+/**
+ * Outcome of a quota check, carrying what is needed for the {@code RateLimit-*} response headers.
+ *
+ * @param resetSeconds seconds until the current window ends
+ */
+public record QuotaDecision(boolean allowed, int limit, long remaining, long resetSeconds) {
+}
@@ -0,0 +1,23 @@
+package com.homeputers.ebal2.api.ratelimit;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Shared counter backend for {@link DistributedQuotaLimiter}, visible to every API replica.
+ */
+public interface QuotaStore {
+
+    /**
+     * Adds {@code delta} to the bucket's counter for the given window and returns the new total.
+     */
+    long increment(String bucketKey, OffsetDateTime windowStart, int delta, OffsetDateTime expiresAt);
+
+    /**
+     * Adds {@code delta} only if the total stays within {@code limit}.
+     *
+     * @return the new total, or {@code null} when the increment would exceed the limit
+     */
+    Long tryIncrement(String bucketKey, OffsetDateTime windowStart, int delta, int limit, OffsetDateTime expiresAt);
+
+    int deleteExpired(OffsetDateTime now);
+}
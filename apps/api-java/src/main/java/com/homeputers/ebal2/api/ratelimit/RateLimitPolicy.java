@@ -0,0 +1,56 @@
+package com.homeputers.ebal2.api.ratelimit;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Limits and bookkeeping bounds for a {@link RateLimiter}.
+ *
+ * @param mode        how attempts are counted
+ * @param limit       attempts allowed per window (bucket capacity for {@link Mode#TOKEN_BUCKET})
+ * @param window      window length, or the time to fully refill a token bucket
+ * @param maxKeys     cap on the number of keys tracked at once; new keys arriving together may briefly run past it
+ *                    by about an eighth
+ */
+public record RateLimitPolicy(Mode mode, int limit, Duration window, int maxKeys) {
+
+    public static final int DEFAULT_MAX_KEYS = 10_000;
+    static final int MAX_WINDOW_LIMIT = 0xFFFF;
+
+    public RateLimitPolicy {
+        Objects.requireNonNull(mode, "mode");
+        Objects.requireNonNull(window, "window");
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        if (mode != Mode.TOKEN_BUCKET && limit > MAX_WINDOW_LIMIT) {
+            throw new IllegalArgumentException("limit must not exceed " + MAX_WINDOW_LIMIT + " for windowed modes");
+        }
+        if (window.isNegative() || window.toMillis() < 1) {
+            throw new IllegalArgumentException("window must be at least one millisecond");
+        }
+        if (maxKeys < 1) {
+            throw new IllegalArgumentException("maxKeys must be positive");
+        }
+    }
+
+    public RateLimitPolicy(Mode mode, int limit, Duration window) {
+        this(mode, limit, window, DEFAULT_MAX_KEYS);
+    }
+
+    /**
+     * Keys untouched for this long no longer influence any decision and may be dropped.
+     */
+    Duration idleTimeout() {
+        return mode == Mode.SLIDING_WINDOW ? window.multipliedBy(2) : window;
+    }
+
+    public enum Mode {
+        /** Continuous refill of {@code limit} tokens per {@code window}, allowing bursts up to {@code limit}. */
+        TOKEN_BUCKET,
+        /** At most {@code limit} attempts per window, which starts with a key's first attempt. */
+        FIXED_WINDOW,
+        /** Fixed-window counter weighted with the previous window to smooth boundary bursts. */
+        SLIDING_WINDOW
+    }
+}
@@ -0,0 +1,253 @@
+package com.homeputers.ebal2.api.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory, per-key rate limiter.
+ * <p>
+ * Each key owns a single {@link AtomicLong} that encodes the whole limiter state, so an attempt is one CAS loop and
+ * never allocates once the key is tracked. The number of tracked keys is capped. Bookkeeping only happens when a new
+ * key arrives and is bounded per call: a cursor that keeps rotating through the table checks a few keys for idleness,
+ * and at the cap the least recently seen of a small sample from that cursor, started at a random offset, is dropped.
+ * The cursor sits behind a lock that new keys only try to take: when another thread holds it they skip the
+ * bookkeeping, so a flood of new keys does not queue on one monitor. The table may then run a little past the cap; only
+ * once it is well past it do new keys wait for the lock.
+ */
+public final class RateLimiter<K> {
+
+    private static final int SWEEP_STEP = 4;
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+    private static final int MAX_EVICTION_TRIES = 4;
+    private static final long LOW_32_BITS = 0xFFFF_FFFFL;
+    private static final long COUNT_MASK = 0xFFFFL;
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    private final RateLimitPolicy policy;
+    private final LongSupplier nanoClock;
+    private final long windowNanos;
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final long idleTimeoutNanos;
+    private final long originNanos;
+    private final ConcurrentHashMap<K, Slot> slots = new ConcurrentHashMap<>();
+    private final ReentrantLock cursorLock = new ReentrantLock();
+    private final int overshootLimit;
+    private Iterator<Map.Entry<K, Slot>> cursor;
+
+    public RateLimiter(RateLimitPolicy policy) {
+        this(policy, System::nanoTime);
+    }
+
+    RateLimiter(RateLimitPolicy policy, LongSupplier nanoClock) {
+        this.policy = Objects.requireNonNull(policy, "policy");
+        this.nanoClock = Objects.requireNonNull(nanoClock, "nanoClock");
+        this.windowNanos = policy.window().toNanos();
+        this.emissionIntervalNanos = Math.max(1, windowNanos / policy.limit());
+        this.burstNanos = emissionIntervalNanos * policy.limit();
+        this.idleTimeoutNanos = policy.idleTimeout().toNanos();
+        this.originNanos = nanoClock.getAsLong();
+        this.overshootLimit = policy.maxKeys() + Math.max(EVICTION_SAMPLE_SIZE, policy.maxKeys() / 8);
+    }
+
+    public RateLimitPolicy policy() {
+        return policy;
+    }
+
+    /**
+     * Records an attempt for {@code key}.
+     *
+     * @return {@code true} when the attempt is within the limit; rejected attempts are not counted
+     */
+    public boolean tryAcquire(K key) {
+        Objects.requireNonNull(key, "key");
+        long now = nanoClock.getAsLong();
+        Slot slot = slotFor(key, now);
+        slot.lastSeenNanos = now;
+        return switch (policy.mode()) {
+            case TOKEN_BUCKET -> acquireToken(slot, now);
+            case FIXED_WINDOW -> acquireFixedWindow(slot, now);
+            case SLIDING_WINDOW -> acquireSlidingWindow(slot, now);
+        };
+    }
+
+    public void reset(K key) {
+        if (key != null) {
+            slots.remove(key);
+        }
+    }
+
+    public int trackedKeys() {
+        return slots.size();
+    }
+
+    private boolean acquireToken(Slot slot, long now) {
+        while (true) {
+            long tat = slot.get();
+            long base = tat == EMPTY || tat - now < 0 ? now : tat;
+            long next = base + emissionIntervalNanos;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (slot.compareAndSet(tat, next)) {
+                return true;
+            }
+        }
+    }
+
+    // a key's window starts with its first attempt after the previous one ended; state is start millis << 16 | count
+    private boolean acquireFixedWindow(Slot slot, long now) {
+        long nowMillis = (now - originNanos) / NANOS_PER_MILLI;
+        long windowMillis = windowNanos / NANOS_PER_MILLI;
+        while (true) {
+            long state = slot.get();
+            long start = nowMillis;
+            long count = 0;
+            if (state != EMPTY && nowMillis - (state >>> 16) < windowMillis) {
+                start = state >>> 16;
+                count = state & COUNT_MASK;
+            }
+            if (count >= policy.limit()) {
+                return false;
+            }
+            if (slot.compareAndSet(state, (start << 16) | (count + 1))) {
+                return true;
+            }
+        }
+    }
+
+    private boolean acquireSlidingWindow(Slot slot, long now) {
+        long absoluteIndex = Math.floorDiv(now, windowNanos);
+        long index = absoluteIndex & LOW_32_BITS;
+        long previousIndex = (absoluteIndex - 1) & LOW_32_BITS;
+        double remainingFraction = 1.0 - (double) Math.floorMod(now, windowNanos) / windowNanos;
+        while (true) {
+            long state = slot.get();
+            long current = 0;
+            long previous = 0;
+            if (state != EMPTY) {
+                long stateIndex = state >>> 32;
+                if (stateIndex == index) {
+                    current = (state >>> 16) & COUNT_MASK;
+                    previous = state & COUNT_MASK;
+                } else if (stateIndex == previousIndex) {
+                    previous = (state >>> 16) & COUNT_MASK;
+                }
+            }
+            double estimate = previous * remainingFraction + current;
+            if (estimate + 1 > policy.limit()) {
+                return false;
+            }
+            long next = (index << 32) | (Math.min(current + 1, COUNT_MASK) << 16) | previous;
+            if (slot.compareAndSet(state, next)) {
+                return true;
+            }
+        }
+    }
+
+    private Slot slotFor(K key, long now) {
+        Slot slot = slots.get(key);
+        if (slot != null) {
+            return slot;
+        }
+        if (cursorLock.tryLock() || waitForCursorWhenFull()) {
+            try {
+                sweepStep(now);
+                // a sampled entry may already be gone, so allow a few tries before letting the map briefly overshoot
+                for (int i = 0; i < MAX_EVICTION_TRIES && slots.size() >= policy.maxKeys(); i++) {
+                    evictLeastRecentlySeen();
+                }
+            } finally {
+                cursorLock.unlock();
+            }
+        }
+        return slots.computeIfAbsent(key, ignored -> new Slot(now));
+    }
+
+    // someone else is doing the bookkeeping; only wait for them once skipping it would let the table grow unchecked
+    private boolean waitForCursorWhenFull() {
+        if (slots.size() < overshootLimit) {
+            return false;
+        }
+        cursorLock.lock();
+        return true;
+    }
+
+    // drops idle keys among the next few under the cursor
+    private void sweepStep(long now) {
+        boolean restarted = false;
+        for (int i = 0; i < SWEEP_STEP; ) {
+            Map.Entry<K, Slot> entry = advanceCursor();
+            if (entry == null) {
+                if (restarted) {
+                    return;
+                }
+                restarted = true;
+                continue;
+            }
+            if (now - entry.getValue().lastSeenNanos > idleTimeoutNanos) {
+                slots.remove(entry.getKey(), entry.getValue());
+            }
+            i++;
+        }
+    }
+
+    private void evictLeastRecentlySeen() {
+        // a random offset keeps the samples from lining up with the same keys on every pass
+        int skip = ThreadLocalRandom.current().nextInt(EVICTION_SAMPLE_SIZE);
+        for (int i = 0; i < skip && advanceCursor() != null; i++) {
+            // skipped
+        }
+        Map.Entry<K, Slot> candidate = null;
+        boolean restarted = false;
+        for (int i = 0; i < EVICTION_SAMPLE_SIZE; ) {
+            Map.Entry<K, Slot> entry = advanceCursor();
+            if (entry == null) {
+                if (restarted) {
+                    break;
+                }
+                restarted = true;
+                continue;
+            }
+            if (candidate == null || entry.getValue().lastSeenNanos - candidate.getValue().lastSeenNanos < 0) {
+                candidate = entry;
+            }
+            i++;
+        }
+        if (candidate != null) {
+            slots.remove(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    /**
+     * Returns the next entry under the cursor, or {@code null} once a pass over the table is done; the call after that
+     * starts the next pass. Callers hold {@link #cursorLock} and restart at most once, so no call walks the table more
+     * than once.
+     */
+    private Map.Entry<K, Slot> advanceCursor() {
+        if (cursor == null) {
+            cursor = slots.entrySet().iterator();
+        }
+        if (!cursor.hasNext()) {
+            cursor = null;
+            return null;
+        }
+        return cursor.next();
+    }
+
+    private static final class Slot extends AtomicLong {
+        private volatile long lastSeenNanos;
+
+        private Slot(long now) {
+            super(EMPTY);
+            this.lastSeenNanos = now;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.homeputers.ebal2.api.ratelimit;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitter tracker holding at most {@code capacity} keys. Any key occurring more than
+ * {@code N/capacity} times is guaranteed to be tracked; counts may overestimate by the reported error.
+ */
+public final class TopKTracker {
+
+    private final int capacity;
+    private final Map<String, Entry> entries;
+
+    public TopKTracker(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.entries = new HashMap<>(capacity * 2);
+    }
+
+    public synchronized void offer(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.count++;
+            return;
+        }
+        if (entries.size() < capacity) {
+            entries.put(key, new Entry(key, 1, 0));
+            return;
+        }
+        Entry smallest = null;
+        for (Entry candidate : entries.values()) {
+            if (smallest == null || candidate.count < smallest.count) {
+                smallest = candidate;
+            }
+        }
+        entries.remove(smallest.key);
+        entries.put(key, new Entry(key, smallest.count + 1, smallest.count));
+    }
+
+    public synchronized List<HeavyHitter> top(int limit) {
+        List<HeavyHitter> result = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            result.add(new HeavyHitter(entry.key, entry.count, entry.error));
+        }
+        result.sort(Comparator.comparingLong(HeavyHitter::count).reversed());
+        return result.size() > limit ? List.copyOf(result.subList(0, limit)) : result;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @param error upper bound on how much {@code count} overestimates the true frequency
+     */
+    public record HeavyHitter(String key, long count, long error) {
+    }
+
+    private static final class Entry {
+        private final String key;
+        private long count;
+        private final long error;
+
+        private Entry(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.homeputers.ebal2.api.rehearsal;
+
+import com.homeputers.ebal2.api.domain.arrangement.Arrangement;
+
+import java.util.List;
+
+/**
+ * Everything that goes into a rehearsal pack, resolved before any byte is written.
+ *
+ * @param contentHash SHA-256 over the inputs of the pack; equal hashes produce equivalent packs
+ * @param calendar    the service's iCal event, or {@code null} for a song set
+ */
+public record RehearsalPack(String fileName, String contentHash, String setlist, String calendar, List<Chart> charts) {
+
+    /**
+     * @param entryName name of the chart's file in the ZIP
+     */
+    public record Chart(String entryName, String title, Arrangement arrangement, int transpose, int capo) {
+    }
+}
@@ -0,0 +1,178 @@
+package com.homeputers.ebal2.api.rehearsal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finished rehearsal packs keyed by content hash, bounded by total bytes.
+ * <p>
+ * A miss streams the pack straight to the first requester while copying it into memory. Requests for the same hash
+ * that arrive meanwhile wait for that copy instead of building the pack again; if it fails, grows past the per-pack
+ * limit or takes longer than the build wait, they build their own. When over budget, the least recently read pack
+ * of a small sample is evicted.
+ */
+final class RehearsalPackCache {
+
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+
+    private final long maxBytes;
+    private final long maxPackBytes;
+    private final Duration buildWait;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<byte[]>> building = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final AtomicLong clock = new AtomicLong();
+
+    RehearsalPackCache(long maxBytes, long maxPackBytes, Duration buildWait) {
+        this.maxBytes = maxBytes;
+        this.maxPackBytes = Math.min(maxPackBytes, maxBytes);
+        this.buildWait = buildWait;
+    }
+
+    void write(String hash, OutputStream out, PackWriter writer) throws IOException {
+        if (maxBytes <= 0) {
+            writer.writeTo(out);
+            return;
+        }
+        Entry cached = entries.get(hash);
+        if (cached != null) {
+            cached.lastRead = clock.incrementAndGet();
+            out.write(cached.content);
+            return;
+        }
+        CompletableFuture<byte[]> build = new CompletableFuture<>();
+        CompletableFuture<byte[]> running = building.putIfAbsent(hash, build);
+        if (running != null) {
+            byte[] content = await(running);
+            if (content != null) {
+                out.write(content);
+            } else {
+                writer.writeTo(out);
+            }
+            return;
+        }
+        byte[] content = null;
+        try {
+            CapturingOutputStream capture = new CapturingOutputStream(out, maxPackBytes);
+            writer.writeTo(capture);
+            content = capture.captured();
+            if (content != null) {
+                put(hash, content);
+            }
+        } finally {
+            building.remove(hash, build);
+            build.complete(content);
+        }
+    }
+
+    long size() {
+        return totalBytes.get();
+    }
+
+    private byte[] await(CompletableFuture<byte[]> running) {
+        try {
+            return running.get(buildWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException ex) {
+            return null;
+        }
+    }
+
+    private void put(String hash, byte[] content) {
+        Entry entry = new Entry(content);
+        entry.lastRead = clock.incrementAndGet();
+        if (entries.putIfAbsent(hash, entry) != null) {
+            return;
+        }
+        totalBytes.addAndGet(content.length);
+        while (totalBytes.get() > maxBytes) {
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            Map.Entry<String, Entry> oldest = null;
+            for (int i = 0; i < EVICTION_SAMPLE_SIZE && iterator.hasNext(); i++) {
+                Map.Entry<String, Entry> candidate = iterator.next();
+                if (oldest == null || candidate.getValue().lastRead < oldest.getValue().lastRead) {
+                    oldest = candidate;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            if (entries.remove(oldest.getKey(), oldest.getValue())) {
+                totalBytes.addAndGet(-oldest.getValue().content.length);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface PackWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private static final class Entry {
+        private final byte[] content;
+        private volatile long lastRead;
+
+        private Entry(byte[] content) {
+            this.content = content;
+        }
+    }
+
+    /**
+     * Passes writes through while keeping a copy, which is dropped once it exceeds the limit.
+     */
+    private static final class CapturingOutputStream extends OutputStream {
+        private final OutputStream target;
+        private final long limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        private CapturingOutputStream(OutputStream target, long limit) {
+            this.target = target;
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+            if (copy != null) {
+                copy.write(b);
+                checkLimit();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target.write(b, off, len);
+            if (copy != null) {
+                copy.write(b, off, len);
+                checkLimit();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        private void checkLimit() {
+            if (copy.size() > limit) {
+                copy = null;
+            }
+        }
+
+        private byte[] captured() {
+            return copy == null ? null : copy.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.homeputers.ebal2.api.rehearsal;
+
+import com.homeputers.ebal2.api.generated.RehearsalPacksApi;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1")
+public class RehearsalPackController implements RehearsalPacksApi {
+    private static final String ZIP_CONTENT_TYPE = "application/zip";
+
+    private final RehearsalPackService service;
+
+    public RehearsalPackController(RehearsalPackService service) {
+        this.service = service;
+    }
+
+    @Override
+    public ResponseEntity<Resource> downloadSongSetRehearsalPack(UUID id) {
+        return stream(service.forSongSet(id));
+    }
+
+    @Override
+    public ResponseEntity<Resource> downloadServiceRehearsalPack(UUID id) {
+        return stream(service.forService(id));
+    }
+
+    /**
+     * Writes the pack to the servlet response as it is built, so the generated return value is not used.
+     */
+    private ResponseEntity<Resource> stream(RehearsalPack pack) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        HttpServletResponse response = attributes.getResponse();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        if (new ServletWebRequest(attributes.getRequest(), response)
+                .checkNotModified("\"" + pack.contentHash() + "\"")) {
+            return null;
+        }
+        response.setContentType(ZIP_CONTENT_TYPE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(pack.fileName(), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        try {
+            service.write(pack, response.getOutputStream());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to stream rehearsal pack " + pack.fileName(), ex);
+        }
+        return null;
+    }
+}
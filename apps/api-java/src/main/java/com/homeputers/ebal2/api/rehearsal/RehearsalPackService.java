@@ -0,0 +1,261 @@
+package com.homeputers.ebal2.api.rehearsal;
+
+import com.homeputers.ebal2.api.chordpro.ChartFormat;
+import com.homeputers.ebal2.api.chordpro.ChordChartService;
+import com.homeputers.ebal2.api.chordpro.ChordNotation;
+import com.homeputers.ebal2.api.chordpro.MusicalKey;
+import com.homeputers.ebal2.api.config.RehearsalPackProperties;
+import com.homeputers.ebal2.api.domain.arrangement.Arrangement;
+import com.homeputers.ebal2.api.domain.arrangement.ArrangementMapper;
+import com.homeputers.ebal2.api.domain.service.Service;
+import com.homeputers.ebal2.api.domain.serviceplanitem.ServicePlanItem;
+import com.homeputers.ebal2.api.domain.songset.SongSet;
+import com.homeputers.ebal2.api.domain.songsetitem.SongSetItem;
+import com.homeputers.ebal2.api.service.ServiceCalendarService;
+import com.homeputers.ebal2.api.service.ServiceService;
+import com.homeputers.ebal2.api.songset.SongSetService;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Builds ZIP rehearsal packs for a song set or a service: one HTML chart per song, rendered with the planned
+ * transpose and capo, a plain-text setlist and, for services, the iCal event.
+ * <p>
+ * The pack is resolved first, which fixes its content hash, and then written entry by entry to the caller's stream
+ * without temp files. Packs are cached by that hash, so a band downloading the same pack builds it once.
+ */
+@org.springframework.stereotype.Service
+public class RehearsalPackService {
+
+    static final String PLAN_ITEM_SONG = "song";
+    // bump when the layout of the pack changes, so cached packs are not served for the old layout
+    private static final String FORMAT_VERSION = "1";
+    // entries and the calendar event are stamped with a fixed time, so a rebuilt pack has the same bytes as the
+    // copy already served under the same ETag
+    static final LocalDateTime ENTRY_TIME = LocalDateTime.of(1980, 1, 1, 0, 0);
+    private static final DateTimeFormatter SERVICE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm xxx");
+    private static final String CHART_STYLE = """
+            body{font-family:sans-serif;margin:2em}
+            .line{margin:0 0 .3em}
+            .segment{display:inline-block;vertical-align:bottom;white-space:pre}
+            .chord{display:block;font-weight:bold;min-height:1.2em;padding-right:.3em}
+            .comment{font-style:italic;margin:.5em 0}
+            .label{font-size:1em;margin:1em 0 .3em}
+            section.chorus{border-left:3px solid #999;padding-left:1em}
+            .empty{height:1em}
+            """;
+
+    private final SongSetService songSetService;
+    private final ServiceService serviceService;
+    private final ArrangementMapper arrangementMapper;
+    private final ChordChartService chordChartService;
+    private final ServiceCalendarService calendarService;
+    private final RehearsalPackCache cache;
+
+    public RehearsalPackService(SongSetService songSetService,
+                                ServiceService serviceService,
+                                ArrangementMapper arrangementMapper,
+                                ChordChartService chordChartService,
+                                ServiceCalendarService calendarService,
+                                RehearsalPackProperties properties) {
+        this.songSetService = songSetService;
+        this.serviceService = serviceService;
+        this.arrangementMapper = arrangementMapper;
+        this.chordChartService = chordChartService;
+        this.calendarService = calendarService;
+        this.cache = new RehearsalPackCache(properties.getCacheMaxBytes(), properties.getCacheMaxPackBytes(),
+                properties.getBuildWait());
+    }
+
+    public RehearsalPack forSongSet(UUID songSetId) {
+        SongSet songSet = songSetService.get(songSetId);
+        List<SongSetItem> items = songSetService.listItems(songSetId);
+        String name = StringUtils.hasText(songSet.name()) ? songSet.name() : "Song set";
+        PackBuilder builder = new PackBuilder(name);
+        for (SongSetItem item : items) {
+            // items carry arrangement summaries; the pack needs the lyrics
+            Arrangement arrangement = item.arrangement() == null
+                    ? null
+                    : arrangementMapper.findById(item.arrangement().id());
+            builder.song(arrangement, orZero(item.transpose()), orZero(item.capo()), null);
+        }
+        return builder.build("song-set:" + songSetId, null);
+    }
+
+    public RehearsalPack forService(UUID serviceId) {
+        Service service = serviceService.get(serviceId);
+        List<ServicePlanItem> items = serviceService.listPlanItems(serviceId);
+        StringBuilder title = new StringBuilder("Service");
+        if (service.startsAt() != null) {
+            title.append(' ').append(SERVICE_TIME.format(service.startsAt()));
+        }
+        if (StringUtils.hasText(service.location())) {
+            title.append(" - ").append(service.location());
+        }
+        PackBuilder builder = new PackBuilder(title.toString());
+        for (ServicePlanItem item : items) {
+            if (PLAN_ITEM_SONG.equals(item.type()) && item.refId() != null) {
+                builder.song(arrangementMapper.findById(item.refId()), 0, 0, item.notes());
+            } else {
+                builder.other(item.type(), item.notes());
+            }
+        }
+        String calendar = service.startsAt() == null ? null : calendarService.exportService(service, ENTRY_TIME.atOffset(ZoneOffset.UTC));
+        return builder.build("service:" + serviceId, calendar);
+    }
+
+    public void write(RehearsalPack pack, OutputStream out) throws IOException {
+        cache.write(pack.contentHash(), out, target -> writeZip(pack, target));
+    }
+
+    private void writeZip(RehearsalPack pack, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        writeEntry(zip, "setlist.txt", pack.setlist());
+        if (pack.calendar() != null) {
+            writeEntry(zip, "service.ics", pack.calendar());
+        }
+        for (RehearsalPack.Chart chart : pack.charts()) {
+            String html = chordChartService.render(chart.arrangement(), chart.transpose(), chart.capo(),
+                    ChordNotation.LETTERS, ChartFormat.HTML).rendered().content();
+            writeEntry(zip, chart.entryName(), htmlDocument(chart.title(), html));
+        }
+        // finish, not close: the caller owns the underlying stream
+        zip.finish();
+        zip.flush();
+    }
+
+    private static void writeEntry(ZipOutputStream zip, String name, String content) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setTimeLocal(ENTRY_TIME);
+        zip.putNextEntry(entry);
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    private static String htmlDocument(String title, String body) {
+        return "<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>" + escapeHtml(title)
+                + "</title>\n<style>\n" + CHART_STYLE + "</style></head>\n<body>\n" + body + "</body></html>\n";
+    }
+
+    private static String escapeHtml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private static int orZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * Collects the setlist and charts while feeding every input that affects the output into the content hash.
+     */
+    private static final class PackBuilder {
+        private final String name;
+        private final StringBuilder setlist = new StringBuilder();
+        private final StringBuilder fingerprint = new StringBuilder();
+        private final List<RehearsalPack.Chart> charts = new ArrayList<>();
+        private int position;
+
+        private PackBuilder(String name) {
+            this.name = name;
+            setlist.append(name).append("\n\n");
+        }
+
+        private void song(Arrangement arrangement, int transpose, int capo, String notes) {
+            position++;
+            if (arrangement == null) {
+                setlist.append("%2d. (missing arrangement)\n".formatted(position));
+                return;
+            }
+            String title = arrangement.song() != null && StringUtils.hasText(arrangement.song().title())
+                    ? arrangement.song().title()
+                    : "Untitled";
+            setlist.append("%2d. %s".formatted(position, title));
+            MusicalKey key = MusicalKey.parse(arrangement.key());
+            if (key != null) {
+                MusicalKey sounding = key.transpose(transpose);
+                setlist.append(" - ").append(sounding.name());
+                if (capo > 0) {
+                    setlist.append(" (capo ").append(capo).append(", play ")
+                            .append(sounding.transpose(-capo).name()).append(')');
+                }
+            } else if (capo > 0) {
+                setlist.append(" - capo ").append(capo);
+            }
+            if (arrangement.bpm() != null) {
+                setlist.append(", ").append(arrangement.bpm()).append(" BPM");
+            }
+            if (StringUtils.hasText(arrangement.meter())) {
+                setlist.append(", ").append(arrangement.meter());
+            }
+            if (StringUtils.hasText(notes)) {
+                setlist.append("\n    ").append(notes.strip());
+            }
+            if (StringUtils.hasText(arrangement.lyricsChordpro())) {
+                String entryName = "%02d %s.html".formatted(position, fileName(title));
+                charts.add(new RehearsalPack.Chart(entryName, title, arrangement, transpose, capo));
+                fingerprint.append(entryName).append('\0').append(arrangement.id()).append(':')
+                        .append(arrangement.version()).append(':').append(transpose).append(':').append(capo)
+                        .append('\n');
+            } else {
+                setlist.append(" (no chart)");
+            }
+            setlist.append('\n');
+        }
+
+        private void other(String type, String notes) {
+            position++;
+            String label = StringUtils.hasText(type)
+                    ? Character.toUpperCase(type.charAt(0)) + type.substring(1)
+                    : "Item";
+            setlist.append("%2d. %s".formatted(position, label));
+            if (StringUtils.hasText(notes)) {
+                setlist.append(" - ").append(notes.strip());
+            }
+            setlist.append('\n');
+        }
+
+        private RehearsalPack build(String owner, String calendar) {
+            String text = setlist.toString();
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException("SHA-256 not available", ex);
+            }
+            // the calendar is left out: its inputs are all in the setlist
+            digest.update((FORMAT_VERSION + '\0' + owner + '\0' + text + '\0' + fingerprint)
+                    .getBytes(StandardCharsets.UTF_8));
+            String hash = HexFormat.of().formatHex(digest.digest());
+            return new RehearsalPack(fileName(name) + ".zip", hash, text, calendar, List.copyOf(charts));
+        }
+
+        /**
+         * Replaces characters that are not allowed in file names on common systems.
+         */
+        private static String fileName(String title) {
+            StringBuilder name = new StringBuilder(title.length());
+            for (int i = 0; i < title.length(); i++) {
+                char c = title.charAt(i);
+                boolean reserved = c < 0x20 || c == '/' || c == '\\' || c == ':' || c == '*' || c == '?'
+                        || c == '"' || c == '<' || c == '>' || c == '|';
+                name.append(reserved ? '-' : c);
+            }
+            String result = name.toString().strip();
+            return result.isEmpty() || result.startsWith(".") ? "pack" + result : result;
+        }
+    }
+}
@@ -10,12 +10,14 @@ import org.springframework.stereotype.Service;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class SearchService {
     private static final int MEMBER_LIMIT = 5;
     private static final int SONG_LIMIT = 5;
     private static final int SERVICE_LIMIT = 5;
+    private static final Set<String> SONG_FIELDS = Set.of("title", "author");
 
     private final MemberMapper memberMapper;
     private final SongMapper songMapper;
@@ -38,7 +40,7 @@ public class SearchService {
             results.add(new SearchResultDto("member", m.id(), m.displayName(), subtitle));
         }
 
-        List<Song> songs = songMapper.search(query, null, 0, SONG_LIMIT);
+        List<Song> songs = songMapper.search(query, null, 0, SONG_LIMIT, SONG_FIELDS);
         for (Song s : songs) {
             results.add(new SearchResultDto("song", s.id(), s.title(), s.author()));
         }
@@ -0,0 +1,99 @@
+package com.homeputers.ebal2.api.security;
+
+import com.homeputers.ebal2.api.config.SecurityProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the address of the client behind a request, for rate limits and abuse detection.
+ * <p>
+ * {@code X-Forwarded-For} is only honoured when the connection comes from one of the configured trusted proxies
+ * ({@code ebal.security.trusted-proxies}, addresses or CIDR ranges). The header is then read from the right, skipping
+ * trusted proxies, and the first other address is the client; everything left of it was supplied by the client and is
+ * ignored. Without trusted proxies the header is ignored altogether, so callers cannot pick a new address per request.
+ */
+@Component
+public class ClientIpResolver {
+
+    static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final Pattern IPV6 = Pattern.compile("[0-9a-fA-F:.]*:[0-9a-fA-F:.]*");
+
+    private final List<IpAddressMatcher> trustedProxies;
+
+    @Autowired
+    public ClientIpResolver(SecurityProperties properties) {
+        this(properties.getTrustedProxies());
+    }
+
+    ClientIpResolver(List<String> trustedProxies) {
+        List<IpAddressMatcher> matchers = new ArrayList<>();
+        for (String proxy : trustedProxies) {
+            String address = proxy.strip();
+            int slash = address.indexOf('/');
+            // IpAddressMatcher resolves anything that is not a literal through DNS
+            if (!isIpLiteral(slash < 0 ? address : address.substring(0, slash))) {
+                throw new IllegalArgumentException("Trusted proxy '%s' is not an IP address or range".formatted(proxy));
+            }
+            matchers.add(new IpAddressMatcher(address));
+        }
+        this.trustedProxies = List.copyOf(matchers);
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String remoteAddress = request.getRemoteAddr();
+        if (!isTrusted(remoteAddress)) {
+            return remoteAddress;
+        }
+        List<String> hops = new ArrayList<>();
+        for (String header : Collections.list(request.getHeaders(FORWARDED_FOR_HEADER))) {
+            for (String hop : header.split(",")) {
+                if (StringUtils.hasText(hop)) {
+                    hops.add(stripBrackets(hop.strip()));
+                }
+            }
+        }
+        String client = remoteAddress;
+        for (int i = hops.size() - 1; i >= 0; i--) {
+            String hop = hops.get(i);
+            if (!isIpLiteral(hop)) {
+                // a trusted proxy never reports this, so the header is broken; the proxy is the best we know
+                return client;
+            }
+            client = hop;
+            if (!isTrusted(hop)) {
+                return hop;
+            }
+        }
+        return client;
+    }
+
+    private boolean isTrusted(String address) {
+        if (trustedProxies.isEmpty() || address == null || !isIpLiteral(address)) {
+            return false;
+        }
+        for (IpAddressMatcher proxy : trustedProxies) {
+            if (proxy.matches(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isIpLiteral(String value) {
+        return IPV4.matcher(value).matches() || IPV6.matcher(value).matches();
+    }
+
+    private static String stripBrackets(String value) {
+        return value.startsWith("[") && value.endsWith("]") ? value.substring(1, value.length() - 1) : value;
+    }
+}
@@ -0,0 +1,72 @@
+package com.homeputers.ebal2.api.security;
+
+import com.homeputers.ebal2.api.config.SecurityProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Picks the highest BCrypt cost whose hashing time on the current host stays within the configured target.
+ * Each cost step doubles the work, so calibration stops as soon as the next step is predicted to overshoot.
+ */
+public class PasswordHashCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashCalibrator.class);
+    private static final String SAMPLE_PASSWORD = "calibration-Sample-Password-123!";
+    private static final int WARM_UP_STRENGTH = 4;
+
+    private final long targetNanos;
+    private final int minStrength;
+    private final int maxStrength;
+    private final IntToLongFunction hashTimer;
+
+    public PasswordHashCalibrator(SecurityProperties.PasswordHashing properties) {
+        this(properties.getTargetDuration(), properties.getMinStrength(), properties.getMaxStrength(),
+                PasswordHashCalibrator::timeBcrypt);
+    }
+
+    PasswordHashCalibrator(Duration targetDuration, int minStrength, int maxStrength, IntToLongFunction hashTimer) {
+        Objects.requireNonNull(targetDuration, "targetDuration");
+        if (minStrength > maxStrength) {
+            throw new IllegalArgumentException("minStrength must not exceed maxStrength");
+        }
+        this.targetNanos = targetDuration.toNanos();
+        this.minStrength = minStrength;
+        this.maxStrength = maxStrength;
+        this.hashTimer = Objects.requireNonNull(hashTimer, "hashTimer");
+    }
+
+    public int calibrate() {
+        hashTimer.applyAsLong(WARM_UP_STRENGTH);
+        int strength = minStrength;
+        while (true) {
+            long elapsed = hashTimer.applyAsLong(strength);
+            if (elapsed > targetNanos) {
+                int chosen = Math.max(minStrength, strength - 1);
+                logResult(chosen, elapsed);
+                return chosen;
+            }
+            if (strength >= maxStrength || elapsed * 2 > targetNanos) {
+                logResult(strength, elapsed);
+                return strength;
+            }
+            strength++;
+        }
+    }
+
+    private void logResult(int strength, long lastMeasuredNanos) {
+        log.info("Calibrated BCrypt strength {} for target {} ms (last sample {} ms)",
+                strength, Duration.ofNanos(targetNanos).toMillis(), Duration.ofNanos(lastMeasuredNanos).toMillis());
+    }
+
+    private static long timeBcrypt(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long start = System.nanoTime();
+        encoder.encode(SAMPLE_PASSWORD);
+        return System.nanoTime() - start;
+    }
+}
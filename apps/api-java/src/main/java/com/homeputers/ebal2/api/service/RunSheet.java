@@ -0,0 +1,25 @@
+package com.homeputers.ebal2.api.service;
+
+import com.homeputers.ebal2.api.domain.arrangement.Arrangement;
+import com.homeputers.ebal2.api.domain.serviceplanitem.ServicePlanItem;
+import com.homeputers.ebal2.api.domain.songset.SongSet;
+import com.homeputers.ebal2.api.domain.songsetitem.SongSetItem;
+
+import java.util.List;
+
+/**
+ * A service with its plan items and everything they reference.
+ */
+public record RunSheet(com.homeputers.ebal2.api.domain.service.Service service, List<Entry> items) {
+
+    /**
+     * A plan item with its reference resolved. At most one of {@code arrangement} and {@code songSet} is set; both are
+     * {@code null} for items without a reference or whose target no longer exists.
+     *
+     * @param arrangement  summary of the referenced arrangement, with its song
+     * @param songSetItems the items of {@code songSet} in order, each with an arrangement summary and its song
+     */
+    public record Entry(ServicePlanItem item, Arrangement arrangement, SongSet songSet,
+                        List<SongSetItem> songSetItems) {
+    }
+}
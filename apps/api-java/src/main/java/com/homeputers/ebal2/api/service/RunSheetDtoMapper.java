@@ -0,0 +1,65 @@
+package com.homeputers.ebal2.api.service;
+
+import com.homeputers.ebal2.api.domain.arrangement.Arrangement;
+import com.homeputers.ebal2.api.domain.serviceplanitem.ServicePlanItem;
+import com.homeputers.ebal2.api.domain.songsetitem.SongSetItem;
+import com.homeputers.ebal2.api.generated.model.RunSheetArrangement;
+import com.homeputers.ebal2.api.generated.model.RunSheetItem;
+import com.homeputers.ebal2.api.generated.model.RunSheetSongSet;
+import com.homeputers.ebal2.api.generated.model.RunSheetSongSetItem;
+import com.homeputers.ebal2.api.generated.model.ServiceRunSheetResponse;
+
+public class RunSheetDtoMapper {
+    public static ServiceRunSheetResponse toResponse(RunSheet runSheet) {
+        ServiceRunSheetResponse response = new ServiceRunSheetResponse();
+        response.setService(ServiceDtoMapper.toResponse(runSheet.service()));
+        response.setItems(runSheet.items().stream().map(RunSheetDtoMapper::toItem).toList());
+        return response;
+    }
+
+    private static RunSheetItem toItem(RunSheet.Entry entry) {
+        ServicePlanItem item = entry.item();
+        RunSheetItem response = new RunSheetItem();
+        response.setId(item.id());
+        response.setType(item.type());
+        response.setRefId(item.refId());
+        response.setSortOrder(item.sortOrder());
+        response.setNotes(item.notes());
+        if (entry.arrangement() != null) {
+            response.setArrangement(toArrangement(entry.arrangement()));
+        }
+        if (entry.songSet() != null) {
+            RunSheetSongSet songSet = new RunSheetSongSet();
+            songSet.setId(entry.songSet().id());
+            songSet.setName(entry.songSet().name());
+            songSet.setItems(entry.songSetItems().stream().map(RunSheetDtoMapper::toSongSetItem).toList());
+            response.setSongSet(songSet);
+        }
+        return response;
+    }
+
+    private static RunSheetSongSetItem toSongSetItem(SongSetItem item) {
+        RunSheetSongSetItem response = new RunSheetSongSetItem();
+        response.setId(item.id());
+        response.setSortOrder(item.sortOrder());
+        response.setTranspose(item.transpose());
+        response.setCapo(item.capo());
+        if (item.arrangement() != null) {
+            response.setArrangement(toArrangement(item.arrangement()));
+        }
+        return response;
+    }
+
+    private static RunSheetArrangement toArrangement(Arrangement arrangement) {
+        RunSheetArrangement response = new RunSheetArrangement();
+        response.setId(arrangement.id());
+        if (arrangement.song() != null) {
+            response.setSongId(arrangement.song().id());
+            response.setSongTitle(arrangement.song().title());
+        }
+        response.setKey(arrangement.key());
+        response.setBpm(arrangement.bpm());
+        response.setMeter(arrangement.meter());
+        return response;
+    }
+}
@@ -0,0 +1,103 @@
+package com.homeputers.ebal2.api.service;
+
+import com.homeputers.ebal2.api.domain.arrangement.Arrangement;
+import com.homeputers.ebal2.api.domain.arrangement.ArrangementMapper;
+import com.homeputers.ebal2.api.domain.serviceplanitem.ServicePlanItem;
+import com.homeputers.ebal2.api.domain.songset.SongSet;
+import com.homeputers.ebal2.api.domain.songset.SongSetMapper;
+import com.homeputers.ebal2.api.domain.songsetitem.SongSetItem;
+import com.homeputers.ebal2.api.domain.songsetitem.SongSetItemMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Builds a service's run sheet with a fixed number of statements however long the plan is.
+ * <p>
+ * Plan item references are grouped by type and each group is loaded with one {@code IN} query: arrangements with
+ * their songs, song sets, and the items of all referenced song sets. Items of type {@code song} and
+ * {@code arrangement} reference an arrangement, {@code song-set} a song set; other types carry no reference.
+ */
+@Service
+public class RunSheetService {
+
+    static final String TYPE_SONG = "song";
+    static final String TYPE_ARRANGEMENT = "arrangement";
+    static final String TYPE_SONG_SET = "song-set";
+
+    private final ServiceService serviceService;
+    private final ArrangementMapper arrangementMapper;
+    private final SongSetMapper songSetMapper;
+    private final SongSetItemMapper songSetItemMapper;
+
+    public RunSheetService(ServiceService serviceService,
+                           ArrangementMapper arrangementMapper,
+                           SongSetMapper songSetMapper,
+                           SongSetItemMapper songSetItemMapper) {
+        this.serviceService = serviceService;
+        this.arrangementMapper = arrangementMapper;
+        this.songSetMapper = songSetMapper;
+        this.songSetItemMapper = songSetItemMapper;
+    }
+
+    // one session for all statements, so the plan items' nested service lookup hits the first-level cache
+    @Transactional(readOnly = true)
+    public RunSheet get(UUID serviceId) {
+        com.homeputers.ebal2.api.domain.service.Service service = serviceService.get(serviceId);
+        List<ServicePlanItem> items = serviceService.listPlanItems(serviceId);
+
+        Set<UUID> arrangementIds = new LinkedHashSet<>();
+        Set<UUID> songSetIds = new LinkedHashSet<>();
+        for (ServicePlanItem item : items) {
+            if (item.refId() == null) {
+                continue;
+            }
+            if (referencesArrangement(item)) {
+                arrangementIds.add(item.refId());
+            } else if (TYPE_SONG_SET.equals(item.type())) {
+                songSetIds.add(item.refId());
+            }
+        }
+
+        Map<UUID, Arrangement> arrangements = new HashMap<>();
+        if (!arrangementIds.isEmpty()) {
+            for (Arrangement arrangement : arrangementMapper.findSummariesWithSongByIds(arrangementIds)) {
+                arrangements.put(arrangement.id(), arrangement);
+            }
+        }
+        Map<UUID, SongSet> songSets = new HashMap<>();
+        Map<UUID, List<SongSetItem>> songSetItems = new HashMap<>();
+        if (!songSetIds.isEmpty()) {
+            for (SongSet songSet : songSetMapper.findByIds(songSetIds)) {
+                songSets.put(songSet.id(), songSet);
+            }
+            for (SongSetItem item : songSetItemMapper.findJoinedBySongSetIds(songSetIds)) {
+                songSetItems.computeIfAbsent(item.songSet().id(), id -> new ArrayList<>()).add(item);
+            }
+        }
+
+        List<RunSheet.Entry> entries = new ArrayList<>(items.size());
+        for (ServicePlanItem item : items) {
+            if (item.refId() != null && referencesArrangement(item)) {
+                entries.add(new RunSheet.Entry(item, arrangements.get(item.refId()), null, List.of()));
+            } else if (TYPE_SONG_SET.equals(item.type()) && songSets.containsKey(item.refId())) {
+                entries.add(new RunSheet.Entry(item, null, songSets.get(item.refId()),
+                        songSetItems.getOrDefault(item.refId(), List.of())));
+            } else {
+                entries.add(new RunSheet.Entry(item, null, null, List.of()));
+            }
+        }
+        return new RunSheet(service, entries);
+    }
+
+    private static boolean referencesArrangement(ServicePlanItem item) {
+        return TYPE_SONG.equals(item.type()) || TYPE_ARRANGEMENT.equals(item.type());
+    }
+}
@@ -33,8 +33,17 @@ public class ServiceCalendarService {
             throw new NoSuchElementException("Calendar token not found");
         }
 
-        List<Service> upcoming = serviceMapper.findUpcoming(OffsetDateTime.now(ZoneOffset.UTC), DEFAULT_LIMIT);
-        return buildCalendar(upcoming);
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        List<Service> upcoming = serviceMapper.findUpcoming(now, DEFAULT_LIMIT);
+        return buildCalendar(upcoming, "Upcoming Services", now);
+    }
+
+    /**
+     * @return a calendar holding just {@code service}'s event, for attaching to a single service; the event is stamped
+     * with {@code stamp} rather than the current time, so the same service always exports the same text
+     */
+    public String exportService(Service service, OffsetDateTime stamp) {
+        return buildCalendar(List.of(service), "Service", stamp.withOffsetSameInstant(ZoneOffset.UTC));
     }
 
     private ShareToken lookupToken(String token) {
@@ -44,16 +53,14 @@ public class ServiceCalendarService {
         return shareTokenMapper.findByTokenAndType(token, CALENDAR_TOKEN_TYPE);
     }
 
-    private String buildCalendar(List<Service> services) {
+    private String buildCalendar(List<Service> services, String calendarName, OffsetDateTime stamp) {
         StringBuilder sb = new StringBuilder();
         appendLine(sb, "BEGIN:VCALENDAR");
         appendLine(sb, "VERSION:2.0");
         appendLine(sb, "PRODID:-//Every Breath And Life//Service Calendar//EN");
         appendLine(sb, "CALSCALE:GREGORIAN");
         appendLine(sb, "METHOD:PUBLISH");
-        appendLine(sb, "X-WR-CALNAME:Upcoming Services");
-
-        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        appendLine(sb, "X-WR-CALNAME:" + escape(calendarName));
 
         for (Service service : services) {
             if (service == null || service.startsAt() == null) {
@@ -61,7 +68,7 @@ public class ServiceCalendarService {
             }
             appendLine(sb, "BEGIN:VEVENT");
             appendLine(sb, "UID:" + service.id() + "@services.ebal");
-            appendLine(sb, "DTSTAMP:" + formatDateTime(now));
+            appendLine(sb, "DTSTAMP:" + formatDateTime(stamp));
             appendLine(sb, "DTSTART:" + formatDateTime(service.startsAt()));
 
             String location = service.location();
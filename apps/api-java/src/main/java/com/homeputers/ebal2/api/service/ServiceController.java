@@ -1,12 +1,16 @@
 package com.homeputers.ebal2.api.service;
 
 import com.homeputers.ebal2.api.domain.serviceplanitem.ServicePlanItem;
+import com.homeputers.ebal2.api.fields.ResponseFields;
 import com.homeputers.ebal2.api.generated.ServicesApi;
+import com.homeputers.ebal2.api.generated.model.BatchGetRequest;
 import com.homeputers.ebal2.api.generated.model.PageServiceResponse;
+import com.homeputers.ebal2.api.generated.model.ServiceBatchGetResponse;
 import com.homeputers.ebal2.api.generated.model.ServicePlanItemRequest;
 import com.homeputers.ebal2.api.generated.model.ServicePlanItemResponse;
 import com.homeputers.ebal2.api.generated.model.ServiceRequest;
 import com.homeputers.ebal2.api.generated.model.ServiceResponse;
+import com.homeputers.ebal2.api.generated.model.ServiceRunSheetResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
@@ -23,20 +27,34 @@ import java.util.UUID;
 public class ServiceController implements ServicesApi {
     private final ServiceService service;
     private final ServiceCalendarService serviceCalendarService;
+    private final RunSheetService runSheetService;
+    private final ResponseFields responseFields;
 
-    public ServiceController(ServiceService service, ServiceCalendarService serviceCalendarService) {
+    public ServiceController(ServiceService service,
+                             ServiceCalendarService serviceCalendarService,
+                             RunSheetService runSheetService,
+                             ResponseFields responseFields) {
         this.service = service;
         this.serviceCalendarService = serviceCalendarService;
+        this.runSheetService = runSheetService;
+        this.responseFields = responseFields;
     }
 
     @Override
-    public ResponseEntity<PageServiceResponse> listServices(Integer page, Integer size) {
+    public ResponseEntity<PageServiceResponse> listServices(Integer page, Integer size, String fields) {
+        responseFields.select(fields, ServiceResponse.class);
         Page<com.homeputers.ebal2.api.domain.service.Service> services = service.list(PageRequest.of(page, size));
         return ResponseEntity.ok(ServiceDtoMapper.toPageResponse(services));
     }
 
     @Override
-    public ResponseEntity<ServiceResponse> getService(UUID id) {
+    public ResponseEntity<ServiceBatchGetResponse> batchGetServices(BatchGetRequest batchGetRequest) {
+        return ResponseEntity.ok(ServiceDtoMapper.toBatchGetResponse(service.getAll(batchGetRequest.getIds())));
+    }
+
+    @Override
+    public ResponseEntity<ServiceResponse> getService(UUID id, String fields) {
+        responseFields.select(fields, ServiceResponse.class);
         return ResponseEntity.ok(ServiceDtoMapper.toResponse(service.get(id)));
     }
 
@@ -58,6 +76,11 @@ public class ServiceController implements ServicesApi {
         return ResponseEntity.noContent().build();
     }
 
+    @Override
+    public ResponseEntity<ServiceRunSheetResponse> getServiceRunSheet(UUID id) {
+        return ResponseEntity.ok(RunSheetDtoMapper.toResponse(runSheetService.get(id)));
+    }
+
     @Override
     public ResponseEntity<List<ServicePlanItemResponse>> listServicePlanItems(UUID id) {
         List<ServicePlanItem> items = service.listPlanItems(id);
@@ -1,11 +1,16 @@
 package com.homeputers.ebal2.api.service;
 
+import com.homeputers.ebal2.api.batch.BatchGet;
 import com.homeputers.ebal2.api.domain.service.Service;
 import com.homeputers.ebal2.api.generated.model.PageServiceResponse;
+import com.homeputers.ebal2.api.generated.model.ServiceBatchGetResponse;
+import com.homeputers.ebal2.api.generated.model.ServiceBatchGetResult;
 import com.homeputers.ebal2.api.generated.model.ServiceRequest;
 import com.homeputers.ebal2.api.generated.model.ServiceResponse;
 import org.springframework.data.domain.Page;
 
+import java.util.List;
+
 public class ServiceDtoMapper {
     public static Service toEntity(ServiceRequest request) {
         return new Service(null, request.getStartsAt(), request.getLocation());
@@ -28,4 +33,18 @@ public class ServiceDtoMapper {
         response.setSize(page.getSize());
         return response;
     }
+
+    public static ServiceBatchGetResponse toBatchGetResponse(List<BatchGet.Result<Service>> results) {
+        ServiceBatchGetResponse response = new ServiceBatchGetResponse();
+        response.setResults(results.stream().map(result -> {
+            ServiceBatchGetResult item = new ServiceBatchGetResult();
+            item.setId(result.id());
+            item.setFound(result.found());
+            if (result.found()) {
+                item.setService(toResponse(result.value()));
+            }
+            return item;
+        }).toList());
+        return response;
+    }
 }
@@ -1,10 +1,19 @@
 package com.homeputers.ebal2.api.service;
 
+import com.homeputers.ebal2.api.batch.BatchGet;
+import com.homeputers.ebal2.api.domain.attachment.Attachment;
+import com.homeputers.ebal2.api.domain.attachment.AttachmentMapper;
+import com.homeputers.ebal2.api.domain.changelog.ChangeLogEntry;
 import com.homeputers.ebal2.api.domain.service.ServiceMapper;
 import com.homeputers.ebal2.api.domain.serviceplanitem.ServicePlanItem;
 import com.homeputers.ebal2.api.domain.serviceplanitem.ServicePlanItemMapper;
+import com.homeputers.ebal2.api.events.ChangeKind;
+import com.homeputers.ebal2.api.events.DomainEvents;
+import com.homeputers.ebal2.api.events.PlanItemChanged;
+import com.homeputers.ebal2.api.events.ServiceChanged;
 import com.homeputers.ebal2.api.generated.model.ServicePlanItemRequest;
 import com.homeputers.ebal2.api.generated.model.ServiceRequest;
+import com.homeputers.ebal2.api.sync.ChangeLog;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -18,10 +27,20 @@ import java.util.UUID;
 public class ServiceService {
     private final ServiceMapper serviceMapper;
     private final ServicePlanItemMapper planItemMapper;
+    private final AttachmentMapper attachmentMapper;
+    private final ChangeLog changeLog;
+    private final DomainEvents events;
 
-    public ServiceService(ServiceMapper serviceMapper, ServicePlanItemMapper planItemMapper) {
+    public ServiceService(ServiceMapper serviceMapper,
+                          ServicePlanItemMapper planItemMapper,
+                          AttachmentMapper attachmentMapper,
+                          ChangeLog changeLog,
+                          DomainEvents events) {
         this.serviceMapper = serviceMapper;
         this.planItemMapper = planItemMapper;
+        this.attachmentMapper = attachmentMapper;
+        this.changeLog = changeLog;
+        this.events = events;
     }
 
     public Page<com.homeputers.ebal2.api.domain.service.Service> list(Pageable pageable) {
@@ -40,10 +59,20 @@ public class ServiceService {
         return service;
     }
 
+    /**
+     * Looks up several services with one statement, in the order of {@code ids}.
+     */
+    public List<BatchGet.Result<com.homeputers.ebal2.api.domain.service.Service>> getAll(List<UUID> ids) {
+        return BatchGet.inRequestOrder(ids, serviceMapper.findByIds(BatchGet.distinctIds(ids)),
+                com.homeputers.ebal2.api.domain.service.Service::id);
+    }
+
     @Transactional
     public com.homeputers.ebal2.api.domain.service.Service create(ServiceRequest request) {
         var service = ServiceDtoMapper.toEntity(request);
         serviceMapper.insert(service);
+        changeLog.upserted(ChangeLogEntry.SERVICE, service.id());
+        events.publish(new ServiceChanged(service.id(), ChangeKind.CREATED));
         return service;
     }
 
@@ -56,12 +85,17 @@ public class ServiceService {
                 request.getLocation()
         );
         serviceMapper.update(updated);
+        changeLog.upserted(ChangeLogEntry.SERVICE, id);
+        events.publish(new ServiceChanged(id, ChangeKind.UPDATED));
         return updated;
     }
 
     @Transactional
     public void delete(UUID id) {
+        attachmentMapper.deleteByOwner(Attachment.OWNER_SERVICE, id);
         serviceMapper.delete(id);
+        changeLog.deleted(ChangeLogEntry.SERVICE, id);
+        events.publish(new ServiceChanged(id, ChangeKind.DELETED));
     }
 
     public List<ServicePlanItem> listPlanItems(UUID serviceId) {
@@ -73,6 +107,8 @@ public class ServiceService {
         com.homeputers.ebal2.api.domain.service.Service service = get(serviceId);
         ServicePlanItem item = com.homeputers.ebal2.api.serviceplanitem.ServicePlanItemDtoMapper.toEntity(service, request);
         planItemMapper.insert(item);
+        changeLog.upserted(ChangeLogEntry.SERVICE_PLAN_ITEM, item.id());
+        events.publish(new PlanItemChanged(serviceId, item.id(), ChangeKind.CREATED));
         return item;
     }
 }
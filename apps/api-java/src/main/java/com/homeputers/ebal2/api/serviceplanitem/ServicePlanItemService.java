@@ -1,8 +1,13 @@
 package com.homeputers.ebal2.api.serviceplanitem;
 
+import com.homeputers.ebal2.api.domain.changelog.ChangeLogEntry;
 import com.homeputers.ebal2.api.domain.serviceplanitem.ServicePlanItem;
 import com.homeputers.ebal2.api.domain.serviceplanitem.ServicePlanItemMapper;
+import com.homeputers.ebal2.api.events.ChangeKind;
+import com.homeputers.ebal2.api.events.DomainEvents;
+import com.homeputers.ebal2.api.events.PlanItemChanged;
 import com.homeputers.ebal2.api.generated.model.ServicePlanItemRequest;
+import com.homeputers.ebal2.api.sync.ChangeLog;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Service;
 
@@ -12,9 +17,13 @@ import java.util.UUID;
 @Service
 public class ServicePlanItemService {
     private final ServicePlanItemMapper mapper;
+    private final ChangeLog changeLog;
+    private final DomainEvents events;
 
-    public ServicePlanItemService(ServicePlanItemMapper mapper) {
+    public ServicePlanItemService(ServicePlanItemMapper mapper, ChangeLog changeLog, DomainEvents events) {
         this.mapper = mapper;
+        this.changeLog = changeLog;
+        this.events = events;
     }
 
     public ServicePlanItem get(UUID id) {
@@ -37,11 +46,18 @@ public class ServicePlanItemService {
                 request.getNotes() != null ? request.getNotes() : existing.notes()
         );
         mapper.update(updated);
+        changeLog.upserted(ChangeLogEntry.SERVICE_PLAN_ITEM, id);
+        events.publish(new PlanItemChanged(existing.service().id(), id, ChangeKind.UPDATED));
         return updated;
     }
 
     @Transactional
     public void delete(UUID id) {
+        ServicePlanItem existing = mapper.findById(id);
         mapper.delete(id);
+        changeLog.deleted(ChangeLogEntry.SERVICE_PLAN_ITEM, id);
+        if (existing != null) {
+            events.publish(new PlanItemChanged(existing.service().id(), id, ChangeKind.DELETED));
+        }
     }
 }
@@ -3,10 +3,15 @@ package com.homeputers.ebal2.api.song;
 import com.homeputers.ebal2.api.arrangement.ArrangementDtoMapper;
 import com.homeputers.ebal2.api.domain.arrangement.Arrangement;
 import com.homeputers.ebal2.api.domain.song.Song;
+import com.homeputers.ebal2.api.fields.FieldSelection;
+import com.homeputers.ebal2.api.fields.ResponseFields;
 import com.homeputers.ebal2.api.generated.SongsApi;
+import com.homeputers.ebal2.api.generated.model.ArrangementBatchGetResponse;
 import com.homeputers.ebal2.api.generated.model.ArrangementRequest;
 import com.homeputers.ebal2.api.generated.model.ArrangementResponse;
+import com.homeputers.ebal2.api.generated.model.BatchGetRequest;
 import com.homeputers.ebal2.api.generated.model.PageSongResponse;
+import com.homeputers.ebal2.api.generated.model.SongBatchGetResponse;
 import com.homeputers.ebal2.api.generated.model.SongRequest;
 import com.homeputers.ebal2.api.generated.model.SongResponse;
 import org.springframework.data.domain.Page;
@@ -24,20 +29,38 @@ import java.util.UUID;
 @RestController
 @RequestMapping("/api/v1")
 public class SongController implements SongsApi {
+    private static final String LYRICS_FIELD = "lyricsChordpro";
+
     private final SongService service;
+    private final ResponseFields responseFields;
 
-    public SongController(SongService service) {
+    public SongController(SongService service, ResponseFields responseFields) {
         this.service = service;
+        this.responseFields = responseFields;
     }
 
     @Override
-    public ResponseEntity<PageSongResponse> listSongs(String title, String tag, Integer page, Integer size) {
-        Page<Song> songs = service.search(title, tag, PageRequest.of(page, size));
+    public ResponseEntity<PageSongResponse> listSongs(String title, String tag, Integer page, Integer size,
+                                                      String fields) {
+        FieldSelection selection = responseFields.select(fields, SongResponse.class);
+        Page<Song> songs = service.search(title, tag, PageRequest.of(page, size), selection);
         return ResponseEntity.ok(SongDtoMapper.toPageResponse(songs));
     }
 
     @Override
-    public ResponseEntity<SongResponse> getSong(UUID id) {
+    public ResponseEntity<SongBatchGetResponse> batchGetSongs(BatchGetRequest batchGetRequest) {
+        return ResponseEntity.ok(SongDtoMapper.toBatchGetResponse(service.getAll(batchGetRequest.getIds())));
+    }
+
+    @Override
+    public ResponseEntity<ArrangementBatchGetResponse> batchGetArrangements(BatchGetRequest batchGetRequest) {
+        return ResponseEntity.ok(ArrangementDtoMapper.toBatchGetResponse(
+                service.getArrangements(batchGetRequest.getIds())));
+    }
+
+    @Override
+    public ResponseEntity<SongResponse> getSong(UUID id, String fields) {
+        responseFields.select(fields, SongResponse.class);
         return ResponseEntity.ok(SongDtoMapper.toResponse(service.get(id)));
     }
 
@@ -60,8 +83,11 @@ public class SongController implements SongsApi {
     }
 
     @Override
-    public ResponseEntity<List<ArrangementResponse>> listArrangements(UUID id) {
-        List<Arrangement> arrangements = service.listArrangements(id);
+    public ResponseEntity<List<ArrangementResponse>> listArrangements(UUID id, String fields) {
+        FieldSelection selection = responseFields.select(fields, ArrangementResponse.class);
+        // lyrics are opt-in on lists
+        boolean includeLyrics = !selection.isAll() && selection.includes(LYRICS_FIELD);
+        List<Arrangement> arrangements = service.listArrangements(id, includeLyrics);
         return ResponseEntity.ok(arrangements.stream().map(ArrangementDtoMapper::toResponse).toList());
     }
 
@@ -72,8 +98,9 @@ public class SongController implements SongsApi {
     }
 
     @Override
-    public ResponseEntity<ArrangementResponse> getArrangement(UUID arrangementId) {
-        Arrangement arrangement = service.getArrangement(arrangementId);
+    public ResponseEntity<ArrangementResponse> getArrangement(UUID arrangementId, String fields) {
+        FieldSelection selection = responseFields.select(fields, ArrangementResponse.class);
+        Arrangement arrangement = service.getArrangement(arrangementId, selection.includes(LYRICS_FIELD));
         return ResponseEntity.ok(ArrangementDtoMapper.toResponse(arrangement));
     }
 
@@ -1,11 +1,16 @@
 package com.homeputers.ebal2.api.song;
 
+import com.homeputers.ebal2.api.batch.BatchGet;
 import com.homeputers.ebal2.api.domain.song.Song;
 import com.homeputers.ebal2.api.generated.model.PageSongResponse;
+import com.homeputers.ebal2.api.generated.model.SongBatchGetResponse;
+import com.homeputers.ebal2.api.generated.model.SongBatchGetResult;
 import com.homeputers.ebal2.api.generated.model.SongRequest;
 import com.homeputers.ebal2.api.generated.model.SongResponse;
 import org.springframework.data.domain.Page;
 
+import java.util.List;
+
 public class SongDtoMapper {
     public static Song toEntity(SongRequest request) {
         return new Song(null, request.getTitle(), request.getCcli(), request.getAuthor(), request.getDefaultKey(), request.getTags());
@@ -31,4 +36,18 @@ public class SongDtoMapper {
         response.setSize(page.getSize());
         return response;
     }
+
+    public static SongBatchGetResponse toBatchGetResponse(List<BatchGet.Result<Song>> results) {
+        SongBatchGetResponse response = new SongBatchGetResponse();
+        response.setResults(results.stream().map(result -> {
+            SongBatchGetResult item = new SongBatchGetResult();
+            item.setId(result.id());
+            item.setFound(result.found());
+            if (result.found()) {
+                item.setSong(toResponse(result.value()));
+            }
+            return item;
+        }).toList());
+        return response;
+    }
 }
@@ -1,12 +1,22 @@
 package com.homeputers.ebal2.api.song;
 
 import com.homeputers.ebal2.api.arrangement.ArrangementDtoMapper;
+import com.homeputers.ebal2.api.batch.BatchGet;
 import com.homeputers.ebal2.api.domain.arrangement.Arrangement;
 import com.homeputers.ebal2.api.domain.arrangement.ArrangementMapper;
+import com.homeputers.ebal2.api.domain.attachment.Attachment;
+import com.homeputers.ebal2.api.domain.attachment.AttachmentMapper;
+import com.homeputers.ebal2.api.domain.changelog.ChangeLogEntry;
 import com.homeputers.ebal2.api.domain.song.Song;
 import com.homeputers.ebal2.api.domain.song.SongMapper;
+import com.homeputers.ebal2.api.events.ArrangementChanged;
+import com.homeputers.ebal2.api.events.ChangeKind;
+import com.homeputers.ebal2.api.events.DomainEvents;
+import com.homeputers.ebal2.api.events.SongChanged;
+import com.homeputers.ebal2.api.fields.FieldSelection;
 import com.homeputers.ebal2.api.generated.model.ArrangementRequest;
 import com.homeputers.ebal2.api.generated.model.SongRequest;
+import com.homeputers.ebal2.api.sync.ChangeLog;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -21,10 +31,17 @@ import java.util.UUID;
 public class SongService {
     private final SongMapper songMapper;
     private final ArrangementMapper arrangementMapper;
+    private final AttachmentMapper attachmentMapper;
+    private final ChangeLog changeLog;
+    private final DomainEvents events;
 
-    public SongService(SongMapper songMapper, ArrangementMapper arrangementMapper) {
+    public SongService(SongMapper songMapper, ArrangementMapper arrangementMapper, AttachmentMapper attachmentMapper,
+                       ChangeLog changeLog, DomainEvents events) {
         this.songMapper = songMapper;
         this.arrangementMapper = arrangementMapper;
+        this.attachmentMapper = attachmentMapper;
+        this.changeLog = changeLog;
+        this.events = events;
     }
 
     public Song get(UUID id) {
@@ -35,10 +52,13 @@ public class SongService {
         return song;
     }
 
-    public Page<Song> search(String title, String tag, Pageable pageable) {
+    /**
+     * @param fields response fields the caller needs; columns behind other fields are not read
+     */
+    public Page<Song> search(String title, String tag, Pageable pageable, FieldSelection fields) {
         int offset = (int) pageable.getOffset();
         int limit = pageable.getPageSize();
-        var results = songMapper.search(title, tag, offset, limit);
+        var results = songMapper.search(title, tag, offset, limit, fields.names());
         int total = songMapper.countSearch(title, tag);
         return new PageImpl<>(results, pageable, total);
     }
@@ -54,6 +74,8 @@ public class SongService {
             song.defaultKey(),
             song.tags()
         );
+        changeLog.upserted(ChangeLogEntry.SONG, song.id());
+        events.publish(new SongChanged(song.id(), ChangeKind.CREATED));
         return song;
     }
 
@@ -76,24 +98,54 @@ public class SongService {
             request.getDefaultKey(),
             request.getTags()
         );
+        changeLog.upserted(ChangeLogEntry.SONG, id);
+        events.publish(new SongChanged(id, ChangeKind.UPDATED));
         return updated;
     }
 
     @Transactional
     public void delete(UUID id) {
         songMapper.delete(id);
+        changeLog.deleted(ChangeLogEntry.SONG, id);
+        events.publish(new SongChanged(id, ChangeKind.DELETED));
+    }
+
+    /**
+     * Looks up several songs with one statement, in the order of {@code ids}.
+     */
+    public List<BatchGet.Result<Song>> getAll(List<UUID> ids) {
+        return BatchGet.inRequestOrder(ids, songMapper.findByIds(BatchGet.distinctIds(ids)), Song::id);
     }
 
     public Arrangement getArrangement(UUID id) {
-        Arrangement arrangement = arrangementMapper.findById(id);
+        return getArrangement(id, true);
+    }
+
+    /**
+     * @param includeLyrics whether to load the ChordPro chart; when {@code false} the returned lyrics are {@code null}
+     */
+    public Arrangement getArrangement(UUID id, boolean includeLyrics) {
+        Arrangement arrangement = includeLyrics
+                ? arrangementMapper.findById(id)
+                : arrangementMapper.findSummaryById(id);
         if (arrangement == null) {
             throw new NoSuchElementException("Arrangement not found");
         }
         return arrangement;
     }
 
-    public List<Arrangement> listArrangements(UUID songId) {
-        return arrangementMapper.findBySongId(songId);
+    /**
+     * Looks up several arrangement summaries with one statement, in the order of {@code ids}.
+     */
+    public List<BatchGet.Result<Arrangement>> getArrangements(List<UUID> ids) {
+        return BatchGet.inRequestOrder(ids,
+                arrangementMapper.findSummariesWithSongByIds(BatchGet.distinctIds(ids)), Arrangement::id);
+    }
+
+    public List<Arrangement> listArrangements(UUID songId, boolean includeLyrics) {
+        return includeLyrics
+                ? arrangementMapper.findBySongId(songId)
+                : arrangementMapper.findSummariesBySongId(songId);
     }
 
     @Transactional
@@ -108,12 +160,14 @@ public class SongService {
             arrangement.meter(),
             arrangement.lyricsChordpro()
         );
+        changeLog.upserted(ChangeLogEntry.ARRANGEMENT, arrangement.id());
+        events.publish(new ArrangementChanged(arrangement.id(), ChangeKind.CREATED));
         return arrangement;
     }
 
     @Transactional
     public Arrangement updateArrangement(UUID id, ArrangementRequest request) {
-        Arrangement existing = arrangementMapper.findById(id);
+        Arrangement existing = arrangementMapper.findSummaryById(id);
         if (existing == null) {
             throw new NoSuchElementException("Arrangement not found");
         }
@@ -123,7 +177,8 @@ public class SongService {
                 request.getKey(),
                 request.getBpm(),
                 request.getMeter(),
-                request.getLyricsChordpro()
+                request.getLyricsChordpro(),
+                existing.version() + 1
         );
         arrangementMapper.update(
             id,
@@ -132,11 +187,16 @@ public class SongService {
             request.getMeter(),
             request.getLyricsChordpro()
         );
+        changeLog.upserted(ChangeLogEntry.ARRANGEMENT, id);
+        events.publish(new ArrangementChanged(id, ChangeKind.UPDATED));
         return updated;
     }
 
     @Transactional
     public void deleteArrangement(UUID id) {
+        attachmentMapper.deleteByOwner(Attachment.OWNER_ARRANGEMENT, id);
         arrangementMapper.delete(id);
+        changeLog.deleted(ChangeLogEntry.ARRANGEMENT, id);
+        events.publish(new ArrangementChanged(id, ChangeKind.DELETED));
     }
 }
@@ -2,12 +2,19 @@ package com.homeputers.ebal2.api.songset;
 
 import com.homeputers.ebal2.api.domain.arrangement.Arrangement;
 import com.homeputers.ebal2.api.domain.arrangement.ArrangementMapper;
+import com.homeputers.ebal2.api.domain.changelog.ChangeLogEntry;
 import com.homeputers.ebal2.api.domain.songset.SongSet;
 import com.homeputers.ebal2.api.domain.songset.SongSetMapper;
 import com.homeputers.ebal2.api.domain.songsetitem.SongSetItem;
 import com.homeputers.ebal2.api.domain.songsetitem.SongSetItemMapper;
+import com.homeputers.ebal2.api.events.ChangeKind;
+import com.homeputers.ebal2.api.events.DomainEvents;
+import com.homeputers.ebal2.api.events.SongSetChanged;
+import com.homeputers.ebal2.api.events.SongSetItemChanged;
+import com.homeputers.ebal2.api.events.SongSetItemsReordered;
 import com.homeputers.ebal2.api.generated.model.SongSetItemRequest;
 import com.homeputers.ebal2.api.generated.model.SongSetRequest;
+import com.homeputers.ebal2.api.sync.ChangeLog;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -23,11 +30,16 @@ public class SongSetService {
     private final SongSetMapper songSetMapper;
     private final SongSetItemMapper itemMapper;
     private final ArrangementMapper arrangementMapper;
+    private final ChangeLog changeLog;
+    private final DomainEvents events;
 
-    public SongSetService(SongSetMapper songSetMapper, SongSetItemMapper itemMapper, ArrangementMapper arrangementMapper) {
+    public SongSetService(SongSetMapper songSetMapper, SongSetItemMapper itemMapper, ArrangementMapper arrangementMapper,
+                          ChangeLog changeLog, DomainEvents events) {
         this.songSetMapper = songSetMapper;
         this.itemMapper = itemMapper;
         this.arrangementMapper = arrangementMapper;
+        this.changeLog = changeLog;
+        this.events = events;
     }
 
     public Page<SongSet> list(Pageable pageable) {
@@ -50,6 +62,8 @@ public class SongSetService {
     public SongSet create(SongSetRequest request) {
         SongSet songSet = SongSetDtoMapper.toEntity(request);
         songSetMapper.insert(songSet);
+        changeLog.upserted(ChangeLogEntry.SONG_SET, songSet.id());
+        events.publish(new SongSetChanged(songSet.id(), ChangeKind.CREATED));
         return songSet;
     }
 
@@ -58,12 +72,16 @@ public class SongSetService {
         SongSet existing = get(id);
         SongSet updated = new SongSet(existing.id(), request.getName());
         songSetMapper.update(updated);
+        changeLog.upserted(ChangeLogEntry.SONG_SET, id);
+        events.publish(new SongSetChanged(id, ChangeKind.UPDATED));
         return updated;
     }
 
     @Transactional
     public void delete(UUID id) {
         songSetMapper.delete(id);
+        changeLog.deleted(ChangeLogEntry.SONG_SET, id);
+        events.publish(new SongSetChanged(id, ChangeKind.DELETED));
     }
 
     public List<SongSetItem> listItems(UUID songSetId) {
@@ -73,12 +91,14 @@ public class SongSetService {
     @Transactional
     public SongSetItem addItem(UUID songSetId, SongSetItemRequest request) {
         SongSet songSet = get(songSetId);
-        Arrangement arrangement = arrangementMapper.findById(request.getArrangementId());
+        Arrangement arrangement = arrangementMapper.findSummaryById(request.getArrangementId());
         if (arrangement == null) {
             throw new NoSuchElementException("Arrangement not found");
         }
         SongSetItem item = com.homeputers.ebal2.api.songsetitem.SongSetItemDtoMapper.toEntity(songSet, arrangement, request);
         itemMapper.insert(item);
+        changeLog.upserted(ChangeLogEntry.SONG_SET_ITEM, item.id());
+        events.publish(new SongSetItemChanged(songSetId, item.id(), ChangeKind.CREATED));
         return item;
     }
 
@@ -92,12 +112,16 @@ public class SongSetService {
             throw new NoSuchElementException("Item not part of song set");
         }
         itemMapper.delete(itemId);
+        changeLog.deleted(ChangeLogEntry.SONG_SET_ITEM, itemId);
+        events.publish(new SongSetItemChanged(songSetId, itemId, ChangeKind.DELETED));
     }
 
     @Transactional
     public void reorderItems(UUID songSetId, List<UUID> order) {
         for (int i = 0; i < order.size(); i++) {
             itemMapper.updateOrder(order.get(i), i);
+            changeLog.upserted(ChangeLogEntry.SONG_SET_ITEM, order.get(i));
         }
+        events.publish(new SongSetItemsReordered(songSetId));
     }
 }
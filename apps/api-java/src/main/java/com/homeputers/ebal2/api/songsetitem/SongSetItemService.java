@@ -1,8 +1,13 @@
 package com.homeputers.ebal2.api.songsetitem;
 
+import com.homeputers.ebal2.api.domain.changelog.ChangeLogEntry;
 import com.homeputers.ebal2.api.domain.songsetitem.SongSetItem;
 import com.homeputers.ebal2.api.domain.songsetitem.SongSetItemMapper;
+import com.homeputers.ebal2.api.events.ChangeKind;
+import com.homeputers.ebal2.api.events.DomainEvents;
+import com.homeputers.ebal2.api.events.SongSetItemChanged;
 import com.homeputers.ebal2.api.generated.model.SongSetItemRequest;
+import com.homeputers.ebal2.api.sync.ChangeLog;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Service;
 
@@ -12,9 +17,13 @@ import java.util.UUID;
 @Service
 public class SongSetItemService {
     private final SongSetItemMapper mapper;
+    private final ChangeLog changeLog;
+    private final DomainEvents events;
 
-    public SongSetItemService(SongSetItemMapper mapper) {
+    public SongSetItemService(SongSetItemMapper mapper, ChangeLog changeLog, DomainEvents events) {
         this.mapper = mapper;
+        this.changeLog = changeLog;
+        this.events = events;
     }
 
     public SongSetItem get(UUID id) {
@@ -37,11 +46,18 @@ public class SongSetItemService {
                 request.getCapo()
         );
         mapper.update(updated);
+        changeLog.upserted(ChangeLogEntry.SONG_SET_ITEM, id);
+        events.publish(new SongSetItemChanged(existing.songSet().id(), id, ChangeKind.UPDATED));
         return updated;
     }
 
     @Transactional
     public void delete(UUID id) {
+        SongSetItem existing = mapper.findById(id);
         mapper.delete(id);
+        changeLog.deleted(ChangeLogEntry.SONG_SET_ITEM, id);
+        if (existing != null) {
+            events.publish(new SongSetItemChanged(existing.songSet().id(), id, ChangeKind.DELETED));
+        }
     }
 }
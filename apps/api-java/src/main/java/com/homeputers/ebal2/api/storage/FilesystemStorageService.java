@@ -0,0 +1,320 @@
+package com.homeputers.ebal2.api.storage;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Stores objects as files under a root directory, for development, tests and single-node installs.
+ * <p>
+ * Writes go to a temp file that is atomically renamed into place once the declared size has been received, so readers
+ * never see a partial object. Reads into a channel use {@link FileChannel#transferTo}, which lets the kernel copy the
+ * bytes without passing them through the heap. Signed URLs point at {@code /api/v1/storage/objects} and carry an
+ * HMAC-SHA256 over the object name, expiry and HTTP method, so a download link cannot be used to upload; upload links
+ * also sign the object size, and a body of any other length is rejected.
+ */
+@Service
+@ConditionalOnExpression("${ebal.storage.enabled:false} and '${ebal.storage.backend:minio}' == 'filesystem'")
+public class FilesystemStorageService implements StorageService {
+    static final String INCOMING_DIRECTORY = ".incoming";
+    static final String OBJECTS_PATH = "/api/v1/storage/objects";
+
+    private static final Duration MAX_EXPIRY = Duration.ofDays(7);
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String METHOD_GET = "GET";
+    private static final String METHOD_PUT = "PUT";
+
+    private final Path root;
+    private final String publicBaseUrl;
+    private final byte[] signingKey;
+    private final Clock clock;
+
+    @Autowired
+    public FilesystemStorageService(
+            @Value("${ebal.storage.filesystem.root:uploads/storage}") String root,
+            @Value("${ebal.storage.filesystem.public-base-url:}") String publicBaseUrl,
+            @Value("${ebal.storage.filesystem.signing-key:}") String signingKey
+    ) {
+        this(Paths.get(root), publicBaseUrl, signingKey, Clock.systemUTC());
+    }
+
+    FilesystemStorageService(Path root, String publicBaseUrl, String signingKey, Clock clock) {
+        this.root = Objects.requireNonNull(root, "Storage root must be provided").toAbsolutePath().normalize();
+        this.publicBaseUrl = publicBaseUrl == null ? "" : publicBaseUrl.replaceAll("/+$", "");
+        this.signingKey = StringUtils.hasText(signingKey)
+                ? signingKey.getBytes(StandardCharsets.UTF_8)
+                // without a configured key, signed URLs stop working when the process restarts
+                : randomKey();
+        this.clock = clock;
+        try {
+            Files.createDirectories(this.root.resolve(INCOMING_DIRECTORY));
+        } catch (IOException ex) {
+            throw new StorageException("Failed to initialize storage root '%s'".formatted(this.root), ex);
+        }
+    }
+
+    @Override
+    public void put(String objectName, InputStream data, long size, String contentType) {
+        put(objectName, data, size, false);
+    }
+
+    private void put(String objectName, InputStream data, long size, boolean rejectTrailingBytes) {
+        Path target = resolve(objectName);
+        Objects.requireNonNull(data, "Input stream is required");
+        if (size < 0) {
+            throw new IllegalArgumentException("Object size must be non-negative");
+        }
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(root.resolve(INCOMING_DIRECTORY), "object-", ".part");
+            try (ReadableByteChannel source = Channels.newChannel(data);
+                 FileChannel file = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                long written = 0;
+                while (written < size) {
+                    long transferred = file.transferFrom(source, written, size - written);
+                    if (transferred == 0) {
+                        throw new IOException("Stream ended after %d of %d bytes".formatted(written, size));
+                    }
+                    written += transferred;
+                }
+                if (rejectTrailingBytes && data.read() != -1) {
+                    throw new IllegalArgumentException("Upload body exceeds the signed size of %d bytes"
+                            .formatted(size));
+                }
+                file.force(false);
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ex) {
+            throw new StorageException("Failed to upload object '%s'".formatted(objectName), ex);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    @Override
+    public InputStream get(String objectName) {
+        Path file = resolve(objectName);
+        try {
+            return Files.newInputStream(file);
+        } catch (NoSuchFileException ex) {
+            throw new StorageObjectNotFoundException(objectName, ex);
+        } catch (IOException ex) {
+            throw new StorageException("Failed to download object '%s'".formatted(objectName), ex);
+        }
+    }
+
+    @Override
+    public long transferTo(String objectName, WritableByteChannel target) {
+        Objects.requireNonNull(target, "Target channel is required");
+        Path file = resolve(objectName);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            return size;
+        } catch (NoSuchFileException ex) {
+            throw new StorageObjectNotFoundException(objectName, ex);
+        } catch (IOException ex) {
+            throw new StorageException("Failed to download object '%s'".formatted(objectName), ex);
+        }
+    }
+
+    @Override
+    public void delete(String objectName) {
+        Path file = resolve(objectName);
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            throw new StorageException("Failed to delete object '%s'".formatted(objectName), ex);
+        }
+    }
+
+    @Override
+    public void copy(String sourceName, String targetName) {
+        Path source = resolve(sourceName);
+        Path target = resolve(targetName);
+        Path temp = null;
+        try {
+            temp = root.resolve(INCOMING_DIRECTORY).resolve("copy-" + UUID.randomUUID() + ".part");
+            try {
+                // objects are never modified in place, so both names can share the file
+                Files.createLink(temp, source);
+            } catch (UnsupportedOperationException | FileSystemException ex) {
+                if (!Files.exists(source)) {
+                    throw new NoSuchFileException(sourceName);
+                }
+                Files.copy(source, temp);
+            }
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (NoSuchFileException ex) {
+            throw new StorageObjectNotFoundException(sourceName, ex);
+        } catch (IOException ex) {
+            throw new StorageException("Failed to copy object '%s' to '%s'".formatted(sourceName, targetName), ex);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    @Override
+    public String signedUrl(String objectName, Duration expiry) {
+        return signedObjectUrl(objectName, expiry, METHOD_GET, null);
+    }
+
+    @Override
+    public String signedUploadUrl(String objectName, long size, Duration expiry) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Object size must be non-negative");
+        }
+        return signedObjectUrl(objectName, expiry, METHOD_PUT, size);
+    }
+
+    /**
+     * Checks the query parameters of a URL issued by {@link #signedUrl} and returns the file it grants access to.
+     *
+     * @throws StorageObjectNotFoundException if the signature is invalid or expired, or the object does not exist;
+     *                                        callers cannot tell these cases apart
+     */
+    public Path resolveSigned(String objectName, long expires, String signature) {
+        verifySignature(objectName, expires, null, signature, METHOD_GET);
+        Path file = resolve(objectName);
+        if (!Files.isRegularFile(file)) {
+            throw new StorageObjectNotFoundException(objectName, null);
+        }
+        return file;
+    }
+
+    /**
+     * Stores an object uploaded through a URL issued by {@link #signedUploadUrl}. Exactly the signed {@code size} is
+     * read; the upload fails once the body runs past it.
+     *
+     * @param contentLength the declared length of the body, or {@code -1} if unknown
+     * @throws StorageObjectNotFoundException if the signature is invalid or expired
+     * @throws IllegalArgumentException       if the body is not {@code size} bytes long
+     */
+    public void putSigned(String objectName, long expires, long size, String signature, InputStream data,
+                          long contentLength, String contentType) {
+        verifySignature(objectName, expires, size, signature, METHOD_PUT);
+        if (contentLength >= 0 && contentLength != size) {
+            throw new IllegalArgumentException("Content-Length %d does not match the signed size of %d bytes"
+                    .formatted(contentLength, size));
+        }
+        put(objectName, data, size, true);
+    }
+
+    private String signedObjectUrl(String objectName, Duration expiry, String method, Long size) {
+        resolve(objectName);
+        Duration effectiveExpiry = expiry == null || expiry.isNegative() || expiry.isZero()
+                ? Duration.ofMinutes(15)
+                : expiry;
+        if (effectiveExpiry.compareTo(MAX_EXPIRY) > 0) {
+            effectiveExpiry = MAX_EXPIRY;
+        }
+        long expires = clock.instant().plus(effectiveExpiry).getEpochSecond();
+        return publicBaseUrl + OBJECTS_PATH
+                + "?key=" + URLEncoder.encode(objectName, StandardCharsets.UTF_8)
+                + "&expires=" + expires
+                + (size == null ? "" : "&size=" + size)
+                + "&signature=" + sign(objectName, expires, size, method);
+    }
+
+    private void verifySignature(String objectName, long expires, Long size, String signature, String method) {
+        if (objectName == null || signature == null
+                || Instant.ofEpochSecond(expires).isBefore(clock.instant())
+                || !MessageDigest.isEqual(sign(objectName, expires, size, method).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII))) {
+            throw new StorageObjectNotFoundException(String.valueOf(objectName), null);
+        }
+    }
+
+    /**
+     * Maps an object name to a path under the root, rejecting names that could escape it or reach the temp area.
+     */
+    private Path resolve(String objectName) {
+        Objects.requireNonNull(objectName, "Object name is required");
+        if (objectName.isEmpty() || objectName.startsWith("/") || objectName.indexOf('\\') >= 0
+                || objectName.indexOf('\0') >= 0) {
+            throw new IllegalArgumentException("Invalid object name '%s'".formatted(objectName));
+        }
+        for (String segment : objectName.split("/", -1)) {
+            if (segment.isEmpty() || segment.startsWith(".")) {
+                throw new IllegalArgumentException("Invalid object name '%s'".formatted(objectName));
+            }
+        }
+        Path file = root.resolve(objectName).normalize();
+        if (!file.startsWith(root)) {
+            throw new IllegalArgumentException("Invalid object name '%s'".formatted(objectName));
+        }
+        return file;
+    }
+
+    private String sign(String objectName, long expires, Long size, String method) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(signingKey, HMAC_ALGORITHM));
+            String payload = method + "\n" + objectName + "\n" + expires + (size == null ? "" : "\n" + size);
+            byte[] digest = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HMAC-SHA256 not available", ex);
+        }
+    }
+
+    private static byte[] randomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // a stray temp file is harmless
+        }
+    }
+}
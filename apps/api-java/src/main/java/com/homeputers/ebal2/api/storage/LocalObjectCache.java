@@ -0,0 +1,275 @@
+package com.homeputers.ebal2.api.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps recently requested objects as local files so they can be served, including byte ranges, without going back to
+ * {@link StorageService}.
+ * <p>
+ * Only use this for object names whose content never changes, such as content-addressed attachment blobs. Concurrent
+ * misses for the same object wait for a single backend fetch. The total size of cached files is kept under
+ * {@code maxBytes} by evicting, from a small sample, the least recently used entry; an object larger than the whole
+ * cache is still cached until the next fetch pushes it out. Evicted files are deleted after a short delay, because
+ * the servlet container may open a file for sendfile only after the request handler has returned.
+ * <p>
+ * The index lives in memory, so files left by a previous process are removed on startup.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ebal.storage", name = "enabled", havingValue = "true")
+public class LocalObjectCache {
+    private static final Logger log = LoggerFactory.getLogger(LocalObjectCache.class);
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+    private static final long DELETE_DELAY_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final Pattern CACHE_FILE = Pattern.compile("[0-9a-f]{64}-\\d+");
+
+    private final StorageService storageService;
+    private final Path root;
+    private final Path incoming;
+    private final long maxBytes;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Retired> retired = new ConcurrentLinkedQueue<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final AtomicLong fileSequence = new AtomicLong();
+
+    @Autowired
+    public LocalObjectCache(
+            StorageService storageService,
+            @Value("${ebal.storage.disk-cache.path:uploads/cache}") String root,
+            @Value("${ebal.storage.disk-cache.max-bytes:1073741824}") long maxBytes
+    ) {
+        this(storageService, Paths.get(root), maxBytes, System::nanoTime);
+    }
+
+    LocalObjectCache(StorageService storageService, Path root, long maxBytes, LongSupplier nanoClock) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Disk cache size must be positive");
+        }
+        this.storageService = storageService;
+        this.root = Objects.requireNonNull(root, "Cache directory must be provided").toAbsolutePath().normalize();
+        this.incoming = this.root.resolve(FilesystemStorageService.INCOMING_DIRECTORY);
+        this.maxBytes = maxBytes;
+        this.nanoClock = nanoClock;
+        try {
+            Files.createDirectories(incoming);
+            removeLeftovers();
+        } catch (IOException ex) {
+            throw new StorageException("Failed to initialize disk cache '%s'".formatted(this.root), ex);
+        }
+    }
+
+    /**
+     * Returns the cached copy of an object, fetching it from storage first on a miss.
+     *
+     * @throws StorageObjectNotFoundException if the object does not exist
+     */
+    public CachedObject get(String objectName) {
+        Objects.requireNonNull(objectName, "Object name is required");
+        Entry entry = entries.get(objectName);
+        if (entry != null) {
+            entry.lastAccessNanos = nanoClock.getAsLong();
+            return entry.cachedObject;
+        }
+        CompletableFuture<Entry> pending = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = loading.putIfAbsent(objectName, pending);
+        if (existing != null) {
+            return await(existing).cachedObject;
+        }
+        try {
+            // another fetch may have completed between the lookup and claiming the load
+            entry = entries.get(objectName);
+            if (entry == null) {
+                entry = fetch(objectName);
+                entries.put(objectName, entry);
+                totalBytes.addAndGet(entry.cachedObject.size());
+                evictOverflow(objectName);
+            }
+            pending.complete(entry);
+            return entry.cachedObject;
+        } catch (RuntimeException ex) {
+            pending.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            if (!pending.isDone()) {
+                pending.completeExceptionally(new StorageException(
+                        "Failed to cache object '%s'".formatted(objectName), null));
+            }
+            loading.remove(objectName, pending);
+        }
+    }
+
+    /**
+     * Drops the cached copy, for example after the object was deleted from storage.
+     */
+    public void evict(String objectName) {
+        Entry entry = entries.remove(objectName);
+        if (entry != null) {
+            retire(entry);
+        }
+        purgeRetired();
+    }
+
+    long totalBytes() {
+        return totalBytes.get();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private Entry fetch(String objectName) {
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(incoming, "object-", ".part");
+            long size;
+            try (FileChannel file = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                size = storageService.transferTo(objectName, file);
+            }
+            // a fresh name per fetch, so a delayed delete of an evicted copy never hits a newer one
+            Path target = root.resolve(hash(objectName) + "-" + fileSequence.incrementAndGet());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, target);
+            }
+            return new Entry(new CachedObject(target, size), nanoClock.getAsLong());
+        } catch (IOException ex) {
+            throw new StorageException("Failed to cache object '%s'".formatted(objectName), ex);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    private void evictOverflow(String incomingName) {
+        while (totalBytes.get() > maxBytes) {
+            Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+            Map.Entry<String, Entry> oldest = null;
+            for (int i = 0; i < EVICTION_SAMPLE_SIZE && iterator.hasNext(); ) {
+                Map.Entry<String, Entry> candidate = iterator.next();
+                if (candidate.getKey().equals(incomingName)) {
+                    continue;
+                }
+                i++;
+                if (oldest == null
+                        || candidate.getValue().lastAccessNanos - oldest.getValue().lastAccessNanos < 0) {
+                    oldest = candidate;
+                }
+            }
+            if (oldest == null) {
+                break;
+            }
+            if (entries.remove(oldest.getKey(), oldest.getValue())) {
+                retire(oldest.getValue());
+            }
+        }
+        purgeRetired();
+    }
+
+    private void retire(Entry entry) {
+        totalBytes.addAndGet(-entry.cachedObject.size());
+        retired.add(new Retired(entry.cachedObject.file(), nanoClock.getAsLong() + DELETE_DELAY_NANOS));
+    }
+
+    private void purgeRetired() {
+        long now = nanoClock.getAsLong();
+        Retired head;
+        while ((head = retired.peek()) != null && head.deleteAfterNanos - now <= 0) {
+            if (retired.remove(head)) {
+                deleteQuietly(head.file);
+            }
+        }
+    }
+
+    private void removeLeftovers() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root)) {
+            for (Path file : files) {
+                if (CACHE_FILE.matcher(file.getFileName().toString()).matches()) {
+                    deleteQuietly(file);
+                }
+            }
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(incoming, "object-*.part")) {
+            for (Path file : files) {
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    private static Entry await(CompletableFuture<Entry> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static String hash(String objectName) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectName.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            log.debug("Failed to delete cache file {}", path, ex);
+        }
+    }
+
+    public record CachedObject(Path file, long size) {
+    }
+
+    private static final class Entry {
+        private final CachedObject cachedObject;
+        private volatile long lastAccessNanos;
+
+        private Entry(CachedObject cachedObject, long lastAccessNanos) {
+            this.cachedObject = cachedObject;
+            this.lastAccessNanos = lastAccessNanos;
+        }
+    }
+
+    private record Retired(Path file, long deleteAfterNanos) {
+    }
+}
@@ -1,46 +1,116 @@
 package com.homeputers.ebal2.api.storage;
 
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.CopyObjectArgs;
+import io.minio.CopySource;
 import io.minio.GetObjectArgs;
 import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
+import io.minio.errors.ErrorResponseException;
 import io.minio.http.Method;
+import io.minio.messages.Part;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.io.EOFException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Stores objects in a MinIO (or other S3-compatible) bucket.
+ * <p>
+ * Objects larger than the configured part size are sent as a multipart upload whose parts are uploaded in parallel.
+ * Every buffered part holds a permit from a shared semaphore sized to the part concurrency, so no more than
+ * {@code concurrency} parts are ever held in memory across all uploads. Presigned URLs are reused through a
+ * {@link PresignedUrlCache}.
+ */
 @Service
-@ConditionalOnProperty(prefix = "ebal.storage", name = "enabled", havingValue = "true")
-public class MinioStorageService implements StorageService {
+@ConditionalOnExpression("${ebal.storage.enabled:false} and '${ebal.storage.backend:minio}' == 'minio'")
+public class MinioStorageService implements StorageService, DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(MinioStorageService.class);
     private static final Duration MAX_EXPIRY = Duration.ofDays(7);
+    /**
+     * S3 rejects smaller parts (other than the last) and more than {@link #MAX_PARTS} parts per upload.
+     */
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    private static final long MAX_PART_SIZE = 512L * 1024 * 1024;
+    private static final int MAX_PARTS = 10_000;
+
     private final MinioClient minioClient;
+    private final PartUploader partUploader;
     private final String bucketName;
+    private final long partSize;
+    private final Semaphore bufferedParts;
+    private final ExecutorService partExecutor;
+    private final PresignedUrlCache signedUrls;
 
     public MinioStorageService(
             @Value("${ebal.storage.endpoint}") String endpoint,
             @Value("${ebal.storage.access-key}") String accessKey,
             @Value("${ebal.storage.secret-key}") String secretKey,
             @Value("${ebal.storage.bucket}") String bucketName,
-            @Value("${ebal.storage.region:}") String region
+            @Value("${ebal.storage.region:}") String region,
+            @Value("${ebal.storage.multipart.part-size:16777216}") long partSize,
+            @Value("${ebal.storage.multipart.concurrency:4}") int concurrency,
+            @Value("${ebal.storage.signed-url-cache.max-entries:10000}") int signedUrlCacheSize
     ) {
         Objects.requireNonNull(endpoint, "Storage endpoint must be provided");
         Objects.requireNonNull(accessKey, "Storage access key must be provided");
         Objects.requireNonNull(secretKey, "Storage secret key must be provided");
         Objects.requireNonNull(bucketName, "Storage bucket must be provided");
+        if (partSize < MIN_PART_SIZE || partSize > MAX_PART_SIZE) {
+            throw new IllegalArgumentException("Multipart part size must be between 5 MiB and 512 MiB");
+        }
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Multipart concurrency must be at least 1");
+        }
         this.bucketName = bucketName;
+        this.partSize = partSize;
         MinioClient.Builder builder = MinioClient.builder()
                 .endpoint(endpoint)
                 .credentials(accessKey, secretKey);
+        MinioAsyncClient.Builder asyncBuilder = MinioAsyncClient.builder()
+                .endpoint(endpoint)
+                .credentials(accessKey, secretKey);
         if (StringUtils.hasText(region)) {
             builder.region(region);
+            asyncBuilder.region(region);
         }
         this.minioClient = builder.build();
+        this.partUploader = new PartUploader(asyncBuilder.build());
+        this.bufferedParts = new Semaphore(concurrency);
+        AtomicInteger threads = new AtomicInteger();
+        this.partExecutor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "storage-part-upload-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.signedUrls = new PresignedUrlCache(signedUrlCacheSize, System::nanoTime);
     }
 
     @Override
@@ -50,6 +120,10 @@ public class MinioStorageService implements StorageService {
         if (size < 0) {
             throw new IllegalArgumentException("Object size must be non-negative");
         }
+        if (size > partSize) {
+            putMultipart(objectName, data, size, contentType);
+            return;
+        }
         try {
             PutObjectArgs.Builder builder = PutObjectArgs.builder()
                     .bucket(bucketName)
@@ -64,6 +138,82 @@ public class MinioStorageService implements StorageService {
         }
     }
 
+    /**
+     * Reads parts sequentially from {@code data} and uploads them on the part executor. The first failed part stops
+     * further reads and aborts the upload, so no orphaned parts are left in the bucket.
+     */
+    private void putMultipart(String objectName, InputStream data, long size, String contentType) {
+        long effectivePartSize = Math.max(partSize, (size + MAX_PARTS - 1) / MAX_PARTS);
+        if (effectivePartSize > MAX_PART_SIZE) {
+            throw new IllegalArgumentException("Object of %d bytes exceeds the multipart upload limit".formatted(size));
+        }
+        Multimap<String, String> headers = StringUtils.hasText(contentType)
+                ? ImmutableMultimap.of("Content-Type", contentType)
+                : ImmutableMultimap.of();
+        String uploadId;
+        try {
+            uploadId = partUploader.create(bucketName, objectName, headers);
+        } catch (Exception ex) {
+            throw new StorageException("Failed to upload object '%s'".formatted(objectName), ex);
+        }
+
+        List<Future<Part>> parts = new ArrayList<>();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        try {
+            long remaining = size;
+            int partNumber = 1;
+            while (remaining > 0 && failure.get() == null) {
+                int length = (int) Math.min(effectivePartSize, remaining);
+                bufferedParts.acquire();
+                byte[] buffer;
+                try {
+                    buffer = data.readNBytes(length);
+                } catch (IOException ex) {
+                    bufferedParts.release();
+                    throw ex;
+                }
+                if (buffer.length < length) {
+                    bufferedParts.release();
+                    throw new EOFException("Stream ended after %d of %d bytes".formatted(
+                            size - remaining + buffer.length, size));
+                }
+                int number = partNumber++;
+                parts.add(partExecutor.submit(() -> {
+                    try {
+                        return new Part(number, partUploader.upload(bucketName, objectName, uploadId, number, buffer));
+                    } catch (Exception ex) {
+                        failure.compareAndSet(null, ex);
+                        throw ex;
+                    } finally {
+                        bufferedParts.release();
+                    }
+                }));
+                remaining -= length;
+            }
+            Part[] completed = new Part[parts.size()];
+            for (int i = 0; i < completed.length; i++) {
+                completed[i] = parts.get(i).get();
+            }
+            partUploader.complete(bucketName, objectName, uploadId, completed);
+        } catch (Exception ex) {
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            parts.forEach(part -> part.cancel(true));
+            abortQuietly(objectName, uploadId);
+            Throwable cause = ex instanceof ExecutionException ? ex.getCause() : ex;
+            throw new StorageException("Failed to upload object '%s'".formatted(objectName), cause);
+        }
+    }
+
+    private void abortQuietly(String objectName, String uploadId) {
+        try {
+            partUploader.abort(bucketName, objectName, uploadId);
+        } catch (Exception ex) {
+            log.warn("Failed to abort multipart upload {} of '{}'", uploadId, objectName, ex);
+        }
+    }
+
     @Override
     public InputStream get(String objectName) {
         Objects.requireNonNull(objectName, "Object name is required");
@@ -72,30 +222,141 @@ public class MinioStorageService implements StorageService {
                     .bucket(bucketName)
                     .object(objectName)
                     .build());
+        } catch (ErrorResponseException ex) {
+            if ("NoSuchKey".equals(ex.errorResponse().code())) {
+                throw new StorageObjectNotFoundException(objectName, ex);
+            }
+            throw new StorageException("Failed to download object '%s'".formatted(objectName), ex);
         } catch (Exception ex) {
             throw new StorageException("Failed to download object '%s'".formatted(objectName), ex);
         }
     }
 
     @Override
-    public String signedUrl(String objectName, Duration expiry) {
+    public long transferTo(String objectName, WritableByteChannel target) {
+        Objects.requireNonNull(target, "Target channel is required");
+        try (InputStream data = get(objectName)) {
+            // the channel belongs to the caller, so the wrapping stream is deliberately not closed
+            return data.transferTo(Channels.newOutputStream(target));
+        } catch (IOException ex) {
+            throw new StorageException("Failed to download object '%s'".formatted(objectName), ex);
+        }
+    }
+
+    @Override
+    public void delete(String objectName) {
         Objects.requireNonNull(objectName, "Object name is required");
-        Duration effectiveExpiry = expiry == null || expiry.isNegative() || expiry.isZero()
-                ? Duration.ofMinutes(15)
-                : expiry;
-        if (effectiveExpiry.compareTo(MAX_EXPIRY) > 0) {
-            effectiveExpiry = MAX_EXPIRY;
+        try {
+            minioClient.removeObject(RemoveObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(objectName)
+                    .build());
+        } catch (Exception ex) {
+            throw new StorageException("Failed to delete object '%s'".formatted(objectName), ex);
+        }
+    }
+
+    /**
+     * Copies server-side, which S3 limits to sources of up to 5 GiB.
+     */
+    @Override
+    public void copy(String sourceName, String targetName) {
+        Objects.requireNonNull(sourceName, "Source object name is required");
+        Objects.requireNonNull(targetName, "Target object name is required");
+        try {
+            minioClient.copyObject(CopyObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(targetName)
+                    .source(CopySource.builder().bucket(bucketName).object(sourceName).build())
+                    .build());
+        } catch (ErrorResponseException ex) {
+            if ("NoSuchKey".equals(ex.errorResponse().code())) {
+                throw new StorageObjectNotFoundException(sourceName, ex);
+            }
+            throw new StorageException("Failed to copy object '%s' to '%s'".formatted(sourceName, targetName), ex);
+        } catch (Exception ex) {
+            throw new StorageException("Failed to copy object '%s' to '%s'".formatted(sourceName, targetName), ex);
         }
+    }
+
+    @Override
+    public String signedUrl(String objectName, Duration expiry) {
+        Objects.requireNonNull(objectName, "Object name is required");
+        Duration effectiveExpiry = effectiveExpiry(expiry);
+        return signedUrls.get(objectName, effectiveExpiry, () -> presign(objectName, Method.GET, effectiveExpiry));
+    }
+
+    @Override
+    public String signedUploadUrl(String objectName, long size, Duration expiry) {
+        Objects.requireNonNull(objectName, "Object name is required");
+        // a presigned PUT only signs the host header, so the size cannot be enforced here
+        return presign(objectName, Method.PUT, effectiveExpiry(expiry));
+    }
+
+    private String presign(String objectName, Method method, Duration expiry) {
         try {
-            int expirySeconds = Math.toIntExact(effectiveExpiry.getSeconds());
             return minioClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
                     .bucket(bucketName)
                     .object(objectName)
-                    .method(Method.GET)
-                    .expiry(expirySeconds, TimeUnit.SECONDS)
+                    .method(method)
+                    .expiry(Math.toIntExact(expiry.getSeconds()), TimeUnit.SECONDS)
                     .build());
         } catch (Exception ex) {
             throw new StorageException("Failed to create signed URL for object '%s'".formatted(objectName), ex);
         }
     }
+
+    private static Duration effectiveExpiry(Duration expiry) {
+        Duration effectiveExpiry = expiry == null || expiry.isNegative() || expiry.isZero()
+                ? Duration.ofMinutes(15)
+                : expiry;
+        return effectiveExpiry.compareTo(MAX_EXPIRY) > 0 ? MAX_EXPIRY : effectiveExpiry;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        partExecutor.shutdown();
+        if (!partExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+            partExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Exposes the low-level multipart calls, which the SDK keeps protected. The blocking variants are deprecated, so
+     * this waits on the async ones and rethrows what they failed with.
+     */
+    private static final class PartUploader extends MinioAsyncClient {
+        private PartUploader(MinioAsyncClient client) {
+            super(client);
+        }
+
+        private String create(String bucket, String object, Multimap<String, String> headers) throws Exception {
+            return await(createMultipartUploadAsync(bucket, null, object, headers, null)).result().uploadId();
+        }
+
+        private String upload(String bucket, String object, String uploadId, int partNumber, byte[] data)
+                throws Exception {
+            return await(uploadPartAsync(bucket, null, object, data, data.length, uploadId, partNumber, null, null))
+                    .etag();
+        }
+
+        private void complete(String bucket, String object, String uploadId, Part[] parts) throws Exception {
+            await(completeMultipartUploadAsync(bucket, null, object, uploadId, parts, null, null));
+        }
+
+        private void abort(String bucket, String object, String uploadId) throws Exception {
+            await(abortMultipartUploadAsync(bucket, null, object, uploadId, null, null));
+        }
+
+        private static <T> T await(CompletableFuture<T> future) throws Exception {
+            try {
+                return future.join();
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof Exception cause) {
+                    throw cause;
+                }
+                throw ex;
+            }
+        }
+    }
 }
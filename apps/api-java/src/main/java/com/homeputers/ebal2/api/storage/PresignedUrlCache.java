@@ -0,0 +1,71 @@
+package com.homeputers.ebal2.api.storage;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Reuses presigned URLs instead of signing on every call.
+ * <p>
+ * An entry is handed out only during the first half of its signature's lifetime, so every caller receives a URL that
+ * stays valid for at least half of the expiry it asked for. Entries are keyed by object name and expiry, and the map
+ * is capped by evicting, from a small sample, the entry closest to the end of its reuse window.
+ */
+final class PresignedUrlCache {
+
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    PresignedUrlCache(int maxEntries, LongSupplier nanoClock) {
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+    }
+
+    String get(String objectName, Duration expiry, Supplier<String> signer) {
+        if (maxEntries <= 0) {
+            return signer.get();
+        }
+        Key key = new Key(objectName, expiry.getSeconds());
+        long now = nanoClock.getAsLong();
+        Entry cached = entries.get(key);
+        if (cached != null && cached.reuseUntilNanos - now > 0) {
+            return cached.url;
+        }
+        String url = signer.get();
+        makeRoom(key);
+        entries.put(key, new Entry(url, now + expiry.toNanos() / 2));
+        return url;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void makeRoom(Key incoming) {
+        while (entries.size() >= maxEntries && !entries.containsKey(incoming)) {
+            Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+            Map.Entry<Key, Entry> first = null;
+            for (int i = 0; i < EVICTION_SAMPLE_SIZE && iterator.hasNext(); i++) {
+                Map.Entry<Key, Entry> candidate = iterator.next();
+                if (first == null || candidate.getValue().reuseUntilNanos - first.getValue().reuseUntilNanos < 0) {
+                    first = candidate;
+                }
+            }
+            if (first == null || !entries.remove(first.getKey(), first.getValue())) {
+                return;
+            }
+        }
+    }
+
+    private record Key(String objectName, long expirySeconds) {
+    }
+
+    private record Entry(String url, long reuseUntilNanos) {
+    }
+}
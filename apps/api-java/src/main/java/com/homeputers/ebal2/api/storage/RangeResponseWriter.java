@@ -0,0 +1,137 @@
+package com.homeputers.ebal2.api.storage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Writes a local file as an HTTP response honouring {@code Range}, {@code If-Range} and conditional GET headers.
+ * <p>
+ * A single satisfiable range is answered with {@code 206 Partial Content}; a list of ranges, an unparseable header or
+ * an {@code If-Range} validator that does not match falls back to the full content, as RFC 9110 allows. When the
+ * container offers sendfile (Tomcat's NIO connector does by default) the bytes go from the file to the socket without
+ * being copied through the JVM; otherwise they are copied with {@link FileChannel#transferTo}.
+ */
+public final class RangeResponseWriter {
+    static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+    private RangeResponseWriter() {
+    }
+
+    /**
+     * @param etag         strong validator of the content, e.g. its hash
+     * @param lastModified when the content last changed, used for {@code If-Modified-Since} and date {@code If-Range}
+     */
+    public static void write(HttpServletRequest request,
+                             HttpServletResponse response,
+                             LocalObjectCache.CachedObject object,
+                             String contentType,
+                             String etag,
+                             Instant lastModified,
+                             CacheControl cacheControl) throws IOException {
+        String quotedEtag = etag.startsWith("\"") ? etag : "\"" + etag + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(quotedEtag, lastModified.toEpochMilli())) {
+            return;
+        }
+
+        long size = object.size();
+        long start = 0;
+        long end = size - 1;
+        HttpRange range = requestedRange(request, quotedEtag, lastModified);
+        if (range != null) {
+            try {
+                start = range.getRangeStart(size);
+                end = range.getRangeEnd(size);
+            } catch (IllegalArgumentException ex) {
+                start = size;
+            }
+            if (start >= size || end < start) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes %d-%d/%d".formatted(start, end, size));
+        }
+        long length = end - start + 1;
+        response.setContentType(contentType);
+        response.setContentLengthLong(length);
+        if (HttpMethod.HEAD.matches(request.getMethod()) || length == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, object.file().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTRIBUTE, start);
+            request.setAttribute(SENDFILE_END_ATTRIBUTE, end + 1);
+            return;
+        }
+        try (FileChannel file = FileChannel.open(object.file(), StandardOpenOption.READ)) {
+            // the response stream belongs to the container, so the wrapping channel is deliberately not closed
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position <= end) {
+                long transferred = file.transferTo(position, end - position + 1, target);
+                if (transferred <= 0) {
+                    throw new IOException("File ended at byte %d of %d".formatted(position, size));
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    private static HttpRange requestedRange(HttpServletRequest request, String etag, Instant lastModified) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (!StringUtils.hasText(header) || !ifRangeMatches(request.getHeader(HttpHeaders.IF_RANGE), etag,
+                lastModified)) {
+            return null;
+        }
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+        return ranges.size() == 1 ? ranges.get(0) : null;
+    }
+
+    /**
+     * An entity tag must match strongly; a date must equal the last modification time to the second.
+     */
+    private static boolean ifRangeMatches(String ifRange, String etag, Instant lastModified) {
+        if (!StringUtils.hasText(ifRange)) {
+            return true;
+        }
+        String value = ifRange.strip();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            return value.equals(etag);
+        }
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond()
+                    == lastModified.getEpochSecond();
+        } catch (DateTimeParseException ex) {
+            return false;
+        }
+    }
+}
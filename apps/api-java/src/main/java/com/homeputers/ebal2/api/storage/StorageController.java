@@ -2,10 +2,23 @@ package com.homeputers.ebal2.api.storage;
 
 import com.homeputers.ebal2.api.generated.StorageApi;
 import com.homeputers.ebal2.api.generated.model.StorageHealth;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -23,4 +36,39 @@ public class StorageController implements StorageApi {
         health.setStatus(storageService != null ? "enabled" : "unavailable");
         return ResponseEntity.ok(health);
     }
+
+    /**
+     * Only the filesystem backend issues URLs pointing here; other backends sign URLs of their own.
+     */
+    @Override
+    public ResponseEntity<Resource> getStorageObject(String key, Long expires, String signature) {
+        if (!(storageService instanceof FilesystemStorageService filesystem) || expires == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Path file = filesystem.resolveSigned(key, expires, signature);
+        return ResponseEntity.ok()
+                .contentType(MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                .cacheControl(CacheControl.noStore())
+                .body(new FileSystemResource(file));
+    }
+
+    /**
+     * Stand-in for an object store's presigned {@code PUT}. The body is read straight from the servlet request, since
+     * binding it to a parameter would buffer the whole object in memory. Only the signed size is read from it.
+     */
+    @Override
+    public ResponseEntity<Void> putStorageObject(String key, Long expires, Long size, String signature) {
+        if (!(storageService instanceof FilesystemStorageService filesystem) || expires == null || size == null) {
+            return ResponseEntity.notFound().build();
+        }
+        HttpServletRequest request =
+                ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+        try (InputStream body = request.getInputStream()) {
+            filesystem.putSigned(key, expires, size, signature, body, request.getContentLengthLong(),
+                    request.getContentType());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read upload of " + key, ex);
+        }
+        return ResponseEntity.ok().build();
+    }
 }
@@ -0,0 +1,7 @@
+package com.homeputers.ebal2.api.storage;
+
+public class StorageObjectNotFoundException extends StorageException {
+    public StorageObjectNotFoundException(String objectName, Throwable cause) {
+        super("Object '%s' does not exist".formatted(objectName), cause);
+    }
+}
@@ -1,12 +1,48 @@
 package com.homeputers.ebal2.api.storage;
 
 import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
 import java.time.Duration;
 
 public interface StorageService {
+    /**
+     * Stores exactly {@code size} bytes read from {@code data}, replacing any existing object of that name. Fails if
+     * the stream ends early.
+     */
     void put(String objectName, InputStream data, long size, String contentType);
 
+    /**
+     * @throws StorageObjectNotFoundException if no such object exists
+     */
     InputStream get(String objectName);
 
+    /**
+     * Copies the whole object into {@code target}, avoiding user-space copies where the backend allows it.
+     *
+     * @return the number of bytes written
+     * @throws StorageObjectNotFoundException if no such object exists
+     */
+    long transferTo(String objectName, WritableByteChannel target);
+
+    /**
+     * Removes the object; deleting a missing object is not an error.
+     */
+    void delete(String objectName);
+
+    /**
+     * Copies an object within the store without passing its bytes through the caller.
+     *
+     * @throws StorageObjectNotFoundException if {@code sourceName} does not exist
+     */
+    void copy(String sourceName, String targetName);
+
     String signedUrl(String objectName, Duration expiry);
+
+    /**
+     * Returns a URL that lets a client store the object with a single HTTP {@code PUT} of {@code size} bytes, replacing
+     * any existing object of that name. The URL stays valid until {@code expiry} has passed and, unlike the URL from
+     * {@link #signedUrl}, is never reused. Backends that cannot bind the size into the URL accept any size, so callers
+     * still check the stored object.
+     */
+    String signedUploadUrl(String objectName, long size, Duration expiry);
 }
@@ -0,0 +1,33 @@
+package com.homeputers.ebal2.api.sync;
+
+import com.homeputers.ebal2.api.domain.changelog.ChangeLogMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+/**
+ * Records changes for {@code GET /sync}. Must be called inside the transaction that makes the change, after the
+ * write: the entry commits or rolls back with it, and the lock it takes is held only until that commit.
+ * <p>
+ * Entity types are the constants of {@link com.homeputers.ebal2.api.domain.changelog.ChangeLogEntry}.
+ */
+@Component
+public class ChangeLog {
+    private final ChangeLogMapper mapper;
+
+    public ChangeLog(ChangeLogMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void upserted(String entityType, UUID id) {
+        mapper.record(entityType, id, false);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deleted(String entityType, UUID id) {
+        mapper.record(entityType, id, true);
+    }
+}
@@ -0,0 +1,24 @@
+package com.homeputers.ebal2.api.sync;
+
+import com.homeputers.ebal2.api.domain.changelog.ChangeLogEntry;
+
+import java.util.List;
+
+/**
+ * One page of the change feed.
+ *
+ * @param cursor  the {@code seq} of the last change returned, or the requested cursor when there was none
+ * @param hasMore whether changes after {@code cursor} were left for the next page
+ */
+public record SyncChanges(List<Change> changes, long cursor, boolean hasMore) {
+
+    /**
+     * @param value the entity's current state, one of the domain records of {@code entry.entityType()}; {@code null}
+     *              for tombstones
+     */
+    public record Change(ChangeLogEntry entry, Object value) {
+        public boolean deleted() {
+            return value == null;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.homeputers.ebal2.api.sync;
+
+import com.homeputers.ebal2.api.generated.SyncApi;
+import com.homeputers.ebal2.api.generated.model.SyncResponse;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1")
+public class SyncController implements SyncApi {
+    private final SyncService service;
+
+    public SyncController(SyncService service) {
+        this.service = service;
+    }
+
+    @Override
+    public ResponseEntity<SyncResponse> sync(String since, Integer limit) {
+        return ResponseEntity.ok(SyncDtoMapper.toResponse(service.changesSince(since, limit)));
+    }
+}
@@ -0,0 +1,45 @@
+package com.homeputers.ebal2.api.sync;
+
+import com.homeputers.ebal2.api.arrangement.ArrangementDtoMapper;
+import com.homeputers.ebal2.api.domain.arrangement.Arrangement;
+import com.homeputers.ebal2.api.domain.service.Service;
+import com.homeputers.ebal2.api.domain.serviceplanitem.ServicePlanItem;
+import com.homeputers.ebal2.api.domain.song.Song;
+import com.homeputers.ebal2.api.domain.songset.SongSet;
+import com.homeputers.ebal2.api.domain.songsetitem.SongSetItem;
+import com.homeputers.ebal2.api.generated.model.SyncChange;
+import com.homeputers.ebal2.api.generated.model.SyncResponse;
+import com.homeputers.ebal2.api.service.ServiceDtoMapper;
+import com.homeputers.ebal2.api.serviceplanitem.ServicePlanItemDtoMapper;
+import com.homeputers.ebal2.api.song.SongDtoMapper;
+import com.homeputers.ebal2.api.songset.SongSetDtoMapper;
+import com.homeputers.ebal2.api.songsetitem.SongSetItemDtoMapper;
+
+public class SyncDtoMapper {
+    public static SyncResponse toResponse(SyncChanges changes) {
+        SyncResponse response = new SyncResponse();
+        response.setChanges(changes.changes().stream().map(SyncDtoMapper::toChange).toList());
+        response.setCursor(Long.toString(changes.cursor()));
+        response.setHasMore(changes.hasMore());
+        return response;
+    }
+
+    private static SyncChange toChange(SyncChanges.Change change) {
+        SyncChange dto = new SyncChange();
+        dto.setEntityType(SyncChange.EntityTypeEnum.fromValue(change.entry().entityType()));
+        dto.setId(change.entry().entityId());
+        dto.setDeleted(change.deleted());
+        switch (change.value()) {
+            case null -> {
+            }
+            case Song song -> dto.setSong(SongDtoMapper.toResponse(song));
+            case Arrangement arrangement -> dto.setArrangement(ArrangementDtoMapper.toResponse(arrangement));
+            case SongSet songSet -> dto.setSongSet(SongSetDtoMapper.toResponse(songSet));
+            case SongSetItem item -> dto.setSongSetItem(SongSetItemDtoMapper.toResponse(item));
+            case Service service -> dto.setService(ServiceDtoMapper.toResponse(service));
+            case ServicePlanItem item -> dto.setServicePlanItem(ServicePlanItemDtoMapper.toResponse(item));
+            default -> throw new IllegalStateException("Unexpected sync value " + change.value().getClass());
+        }
+        return dto;
+    }
+}
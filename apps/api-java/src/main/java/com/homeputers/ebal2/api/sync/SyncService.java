@@ -0,0 +1,140 @@
+package com.homeputers.ebal2.api.sync;
+
+import com.homeputers.ebal2.api.domain.arrangement.Arrangement;
+import com.homeputers.ebal2.api.domain.arrangement.ArrangementMapper;
+import com.homeputers.ebal2.api.domain.changelog.ChangeLogEntry;
+import com.homeputers.ebal2.api.domain.changelog.ChangeLogMapper;
+import com.homeputers.ebal2.api.domain.service.ServiceMapper;
+import com.homeputers.ebal2.api.domain.serviceplanitem.ServicePlanItem;
+import com.homeputers.ebal2.api.domain.serviceplanitem.ServicePlanItemMapper;
+import com.homeputers.ebal2.api.domain.song.Song;
+import com.homeputers.ebal2.api.domain.song.SongMapper;
+import com.homeputers.ebal2.api.domain.songset.SongSet;
+import com.homeputers.ebal2.api.domain.songset.SongSetMapper;
+import com.homeputers.ebal2.api.domain.songsetitem.SongSetItem;
+import com.homeputers.ebal2.api.domain.songsetitem.SongSetItemMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Serves the change feed behind {@code GET /sync}.
+ * <p>
+ * A page reads the next entries of the change log, then loads the current state of the changed entities with one
+ * statement per entity type. Both reads share a snapshot, so an entity deleted after its log entry was written shows
+ * up as a tombstone in the same page rather than as a missing row.
+ */
+@Service
+public class SyncService {
+
+    static final int MAX_LIMIT = 1000;
+
+    private final ChangeLogMapper changeLogMapper;
+    private final SongMapper songMapper;
+    private final ArrangementMapper arrangementMapper;
+    private final SongSetMapper songSetMapper;
+    private final SongSetItemMapper songSetItemMapper;
+    private final ServiceMapper serviceMapper;
+    private final ServicePlanItemMapper servicePlanItemMapper;
+
+    public SyncService(ChangeLogMapper changeLogMapper,
+                       SongMapper songMapper,
+                       ArrangementMapper arrangementMapper,
+                       SongSetMapper songSetMapper,
+                       SongSetItemMapper songSetItemMapper,
+                       ServiceMapper serviceMapper,
+                       ServicePlanItemMapper servicePlanItemMapper) {
+        this.changeLogMapper = changeLogMapper;
+        this.songMapper = songMapper;
+        this.arrangementMapper = arrangementMapper;
+        this.songSetMapper = songSetMapper;
+        this.songSetItemMapper = songSetItemMapper;
+        this.serviceMapper = serviceMapper;
+        this.servicePlanItemMapper = servicePlanItemMapper;
+    }
+
+    /**
+     * @param since cursor from a previous page; {@code null} or blank starts from the beginning
+     * @throws IllegalArgumentException if the cursor is malformed or {@code limit} is out of range
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public SyncChanges changesSince(String since, int limit) {
+        long cursor = parseCursor(since);
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        List<ChangeLogEntry> entries = changeLogMapper.findAfter(cursor, limit + 1);
+        boolean hasMore = entries.size() > limit;
+        if (hasMore) {
+            entries = entries.subList(0, limit);
+        }
+        if (entries.isEmpty()) {
+            return new SyncChanges(List.of(), cursor, false);
+        }
+
+        Map<String, List<UUID>> upsertedIds = new HashMap<>();
+        for (ChangeLogEntry entry : entries) {
+            if (!entry.deleted()) {
+                upsertedIds.computeIfAbsent(entry.entityType(), type -> new ArrayList<>()).add(entry.entityId());
+            }
+        }
+        Map<String, Map<UUID, ?>> current = new HashMap<>();
+        upsertedIds.forEach((type, ids) -> current.put(type, load(type, ids)));
+
+        List<SyncChanges.Change> changes = new ArrayList<>(entries.size());
+        for (ChangeLogEntry entry : entries) {
+            Object value = entry.deleted()
+                    ? null
+                    : current.get(entry.entityType()).get(entry.entityId());
+            changes.add(new SyncChanges.Change(entry, value));
+        }
+        return new SyncChanges(changes, entries.get(entries.size() - 1).seq(), hasMore);
+    }
+
+    private Map<UUID, ?> load(String entityType, Collection<UUID> ids) {
+        return switch (entityType) {
+            case ChangeLogEntry.SONG -> byId(songMapper.findByIds(ids), Song::id);
+            case ChangeLogEntry.ARRANGEMENT -> byId(arrangementMapper.findWithSongByIds(ids), Arrangement::id);
+            case ChangeLogEntry.SONG_SET -> byId(songSetMapper.findByIds(ids), SongSet::id);
+            case ChangeLogEntry.SONG_SET_ITEM -> byId(songSetItemMapper.findJoinedByIds(ids), SongSetItem::id);
+            case ChangeLogEntry.SERVICE -> byId(serviceMapper.findByIds(ids),
+                    com.homeputers.ebal2.api.domain.service.Service::id);
+            case ChangeLogEntry.SERVICE_PLAN_ITEM ->
+                    byId(servicePlanItemMapper.findJoinedByIds(ids), ServicePlanItem::id);
+            default -> throw new IllegalStateException("Unknown change log entity type " + entityType);
+        };
+    }
+
+    private static <T> Map<UUID, T> byId(List<T> values, Function<T, UUID> idOf) {
+        Map<UUID, T> byId = new LinkedHashMap<>();
+        for (T value : values) {
+            byId.put(idOf.apply(value), value);
+        }
+        return byId;
+    }
+
+    static long parseCursor(String since) {
+        if (!StringUtils.hasText(since)) {
+            return 0;
+        }
+        try {
+            long cursor = Long.parseLong(since.trim());
+            if (cursor < 0) {
+                throw new IllegalArgumentException("Invalid sync cursor");
+            }
+            return cursor;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid sync cursor");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+-- Bulk emails sent to every member of a group, with per-recipient delivery status.
+
+CREATE TABLE IF NOT EXISTS group_broadcasts (
+    id UUID PRIMARY KEY,
+    group_id UUID NOT NULL REFERENCES groups(id) ON DELETE CASCADE,
+    subject TEXT NOT NULL,
+    -- rendered once for the broadcast's locale when it is created
+    rendered_subject TEXT NOT NULL,
+    rendered_body TEXT NOT NULL,
+    locale TEXT NOT NULL,
+    status TEXT NOT NULL DEFAULT 'PENDING',
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    completed_at TIMESTAMPTZ NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_group_broadcasts_group_id ON group_broadcasts (group_id);
+
+CREATE TABLE IF NOT EXISTS group_broadcast_recipients (
+    broadcast_id UUID NOT NULL REFERENCES group_broadcasts(id) ON DELETE CASCADE,
+    member_id UUID NOT NULL,
+    email TEXT NULL,
+    status TEXT NOT NULL DEFAULT 'PENDING',
+    error TEXT NULL,
+    sent_at TIMESTAMPTZ NULL,
+    PRIMARY KEY (broadcast_id, member_id)
+);
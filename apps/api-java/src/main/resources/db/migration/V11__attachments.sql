@@ -0,0 +1,30 @@
+-- Attachment bytes are stored once per distinct content, keyed by SHA-256; attachments reference them.
+
+CREATE TABLE IF NOT EXISTS attachment_blobs (
+    sha256 CHAR(64) PRIMARY KEY,
+    size_bytes BIGINT NOT NULL,
+    content_type TEXT NOT NULL,
+    -- number of attachments pointing here; maintained by the statements that add and remove attachments
+    ref_count INTEGER NOT NULL DEFAULT 0 CHECK (ref_count >= 0),
+    -- set once the bytes are in object storage
+    stored_at TIMESTAMPTZ NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    unreferenced_since TIMESTAMPTZ NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_attachment_blobs_unreferenced ON attachment_blobs (unreferenced_since)
+    WHERE ref_count = 0;
+
+CREATE TABLE IF NOT EXISTS attachments (
+    id UUID PRIMARY KEY,
+    owner_type TEXT NOT NULL CHECK (owner_type IN ('ARRANGEMENT', 'SERVICE')),
+    owner_id UUID NOT NULL,
+    file_name TEXT NOT NULL,
+    content_type TEXT NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    blob_sha256 CHAR(64) NOT NULL REFERENCES attachment_blobs(sha256),
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_attachments_owner ON attachments (owner_type, owner_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_attachments_blob ON attachments (blob_sha256);
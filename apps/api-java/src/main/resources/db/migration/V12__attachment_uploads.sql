@@ -0,0 +1,29 @@
+-- Slots for attachments that clients upload straight to object storage; bytes land in a staging object and are
+-- verified in the background before they become an attachment.
+
+CREATE TABLE IF NOT EXISTS attachment_uploads (
+    id UUID PRIMARY KEY,
+    owner_type TEXT NOT NULL CHECK (owner_type IN ('ARRANGEMENT', 'SERVICE')),
+    owner_id UUID NOT NULL,
+    file_name TEXT NOT NULL,
+    content_type TEXT NOT NULL,
+    -- declared by the client, checked against the uploaded object
+    size_bytes BIGINT NOT NULL,
+    sha256 CHAR(64) NOT NULL,
+    staging_object TEXT NOT NULL,
+    status TEXT NOT NULL DEFAULT 'PENDING' CHECK (status IN ('PENDING', 'VERIFYING', 'COMPLETED', 'FAILED')),
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMPTZ NULL,
+    expires_at TIMESTAMPTZ NOT NULL,
+    error TEXT NULL,
+    attachment_id UUID NULL REFERENCES attachments(id) ON DELETE SET NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_attachment_uploads_due ON attachment_uploads (next_attempt_at)
+    WHERE status = 'VERIFYING';
+CREATE INDEX IF NOT EXISTS idx_attachment_uploads_expires ON attachment_uploads (expires_at)
+    WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS idx_attachment_uploads_updated ON attachment_uploads (updated_at)
+    WHERE status IN ('COMPLETED', 'FAILED');
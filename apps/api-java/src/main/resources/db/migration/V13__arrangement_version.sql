@@ -0,0 +1,3 @@
+-- Bumped on every update so derived data (rendered charts) can be cached per arrangement version
+ALTER TABLE arrangements
+    ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
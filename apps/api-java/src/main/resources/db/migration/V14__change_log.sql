@@ -0,0 +1,29 @@
+-- Latest change per synced entity, written in the same transaction as the change. Clients resume from seq, so an
+-- entity changed many times costs one row and one sync entry; deletes stay as tombstones.
+
+CREATE SEQUENCE IF NOT EXISTS change_log_seq;
+
+CREATE TABLE IF NOT EXISTS change_log (
+    entity_type TEXT NOT NULL CHECK (entity_type IN
+        ('SONG', 'ARRANGEMENT', 'SONG_SET', 'SONG_SET_ITEM', 'SERVICE', 'SERVICE_PLAN_ITEM')),
+    entity_id UUID NOT NULL,
+    seq BIGINT NOT NULL,
+    deleted BOOLEAN NOT NULL DEFAULT false,
+    changed_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (entity_type, entity_id)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_change_log_seq ON change_log (seq);
+
+-- existing rows, so the first sync of a fresh client is a full snapshot
+INSERT INTO change_log (entity_type, entity_id, seq)
+SELECT entity_type, entity_id, nextval('change_log_seq')
+FROM (
+    SELECT 'SONG' AS entity_type, id AS entity_id FROM songs
+    UNION ALL SELECT 'ARRANGEMENT', id FROM arrangements
+    UNION ALL SELECT 'SONG_SET', id FROM song_sets
+    UNION ALL SELECT 'SONG_SET_ITEM', id FROM song_set_items
+    UNION ALL SELECT 'SERVICE', id FROM services
+    UNION ALL SELECT 'SERVICE_PLAN_ITEM', id FROM service_plan_items
+) existing
+ON CONFLICT (entity_type, entity_id) DO NOTHING;
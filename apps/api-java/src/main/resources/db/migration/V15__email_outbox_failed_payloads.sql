@@ -0,0 +1,5 @@
+-- Failed messages are never sent, so their one-time secrets are cleared just like sent ones.
+UPDATE email_outbox SET payload = NULL WHERE status = 'FAILED' AND payload IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_failed_created_at ON email_outbox (created_at)
+    WHERE status = 'FAILED';
@@ -0,0 +1,6 @@
+-- Broadcasts are leased to the dispatcher sending them, so a crashed or redeployed replica's work is picked up again.
+
+ALTER TABLE group_broadcasts ADD COLUMN IF NOT EXISTS lease_until TIMESTAMPTZ NULL;
+
+CREATE INDEX IF NOT EXISTS idx_group_broadcasts_unfinished ON group_broadcasts (created_at)
+    WHERE status IN ('PENDING', 'SENDING');
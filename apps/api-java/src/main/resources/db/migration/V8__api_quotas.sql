@@ -0,0 +1,12 @@
+-- Shared API quota counters, one row per bucket and fixed window.
+-- Counters are short-lived and rebuilt from traffic, so the table is unlogged.
+
+CREATE UNLOGGED TABLE IF NOT EXISTS api_quota_counters (
+    bucket_key TEXT NOT NULL,
+    window_start TIMESTAMPTZ NOT NULL,
+    used INTEGER NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (bucket_key, window_start)
+);
+
+CREATE INDEX IF NOT EXISTS idx_api_quota_counters_expires_at ON api_quota_counters (expires_at);
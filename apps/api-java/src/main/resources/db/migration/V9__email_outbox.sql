@@ -0,0 +1,23 @@
+-- Outgoing emails are written here in the caller's transaction and delivered by a background dispatcher.
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id UUID PRIMARY KEY,
+    kind TEXT NOT NULL,
+    recipient TEXT NOT NULL,
+    locale TEXT NOT NULL,
+    -- cleared once the message is sent, since it may carry one-time secrets
+    payload JSONB NULL,
+    dedupe_key TEXT NOT NULL,
+    status TEXT NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMPTZ NOT NULL,
+    last_error TEXT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    sent_at TIMESTAMPTZ NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_email_outbox_dedupe_key ON email_outbox (dedupe_key);
+CREATE INDEX IF NOT EXISTS idx_email_outbox_due ON email_outbox (next_attempt_at)
+    WHERE status IN ('PENDING', 'SENDING');
+CREATE INDEX IF NOT EXISTS idx_email_outbox_sent_at ON email_outbox (sent_at)
+    WHERE status = 'SENT';
@@ -1,5 +1,6 @@
 package com.homeputers.ebal2.api;
 
+import com.homeputers.ebal2.api.domain.user.UserSnapshotCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -31,10 +32,14 @@ public abstract class AbstractIntegrationTest {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private UserSnapshotCache userSnapshotCache;
+
     @BeforeEach
     void cleanDatabase() {
         jdbcTemplate.execute(
-                "TRUNCATE TABLE email_change_tokens, refresh_tokens, password_resets, user_roles, users RESTART IDENTITY CASCADE");
+                "TRUNCATE TABLE attachment_uploads, attachments, attachment_blobs, api_quota_counters, email_outbox, email_change_tokens, refresh_tokens, password_resets, user_roles, users RESTART IDENTITY CASCADE");
+        userSnapshotCache.invalidateAll();
         cleanAvatarStorage();
     }
 
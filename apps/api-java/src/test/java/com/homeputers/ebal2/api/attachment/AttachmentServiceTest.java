@@ -0,0 +1,214 @@
+package com.homeputers.ebal2.api.attachment;
+
+import com.homeputers.ebal2.api.config.AttachmentProperties;
+import com.homeputers.ebal2.api.domain.arrangement.Arrangement;
+import com.homeputers.ebal2.api.domain.arrangement.ArrangementMapper;
+import com.homeputers.ebal2.api.domain.attachment.Attachment;
+import com.homeputers.ebal2.api.domain.attachment.AttachmentBlob;
+import com.homeputers.ebal2.api.domain.attachment.AttachmentBlobMapper;
+import com.homeputers.ebal2.api.domain.attachment.AttachmentMapper;
+import com.homeputers.ebal2.api.domain.service.ServiceMapper;
+import com.homeputers.ebal2.api.storage.LocalObjectCache;
+import com.homeputers.ebal2.api.storage.StorageException;
+import com.homeputers.ebal2.api.storage.StorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Mock
+    private AttachmentMapper attachmentMapper;
+
+    @Mock
+    private AttachmentBlobMapper blobMapper;
+
+    @Mock
+    private ArrangementMapper arrangementMapper;
+
+    @Mock
+    private ServiceMapper serviceMapper;
+
+    @Mock
+    private StorageService storageService;
+
+    @Mock
+    private LocalObjectCache objectCache;
+
+    private final AttachmentProperties properties = new AttachmentProperties();
+    private final UUID arrangementId = UUID.randomUUID();
+    private AttachmentService service;
+
+    @BeforeEach
+    void setUp() {
+        properties.setGcBatchSize(10);
+        service = new AttachmentService(attachmentMapper, blobMapper, arrangementMapper, serviceMapper,
+                storageService, objectCache, properties, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void uploadStoresNewContentUnderItsHash() {
+        givenArrangementExists();
+        when(blobMapper.findBySha256(anyString())).thenReturn(null);
+        when(attachmentMapper.insertReferencingBlob(any())).thenReturn(1);
+
+        Attachment attachment = service.upload(Attachment.OWNER_ARRANGEMENT, arrangementId,
+                file("lead-sheet.pdf", "application/pdf", "chart"));
+
+        String sha256 = attachment.blobSha256();
+        assertThat(sha256).hasSize(64).matches("[0-9a-f]+");
+        assertThat(attachment.fileName()).isEqualTo("lead-sheet.pdf");
+        assertThat(attachment.sizeBytes()).isEqualTo(5);
+        verify(storageService).put(eq("attachments/" + sha256.substring(0, 2) + "/" + sha256),
+                any(InputStream.class), eq(5L), eq("application/pdf"));
+        verify(blobMapper).markStored(sha256, OffsetDateTime.ofInstant(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void uploadOfKnownContentOnlyAddsReference() {
+        givenArrangementExists();
+        when(blobMapper.findBySha256(anyString())).thenAnswer(invocation -> storedBlob(invocation.getArgument(0)));
+        when(attachmentMapper.insertReferencingBlob(any())).thenReturn(1);
+
+        Attachment first = service.upload(Attachment.OWNER_ARRANGEMENT, arrangementId,
+                file("a.pdf", "application/pdf", "chart"));
+        Attachment second = service.upload(Attachment.OWNER_ARRANGEMENT, arrangementId,
+                file("b.pdf", "application/pdf", "chart"));
+
+        assertThat(second.blobSha256()).isEqualTo(first.blobSha256());
+        assertThat(second.id()).isNotEqualTo(first.id());
+        verify(storageService, never()).put(anyString(), any(), anyLong(), any());
+        verify(attachmentMapper, times(2)).insertReferencingBlob(any());
+    }
+
+    @Test
+    void uploadStoresContentAgainWhenBlobWasCollectedMeanwhile() {
+        givenArrangementExists();
+        when(blobMapper.findBySha256(anyString())).thenReturn(null);
+        when(attachmentMapper.insertReferencingBlob(any())).thenReturn(0, 1);
+
+        service.upload(Attachment.OWNER_ARRANGEMENT, arrangementId, file("a.pdf", "application/pdf", "chart"));
+
+        verify(storageService, times(2)).put(anyString(), any(), eq(5L), anyString());
+        verify(blobMapper, times(2)).insertIfAbsent(anyString(), eq(5L), anyString(), any());
+    }
+
+    @Test
+    void uploadRejectsUnknownOwner() {
+        when(arrangementMapper.findSummaryById(arrangementId)).thenReturn(null);
+
+        assertThatThrownBy(() -> service.upload(Attachment.OWNER_ARRANGEMENT, arrangementId,
+                file("a.pdf", "application/pdf", "chart")))
+                .isInstanceOf(NoSuchElementException.class);
+        verify(storageService, never()).put(anyString(), any(), anyLong(), any());
+    }
+
+    @Test
+    void uploadRejectsOversizedAndEmptyFiles() {
+        givenArrangementExists();
+        properties.setMaxSizeBytes(4);
+
+        assertThatThrownBy(() -> service.upload(Attachment.OWNER_ARRANGEMENT, arrangementId,
+                file("a.pdf", "application/pdf", "chart")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.upload(Attachment.OWNER_ARRANGEMENT, arrangementId,
+                file("a.pdf", "application/pdf", "")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void uploadStripsDirectoriesFromFileNameAndGuessesContentType() {
+        givenArrangementExists();
+        when(blobMapper.findBySha256(anyString())).thenAnswer(invocation -> storedBlob(invocation.getArgument(0)));
+        when(attachmentMapper.insertReferencingBlob(any())).thenReturn(1);
+
+        Attachment attachment = service.upload(Attachment.OWNER_ARRANGEMENT, arrangementId,
+                file("..\\charts\\lead.pdf", null, "chart"));
+
+        assertThat(attachment.fileName()).isEqualTo("lead.pdf");
+        assertThat(attachment.contentType()).isEqualTo("application/pdf");
+    }
+
+    @Test
+    void deleteOfMissingAttachmentIsNotFound() {
+        UUID id = UUID.randomUUID();
+        when(attachmentMapper.delete(id)).thenReturn(0);
+
+        assertThatThrownBy(() -> service.delete(id)).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void collectGarbageDeletesStoredBytesBeforeRows() {
+        String kept = "b".repeat(64);
+        String removed = "a".repeat(64);
+        when(blobMapper.lockUnreferenced(OffsetDateTime.ofInstant(NOW, ZoneOffset.UTC).minus(Duration.ofHours(24)), 10))
+                .thenReturn(List.of(removed, kept));
+        doThrow(new StorageException("unavailable", null)).when(storageService).delete(anyString());
+        doNothing().when(storageService).delete("attachments/aa/" + removed);
+
+        int examined = service.collectGarbage();
+
+        assertThat(examined).isEqualTo(2);
+        verify(storageService).delete("attachments/aa/" + removed);
+        verify(objectCache).evict("attachments/aa/" + removed);
+        verify(objectCache, never()).evict("attachments/bb/" + kept);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String>> deleted = ArgumentCaptor.forClass(List.class);
+        verify(blobMapper).deleteUnreferenced(deleted.capture());
+        assertThat(deleted.getValue()).containsExactly(removed);
+    }
+
+    @Test
+    void collectGarbageWithNothingDueTouchesNothing() {
+        when(blobMapper.lockUnreferenced(any(), eq(10))).thenReturn(List.of());
+
+        assertThat(service.collectGarbage()).isZero();
+        verify(blobMapper, never()).deleteUnreferenced(any());
+        verify(storageService, never()).delete(anyString());
+    }
+
+    private void givenArrangementExists() {
+        when(arrangementMapper.findSummaryById(arrangementId))
+                .thenReturn(new Arrangement(arrangementId, null, "G", 120, "4/4", null, 0));
+    }
+
+    private static AttachmentBlob storedBlob(String sha256) {
+        OffsetDateTime stored = OffsetDateTime.ofInstant(NOW, ZoneOffset.UTC);
+        return new AttachmentBlob(sha256, 5, "application/pdf", 1, stored, stored, null);
+    }
+
+    private static MockMultipartFile file(String name, String contentType, String content) {
+        return new MockMultipartFile("file", name, contentType, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
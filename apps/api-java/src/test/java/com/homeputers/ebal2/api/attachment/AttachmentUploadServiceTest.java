@@ -0,0 +1,114 @@
+package com.homeputers.ebal2.api.attachment;
+
+import com.homeputers.ebal2.api.config.AttachmentProperties;
+import com.homeputers.ebal2.api.domain.attachment.Attachment;
+import com.homeputers.ebal2.api.domain.attachment.AttachmentUpload;
+import com.homeputers.ebal2.api.domain.attachment.AttachmentUploadMapper;
+import com.homeputers.ebal2.api.storage.StorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentUploadServiceTest {
+
+    private static final Instant NOW_INSTANT = Instant.parse("2024-01-01T00:00:00Z");
+    private static final OffsetDateTime NOW = OffsetDateTime.ofInstant(NOW_INSTANT, ZoneOffset.UTC);
+    private static final String SHA256 = "AB".repeat(32);
+
+    @Mock
+    private AttachmentUploadMapper uploadMapper;
+
+    @Mock
+    private AttachmentService attachmentService;
+
+    @Mock
+    private StorageService storageService;
+
+    private final AttachmentProperties.DirectUpload properties = new AttachmentProperties.DirectUpload();
+    private final UUID ownerId = UUID.randomUUID();
+    private AttachmentUploadService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new AttachmentUploadService(uploadMapper, attachmentService, storageService, properties,
+                Clock.fixed(NOW_INSTANT, ZoneOffset.UTC));
+    }
+
+    @Test
+    void createIssuesSignedUrlForStagingObject() {
+        when(storageService.signedUploadUrl(any(), anyLong(), eq(properties.getUrlTtl()))).thenReturn("https://signed");
+
+        AttachmentUploadService.UploadSlot slot = service.create(Attachment.OWNER_ARRANGEMENT, ownerId,
+                "Take 1.wav", "audio/wav", 1024, SHA256);
+
+        AttachmentUpload upload = slot.upload();
+        assertThat(upload.status()).isEqualTo(AttachmentUpload.STATUS_PENDING);
+        assertThat(upload.sha256()).isEqualTo(SHA256.toLowerCase());
+        assertThat(upload.stagingObject()).isEqualTo("uploads/" + upload.id());
+        assertThat(slot.uploadUrl()).isEqualTo("https://signed");
+        assertThat(slot.uploadDeadline()).isEqualTo(NOW.plus(properties.getUrlTtl()));
+        assertThat(upload.expiresAt()).isAfter(slot.uploadDeadline());
+        verify(storageService).signedUploadUrl(upload.stagingObject(), upload.sizeBytes(), properties.getUrlTtl());
+        verify(uploadMapper).insert(upload);
+    }
+
+    @Test
+    void createRejectsContentTypesOutsideTheAllowlist() {
+        assertThatThrownBy(() -> service.create(Attachment.OWNER_ARRANGEMENT, ownerId, "setup.exe",
+                "application/octet-stream", 1024, SHA256))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.create(Attachment.OWNER_ARRANGEMENT, ownerId, "any", "audio/*", 1024,
+                SHA256))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(uploadMapper, never()).insert(any());
+    }
+
+    @Test
+    void createRejectsInvalidSizeOrHash() {
+        assertThatThrownBy(() -> service.create(Attachment.OWNER_ARRANGEMENT, ownerId, "a.pdf", "application/pdf",
+                properties.getMaxSizeBytes() + 1, SHA256))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.create(Attachment.OWNER_ARRANGEMENT, ownerId, "a.pdf", "application/pdf",
+                10, "not-a-hash"))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(uploadMapper, never()).insert(any());
+    }
+
+    @Test
+    void completeIsIdempotentButRejectsExpiredSlots() {
+        AttachmentUpload completed = upload(AttachmentUpload.STATUS_COMPLETED);
+        when(uploadMapper.markVerifying(completed.id(), NOW)).thenReturn(0);
+        when(uploadMapper.findById(completed.id())).thenReturn(completed);
+        assertThat(service.complete(completed.id())).isEqualTo(completed);
+
+        AttachmentUpload expired = upload(AttachmentUpload.STATUS_PENDING);
+        when(uploadMapper.markVerifying(expired.id(), NOW)).thenReturn(0);
+        when(uploadMapper.findById(expired.id())).thenReturn(expired);
+        assertThatThrownBy(() -> service.complete(expired.id()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("expired");
+    }
+
+    private AttachmentUpload upload(String status) {
+        return new AttachmentUpload(null, Attachment.OWNER_ARRANGEMENT, ownerId, "a.pdf", "application/pdf", 10,
+                SHA256.toLowerCase(), "uploads/x", status, 0, null, NOW, null, null, NOW, NOW);
+    }
+}
@@ -0,0 +1,211 @@
+package com.homeputers.ebal2.api.attachment;
+
+import com.homeputers.ebal2.api.config.AttachmentProperties;
+import com.homeputers.ebal2.api.domain.attachment.Attachment;
+import com.homeputers.ebal2.api.domain.attachment.AttachmentUpload;
+import com.homeputers.ebal2.api.domain.attachment.AttachmentUploadMapper;
+import com.homeputers.ebal2.api.storage.StorageException;
+import com.homeputers.ebal2.api.storage.StorageObjectNotFoundException;
+import com.homeputers.ebal2.api.storage.StorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AttachmentUploadVerifierTest {
+
+    private static final Instant NOW_INSTANT = Instant.parse("2024-01-01T00:00:00Z");
+    private static final OffsetDateTime NOW = OffsetDateTime.ofInstant(NOW_INSTANT, ZoneOffset.UTC);
+    private static final byte[] PDF = "%PDF-1.7\nrehearsal chart".getBytes(StandardCharsets.US_ASCII);
+
+    @Mock
+    private AttachmentUploadMapper uploadMapper;
+
+    @Mock
+    private AttachmentService attachmentService;
+
+    @Mock
+    private StorageService storageService;
+
+    private final AttachmentProperties.DirectUpload properties = new AttachmentProperties.DirectUpload();
+    private AttachmentUploadVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        properties.setVerifyConcurrency(1);
+        properties.setMaxVerifyAttempts(3);
+        verifier = new AttachmentUploadVerifier(uploadMapper, attachmentService, storageService, properties,
+                Clock.fixed(NOW_INSTANT, ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        verifier.destroy();
+    }
+
+    @Test
+    void matchingContentIsCopiedToItsBlobAndAttached() {
+        AttachmentUpload upload = upload("application/pdf", PDF.length, sha256(PDF), 1);
+        givenClaimed(upload);
+        givenStaged(upload, PDF);
+        Attachment attachment = new Attachment(null, upload.ownerType(), upload.ownerId(), upload.fileName(),
+                upload.contentType(), upload.sizeBytes(), upload.sha256(), null);
+        when(attachmentService.attachContent(eq(upload.ownerType()), eq(upload.ownerId()), eq(upload.fileName()),
+                eq(upload.contentType()), eq(upload.sizeBytes()), eq(upload.sha256()), any()))
+                .thenReturn(attachment);
+
+        verifier.verifyDue();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Consumer<String>> store = ArgumentCaptor.forClass(Consumer.class);
+        verify(attachmentService).attachContent(anyString(), any(), anyString(), anyString(), anyLong(),
+                anyString(), store.capture());
+        store.getValue().accept("attachments/ab/blob");
+        verify(storageService).copy(upload.stagingObject(), "attachments/ab/blob");
+        verify(uploadMapper).markCompleted(upload.id(), attachment.id(), NOW);
+        verify(storageService).delete(upload.stagingObject());
+    }
+
+    @Test
+    void hashMismatchFailsTheUpload() {
+        AttachmentUpload upload = upload("application/pdf", PDF.length, "0".repeat(64), 1);
+        givenClaimed(upload);
+        givenStaged(upload, PDF);
+
+        verifier.verifyDue();
+
+        verify(uploadMapper).markFailed(eq(upload.id()), contains("SHA-256"), eq(NOW));
+        verify(storageService).delete(upload.stagingObject());
+        verify(attachmentService, never()).attachContent(any(), any(), any(), any(), anyLong(), any(), any());
+    }
+
+    @Test
+    void contentLargerThanDeclaredFailsTheUpload() {
+        AttachmentUpload upload = upload("application/pdf", PDF.length - 1, sha256(PDF), 1);
+        givenClaimed(upload);
+        givenStaged(upload, PDF);
+
+        verifier.verifyDue();
+
+        verify(uploadMapper).markFailed(eq(upload.id()), contains("more than the declared"), eq(NOW));
+    }
+
+    @Test
+    void contentThatDoesNotLookLikeItsTypeFailsTheUpload() {
+        byte[] text = "just some text, not audio".getBytes(StandardCharsets.US_ASCII);
+        AttachmentUpload upload = upload("audio/mpeg", text.length, sha256(text), 1);
+        givenClaimed(upload);
+        givenStaged(upload, text);
+
+        verifier.verifyDue();
+
+        verify(uploadMapper).markFailed(eq(upload.id()), contains("is not audio/mpeg"), eq(NOW));
+    }
+
+    @Test
+    void missingStagedObjectFailsTheUpload() {
+        AttachmentUpload upload = upload("application/pdf", PDF.length, sha256(PDF), 1);
+        givenClaimed(upload);
+        when(storageService.transferTo(eq(upload.stagingObject()), any()))
+                .thenThrow(new StorageObjectNotFoundException(upload.stagingObject(), null));
+
+        verifier.verifyDue();
+
+        verify(uploadMapper).markFailed(eq(upload.id()), eq("Nothing was uploaded"), eq(NOW));
+    }
+
+    @Test
+    void storageErrorsAreRetriedUntilAttemptsRunOut() {
+        AttachmentUpload first = upload("application/pdf", PDF.length, sha256(PDF), 1);
+        AttachmentUpload last = upload("application/pdf", PDF.length, sha256(PDF), 3);
+        when(uploadMapper.claimDue(any(), any(), eq(1)))
+                .thenReturn(List.of(first))
+                .thenReturn(List.of(last))
+                .thenReturn(List.of());
+        when(storageService.transferTo(anyString(), any()))
+                .thenThrow(new StorageException("connection reset", null));
+
+        verifier.verifyDue();
+
+        verify(uploadMapper).markRetry(eq(first.id()), eq(NOW.plusMinutes(1)), contains("connection reset"),
+                eq(NOW));
+        verify(uploadMapper).markFailed(eq(last.id()), contains("connection reset"), eq(NOW));
+        verify(storageService, never()).delete(first.stagingObject());
+        verify(storageService).delete(last.stagingObject());
+    }
+
+    @Test
+    void sweepFailsExpiredSlotsAndPurgesOldUploads() {
+        AttachmentUpload expired = upload("application/pdf", PDF.length, sha256(PDF), 0);
+        when(uploadMapper.findExpiredPending(eq(NOW), anyInt())).thenReturn(List.of(expired));
+
+        verifier.sweep();
+
+        verify(storageService).delete(expired.stagingObject());
+        verify(uploadMapper).markFailed(eq(expired.id()), contains("expired"), eq(NOW));
+        verify(uploadMapper).deleteFinishedBefore(NOW.minus(properties.getRetention()));
+    }
+
+    private void givenClaimed(AttachmentUpload upload) {
+        when(uploadMapper.claimDue(any(), any(), eq(1)))
+                .thenReturn(List.of(upload))
+                .thenReturn(List.of());
+    }
+
+    private void givenStaged(AttachmentUpload upload, byte[] content) {
+        doAnswer(invocation -> {
+            WritableByteChannel target = invocation.getArgument(1);
+            try {
+                target.write(ByteBuffer.wrap(content));
+            } catch (IOException ex) {
+                throw new StorageException("Failed to download object", ex);
+            }
+            return (long) content.length;
+        }).when(storageService).transferTo(eq(upload.stagingObject()), any());
+    }
+
+    private static AttachmentUpload upload(String contentType, long size, String sha256, int attempts) {
+        UUID id = UUID.randomUUID();
+        return new AttachmentUpload(id, Attachment.OWNER_ARRANGEMENT, UUID.randomUUID(), "chart", contentType, size,
+                sha256, "uploads/" + id, AttachmentUpload.STATUS_VERIFYING, attempts, NOW, NOW.plusHours(2), null,
+                null, NOW, NOW);
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.homeputers.ebal2.api.auth;
+
+import com.homeputers.ebal2.api.config.SecurityProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginAbuseDetectorTest {
+
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    private SecurityProperties.LoginAbuse properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SecurityProperties().getLoginAbuse();
+        properties.setWindow(Duration.ofMinutes(10));
+        properties.getIp().setDelayAfter(3);
+        properties.getIp().setBlockAfter(10);
+        properties.getEmail().setDelayAfter(3);
+        properties.getEmail().setBlockAfter(6);
+        properties.getSubnet().setDelayAfter(100);
+        properties.getSubnet().setBlockAfter(1000);
+    }
+
+    @Test
+    void delaysEscalateAndThenBlock() {
+        LoginAbuseDetector detector = new LoginAbuseDetector(properties, Clock.fixed(START, ZoneOffset.UTC));
+
+        for (int i = 0; i < 3; i++) {
+            detector.recordFailure("victim@example.com", "203.0.113.7");
+        }
+        assertThat(detector.assess("victim@example.com", "203.0.113.7").delay()).isEqualTo(Duration.ofMillis(250));
+
+        detector.recordFailure("victim@example.com", "203.0.113.7");
+        assertThat(detector.assess("victim@example.com", "203.0.113.7").delay()).isEqualTo(Duration.ofMillis(500));
+
+        detector.recordFailure("victim@example.com", "203.0.113.7");
+        detector.recordFailure("victim@example.com", "203.0.113.7");
+        assertThat(detector.assess("victim@example.com", "203.0.113.7").blocked()).isTrue();
+        assertThat(detector.assess("other@example.com", "198.51.100.1").blocked()).isFalse();
+    }
+
+    @Test
+    void detectsAttackSpreadAcrossEmailsFromOneIp() {
+        LoginAbuseDetector detector = new LoginAbuseDetector(properties, Clock.fixed(START, ZoneOffset.UTC));
+
+        for (int i = 0; i < 10; i++) {
+            detector.recordFailure("user" + i + "@example.com", "203.0.113.7");
+        }
+
+        assertThat(detector.assess("fresh@example.com", "203.0.113.7").blocked()).isTrue();
+    }
+
+    @Test
+    void failuresAgeOutOverTwoWindows() {
+        MutableClock clock = new MutableClock(START);
+        LoginAbuseDetector detector = new LoginAbuseDetector(properties, clock);
+        for (int i = 0; i < 6; i++) {
+            detector.recordFailure("victim@example.com", "203.0.113.7");
+        }
+        assertThat(detector.assess("victim@example.com", "203.0.113.7").blocked()).isTrue();
+
+        clock.now = START.plus(Duration.ofMinutes(15));
+        assertThat(detector.assess("victim@example.com", "203.0.113.7").blocked()).isFalse();
+
+        clock.now = START.plus(Duration.ofMinutes(20));
+        assertThat(detector.assess("victim@example.com", "203.0.113.7").delay()).isZero();
+    }
+
+    @Test
+    void failuresAgainstOneEmailFromManySourcesOnlyDelay() {
+        LoginAbuseDetector detector = new LoginAbuseDetector(properties, Clock.fixed(START, ZoneOffset.UTC));
+
+        for (int i = 0; i < 50; i++) {
+            detector.recordFailure("victim@example.com", "198.51." + i + ".1");
+        }
+
+        LoginAbuseDetector.Assessment owner = detector.assess("victim@example.com", "203.0.113.7");
+        assertThat(owner.blocked()).isFalse();
+        assertThat(owner.delay()).isEqualTo(properties.getMaxDelay());
+    }
+
+    @Test
+    void sharedSubnetsAreNeverBlocked() {
+        properties.getSubnet().setDelayAfter(3);
+        properties.getSubnet().setBlockAfter(5);
+        LoginAbuseDetector detector = new LoginAbuseDetector(properties, Clock.fixed(START, ZoneOffset.UTC));
+
+        for (int i = 0; i < 20; i++) {
+            detector.recordFailure("user" + i + "@example.com", "203.0.113." + i);
+        }
+
+        assertThat(detector.assess("fresh@example.com", "203.0.113.200").blocked()).isFalse();
+    }
+
+    @Test
+    void blocksTellClientsWhenToRetry() {
+        LoginAbuseDetector detector = new LoginAbuseDetector(properties, Clock.fixed(START, ZoneOffset.UTC));
+        for (int i = 0; i < 10; i++) {
+            detector.recordFailure("user" + i + "@example.com", "203.0.113.7");
+        }
+
+        assertThat(detector.assess("fresh@example.com", "203.0.113.7").retryAfter()).isEqualTo(Duration.ofMinutes(10));
+    }
+
+    @Test
+    void listsTopOffendersAcrossDimensions() {
+        LoginAbuseDetector detector = new LoginAbuseDetector(properties, Clock.fixed(START, ZoneOffset.UTC));
+        for (int i = 0; i < 4; i++) {
+            detector.recordFailure("victim@example.com", "203.0.113." + i);
+        }
+
+        List<LoginAbuseDetector.Offender> offenders = detector.topOffenders(2);
+
+        assertThat(offenders).hasSize(2);
+        assertThat(offenders).extracting(LoginAbuseDetector.Offender::key)
+                .containsExactlyInAnyOrder("victim@example.com", "203.0.113.0/24");
+        assertThat(offenders.get(0).estimatedFailures()).isEqualTo(4);
+    }
+
+    @Test
+    void computesSubnets() {
+        assertThat(LoginAbuseDetector.subnetOf("203.0.113.77")).isEqualTo("203.0.113.0/24");
+        assertThat(LoginAbuseDetector.subnetOf("2001:db8:1:2:3:4:5:6")).isEqualTo("2001:db8:1:2::/64");
+        assertThat(LoginAbuseDetector.subnetOf("example.com")).isNull();
+        assertThat(LoginAbuseDetector.subnetOf("unknown")).isNull();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.homeputers.ebal2.api.batch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchGetTest {
+
+    private record Named(UUID id, String name) {
+    }
+
+    @Test
+    void resultsFollowRequestOrderWithMarkersForMissingIds() {
+        Named first = new Named(UUID.randomUUID(), "first");
+        Named second = new Named(UUID.randomUUID(), "second");
+        UUID missing = UUID.randomUUID();
+        List<UUID> ids = List.of(second.id(), missing, first.id(), second.id());
+
+        List<BatchGet.Result<Named>> results = BatchGet.inRequestOrder(ids, List.of(first, second), Named::id);
+
+        assertThat(results).extracting(BatchGet.Result::id).containsExactlyElementsOf(ids);
+        assertThat(results).extracting(BatchGet.Result::found).containsExactly(true, false, true, true);
+        assertThat(results.get(0).value()).isSameAs(second);
+        assertThat(results.get(1).value()).isNull();
+    }
+
+    @Test
+    void looksUpEachIdOnce() {
+        UUID id = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+
+        assertThat(BatchGet.distinctIds(List.of(id, other, id))).containsExactly(id, other);
+    }
+
+    @Test
+    void rejectsEmptyOversizedAndNullRequests() {
+        List<UUID> tooMany = new ArrayList<>();
+        for (int i = 0; i <= BatchGet.MAX_IDS; i++) {
+            tooMany.add(UUID.randomUUID());
+        }
+
+        assertThatThrownBy(() -> BatchGet.distinctIds(List.of())).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BatchGet.distinctIds(tooMany)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BatchGet.distinctIds(Collections.singletonList(null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
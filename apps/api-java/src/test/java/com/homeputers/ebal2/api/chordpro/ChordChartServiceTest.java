@@ -0,0 +1,106 @@
+package com.homeputers.ebal2.api.chordpro;
+
+import com.homeputers.ebal2.api.config.ChordProProperties;
+import com.homeputers.ebal2.api.domain.arrangement.Arrangement;
+import com.homeputers.ebal2.api.domain.songsetitem.SongSetItem;
+import com.homeputers.ebal2.api.song.SongService;
+import com.homeputers.ebal2.api.songsetitem.SongSetItemService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChordChartServiceTest {
+
+    private static final UUID ARRANGEMENT_ID = UUID.randomUUID();
+
+    @Mock
+    private SongService songService;
+
+    @Mock
+    private SongSetItemService songSetItemService;
+
+    private ChordChartService service;
+
+    @BeforeEach
+    void setUp() {
+        ChordProProperties properties = new ChordProProperties();
+        properties.setRenderCacheMaxEntries(2);
+        service = new ChordChartService(songService, songSetItemService, properties);
+    }
+
+    @Test
+    void reusesRenderingsUntilTheArrangementChanges() {
+        when(songService.getArrangement(ARRANGEMENT_ID, false))
+                .thenReturn(arrangement(0, null), arrangement(0, null), arrangement(1, null));
+        when(songService.getArrangement(ARRANGEMENT_ID))
+                .thenReturn(arrangement(0, "[G]One"), arrangement(1, "[C]Two"));
+
+        RenderedChart first = service.renderArrangement(ARRANGEMENT_ID, 2, null, null, null).rendered();
+        RenderedChart second = service.renderArrangement(ARRANGEMENT_ID, 2, null, null, null).rendered();
+        RenderedChart updated = service.renderArrangement(ARRANGEMENT_ID, 2, null, null, null).rendered();
+
+        assertThat(second).isSameAs(first);
+        assertThat(updated.lines().get(0).chords()).containsExactly("D");
+        verify(songService, times(2)).getArrangement(ARRANGEMENT_ID);
+    }
+
+    @Test
+    void cacheEvictsTheLeastRecentlyReadChart() {
+        ChordChartCache cache = new ChordChartCache(2);
+        RenderedChart first = chart();
+        RenderedChart second = chart();
+        RenderedChart replacement = chart();
+
+        cache.get(key(0), () -> first);
+        cache.get(key(1), () -> second);
+        cache.get(key(0), ChordChartServiceTest::chart);
+        cache.get(key(2), ChordChartServiceTest::chart);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(key(0), ChordChartServiceTest::chart)).isSameAs(first);
+        assertThat(cache.get(key(1), () -> replacement)).isSameAs(replacement);
+    }
+
+    @Test
+    void songSetItemsDefaultToTheirPlannedTransposeAndCapo() {
+        UUID itemId = UUID.randomUUID();
+        when(songSetItemService.get(itemId))
+                .thenReturn(new SongSetItem(itemId, null, arrangement(0, "[G]One"), 1, 2, 2));
+
+        ChordChartService.Chart planned = service.renderSongSetItem(itemId, null, null, null, ChartFormat.JSON);
+        ChordChartService.Chart overridden = service.renderSongSetItem(itemId, 0, 0, null, ChartFormat.JSON);
+
+        assertThat(planned.rendered().soundingKey()).isEqualTo("A");
+        assertThat(planned.rendered().playedKey()).isEqualTo("G");
+        assertThat(overridden.rendered().soundingKey()).isEqualTo("G");
+    }
+
+    @Test
+    void rejectsCapoOutsideTheNeck() {
+        assertThatThrownBy(() -> service.render(arrangement(0, ""), 0, 12, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ChordChartCache.Key key(int transpose) {
+        return new ChordChartCache.Key(ARRANGEMENT_ID, 0, transpose, 0, ChordNotation.LETTERS, ChartFormat.TEXT);
+    }
+
+    private static RenderedChart chart() {
+        return new RenderedChart(null, null, null, null, "", null);
+    }
+
+    private static Arrangement arrangement(int version, String chordpro) {
+        return new Arrangement(ARRANGEMENT_ID, null, "G", 72, "4/4", chordpro, version);
+    }
+}
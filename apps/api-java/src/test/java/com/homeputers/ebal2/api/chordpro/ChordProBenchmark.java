@@ -0,0 +1,93 @@
+package com.homeputers.ebal2.api.chordpro;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-benchmark for parsing and rendering an uncached chart of typical size (four verses, a chorus and a bridge,
+ * about 3 KB). Not part of the test suite; run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.homeputers.ebal2.api.chordpro.ChordProBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChordProBenchmark {
+
+    private static final String VERSE = """
+            [G]Amazing [G7]grace, how [C]sweet the [G]sound
+            That [G]saved a [Em]wretch like [D]me
+            I [G]once was [G7]lost, but [C]now am [G]found
+            Was [Em]blind but [D/F#]now I [G]see
+            """;
+
+    private static final String CHORUS = """
+            {start_of_chorus: Chorus}
+            My [C]chains are [G]gone, I've been [Em7]set [D]free
+            My [C]God, my [G]Savior has [Am7]ransomed [D]me
+            And [C]like a [G]flood His [Em]mercy [C]reigns
+            Un[G]ending [D]love, a[Em]mazing [C]grace
+            {end_of_chorus}
+            """;
+
+    @Param({"0", "3"})
+    private int transpose;
+
+    @Param({"0", "2"})
+    private int capo;
+
+    @Param({"HTML", "TEXT", "JSON"})
+    private ChartFormat format;
+
+    private String source;
+    private ChordChart chart;
+
+    @Setup
+    public void setUp() {
+        StringBuilder chart = new StringBuilder("{title: Amazing Grace}\n{subtitle: John Newton}\n{key: G}\n\n");
+        for (int verse = 1; verse <= 4; verse++) {
+            chart.append("{start_of_verse: Verse ").append(verse).append("}\n").append(VERSE)
+                    .append("{end_of_verse}\n\n").append(CHORUS).append('\n');
+        }
+        chart.append("{start_of_bridge}\n{c: Slowly}\n").append(VERSE).append("{end_of_bridge}\n");
+        source = chart.toString();
+        this.chart = ChordProParser.parse(source);
+    }
+
+    @Benchmark
+    public ChordChart parse() {
+        return ChordProParser.parse(source);
+    }
+
+    @Benchmark
+    public RenderedChart parseAndRender() {
+        return ChordProRenderer.render(ChordProParser.parse(source), "G", transpose, capo, ChordNotation.LETTERS,
+                format);
+    }
+
+    @Benchmark
+    public RenderedChart renderNashville() {
+        return ChordProRenderer.render(chart, "G", transpose, capo, ChordNotation.NASHVILLE, format);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ChordProBenchmark.class.getSimpleName()).build()).run();
+    }
+}
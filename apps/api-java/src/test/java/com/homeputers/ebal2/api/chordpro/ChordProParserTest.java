@@ -0,0 +1,85 @@
+package com.homeputers.ebal2.api.chordpro;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChordProParserTest {
+
+    @Test
+    void liftsChordsOutOfLyrics() {
+        ChordChart chart = ChordProParser.parse("[G]Amazing [G7]grace, how [C]sweet the [G]sound");
+
+        ChordChart.Line line = chart.lines().get(0);
+        assertThat(line.type()).isEqualTo(ChordChart.LineType.LYRICS);
+        assertThat(line.text()).isEqualTo("Amazing grace, how sweet the sound");
+        assertThat(line.positions()).containsExactly(0, 8, 19, 29);
+        assertThat(Arrays.stream(line.chords()).map(Chord::text)).containsExactly("G", "G7", "C", "G");
+    }
+
+    @Test
+    void readsMetadataSectionsAndComments() {
+        ChordChart chart = ChordProParser.parse("""
+                {title: Amazing Grace}
+                {st: John Newton}
+                {key: G}
+                # not rendered
+                {start_of_chorus: Chorus 2}
+                [G]Grace
+                {eoc}
+
+                {c: Repeat}
+                """);
+
+        assertThat(chart.title()).isEqualTo("Amazing Grace");
+        assertThat(chart.subtitle()).isEqualTo("John Newton");
+        assertThat(chart.key()).isEqualTo("G");
+        assertThat(chart.lines()).extracting(ChordChart.Line::type).containsExactly(
+                ChordChart.LineType.SECTION_START,
+                ChordChart.LineType.LYRICS,
+                ChordChart.LineType.SECTION_END,
+                ChordChart.LineType.EMPTY,
+                ChordChart.LineType.COMMENT);
+        assertThat(chart.lines().get(0).text()).isEqualTo("Chorus 2");
+        assertThat(chart.lines().get(1).section()).isEqualTo("chorus");
+        assertThat(chart.lines().get(3).section()).isNull();
+        assertThat(chart.lines().get(4).text()).isEqualTo("Repeat");
+    }
+
+    @Test
+    void keepsTabSectionsVerbatim() {
+        ChordChart chart = ChordProParser.parse("{sot}\ne|--[0]--|\n{title: not a title}\n{eot}\r\n[D]Done");
+
+        assertThat(chart.lines().get(1).type()).isEqualTo(ChordChart.LineType.TAB);
+        assertThat(chart.lines().get(1).text()).isEqualTo("e|--[0]--|");
+        assertThat(chart.lines().get(2).text()).isEqualTo("{title: not a title}");
+        assertThat(chart.title()).isNull();
+        assertThat(chart.lines().get(4).text()).isEqualTo("Done");
+    }
+
+    @Test
+    void keepsMalformedMarkupAsText() {
+        ChordChart chart = ChordProParser.parse("{title: broken\nOpen [bracket and [] empty");
+
+        assertThat(chart.lines()).extracting(ChordChart.Line::text)
+                .containsExactly("{title: broken", "Open [bracket and  empty");
+        assertThat(chart.lines().get(1).chordCount()).isZero();
+    }
+
+    @Test
+    void splitsChordSymbols() {
+        Chord slash = Chord.parse("Bbmaj7/D");
+        assertThat(slash.root()).isEqualTo(10);
+        assertThat(slash.flat()).isTrue();
+        assertThat(slash.suffix()).isEqualTo("maj7");
+        assertThat(slash.bass()).isEqualTo(2);
+
+        Chord sixNine = Chord.parse("C6/9");
+        assertThat(sixNine.suffix()).isEqualTo("6/9");
+        assertThat(sixNine.bass()).isEqualTo(-1);
+
+        assertThat(Chord.parse("N.C.").transposable()).isFalse();
+    }
+}
@@ -0,0 +1,99 @@
+package com.homeputers.ebal2.api.chordpro;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChordProRendererTest {
+
+    private static final String CHART = """
+            {title: Test <Song>}
+            {soc}
+            [G]Amazing [D/F#]grace, how [Em7]sweet
+            {eoc}
+            [N.C.]Sound
+            """;
+
+    @Test
+    void keepsChordsAsWrittenWithoutTransposition() {
+        assertThat(chords("[Bb]One [A#]two", "F", 0, 0, ChordNotation.LETTERS)).containsExactly("Bb", "A#");
+    }
+
+    @Test
+    void transposesIntoTheSpellingOfTheTargetKey() {
+        assertThat(chords(CHART, "G", 3, 0, ChordNotation.LETTERS))
+                .containsExactly("Bb", "F/A", "Gm7", "N.C.");
+        assertThat(chords(CHART, "G", -1, 0, ChordNotation.LETTERS))
+                .containsExactly("F#", "C#/F", "D#m7", "N.C.");
+    }
+
+    @Test
+    void capoLowersTheShapesButNotTheSoundingKey() {
+        RenderedChart chart = render(CHART, "A", 0, 2, ChordNotation.LETTERS, ChartFormat.JSON);
+
+        assertThat(chart.soundingKey()).isEqualTo("A");
+        assertThat(chart.playedKey()).isEqualTo("G");
+        assertThat(chords(CHART, "A", 0, 2, ChordNotation.LETTERS)).containsExactly("F", "C/E", "Dm7", "N.C.");
+    }
+
+    @Test
+    void usesTheKeyDirectiveWhenTheArrangementHasNone() {
+        RenderedChart chart = render("{key: Dm}\n[Dm]x", null, 2, 0, ChordNotation.LETTERS, ChartFormat.JSON);
+
+        assertThat(chart.soundingKey()).isEqualTo("Em");
+    }
+
+    @Test
+    void rendersNashvilleNumbersRelativeToTheKey() {
+        assertThat(chords(CHART, "G", 5, 3, ChordNotation.NASHVILLE)).containsExactly("1", "5/7", "6m7", "N.C.");
+        assertThatThrownBy(() -> render(CHART, null, 0, 0, ChordNotation.NASHVILLE, ChartFormat.JSON))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rendersAlignedText() {
+        String text = render(CHART, "G", 0, 0, ChordNotation.LETTERS, ChartFormat.TEXT).content();
+
+        assertThat(text).isEqualTo("""
+                Test <Song>
+
+                Chorus:
+                G       D/F#       Em7
+                Amazing grace, how sweet
+                N.C.
+                Sound
+                """);
+    }
+
+    @Test
+    void pushesLyricsRightWhenChordsCollide() {
+        String text = render("[Cmaj7]A[G]men", null, 0, 0, ChordNotation.LETTERS, ChartFormat.TEXT).content();
+
+        assertThat(text).isEqualTo("Cmaj7 G\nA     men\n");
+    }
+
+    @Test
+    void rendersEscapedHtml() {
+        String html = render(CHART, "G", 0, 0, ChordNotation.LETTERS, ChartFormat.HTML).content();
+
+        assertThat(html).contains("<h1 class=\"title\">Test &lt;Song&gt;</h1>")
+                .contains("<section class=\"chorus\">")
+                .contains("<span class=\"segment\"><span class=\"chord\">D/F#</span>"
+                        + "<span class=\"lyrics\">grace, how </span></span>")
+                .contains("</section>");
+    }
+
+    private static List<String> chords(String source, String key, int transpose, int capo, ChordNotation notation) {
+        return render(source, key, transpose, capo, notation, ChartFormat.JSON).lines().stream()
+                .flatMap(line -> List.of(line.chords()).stream())
+                .toList();
+    }
+
+    private static RenderedChart render(String source, String key, int transpose, int capo, ChordNotation notation,
+                                        ChartFormat format) {
+        return ChordProRenderer.render(ChordProParser.parse(source), key, transpose, capo, notation, format);
+    }
+}
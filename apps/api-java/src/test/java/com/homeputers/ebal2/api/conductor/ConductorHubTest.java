@@ -0,0 +1,123 @@
+package com.homeputers.ebal2.api.conductor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeputers.ebal2.api.config.ConductorProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConductorHubTest {
+
+    private final UUID serviceId = UUID.randomUUID();
+    private final UUID itemId = UUID.randomUUID();
+
+    @Test
+    void replaysMissedPositionsOrOnlyTheLatestWhenTheGapLeftTheRing() {
+        ConductorHub hub = hub(4);
+        RecordingSink leader = new RecordingSink(true);
+        hub.join(serviceId, leader, true, null);
+        for (int i = 1; i <= 6; i++) {
+            hub.publish(serviceId, new ConductorPosition(itemId, "Verse " + i, null), "leader@example.com");
+        }
+
+        RecordingSink resumed = new RecordingSink(true);
+        hub.join(serviceId, resumed, false, 4L);
+        RecordingSink tooOld = new RecordingSink(true);
+        hub.join(serviceId, tooOld, false, 1L);
+
+        assertThat(resumed.frames).singleElement().asString()
+                .startsWith("{\"type\":\"replay\",\"seq\":6,")
+                .contains("\"section\":\"Verse 5\"", "\"section\":\"Verse 6\"")
+                .doesNotContain("Verse 4");
+        assertThat(tooOld.frames).singleElement().asString()
+                .contains("\"seq\":6,\"itemId\"")
+                .doesNotContain("Verse 5");
+    }
+
+    @Test
+    void coalescesPositionsWhileASendIsInFlight() {
+        ConductorHub hub = hub(64);
+        RecordingSink slow = new RecordingSink(false);
+        hub.join(serviceId, slow, false, null);
+
+        for (int i = 1; i <= 5; i++) {
+            hub.publish(serviceId, new ConductorPosition(itemId, "Chorus", i), "leader@example.com");
+        }
+        slow.completeAll();
+
+        assertThat(slow.frames).hasSize(2);
+        assertThat(slow.frames.get(0)).startsWith("{\"type\":\"replay\"");
+        assertThat(slow.frames.get(1)).contains("\"seq\":5", "\"bar\":5");
+    }
+
+    @Test
+    void closesFollowersThatStopReading() {
+        ConductorHub hub = hub(64);
+        RecordingSink stalled = new RecordingSink(false);
+        ConductorFollower follower = hub.join(serviceId, stalled, false, null);
+
+        for (int i = 0; i < 10; i++) {
+            hub.heartbeat();
+        }
+
+        assertThat(follower.isClosed()).isTrue();
+        assertThat(stalled.closeReason).isNotNull();
+    }
+
+    @Test
+    void rejectsPositionsWithoutAnItem() {
+        ConductorHub hub = hub(64);
+        hub.join(serviceId, new RecordingSink(true), true, null);
+
+        assertThatThrownBy(() -> hub.publish(serviceId, new ConductorPosition(null, "Bridge", null), "leader"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ConductorHub hub(int ringSize) {
+        ConductorProperties properties = new ConductorProperties();
+        properties.setRingSize(ringSize);
+        return new ConductorHub(new ObjectMapper().findAndRegisterModules(), properties,
+                Clock.fixed(Instant.parse("2024-05-05T10:00:00Z"), ZoneOffset.UTC));
+    }
+
+    private static final class RecordingSink implements ConductorFollower.Sink {
+        private final boolean completeImmediately;
+        private final List<String> frames = new ArrayList<>();
+        private final List<Consumer<Boolean>> pending = new ArrayList<>();
+        private String closeReason;
+
+        private RecordingSink(boolean completeImmediately) {
+            this.completeImmediately = completeImmediately;
+        }
+
+        @Override
+        public void send(String frame, Consumer<Boolean> onDone) {
+            frames.add(frame);
+            if (completeImmediately) {
+                onDone.accept(true);
+            } else {
+                pending.add(onDone);
+            }
+        }
+
+        @Override
+        public void close(String reason) {
+            closeReason = reason;
+        }
+
+        private void completeAll() {
+            while (!pending.isEmpty()) {
+                pending.remove(0).accept(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.homeputers.ebal2.api.domain.email;
+
+import com.homeputers.ebal2.api.AbstractIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "ebal.mail.outbox.enabled=false")
+class EmailOutboxMapperTest extends AbstractIntegrationTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2024, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    private EmailOutboxMapper outboxMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void markFailedClearsThePayload() {
+        EmailOutboxMessage message = message(NOW);
+        outboxMapper.insert(message);
+
+        outboxMapper.markFailed(message.id(), "SMTP said no");
+
+        assertThat(jdbcTemplate.queryForObject(
+                "select payload::text from email_outbox where id = ?", String.class, message.id())).isNull();
+        assertThat(jdbcTemplate.queryForObject(
+                "select status from email_outbox where id = ?", String.class, message.id())).isEqualTo("FAILED");
+    }
+
+    @Test
+    void retentionDeletesOldFailedMessages() {
+        EmailOutboxMessage oldFailure = message(NOW.minusDays(10));
+        EmailOutboxMessage recentFailure = message(NOW.minusDays(1));
+        EmailOutboxMessage pending = message(NOW.minusDays(10));
+        outboxMapper.insert(oldFailure);
+        outboxMapper.insert(recentFailure);
+        outboxMapper.insert(pending);
+        outboxMapper.markFailed(oldFailure.id(), "gave up");
+        outboxMapper.markFailed(recentFailure.id(), "gave up");
+
+        assertThat(outboxMapper.deleteFinishedBefore(NOW.minusDays(7))).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("select id from email_outbox", UUID.class))
+                .containsExactlyInAnyOrder(recentFailure.id(), pending.id());
+    }
+
+    private static EmailOutboxMessage message(OffsetDateTime createdAt) {
+        return new EmailOutboxMessage(null, "PASSWORD_RESET", "user@example.com", "en",
+                "{\"token\":\"secret\"}", UUID.randomUUID().toString(), null, 0, null, null, createdAt, null);
+    }
+}
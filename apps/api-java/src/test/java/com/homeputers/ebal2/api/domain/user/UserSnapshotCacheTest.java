@@ -0,0 +1,128 @@
+package com.homeputers.ebal2.api.domain.user;
+
+import com.homeputers.ebal2.api.config.UserCacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserSnapshotCacheTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private UserRoleMapper userRoleMapper;
+
+    private final UserCacheProperties properties = new UserCacheProperties();
+    private final AtomicLong clock = new AtomicLong();
+    private UserSnapshotCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserSnapshotCache(userMapper, userRoleMapper, properties, clock::get);
+    }
+
+    @Test
+    void servesRepeatedReadsFromCache() {
+        when(userMapper.findById(USER_ID)).thenReturn(user(1));
+        when(userRoleMapper.findRolesByUserId(USER_ID)).thenReturn(List.of("ADMIN"));
+
+        cache.get(USER_ID);
+        UserSnapshot snapshot = cache.get(USER_ID);
+
+        assertThat(snapshot.roles()).containsExactly("ADMIN");
+        verify(userMapper, times(1)).findById(USER_ID);
+        verify(userRoleMapper, times(1)).findRolesByUserId(USER_ID);
+    }
+
+    @Test
+    void reloadsAfterInvalidation() {
+        when(userMapper.findById(USER_ID)).thenReturn(user(1), user(2));
+        when(userRoleMapper.findRolesByUserId(USER_ID)).thenReturn(List.of("VIEWER"));
+
+        cache.get(USER_ID);
+        cache.invalidate(USER_ID);
+
+        assertThat(cache.get(USER_ID).version()).isEqualTo(2);
+    }
+
+    @Test
+    void keepsEntriesAlreadyAtTheInvalidatedVersion() {
+        when(userMapper.findById(USER_ID)).thenReturn(user(3));
+        when(userRoleMapper.findRolesByUserId(USER_ID)).thenReturn(List.of());
+
+        cache.get(USER_ID);
+        cache.invalidate(USER_ID, 3L);
+        assertThat(cache.size()).isEqualTo(1);
+
+        cache.invalidate(USER_ID, 4L);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void doesNotCacheLoadRacingWithInvalidation() {
+        when(userMapper.findById(USER_ID)).thenAnswer(invocation -> {
+            cache.invalidate(USER_ID);
+            return user(1);
+        });
+        when(userRoleMapper.findRolesByUserId(USER_ID)).thenReturn(List.of());
+
+        assertThat(cache.get(USER_ID)).isNotNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() {
+        properties.setTtl(Duration.ofSeconds(30));
+        when(userMapper.findById(USER_ID)).thenReturn(user(1));
+        when(userRoleMapper.findRolesByUserId(USER_ID)).thenReturn(List.of());
+
+        cache.get(USER_ID);
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        cache.get(USER_ID);
+
+        verify(userMapper, times(2)).findById(USER_ID);
+    }
+
+    @Test
+    void staysWithinMaxEntries() {
+        properties.setMaxEntries(2);
+        when(userMapper.findById(any())).thenAnswer(invocation -> user(1));
+        when(userRoleMapper.findRolesByUserId(any())).thenReturn(List.of());
+
+        for (int i = 0; i < 5; i++) {
+            clock.incrementAndGet();
+            cache.get(UUID.randomUUID());
+        }
+
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void returnsNullForUnknownUser() {
+        assertThat(cache.get(USER_ID)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    private static User user(int version) {
+        OffsetDateTime now = OffsetDateTime.now();
+        return new User(USER_ID, "user@example.com", "User", null, "hash", true, now, now, version);
+    }
+}
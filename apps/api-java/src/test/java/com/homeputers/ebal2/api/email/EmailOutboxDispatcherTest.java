@@ -0,0 +1,151 @@
+package com.homeputers.ebal2.api.email;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeputers.ebal2.api.config.MailProperties;
+import com.homeputers.ebal2.api.domain.email.EmailOutboxMapper;
+import com.homeputers.ebal2.api.domain.email.EmailOutboxMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmailOutboxDispatcherTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Mock
+    private EmailOutboxMapper outboxMapper;
+
+    @Mock
+    private EmailSender deliverySender;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MailProperties.Outbox properties = new MailProperties.Outbox();
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        properties.setBatchSize(2);
+        properties.setMaxAttempts(3);
+        dispatcher = new EmailOutboxDispatcher(outboxMapper, deliverySender, objectMapper, properties,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.destroy();
+    }
+
+    @Test
+    void queuedMessagesAreDeliveredThroughTheRealSender() throws Exception {
+        OutboxEmailSender outbox = new OutboxEmailSender(outboxMapper, objectMapper);
+        ArgumentCaptor<EmailOutboxMessage> queued = ArgumentCaptor.forClass(EmailOutboxMessage.class);
+        when(outboxMapper.insert(queued.capture())).thenReturn(1);
+        outbox.sendUserInvitationEmail("new@example.com", "New User", "Temp123!", Locale.GERMAN);
+        outbox.sendPasswordResetEmail("reset@example.com", "http://localhost/reset?token=abc", Locale.ENGLISH);
+        List<EmailOutboxMessage> claimed = queued.getAllValues().stream().map(message -> claimed(message, 1)).toList();
+        when(outboxMapper.claimDue(any(), any(), eq(2))).thenReturn(claimed, List.of());
+
+        dispatcher.dispatch();
+
+        verify(deliverySender).sendUserInvitationEmail("new@example.com", "New User", "Temp123!", Locale.GERMAN);
+        verify(deliverySender).sendPasswordResetEmail("reset@example.com", "http://localhost/reset?token=abc",
+                Locale.ENGLISH);
+        verify(outboxMapper).markSent(claimed.get(0).id(), OffsetDateTime.ofInstant(NOW, ZoneOffset.UTC));
+        verify(outboxMapper).markSent(claimed.get(1).id(), OffsetDateTime.ofInstant(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void failedSendIsRetriedWithBackoff() throws Exception {
+        EmailOutboxMessage message = message(2);
+        when(outboxMapper.claimDue(any(), any(), anyInt())).thenReturn(List.of(message));
+        doThrow(new MailSendException("smtp down"))
+                .when(deliverySender).sendPasswordResetEmail(anyString(), anyString(), any());
+
+        dispatcher.dispatchBatch();
+
+        OffsetDateTime expectedRetry = OffsetDateTime.ofInstant(NOW, ZoneOffset.UTC).plusSeconds(60);
+        verify(outboxMapper).markRetry(eq(message.id()), eq(expectedRetry), anyString());
+        verify(outboxMapper, never()).markSent(any(), any());
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() throws Exception {
+        EmailOutboxMessage message = message(3);
+        when(outboxMapper.claimDue(any(), any(), anyInt())).thenReturn(List.of(message));
+        doThrow(new MailSendException("smtp down"))
+                .when(deliverySender).sendPasswordResetEmail(anyString(), anyString(), any());
+
+        dispatcher.dispatchBatch();
+
+        verify(outboxMapper).markFailed(eq(message.id()), anyString());
+        verify(outboxMapper, never()).markRetry(any(), any(), any());
+    }
+
+    @Test
+    void unreadableMessagesFailWithoutRetry() throws Exception {
+        EmailOutboxMessage message = new EmailOutboxMessage(null, "NEWSLETTER", "someone@example.com", "en", "{}",
+                "key", EmailOutboxMessage.STATUS_SENDING, 1, null, null, null, null);
+        when(outboxMapper.claimDue(any(), any(), anyInt())).thenReturn(List.of(message));
+
+        dispatcher.dispatchBatch();
+
+        verify(outboxMapper).markFailed(eq(message.id()), anyString());
+    }
+
+    @Test
+    void backoffDoublesUpToTheCap() {
+        properties.setInitialBackoff(Duration.ofSeconds(30));
+        properties.setMaxBackoff(Duration.ofMinutes(5));
+
+        assertThat(dispatcher.backoff(1)).isEqualTo(Duration.ofSeconds(30));
+        assertThat(dispatcher.backoff(2)).isEqualTo(Duration.ofSeconds(60));
+        assertThat(dispatcher.backoff(4)).isEqualTo(Duration.ofSeconds(240));
+        assertThat(dispatcher.backoff(5)).isEqualTo(Duration.ofMinutes(5));
+        assertThat(dispatcher.backoff(100)).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    @Test
+    void identicalMessagesShareADedupeKey() {
+        String first = OutboxEmailSender.dedupeKey(EmailKind.PASSWORD_RESET, "a@example.com", "en", "{\"url\":\"x\"}");
+        String second = OutboxEmailSender.dedupeKey(EmailKind.PASSWORD_RESET, "a@example.com", "en", "{\"url\":\"x\"}");
+        String other = OutboxEmailSender.dedupeKey(EmailKind.PASSWORD_RESET, "a@example.com", "en", "{\"url\":\"y\"}");
+
+        assertThat(first).isEqualTo(second).isNotEqualTo(other);
+    }
+
+    private static EmailOutboxMessage message(int attempts) {
+        return new EmailOutboxMessage(null, EmailKind.PASSWORD_RESET.name(), "reset@example.com", "en",
+                "{\"url\":\"http://localhost/reset?token=abc\"}", "key", EmailOutboxMessage.STATUS_SENDING, attempts,
+                null, null, null, null);
+    }
+
+    private static EmailOutboxMessage claimed(EmailOutboxMessage queued, int attempts) {
+        return new EmailOutboxMessage(queued.id(), queued.kind(), queued.recipient(), queued.locale(),
+                queued.payload(), queued.dedupeKey(), EmailOutboxMessage.STATUS_SENDING, attempts, null, null,
+                queued.createdAt(), null);
+    }
+}
@@ -0,0 +1,108 @@
+package com.homeputers.ebal2.api.email;
+
+import com.homeputers.ebal2.api.config.MailProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PooledSmtpTransportTest {
+
+    private SmtpStubServer server;
+    private final MailProperties.Smtp smtp = new MailProperties.Smtp();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new SmtpStubServer();
+        smtp.setEnabled(true);
+        smtp.setHost("127.0.0.1");
+        smtp.setPort(server.port());
+        smtp.setAuth(false);
+        smtp.setStartTls(false);
+        smtp.setFromAddress("band@example.com");
+        smtp.setPoolSize(2);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.close();
+    }
+
+    @Test
+    void reusesOneConnectionAcrossBatches() {
+        try (PooledSmtpTransport transport = new PooledSmtpTransport(smtp)) {
+            List<DeliveryResult> first = transport.send(emails(0, 5));
+            List<DeliveryResult> second = transport.send(emails(5, 5));
+
+            assertThat(first).allMatch(DeliveryResult::sent);
+            assertThat(second).allMatch(DeliveryResult::sent);
+            assertThat(server.messages()).hasSize(10);
+            assertThat(server.connections()).isEqualTo(1);
+            assertThat(transport.idleConnections()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void rejectedRecipientOnlyFailsThatMessage() {
+        try (PooledSmtpTransport transport = new PooledSmtpTransport(smtp)) {
+            List<DeliveryResult> results = transport.send(List.of(
+                    new OutgoingEmail("one@example.com", "Hi", "Body"),
+                    new OutgoingEmail("reject@example.com", "Hi", "Body"),
+                    new OutgoingEmail("three@example.com", "Hi", "Body")));
+
+            assertThat(results).extracting(DeliveryResult::sent).containsExactly(true, false, true);
+            assertThat(results.get(1).error()).isNotBlank();
+            assertThat(server.messages()).hasSize(2);
+            assertThat(server.connections()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void concurrentBatchesNeverExceedPoolSize() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (PooledSmtpTransport transport = new PooledSmtpTransport(smtp)) {
+            List<Future<List<DeliveryResult>>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                int offset = i * 10;
+                futures.add(executor.submit(() -> transport.send(emails(offset, 10))));
+            }
+            for (Future<List<DeliveryResult>> future : futures) {
+                assertThat(future.get()).allMatch(DeliveryResult::sent);
+            }
+
+            assertThat(server.messages()).hasSize(160);
+            assertThat(server.maxOpenConnections()).isLessThanOrEqualTo(2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void replacesConnectionsIdleLongerThanTheTimeout() {
+        AtomicLong now = new AtomicLong();
+        smtp.setIdleTimeout(Duration.ofSeconds(30));
+        try (PooledSmtpTransport transport = new PooledSmtpTransport(smtp, now::get)) {
+            transport.send(emails(0, 1));
+            now.addAndGet(Duration.ofSeconds(31).toNanos());
+            transport.send(emails(1, 1));
+
+            assertThat(server.connections()).isEqualTo(2);
+        }
+    }
+
+    private static List<OutgoingEmail> emails(int offset, int count) {
+        return IntStream.range(offset, offset + count)
+                .mapToObj(i -> new OutgoingEmail("member" + i + "@example.com", "Rehearsal", "See you at 7."))
+                .toList();
+    }
+}
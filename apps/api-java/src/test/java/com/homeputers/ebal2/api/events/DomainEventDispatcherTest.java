@@ -0,0 +1,112 @@
+package com.homeputers.ebal2.api.events;
+
+import com.homeputers.ebal2.api.config.DomainEventProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DomainEventDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void deliversMatchingEventsInOrderOnTheSubscriberThread() throws InterruptedException {
+        CountDownLatch delivered = new CountDownLatch(3);
+        RecordingSubscriber<SongChanged> songs = new RecordingSubscriber<>(SongChanged.class, delivered);
+        DomainEventDispatcher dispatcher = dispatcher(16, songs);
+        dispatcher.start();
+        UUID songId = UUID.randomUUID();
+        try {
+            dispatcher.dispatch(new SongChanged(songId, ChangeKind.CREATED));
+            dispatcher.dispatch(new MemberChanged(UUID.randomUUID(), ChangeKind.CREATED));
+            dispatcher.dispatch(new SongChanged(songId, ChangeKind.UPDATED));
+            dispatcher.dispatch(new SongChanged(songId, ChangeKind.DELETED));
+
+            assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            dispatcher.stop();
+        }
+
+        assertThat(songs.events).extracting(SongChanged::kind)
+                .containsExactly(ChangeKind.CREATED, ChangeKind.UPDATED, ChangeKind.DELETED);
+        assertThat(songs.threads).allMatch(name -> name.equals("domain-events-songs"));
+    }
+
+    @Test
+    void dropsAndCountsEventsBeyondTheQueueCapacity() {
+        RecordingSubscriber<DomainEvent> all = new RecordingSubscriber<>(DomainEvent.class, new CountDownLatch(0));
+        DomainEventDispatcher dispatcher = dispatcher(4, all);
+
+        for (int i = 0; i < 6; i++) {
+            dispatcher.dispatch(new MemberChanged(UUID.randomUUID(), ChangeKind.UPDATED));
+        }
+
+        assertThat(meterRegistry.get("ebal.events.dropped").tag("subscriber", "songs").counter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("ebal.events.queue.depth").tag("subscriber", "songs").gauge().value())
+                .isEqualTo(4);
+    }
+
+    @Test
+    void ringHandsOutEventsInOfferOrderAndReusesSlots() {
+        EventRing ring = new EventRing(3);
+        List<String> drained = new ArrayList<>();
+        List<Long> waited = new ArrayList<>();
+
+        assertThat(ring.capacity()).isEqualTo(4);
+        for (int round = 0; round < 3; round++) {
+            assertThat(ring.offer("a" + round, 10)).isTrue();
+            assertThat(ring.offer("b" + round, 20)).isTrue();
+            assertThat(ring.drain(drained, 8, 25, waited::add)).isEqualTo(2);
+        }
+
+        assertThat(drained).containsExactly("a0", "b0", "a1", "b1", "a2", "b2");
+        assertThat(waited).containsOnly(15L, 5L);
+        assertThat(ring.isEmpty()).isTrue();
+    }
+
+    private DomainEventDispatcher dispatcher(int capacity, DomainEventSubscriber<?> subscriber) {
+        DomainEventProperties properties = new DomainEventProperties();
+        properties.setQueueCapacity(capacity);
+        return new DomainEventDispatcher(List.of(subscriber), properties, meterRegistry);
+    }
+
+    private static final class RecordingSubscriber<E extends DomainEvent> implements DomainEventSubscriber<E> {
+        private final Class<E> type;
+        private final CountDownLatch delivered;
+        private final List<E> events = new CopyOnWriteArrayList<>();
+        private final List<String> threads = new CopyOnWriteArrayList<>();
+
+        private RecordingSubscriber(Class<E> type, CountDownLatch delivered) {
+            this.type = type;
+            this.delivered = delivered;
+        }
+
+        @Override
+        public Class<E> eventType() {
+            return type;
+        }
+
+        @Override
+        public void onEvents(List<E> batch) {
+            for (E event : batch) {
+                events.add(event);
+                threads.add(Thread.currentThread().getName());
+                delivered.countDown();
+            }
+        }
+
+        @Override
+        public String name() {
+            return "songs";
+        }
+    }
+}
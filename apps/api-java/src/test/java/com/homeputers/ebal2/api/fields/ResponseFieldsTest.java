@@ -0,0 +1,63 @@
+package com.homeputers.ebal2.api.fields;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.homeputers.ebal2.api.generated.model.PageSongResponse;
+import com.homeputers.ebal2.api.generated.model.SongResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResponseFieldsTest {
+
+    @JsonFilter(ResponseFields.FILTER_ID)
+    private abstract static class FilterMixin {
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .addMixIn(Object.class, FilterMixin.class)
+            .setFilterProvider(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    private final ResponseFields responseFields = new ResponseFields(objectMapper);
+
+    @Test
+    void parsesSelectionsAndAlwaysKeepsTheId() {
+        FieldSelection selection = responseFields.parse(" title, tags ,", SongResponse.class);
+
+        assertThat(selection.names()).containsExactlyInAnyOrder("id", "title", "tags");
+        assertThat(selection.includes("ccli")).isFalse();
+        assertThat(responseFields.parse(null, SongResponse.class).isAll()).isTrue();
+        assertThat(responseFields.parse(" ", SongResponse.class).isAll()).isTrue();
+    }
+
+    @Test
+    void rejectsUnknownFields() {
+        assertThatThrownBy(() -> responseFields.parse("title,lyrics", SongResponse.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("lyrics");
+    }
+
+    @Test
+    void writesOnlySelectedFieldsOfTheResponseType() throws Exception {
+        SongResponse song = new SongResponse().id(UUID.randomUUID()).title("Amazing Grace").ccli("22025")
+                .tags(List.of("hymn"));
+        PageSongResponse page = new PageSongResponse().content(List.of(song)).totalElements(1);
+        ResponseFields.Selected selected = new ResponseFields.Selected(SongResponse.class,
+                responseFields.parse("title", SongResponse.class).names());
+
+        String json = objectMapper.writer(new SimpleFilterProvider()
+                        .addFilter(ResponseFields.FILTER_ID, selected.filter())
+                        .setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()))
+                .writeValueAsString(page);
+
+        assertThat(objectMapper.readTree(json).get("totalElements").asInt()).isEqualTo(1);
+        assertThat(objectMapper.readTree(json).get("content").get(0).fieldNames())
+                .toIterable().containsExactlyInAnyOrder("id", "title");
+        assertThat(objectMapper.writeValueAsString(song)).contains("\"ccli\":\"22025\"");
+    }
+}
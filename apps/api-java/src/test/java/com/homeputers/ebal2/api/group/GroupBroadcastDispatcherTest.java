@@ -0,0 +1,183 @@
+package com.homeputers.ebal2.api.group;
+
+import com.homeputers.ebal2.api.config.MailProperties;
+import com.homeputers.ebal2.api.domain.broadcast.GroupBroadcast;
+import com.homeputers.ebal2.api.domain.broadcast.GroupBroadcastMapper;
+import com.homeputers.ebal2.api.domain.broadcast.GroupBroadcastRecipient;
+import com.homeputers.ebal2.api.email.PooledSmtpTransport;
+import com.homeputers.ebal2.api.email.SmtpStubServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GroupBroadcastDispatcherTest {
+
+    @Mock
+    private GroupBroadcastMapper broadcastMapper;
+
+    private SmtpStubServer server;
+    private PooledSmtpTransport transport;
+    private final MailProperties.Broadcast properties = new MailProperties.Broadcast();
+    private GroupBroadcastDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new SmtpStubServer();
+        MailProperties.Smtp smtp = new MailProperties.Smtp();
+        smtp.setHost("127.0.0.1");
+        smtp.setPort(server.port());
+        smtp.setAuth(false);
+        smtp.setStartTls(false);
+        smtp.setPoolSize(4);
+        transport = new PooledSmtpTransport(smtp);
+        properties.setBatchSize(50);
+        properties.setConcurrency(4);
+        properties.setMaxPerSecond(0);
+        dispatcher = new GroupBroadcastDispatcher(broadcastMapper, transport, properties, System::nanoTime);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        dispatcher.destroy();
+        transport.close();
+        server.close();
+    }
+
+    @Test
+    void sendsFiveHundredRecipientsOverPooledConnections() {
+        GroupBroadcast broadcast = broadcast();
+        List<GroupBroadcastRecipient> recipients = recipients(broadcast.id(), 500, -1);
+        when(broadcastMapper.markSending(eq(broadcast.id()), any(), any())).thenReturn(1);
+        when(broadcastMapper.findById(broadcast.id())).thenReturn(broadcast);
+        when(broadcastMapper.findPendingRecipients(broadcast.id())).thenReturn(recipients);
+
+        long started = System.nanoTime();
+        dispatcher.run(broadcast.id());
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(server.messages()).hasSize(500);
+        assertThat(server.connections()).isLessThanOrEqualTo(4);
+        assertThat(elapsedMillis).isLessThan(10_000);
+        assertThat(server.messages().get(0).data()).contains("[Sunday Band] Rehearsal moved");
+        verify(broadcastMapper).markCompleted(eq(broadcast.id()), eq(GroupBroadcast.STATUS_COMPLETED), any());
+        verify(broadcastMapper, never()).markRecipientFailed(any(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordsPerRecipientFailures() {
+        GroupBroadcast broadcast = broadcast();
+        List<GroupBroadcastRecipient> recipients = recipients(broadcast.id(), 3, 1);
+        when(broadcastMapper.markSending(eq(broadcast.id()), any(), any())).thenReturn(1);
+        when(broadcastMapper.findById(broadcast.id())).thenReturn(broadcast);
+        when(broadcastMapper.findPendingRecipients(broadcast.id())).thenReturn(recipients);
+
+        dispatcher.run(broadcast.id());
+
+        ArgumentCaptor<Collection<UUID>> sent = ArgumentCaptor.forClass(Collection.class);
+        verify(broadcastMapper, atLeastOnce()).markRecipientsSent(eq(broadcast.id()), sent.capture(), any());
+        assertThat(sent.getAllValues().stream().flatMap(Collection::stream))
+                .containsExactlyInAnyOrder(recipients.get(0).memberId(), recipients.get(2).memberId());
+        verify(broadcastMapper).markRecipientFailed(eq(broadcast.id()), eq(recipients.get(1).memberId()), anyString());
+        verify(broadcastMapper).markCompleted(eq(broadcast.id()),
+                eq(GroupBroadcast.STATUS_COMPLETED_WITH_ERRORS), any());
+    }
+
+    @Test
+    void skipsBroadcastsAlreadyStarted() {
+        UUID id = UUID.randomUUID();
+        when(broadcastMapper.markSending(eq(id), any(), any())).thenReturn(0);
+
+        dispatcher.run(id);
+
+        verify(broadcastMapper, never()).findPendingRecipients(any());
+        assertThat(server.messages()).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void marksBatchFailedWhenTheTransportThrows() throws Exception {
+        dispatcher.destroy();
+        dispatcher = new GroupBroadcastDispatcher(broadcastMapper, batch -> {
+            throw new IllegalStateException("connection refused");
+        }, properties, System::nanoTime);
+        GroupBroadcast broadcast = broadcast();
+        List<GroupBroadcastRecipient> recipients = recipients(broadcast.id(), 3, -1);
+        when(broadcastMapper.markSending(eq(broadcast.id()), any(), any())).thenReturn(1);
+        when(broadcastMapper.findById(broadcast.id())).thenReturn(broadcast);
+        when(broadcastMapper.findPendingRecipients(broadcast.id())).thenReturn(recipients);
+
+        dispatcher.run(broadcast.id());
+
+        ArgumentCaptor<Collection<UUID>> failed = ArgumentCaptor.forClass(Collection.class);
+        verify(broadcastMapper).markRecipientsFailed(eq(broadcast.id()), failed.capture(),
+                contains("connection refused"));
+        assertThat(failed.getValue()).containsExactlyElementsOf(
+                recipients.stream().map(GroupBroadcastRecipient::memberId).toList());
+        verify(broadcastMapper).markCompleted(eq(broadcast.id()),
+                eq(GroupBroadcast.STATUS_COMPLETED_WITH_ERRORS), any());
+    }
+
+    @Test
+    void resumesUnfinishedBroadcasts() {
+        GroupBroadcast broadcast = broadcast();
+        List<GroupBroadcastRecipient> recipients = recipients(broadcast.id(), 2, -1);
+        when(broadcastMapper.claimUnfinished(any(), any(), eq(1)))
+                .thenReturn(List.of(broadcast.id()))
+                .thenReturn(List.of());
+        when(broadcastMapper.findById(broadcast.id())).thenReturn(broadcast);
+        when(broadcastMapper.findPendingRecipients(broadcast.id())).thenReturn(recipients);
+
+        dispatcher.resumeUnfinished();
+
+        assertThat(server.messages()).hasSize(2);
+        verify(broadcastMapper).markCompleted(eq(broadcast.id()), eq(GroupBroadcast.STATUS_COMPLETED), any());
+    }
+
+    @Test
+    void pacingSpreadsBatchesAcrossTheConfiguredRate() throws Exception {
+        properties.setMaxPerSecond(100);
+
+        long started = System.nanoTime();
+        dispatcher.pace(10);
+        dispatcher.pace(10);
+        dispatcher.pace(10);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        // the first batch goes out immediately, the next two wait 100ms each
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(190);
+    }
+
+    private static GroupBroadcast broadcast() {
+        return new GroupBroadcast(null, UUID.randomUUID(), "Rehearsal moved", "[Sunday Band] Rehearsal moved",
+                "Rehearsal starts at 7pm.", "en", GroupBroadcast.STATUS_SENDING, 0, 0, 0, 0, null, null);
+    }
+
+    private static List<GroupBroadcastRecipient> recipients(UUID broadcastId, int count, int rejectedIndex) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new GroupBroadcastRecipient(broadcastId, UUID.randomUUID(),
+                        (i == rejectedIndex ? "reject" : "member" + i) + "@example.com",
+                        GroupBroadcastRecipient.STATUS_PENDING, null, null))
+                .toList();
+    }
+}
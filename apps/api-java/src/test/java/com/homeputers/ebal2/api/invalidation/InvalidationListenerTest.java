@@ -0,0 +1,65 @@
+package com.homeputers.ebal2.api.invalidation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvalidationListenerTest {
+
+    private final RecordingTarget users = new RecordingTarget();
+    private final InvalidationPublisher localPublisher = new InvalidationPublisher(null, "ebal_invalidation");
+    private final InvalidationListener listener = new InvalidationListener(() -> {
+        throw new UnsupportedOperationException();
+    }, "ebal_invalidation", localPublisher, List.of(users), Duration.ofSeconds(10), Duration.ofSeconds(30));
+
+    @Test
+    void appliesInvalidationsFromOtherReplicas() {
+        UUID userId = UUID.randomUUID();
+
+        listener.dispatch(new Invalidation(Invalidation.USER, userId, 7L).encode("other-replica"));
+        listener.dispatch(new Invalidation("SONG", UUID.randomUUID(), null).encode("other-replica"));
+
+        assertThat(users.invalidated).containsExactly(userId + "@7");
+        assertThat(users.flushes).isZero();
+    }
+
+    @Test
+    void skipsItsOwnInvalidations() {
+        listener.dispatch(new Invalidation(Invalidation.USER, UUID.randomUUID(), null).encode(localPublisher.origin()));
+
+        assertThat(users.invalidated).isEmpty();
+    }
+
+    @Test
+    void flushesEverythingForUnreadableOrWildcardInvalidations() {
+        listener.dispatch("garbage");
+        listener.dispatch(Invalidation.all().encode("other-replica"));
+
+        assertThat(users.flushes).isEqualTo(2);
+    }
+
+    private static final class RecordingTarget implements InvalidationTarget {
+        private final List<String> invalidated = new ArrayList<>();
+        private int flushes;
+
+        @Override
+        public String entityType() {
+            return Invalidation.USER;
+        }
+
+        @Override
+        public void invalidate(UUID id, Long version) {
+            invalidated.add(id + "@" + version);
+        }
+
+        @Override
+        public void invalidateAll() {
+            flushes++;
+        }
+    }
+}
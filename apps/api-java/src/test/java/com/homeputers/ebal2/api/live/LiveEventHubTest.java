@@ -0,0 +1,84 @@
+package com.homeputers.ebal2.api.live;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.homeputers.ebal2.api.config.LiveEventProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LiveEventHubTest {
+
+    private final LiveTopic service = LiveTopic.service(UUID.randomUUID());
+    private final LiveTopic songSet = LiveTopic.songSet(UUID.randomUUID());
+
+    @Test
+    void deliversEventsOnlyToSubscribersOfTheTopic() {
+        LiveEventHub hub = hub(64, 10, Runnable::run);
+        RecordingEmitter serviceStream = (RecordingEmitter) hub.subscribe(service);
+        RecordingEmitter songSetStream = (RecordingEmitter) hub.subscribe(songSet);
+        UUID itemId = UUID.randomUUID();
+
+        hub.publish(service, new LiveEvent(LiveEvent.PLAN_ITEM_UPDATED, itemId));
+
+        assertThat(serviceStream.frames).hasSize(2);
+        assertThat(serviceStream.frames.get(1))
+                .contains("event:plan-item.updated")
+                .contains("\"id\":\"" + itemId + "\"");
+        assertThat(songSetStream.frames).hasSize(1);
+    }
+
+    @Test
+    void disconnectsSubscribersWhoseBufferIsFull() {
+        List<Runnable> stalled = new ArrayList<>();
+        LiveEventHub hub = hub(2, 10, stalled::add);
+        RecordingEmitter slow = (RecordingEmitter) hub.subscribe(service);
+
+        hub.publish(service, new LiveEvent(LiveEvent.SERVICE_UPDATED, service.id()));
+        assertThat(hub.subscriberCount()).isEqualTo(1);
+        hub.publish(service, new LiveEvent(LiveEvent.SERVICE_UPDATED, service.id()));
+
+        assertThat(hub.subscriberCount()).isZero();
+        stalled.forEach(Runnable::run);
+        assertThat(slow.frames).isEmpty();
+    }
+
+    @Test
+    void refusesSubscribersBeyondTheLimit() {
+        LiveEventHub hub = hub(64, 1, Runnable::run);
+        hub.subscribe(service);
+
+        assertThatThrownBy(() -> hub.subscribe(songSet)).isInstanceOf(TooManySubscribersException.class);
+        assertThat(hub.subscriberCount()).isEqualTo(1);
+    }
+
+    private static LiveEventHub hub(int bufferSize, int maxSubscribers, Executor senders) {
+        LiveEventProperties properties = new LiveEventProperties();
+        properties.setBufferSize(bufferSize);
+        properties.setMaxSubscribers(maxSubscribers);
+        return new LiveEventHub(new ObjectMapper(), properties, senders) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                return new RecordingEmitter();
+            }
+        };
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<String> frames = new ArrayList<>();
+
+        @Override
+        public synchronized void send(Set<DataWithMediaType> items) {
+            frames.add(items.stream().map(item -> item.getData().toString()).collect(Collectors.joining()));
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.homeputers.ebal2.api.mybatis;
+
+import com.homeputers.ebal2.api.domain.arrangement.ArrangementMapper;
+import com.homeputers.ebal2.api.domain.service.ServiceMapper;
+import com.homeputers.ebal2.api.domain.song.SongMapper;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.statement.RoutingStatementHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class IdentityMapInterceptorTest {
+
+    private static final String SERVICE_FIND_BY_ID = ServiceMapper.class.getName() + ".findById";
+    private static final String ARRANGEMENT_FIND_BY_ID = ArrangementMapper.class.getName() + ".findById";
+    private static final String SONG_FIND_BY_ID = SongMapper.class.getName() + ".findById";
+
+    private final Configuration configuration = new Configuration();
+    private final Executor executor = mock(Executor.class);
+    private final IdentityMapInterceptor interceptor = new IdentityMapInterceptor();
+    private final AtomicInteger queries = new AtomicInteger();
+    private RequestIdentityMap map;
+
+    @BeforeEach
+    void setUp() {
+        map = RequestIdentityMap.open(100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        map.close();
+    }
+
+    @Test
+    void returnsTheSameRecordForRepeatedLookups() throws Throwable {
+        UUID id = UUID.randomUUID();
+
+        List<?> first = (List<?>) interceptor.intercept(query(SERVICE_FIND_BY_ID, params(id)));
+        // nested selects pass the id itself rather than a param map
+        List<?> second = (List<?>) interceptor.intercept(query(SERVICE_FIND_BY_ID, id));
+
+        assertThat(second.get(0)).isSameAs(first.get(0));
+        assertThat(queries).hasValue(1);
+        RequestIdentityMap.Stats stats = map.stats().get(SERVICE_FIND_BY_ID);
+        assertThat(stats.loads()).isEqualTo(1);
+        assertThat(stats.hits()).isEqualTo(1);
+    }
+
+    @Test
+    void reloadsRowsTheRequestWrote() throws Throwable {
+        UUID written = UUID.randomUUID();
+        UUID untouched = UUID.randomUUID();
+        interceptor.intercept(query(SONG_FIND_BY_ID, written));
+        interceptor.intercept(query(SONG_FIND_BY_ID, untouched));
+
+        interceptor.intercept(update(SongMapper.class.getName() + ".update", SqlCommandType.UPDATE, params(written)));
+        interceptor.intercept(query(SONG_FIND_BY_ID, written));
+        interceptor.intercept(query(SONG_FIND_BY_ID, untouched));
+
+        assertThat(queries).hasValue(3);
+    }
+
+    @Test
+    void reloadsArrangementsEmbeddingASongTheRequestWrote() throws Throwable {
+        UUID songId = UUID.randomUUID();
+        UUID arrangementId = UUID.randomUUID();
+        ResultMapping song = new ResultMapping.Builder(configuration, "song", "song_id", Object.class)
+                .nestedQueryId(SONG_FIND_BY_ID)
+                .build();
+        ResultMap arrangement = new ResultMap.Builder(configuration, ARRANGEMENT_FIND_BY_ID + "-map",
+                Object.class, List.of(song)).build();
+        configuration.addMappedStatement(new MappedStatement.Builder(configuration, ARRANGEMENT_FIND_BY_ID,
+                new StaticSqlSource(configuration, "select 1"), SqlCommandType.SELECT)
+                .resultMaps(List.of(arrangement))
+                .build());
+        interceptor.intercept(query(ARRANGEMENT_FIND_BY_ID, params(arrangementId)));
+
+        interceptor.intercept(update(SongMapper.class.getName() + ".update", SqlCommandType.UPDATE, params(songId)));
+        interceptor.intercept(query(ARRANGEMENT_FIND_BY_ID, params(arrangementId)));
+
+        assertThat(queries).hasValue(2);
+    }
+
+    @Test
+    void deletesClearEverything() throws Throwable {
+        interceptor.intercept(query(SONG_FIND_BY_ID, UUID.randomUUID()));
+        interceptor.intercept(query(SERVICE_FIND_BY_ID, UUID.randomUUID()));
+
+        interceptor.intercept(update(SongMapper.class.getName() + ".delete", SqlCommandType.DELETE,
+                params(UUID.randomUUID())));
+
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void passesThroughOutsideARequest() throws Throwable {
+        map.close();
+        UUID id = UUID.randomUUID();
+
+        interceptor.intercept(query(SERVICE_FIND_BY_ID, id));
+        interceptor.intercept(query(SERVICE_FIND_BY_ID, id));
+
+        assertThat(queries).hasValue(2);
+    }
+
+    private Invocation query(String statementId, Object parameter) throws NoSuchMethodException {
+        MappedStatement statement = statement(statementId, SqlCommandType.SELECT);
+        StatementHandler handler = new RoutingStatementHandler(executor, statement, parameter, RowBounds.DEFAULT,
+                null, statement.getBoundSql(parameter)) {
+            @Override
+            public <E> List<E> query(Statement jdbcStatement, ResultHandler resultHandler) {
+                queries.incrementAndGet();
+                @SuppressWarnings("unchecked")
+                List<E> rows = (List<E>) List.of(new Object());
+                return rows;
+            }
+        };
+        return new Invocation(handler,
+                StatementHandler.class.getMethod("query", Statement.class, ResultHandler.class),
+                new Object[]{mock(Statement.class), null});
+    }
+
+    private Invocation update(String statementId, SqlCommandType type, Object parameter) throws NoSuchMethodException {
+        return new Invocation(executor, Executor.class.getMethod("update", MappedStatement.class, Object.class),
+                new Object[]{statement(statementId, type), parameter});
+    }
+
+    private MappedStatement statement(String statementId, SqlCommandType type) {
+        return new MappedStatement.Builder(configuration, statementId,
+                new StaticSqlSource(configuration, "select 1"), type).build();
+    }
+
+    private static MapperMethod.ParamMap<Object> params(UUID id) {
+        MapperMethod.ParamMap<Object> params = new MapperMethod.ParamMap<>();
+        params.put("id", id);
+        params.put("param1", id);
+        return params;
+    }
+}
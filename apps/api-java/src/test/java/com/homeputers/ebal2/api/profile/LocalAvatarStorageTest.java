@@ -6,9 +6,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.springframework.mock.web.MockMultipartFile;
 
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -45,9 +51,39 @@ class LocalAvatarStorageTest {
 
         String url = storage.store(userId, file);
 
-        assertThat(url).isEqualTo("/static/avatars/" + userId + "/avatar.png");
-        Path storedFile = tempDir.resolve(userId.toString()).resolve("avatar.png");
-        assertThat(Files.exists(storedFile)).isTrue();
+        assertThat(url).matches("/static/avatars/" + userId + "/avatar-[0-9a-f]{16}\\.png");
+        Path storedFile = tempDir.resolve(userId.toString()).resolve(url.substring(url.lastIndexOf('/') + 1));
+        assertThat(Files.readAllBytes(storedFile)).isEqualTo(SAMPLE_PNG);
+    }
+
+    @Test
+    void fileNameDependsOnlyOnContent() throws IOException {
+        UUID userId = UUID.randomUUID();
+        String first = storage.store(userId, new MockMultipartFile("file", "a.png", "image/png", SAMPLE_PNG));
+        String second = storage.store(userId, new MockMultipartFile("file", "b.png", "image/png", SAMPLE_PNG));
+
+        byte[] changed = SAMPLE_PNG.clone();
+        changed[changed.length - 5] ^= 0x01;
+        String third = storage.store(userId, new MockMultipartFile("file", "a.png", "image/png", changed));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(third).isNotEqualTo(first);
+    }
+
+    @Test
+    void deleteAvatarRemovesOnlyThatAvatar() throws IOException {
+        UUID userId = UUID.randomUUID();
+        byte[] changed = SAMPLE_PNG.clone();
+        changed[changed.length - 5] ^= 0x01;
+        String old = storage.store(userId, new MockMultipartFile("file", "old.png", "image/png", SAMPLE_PNG));
+        String current = storage.store(userId, new MockMultipartFile("file", "new.png", "image/png", changed));
+
+        storage.deleteAvatar(old);
+
+        try (var files = Files.list(tempDir.resolve(userId.toString()))) {
+            assertThat(files.map(path -> path.getFileName().toString()).toList())
+                    .containsExactly(current.substring(current.lastIndexOf('/') + 1));
+        }
     }
 
     @Test
@@ -82,4 +118,106 @@ class LocalAvatarStorageTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("maximum allowed size");
     }
+
+    @Test
+    void enforcesSizeCapWhileStreamingAndLeavesNoPartialFiles() throws IOException {
+        UUID userId = UUID.randomUUID();
+        byte[] data = new byte[4096];
+        System.arraycopy(SAMPLE_PNG, 0, data, 0, SAMPLE_PNG.length);
+        // reports a small size up front, as a chunked upload without a length would
+        MockMultipartFile file = new MockMultipartFile("file", "avatar.png", "image/png", data) {
+            @Override
+            public long getSize() {
+                return 10;
+            }
+        };
+
+        assertThatThrownBy(() -> storage.store(userId, file))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maximum allowed size");
+        try (var files = Files.list(tempDir.resolve(".incoming"))) {
+            assertThat(files).isEmpty();
+        }
+        assertThat(tempDir.resolve(userId.toString())).doesNotExist();
+    }
+
+    @Test
+    void generatesSquareVariantsForEachConfiguredSize() throws IOException {
+        LocalAvatarStorage large = new LocalAvatarStorage(tempDir, "/static/avatars/", 1024 * 1024);
+        UUID userId = UUID.randomUUID();
+        String url = large.store(userId, new MockMultipartFile("file", "a.png", "image/png", png(600, 400)));
+
+        assertThat(large.variantUrl(url, 64)).isNull();
+
+        large.generateVariants(url);
+
+        String stem = url.substring(url.lastIndexOf('/') + 1, url.lastIndexOf('.'));
+        for (int size : List.of(32, 64, 128, 256)) {
+            BufferedImage variant = ImageIO.read(tempDir.resolve(userId.toString())
+                    .resolve(stem + "-" + size + ".png").toFile());
+            assertThat(variant.getWidth()).isEqualTo(size);
+            assertThat(variant.getHeight()).isEqualTo(size);
+        }
+        assertThat(large.variantUrl(url, 50)).isEqualTo(url.replace(".png", "-64.png"));
+        assertThat(large.variantUrl(url, 256)).isEqualTo(url.replace(".png", "-256.png"));
+        assertThat(large.variantUrl(url, 512)).isEqualTo(url);
+    }
+
+    @Test
+    void deleteAvatarRemovesItsVariantsOnly() throws IOException {
+        LocalAvatarStorage large = new LocalAvatarStorage(tempDir, "/static/avatars/", 1024 * 1024,
+                List.of(32, 64), 1_000_000);
+        UUID userId = UUID.randomUUID();
+        String old = large.store(userId, new MockMultipartFile("file", "old.png", "image/png", png(100, 100)));
+        large.generateVariants(old);
+        String current = large.store(userId, new MockMultipartFile("file", "new.png", "image/png", png(120, 90)));
+        large.generateVariants(current);
+
+        large.deleteAvatar(old);
+
+        String name = current.substring(current.lastIndexOf('/') + 1);
+        try (var files = Files.list(tempDir.resolve(userId.toString()))) {
+            assertThat(files.map(path -> path.getFileName().toString()).toList())
+                    .containsExactlyInAnyOrder(name, name.replace(".png", "-32.png"), name.replace(".png", "-64.png"));
+        }
+    }
+
+    @Test
+    void skipsVariantsForImagesOverTheDecodeLimit() throws IOException {
+        LocalAvatarStorage bounded = new LocalAvatarStorage(tempDir, "/static/avatars/", 1024 * 1024,
+                List.of(32), 10_000);
+        UUID userId = UUID.randomUUID();
+        String url = bounded.store(userId, new MockMultipartFile("file", "a.png", "image/png", png(200, 200)));
+
+        bounded.generateVariants(url);
+
+        try (var files = Files.list(tempDir.resolve(userId.toString()))) {
+            assertThat(files).hasSize(1);
+        }
+        assertThat(bounded.variantUrl(url, 32)).isNull();
+    }
+
+    @Test
+    void servesTheOriginalForFormatsWithoutADecoder() throws IOException {
+        UUID userId = UUID.randomUUID();
+        byte[] webp = {0x52, 0x49, 0x46, 0x46, 0x10, 0x00, 0x00, 0x00, 0x57, 0x45, 0x42, 0x50, 0x56, 0x50, 0x38, 0x20};
+        String url = storage.store(userId, new MockMultipartFile("file", "a.webp", "image/webp", webp));
+
+        storage.generateVariants(url);
+
+        assertThat(storage.variantUrl(url, 64)).isEqualTo(url);
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.BLUE);
+        graphics.fillOval(width / 4, height / 4, width / 2, height / 2);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
 }
@@ -10,15 +10,18 @@ import com.homeputers.ebal2.api.domain.user.RefreshToken;
 import com.homeputers.ebal2.api.domain.user.RefreshTokenMapper;
 import com.homeputers.ebal2.api.domain.user.User;
 import com.homeputers.ebal2.api.domain.user.UserMapper;
+import com.homeputers.ebal2.api.domain.user.UserSnapshotCache;
 import com.homeputers.ebal2.api.email.EmailSender;
 import com.homeputers.ebal2.api.generated.model.ChangeMyEmailRequest;
 import com.homeputers.ebal2.api.generated.model.ChangePasswordRequest;
+import com.homeputers.ebal2.api.profile.storage.AvatarStorage;
 import com.homeputers.ebal2.api.profile.support.InvalidEmailChangeTokenException;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.time.OffsetDateTime;
@@ -29,7 +32,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @SpringBootTest
 class SelfServiceServiceTest extends AbstractIntegrationTest {
@@ -57,6 +62,12 @@ class SelfServiceServiceTest extends AbstractIntegrationTest {
     @MockBean
     private EmailSender emailSender;
 
+    @MockBean
+    private AvatarStorage avatarStorage;
+
+    @Autowired
+    private UserSnapshotCache userSnapshotCache;
+
     @Test
     void emailChangeFlowUpdatesEmailAndRevokesTokens() {
         String email = "change@example.com";
@@ -124,6 +135,48 @@ class SelfServiceServiceTest extends AbstractIntegrationTest {
                 .allMatch(value -> value != null && value.isAfter(OffsetDateTime.now().minusMinutes(5)));
     }
 
+    @Test
+    void uploadingAnAvatarDeletesOnlyTheOneItReplaced() throws Exception {
+        UUID userId = authenticationHelper.ensureUser("avatar@example.com", PASSWORD, List.of("PLANNER"));
+        String previous = "/static/avatars/" + userId + "/avatar-0000000000000001.png";
+        String uploaded = "/static/avatars/" + userId + "/avatar-0000000000000002.png";
+        userMapper.updateAvatar(userId, previous, OffsetDateTime.now());
+        when(avatarStorage.store(eq(userId), any())).thenReturn(uploaded);
+
+        selfServiceService.uploadAvatar(userId,
+                new MockMultipartFile("file", "avatar.png", "image/png", new byte[]{1}));
+
+        assertThat(userMapper.findById(userId).avatarUrl()).isEqualTo(uploaded);
+        verify(avatarStorage).deleteAvatar(previous);
+        verify(avatarStorage, never()).deleteAvatar(uploaded);
+    }
+
+    @Test
+    void uploadingAnAvatarInvalidatesTheCachedSnapshot() throws Exception {
+        UUID userId = authenticationHelper.ensureUser("avatar-cache@example.com", PASSWORD, List.of("PLANNER"));
+        String uploaded = "/static/avatars/" + userId + "/avatar-0000000000000003.png";
+        when(avatarStorage.store(eq(userId), any())).thenReturn(uploaded);
+        assertThat(userSnapshotCache.get(userId).user().avatarUrl()).isNull();
+
+        selfServiceService.uploadAvatar(userId,
+                new MockMultipartFile("file", "avatar.png", "image/png", new byte[]{1}));
+
+        assertThat(userSnapshotCache.get(userId).user().avatarUrl()).isEqualTo(uploaded);
+    }
+
+    @Test
+    void removingAnAvatarDeletesOnlyTheOneItCleared() throws Exception {
+        UUID userId = authenticationHelper.ensureUser("avatar-remove@example.com", PASSWORD, List.of("PLANNER"));
+        String previous = "/static/avatars/" + userId + "/avatar-0000000000000004.png";
+        userMapper.updateAvatar(userId, previous, OffsetDateTime.now());
+
+        selfServiceService.removeAvatar(userId);
+
+        assertThat(userMapper.findById(userId).avatarUrl()).isNull();
+        verify(avatarStorage).deleteAvatar(previous);
+        verify(avatarStorage, never()).delete(userId);
+    }
+
     @Test
     void confirmWithUnknownTokenFails() {
         assertThatThrownBy(() -> selfServiceService.confirmEmailChange("missing"))
@@ -0,0 +1,167 @@
+package com.homeputers.ebal2.api.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DistributedQuotaLimiterTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+    private final InMemoryQuotaStore store = new InMemoryQuotaStore();
+
+    @Test
+    void batchesWritesWhileFarFromLimit() {
+        DistributedQuotaLimiter limiter = new DistributedQuotaLimiter(store, 10, clock);
+
+        for (int i = 0; i < 25; i++) {
+            assertThat(limiter.acquire("search:ip:1", 100, WINDOW).allowed()).isTrue();
+        }
+
+        assertThat(store.writes).isEqualTo(2);
+        limiter.flush();
+        assertThat(store.total("search:ip:1")).isEqualTo(25);
+    }
+
+    @Test
+    void replicasSharingStoreEnforceCombinedLimit() {
+        DistributedQuotaLimiter first = new DistributedQuotaLimiter(store, 5, clock);
+        DistributedQuotaLimiter second = new DistributedQuotaLimiter(store, 5, clock);
+
+        int allowed = 0;
+        for (int i = 0; i < 40; i++) {
+            DistributedQuotaLimiter replica = i % 2 == 0 ? first : second;
+            if (replica.acquire("ical:ip:1", 20, WINDOW).allowed()) {
+                allowed++;
+            }
+        }
+
+        assertThat(allowed).isBetween(20, 20 + 2 * 5);
+        assertThat(store.total("ical:ip:1")).isLessThanOrEqualTo(20);
+    }
+
+    @Test
+    void reportsRemainingAndReset() {
+        DistributedQuotaLimiter limiter = new DistributedQuotaLimiter(store, 10, clock);
+        clock.advance(Duration.ofSeconds(15));
+
+        QuotaDecision decision = limiter.acquire("search:user:a", 3, WINDOW);
+
+        assertThat(decision.allowed()).isTrue();
+        assertThat(decision.limit()).isEqualTo(3);
+        assertThat(decision.remaining()).isEqualTo(2);
+        assertThat(decision.resetSeconds()).isEqualTo(45);
+    }
+
+    @Test
+    void startsFreshInNextWindowAndDropsStaleBuckets() {
+        DistributedQuotaLimiter limiter = new DistributedQuotaLimiter(store, 1, clock);
+        limiter.acquire("search:user:a", 1, WINDOW);
+        assertThat(limiter.acquire("search:user:a", 1, WINDOW).allowed()).isFalse();
+
+        clock.advance(WINDOW);
+        limiter.flush();
+        assertThat(limiter.trackedBuckets()).isZero();
+
+        assertThat(limiter.acquire("search:user:a", 1, WINDOW).allowed()).isTrue();
+    }
+
+    @Test
+    void keepsServingWhenStoreIsUnavailable() {
+        store.failing = true;
+        DistributedQuotaLimiter limiter = new DistributedQuotaLimiter(store, 2, clock);
+
+        int allowed = 0;
+        for (int i = 0; i < 5; i++) {
+            if (limiter.acquire("search:ip:1", 3, WINDOW).allowed()) {
+                allowed++;
+            }
+        }
+
+        assertThat(allowed).isEqualTo(3);
+    }
+
+    private static final class InMemoryQuotaStore implements QuotaStore {
+        private final Map<String, Long> counters = new HashMap<>();
+        private int writes;
+        private boolean failing;
+
+        @Override
+        public synchronized long increment(String bucketKey, OffsetDateTime windowStart, int delta,
+                                           OffsetDateTime expiresAt) {
+            checkAvailable();
+            writes++;
+            return counters.merge(bucketKey + "@" + windowStart, (long) delta, Long::sum);
+        }
+
+        @Override
+        public synchronized Long tryIncrement(String bucketKey, OffsetDateTime windowStart, int delta, int limit,
+                                              OffsetDateTime expiresAt) {
+            checkAvailable();
+            writes++;
+            String key = bucketKey + "@" + windowStart;
+            long next = counters.getOrDefault(key, 0L) + delta;
+            if (next > limit) {
+                return null;
+            }
+            counters.put(key, next);
+            return next;
+        }
+
+        @Override
+        public int deleteExpired(OffsetDateTime now) {
+            return 0;
+        }
+
+        private synchronized long total(String bucketKey) {
+            return counters.entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith(bucketKey + "@"))
+                    .mapToLong(Map.Entry::getValue)
+                    .sum();
+        }
+
+        private void checkAvailable() {
+            if (failing) {
+                throw new DataAccessResourceFailureException("store down");
+            }
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
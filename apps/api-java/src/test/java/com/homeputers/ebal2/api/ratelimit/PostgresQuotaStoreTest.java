@@ -0,0 +1,72 @@
+package com.homeputers.ebal2.api.ratelimit;
+
+import com.homeputers.ebal2.api.AbstractIntegrationTest;
+import com.homeputers.ebal2.api.domain.quota.ApiQuotaMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class PostgresQuotaStoreTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private ApiQuotaMapper apiQuotaMapper;
+
+    @Test
+    void tryIncrementStopsAtLimit() {
+        PostgresQuotaStore store = new PostgresQuotaStore(apiQuotaMapper);
+        OffsetDateTime windowStart = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        OffsetDateTime expiresAt = windowStart.plusMinutes(2);
+
+        assertThat(store.increment("k", windowStart, 4, expiresAt)).isEqualTo(4);
+        assertThat(store.tryIncrement("k", windowStart, 1, 5, expiresAt)).isEqualTo(5);
+        assertThat(store.tryIncrement("k", windowStart, 1, 5, expiresAt)).isNull();
+        assertThat(store.deleteExpired(expiresAt.plusSeconds(1))).isEqualTo(1);
+    }
+
+    @Test
+    void replicasShareOneBudget() throws Exception {
+        int replicas = 3;
+        int batchSize = 5;
+        int limit = 50;
+        List<DistributedQuotaLimiter> limiters = new ArrayList<>();
+        for (int i = 0; i < replicas; i++) {
+            limiters.add(new DistributedQuotaLimiter(new PostgresQuotaStore(apiQuotaMapper), batchSize));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(replicas);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (DistributedQuotaLimiter limiter : limiters) {
+                tasks.add(() -> {
+                    int allowed = 0;
+                    for (int i = 0; i < limit; i++) {
+                        if (limiter.acquire("search:ip:10.0.0.1", limit, Duration.ofHours(1)).allowed()) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                });
+            }
+            int allowed = 0;
+            for (Future<Integer> result : executor.invokeAll(tasks)) {
+                allowed += result.get();
+            }
+            assertThat(allowed).isBetween(limit, limit + replicas * batchSize);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
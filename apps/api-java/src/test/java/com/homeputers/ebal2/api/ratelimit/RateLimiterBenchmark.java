@@ -0,0 +1,58 @@
+package com.homeputers.ebal2.api.ratelimit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-benchmark for {@link RateLimiter}. Not part of the test suite; run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.homeputers.ebal2.api.ratelimit.RateLimiterBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class RateLimiterBenchmark {
+
+    @Param({"TOKEN_BUCKET", "FIXED_WINDOW", "SLIDING_WINDOW"})
+    private RateLimitPolicy.Mode mode;
+
+    @Param({"1000", "100000"})
+    private int keySpace;
+
+    private RateLimiter<Integer> limiter;
+
+    @Setup
+    public void setUp() {
+        limiter = new RateLimiter<>(new RateLimitPolicy(mode, 1_000, Duration.ofSeconds(1), 10_000));
+    }
+
+    @Benchmark
+    public boolean tryAcquire() {
+        return limiter.tryAcquire(ThreadLocalRandom.current().nextInt(keySpace));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RateLimiterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
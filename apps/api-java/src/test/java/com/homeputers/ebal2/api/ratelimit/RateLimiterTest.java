@@ -0,0 +1,183 @@
+package com.homeputers.ebal2.api.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(Duration.ofSeconds(100).toNanos());
+
+    @Test
+    void fixedWindowAllowsLimitPerWindow() {
+        RateLimiter<String> limiter = limiter(RateLimitPolicy.Mode.FIXED_WINDOW, 3, Duration.ofSeconds(10), 100);
+
+        assertThat(attempts(limiter, "a", 4)).isEqualTo(3);
+
+        advance(Duration.ofSeconds(10));
+        assertThat(limiter.tryAcquire("a")).isTrue();
+    }
+
+    @Test
+    void fixedWindowStartsWithTheKeysFirstAttempt() {
+        RateLimiter<String> limiter = limiter(RateLimitPolicy.Mode.FIXED_WINDOW, 3, Duration.ofSeconds(10), 100);
+        advance(Duration.ofSeconds(5));
+        assertThat(attempts(limiter, "a", 3)).isEqualTo(3);
+
+        // past a clock-aligned boundary, but still inside the key's own window
+        advance(Duration.ofSeconds(6));
+        assertThat(limiter.tryAcquire("a")).isFalse();
+
+        advance(Duration.ofSeconds(4));
+        assertThat(limiter.tryAcquire("a")).isTrue();
+    }
+
+    @Test
+    void tokenBucketRefillsGradually() {
+        RateLimiter<String> limiter = limiter(RateLimitPolicy.Mode.TOKEN_BUCKET, 4, Duration.ofSeconds(4), 100);
+
+        assertThat(attempts(limiter, "a", 5)).isEqualTo(4);
+
+        advance(Duration.ofSeconds(1));
+        assertThat(attempts(limiter, "a", 2)).isEqualTo(1);
+    }
+
+    @Test
+    void slidingWindowWeighsPreviousWindow() {
+        RateLimiter<String> limiter = limiter(RateLimitPolicy.Mode.SLIDING_WINDOW, 10, Duration.ofSeconds(10), 100);
+
+        assertThat(attempts(limiter, "a", 10)).isEqualTo(10);
+
+        // halfway through the next window half of the previous count still applies
+        advance(Duration.ofSeconds(15));
+        assertThat(attempts(limiter, "a", 10)).isEqualTo(5);
+    }
+
+    @Test
+    void resetForgetsKey() {
+        RateLimiter<String> limiter = limiter(RateLimitPolicy.Mode.FIXED_WINDOW, 1, Duration.ofMinutes(1), 100);
+        limiter.tryAcquire("a");
+
+        limiter.reset("a");
+
+        assertThat(limiter.trackedKeys()).isZero();
+        assertThat(limiter.tryAcquire("a")).isTrue();
+    }
+
+    @Test
+    void evictsLeastRecentlySeenKeyAtCapacity() {
+        RateLimiter<String> limiter = limiter(RateLimitPolicy.Mode.FIXED_WINDOW, 1, Duration.ofMinutes(1), 2);
+
+        limiter.tryAcquire("a");
+        advance(Duration.ofSeconds(1));
+        limiter.tryAcquire("b");
+        advance(Duration.ofSeconds(1));
+        limiter.tryAcquire("c");
+
+        assertThat(limiter.trackedKeys()).isEqualTo(2);
+        assertThat(limiter.tryAcquire("b")).isFalse();
+        assertThat(limiter.tryAcquire("c")).isFalse();
+    }
+
+    @Test
+    void evictionPrefersOldKeysWhereverTheyAreInTheTable() {
+        int rounds = 20;
+        int newcomers = 16;
+        int survivors = 0;
+        for (int round = 0; round < rounds; round++) {
+            RateLimiter<String> limiter = limiter(RateLimitPolicy.Mode.FIXED_WINDOW, 1, Duration.ofMinutes(1), 64);
+            for (int i = 0; i < 64; i++) {
+                limiter.tryAcquire("old-" + i);
+            }
+            for (int i = 0; i < newcomers; i++) {
+                advance(Duration.ofMillis(1));
+                limiter.tryAcquire("new-" + i);
+            }
+            assertThat(limiter.trackedKeys()).isLessThanOrEqualTo(64);
+            for (int i = 0; i < newcomers; i++) {
+                // a tracked newcomer has used up its single attempt
+                if (!limiter.tryAcquire("new-" + i)) {
+                    survivors++;
+                }
+            }
+        }
+
+        // sampling is approximate, but samples taken from one fixed spot would keep evicting newcomers hashed there
+        assertThat(survivors).isGreaterThan(rounds * newcomers * 9 / 10);
+    }
+
+    @Test
+    void concurrentNewKeysStayNearTheCap() throws Exception {
+        int maxKeys = 1_000;
+        int threads = 8;
+        RateLimiter<String> limiter = limiter(RateLimitPolicy.Mode.FIXED_WINDOW, 3, Duration.ofSeconds(10), maxKeys);
+        AtomicInteger largest = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> runs = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                runs.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        limiter.tryAcquire(thread + ":" + i);
+                        largest.accumulateAndGet(limiter.trackedKeys(), Math::max);
+                    }
+                }));
+            }
+            for (Future<?> run : runs) {
+                run.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(largest.get()).isLessThanOrEqualTo(maxKeys + maxKeys / 8 + threads);
+    }
+
+    @Test
+    void sweepsIdleKeys() {
+        RateLimiter<String> limiter = limiter(RateLimitPolicy.Mode.TOKEN_BUCKET, 5, Duration.ofSeconds(1), 100);
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("b");
+
+        advance(Duration.ofSeconds(2));
+        limiter.tryAcquire("c");
+
+        assertThat(limiter.trackedKeys()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsWindowedLimitsThatDoNotFitCounters() {
+        assertThatThrownBy(() -> new RateLimitPolicy(RateLimitPolicy.Mode.SLIDING_WINDOW, 70_000, Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private RateLimiter<String> limiter(RateLimitPolicy.Mode mode, int limit, Duration window, int maxKeys) {
+        return new RateLimiter<>(new RateLimitPolicy(mode, limit, window, maxKeys), clock::get);
+    }
+
+    private int attempts(RateLimiter<String> limiter, String key, int count) {
+        int allowed = 0;
+        for (int i = 0; i < count; i++) {
+            if (limiter.tryAcquire(key)) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,108 @@
+package com.homeputers.ebal2.api.rehearsal;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RehearsalPackCacheTest {
+
+    @Test
+    void buildsEachPackOnce() throws IOException {
+        RehearsalPackCache cache = new RehearsalPackCache(1024, 1024, Duration.ofSeconds(5));
+        AtomicInteger builds = new AtomicInteger();
+
+        String first = write(cache, "a", out -> {
+            builds.incrementAndGet();
+            out.write("pack".getBytes());
+        });
+        String second = write(cache, "a", out -> builds.incrementAndGet());
+
+        assertThat(first).isEqualTo("pack");
+        assertThat(second).isEqualTo("pack");
+        assertThat(builds).hasValue(1);
+    }
+
+    @Test
+    void concurrentRequestsWaitForTheBuildInProgress() throws Exception {
+        RehearsalPackCache cache = new RehearsalPackCache(1024, 1024, Duration.ofSeconds(5));
+        AtomicInteger builds = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> write(cache, "a", out -> {
+                builds.incrementAndGet();
+                out.write("pa".getBytes());
+                started.countDown();
+                awaitQuietly(release);
+                out.write("ck".getBytes());
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<String> follower = executor.submit(() -> write(cache, "a", out -> {
+                builds.incrementAndGet();
+                out.write("pack".getBytes());
+            }));
+            Thread.sleep(50);
+            release.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("pack");
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("pack");
+            assertThat(builds).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void oversizedPacksAreStreamedButNotCached() throws IOException {
+        RehearsalPackCache cache = new RehearsalPackCache(1024, 3, Duration.ofSeconds(5));
+        AtomicInteger builds = new AtomicInteger();
+        RehearsalPackCache.PackWriter writer = out -> {
+            builds.incrementAndGet();
+            out.write("pack".getBytes());
+        };
+
+        assertThat(write(cache, "a", writer)).isEqualTo("pack");
+        assertThat(write(cache, "a", writer)).isEqualTo("pack");
+        assertThat(builds).hasValue(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void evictsLeastRecentlyReadPacksWhenOverBudget() throws IOException {
+        RehearsalPackCache cache = new RehearsalPackCache(8, 8, Duration.ofSeconds(5));
+        write(cache, "a", out -> out.write("aaaa".getBytes()));
+        write(cache, "b", out -> out.write("bbbb".getBytes()));
+        write(cache, "a", out -> out.write("rebuilt".getBytes()));
+        write(cache, "c", out -> out.write("cccc".getBytes()));
+
+        assertThat(cache.size()).isEqualTo(8);
+        assertThat(write(cache, "a", out -> out.write("rebuilt".getBytes()))).isEqualTo("aaaa");
+        assertThat(write(cache, "b", out -> out.write("rebuilt".getBytes()))).isEqualTo("rebuilt");
+    }
+
+    private static String write(RehearsalPackCache cache, String hash, RehearsalPackCache.PackWriter writer)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.write(hash, out, writer);
+        return out.toString();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.homeputers.ebal2.api.rehearsal;
+
+import com.homeputers.ebal2.api.chordpro.ChordChartService;
+import com.homeputers.ebal2.api.config.ChordProProperties;
+import com.homeputers.ebal2.api.config.RehearsalPackProperties;
+import com.homeputers.ebal2.api.domain.arrangement.Arrangement;
+import com.homeputers.ebal2.api.domain.arrangement.ArrangementMapper;
+import com.homeputers.ebal2.api.domain.service.Service;
+import com.homeputers.ebal2.api.domain.serviceplanitem.ServicePlanItem;
+import com.homeputers.ebal2.api.domain.song.Song;
+import com.homeputers.ebal2.api.domain.songset.SongSet;
+import com.homeputers.ebal2.api.domain.songsetitem.SongSetItem;
+import com.homeputers.ebal2.api.service.ServiceCalendarService;
+import com.homeputers.ebal2.api.service.ServiceService;
+import com.homeputers.ebal2.api.song.SongService;
+import com.homeputers.ebal2.api.songset.SongSetService;
+import com.homeputers.ebal2.api.songsetitem.SongSetItemService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RehearsalPackServiceTest {
+
+    private static final Song SONG = new Song(UUID.randomUUID(), "Amazing Grace", null, null, "G", null);
+    private static final UUID ARRANGEMENT_ID = UUID.randomUUID();
+    private static final String CHART = "{title: Amazing Grace}\n[G]Amazing [D]grace";
+
+    @Mock
+    private SongSetService songSetService;
+
+    @Mock
+    private ServiceService serviceService;
+
+    @Mock
+    private ArrangementMapper arrangementMapper;
+
+    @Mock
+    private SongService songService;
+
+    @Mock
+    private SongSetItemService songSetItemService;
+
+    private final ServiceCalendarService calendarService = new ServiceCalendarService(null, null);
+    private final UUID songSetId = UUID.randomUUID();
+    private RehearsalPackService service;
+
+    @BeforeEach
+    void setUp() {
+        ChordChartService chordChartService =
+                new ChordChartService(songService, songSetItemService, new ChordProProperties());
+        service = new RehearsalPackService(songSetService, serviceService, arrangementMapper, chordChartService,
+                calendarService, new RehearsalPackProperties());
+    }
+
+    @Test
+    void songSetPackHoldsSetlistAndTransposedCharts() throws IOException {
+        givenSongSet(arrangement(0, CHART), new Arrangement(UUID.randomUUID(), SONG, "G", 72, "4/4", null, 0));
+
+        RehearsalPack pack = service.forSongSet(songSetId);
+        Map<String, String> entries = unzip(pack);
+
+        assertThat(pack.fileName()).isEqualTo("Sunday - Morning.zip");
+        assertThat(entries.keySet()).containsExactly("setlist.txt", "01 Amazing Grace.html");
+        assertThat(entries.get("setlist.txt")).isEqualTo("""
+                Sunday / Morning
+
+                 1. Amazing Grace - A (capo 2, play G), 72 BPM, 4/4
+                 2. Amazing Grace - A (capo 2, play G), 72 BPM, 4/4 (no chart)
+                """);
+        assertThat(entries.get("01 Amazing Grace.html"))
+                .startsWith("<!DOCTYPE html>")
+                .contains("<span class=\"chord\">G</span>")
+                .contains("<span class=\"chord\">D</span>");
+    }
+
+    @Test
+    void contentHashFollowsTheInputs() {
+        givenSongSet(arrangement(0, CHART));
+        String first = service.forSongSet(songSetId).contentHash();
+        String again = service.forSongSet(songSetId).contentHash();
+
+        givenSongSet(arrangement(1, CHART));
+        String edited = service.forSongSet(songSetId).contentHash();
+
+        assertThat(again).isEqualTo(first);
+        assertThat(edited).isNotEqualTo(first);
+    }
+
+    @Test
+    void rebuiltPacksAreByteIdentical() throws IOException {
+        givenSongSet(arrangement(0, CHART));
+        RehearsalPack pack = service.forSongSet(songSetId);
+        RehearsalPackService uncached = new RehearsalPackService(songSetService, serviceService, arrangementMapper,
+                new ChordChartService(songService, songSetItemService, new ChordProProperties()), calendarService,
+                new RehearsalPackProperties());
+
+        byte[] first = zip(service, pack);
+        byte[] rebuilt = zip(uncached, pack);
+
+        assertThat(rebuilt).isEqualTo(first);
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(first))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                assertThat(entry.getTimeLocal()).as(entry.getName()).isEqualTo(RehearsalPackService.ENTRY_TIME);
+            }
+        }
+    }
+
+    @Test
+    void servicePackAddsCalendarAndPlanItems() throws IOException {
+        UUID serviceId = UUID.randomUUID();
+        Service sunday = new Service(serviceId, OffsetDateTime.of(2024, 5, 5, 10, 0, 0, 0, ZoneOffset.UTC), "Main Hall");
+        Arrangement arrangement = arrangement(0, CHART);
+        when(serviceService.get(serviceId)).thenReturn(sunday);
+        when(serviceService.listPlanItems(serviceId)).thenReturn(List.of(
+                new ServicePlanItem(null, sunday, "reading", null, 1, "Psalm 23"),
+                new ServicePlanItem(null, sunday, "song", arrangement.id(), 2, "Soft intro")));
+        when(arrangementMapper.findById(arrangement.id())).thenReturn(arrangement);
+
+        Map<String, String> entries = unzip(service.forService(serviceId));
+
+        assertThat(entries.keySet()).containsExactly("setlist.txt", "service.ics", "02 Amazing Grace.html");
+        assertThat(entries.get("setlist.txt")).isEqualTo("""
+                Service 2024-05-05 10:00 +00:00 - Main Hall
+
+                 1. Reading - Psalm 23
+                 2. Amazing Grace - G, 72 BPM, 4/4
+                    Soft intro
+                """);
+        assertThat(entries.get("service.ics")).contains("UID:" + serviceId + "@services.ebal");
+    }
+
+    private void givenSongSet(Arrangement... arrangements) {
+        SongSet songSet = new SongSet(songSetId, "Sunday / Morning");
+        when(songSetService.get(songSetId)).thenReturn(songSet);
+        List<SongSetItem> items = new ArrayList<>();
+        for (int i = 0; i < arrangements.length; i++) {
+            Arrangement detail = arrangements[i];
+            Arrangement summary = new Arrangement(detail.id(), detail.song(), detail.key(), detail.bpm(),
+                    detail.meter(), null, detail.version());
+            items.add(new SongSetItem(null, songSet, summary, i, 2, 2));
+            when(arrangementMapper.findById(detail.id())).thenReturn(detail);
+        }
+        when(songSetService.listItems(songSetId)).thenReturn(items);
+    }
+
+    private Map<String, String> unzip(RehearsalPack pack) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(zip(service, pack)))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+
+    private static byte[] zip(RehearsalPackService packs, RehearsalPack pack) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        packs.write(pack, out);
+        return out.toByteArray();
+    }
+
+    private static Arrangement arrangement(int version, String chordpro) {
+        return new Arrangement(ARRANGEMENT_ID, SONG, "G", 72, "4/4", chordpro, version);
+    }
+}
@@ -0,0 +1,64 @@
+package com.homeputers.ebal2.api.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClientIpResolverTest {
+
+    private final ClientIpResolver resolver = new ClientIpResolver(List.of("10.0.0.0/8", "::1"));
+
+    @Test
+    void ignoresTheHeaderWithoutTrustedProxies() {
+        ClientIpResolver untrusting = new ClientIpResolver(List.of());
+
+        assertThat(untrusting.resolve(request("10.0.0.5", "203.0.113.7"))).isEqualTo("10.0.0.5");
+    }
+
+    @Test
+    void ignoresTheHeaderFromUntrustedConnections() {
+        assertThat(resolver.resolve(request("198.51.100.2", "203.0.113.7"))).isEqualTo("198.51.100.2");
+    }
+
+    @Test
+    void takesTheNearestAddressThatIsNotATrustedProxy() {
+        // the client made up the first entry; the proxies appended the rest
+        MockHttpServletRequest request = request("10.0.0.5", "192.0.2.99, 203.0.113.7, 10.0.0.9");
+
+        assertThat(resolver.resolve(request)).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void readsEveryHeaderInstanceAndBracketedAddresses() {
+        MockHttpServletRequest request = request("::1", "192.0.2.99");
+        request.addHeader(ClientIpResolver.FORWARDED_FOR_HEADER, "[2001:db8::1]");
+
+        assertThat(resolver.resolve(request)).isEqualTo("2001:db8::1");
+    }
+
+    @Test
+    void fallsBackToTheLastTrustedHop() {
+        assertThat(resolver.resolve(request("10.0.0.5", "10.0.0.7"))).isEqualTo("10.0.0.7");
+        assertThat(resolver.resolve(request("10.0.0.5", "203.0.113.7, not-an-address"))).isEqualTo("10.0.0.5");
+        assertThat(resolver.resolve(request("10.0.0.5", null))).isEqualTo("10.0.0.5");
+    }
+
+    @Test
+    void rejectsHostNamesAsTrustedProxies() {
+        assertThatThrownBy(() -> new ClientIpResolver(List.of("proxy.example.com")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddress);
+        if (forwardedFor != null) {
+            request.addHeader(ClientIpResolver.FORWARDED_FOR_HEADER, forwardedFor);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,54 @@
+package com.homeputers.ebal2.api.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntToLongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordHashCalibratorTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void picksHighestStrengthWithinTarget() {
+        // strength 10 -> 40ms, 11 -> 80ms, 12 -> 160ms, 13 -> 320ms
+        IntToLongFunction timer = strength -> (40L << (strength - 10)) * MILLIS;
+        PasswordHashCalibrator calibrator = new PasswordHashCalibrator(Duration.ofMillis(250), 10, 16, timer);
+
+        assertThat(calibrator.calibrate()).isEqualTo(12);
+    }
+
+    @Test
+    void stopsBeforeMeasuringStrengthPredictedToOvershoot() {
+        List<Integer> measured = new ArrayList<>();
+        IntToLongFunction timer = strength -> {
+            measured.add(strength);
+            return (40L << Math.max(0, strength - 10)) * MILLIS;
+        };
+        PasswordHashCalibrator calibrator = new PasswordHashCalibrator(Duration.ofMillis(250), 10, 16, timer);
+
+        calibrator.calibrate();
+
+        assertThat(measured).containsExactly(4, 10, 11, 12);
+    }
+
+    @Test
+    void neverGoesBelowMinimumOnSlowHosts() {
+        IntToLongFunction timer = strength -> Duration.ofSeconds(1).toNanos();
+        PasswordHashCalibrator calibrator = new PasswordHashCalibrator(Duration.ofMillis(250), 10, 16, timer);
+
+        assertThat(calibrator.calibrate()).isEqualTo(10);
+    }
+
+    @Test
+    void capsAtMaximumOnFastHosts() {
+        IntToLongFunction timer = strength -> 1L;
+        PasswordHashCalibrator calibrator = new PasswordHashCalibrator(Duration.ofMillis(250), 10, 12, timer);
+
+        assertThat(calibrator.calibrate()).isEqualTo(12);
+    }
+}
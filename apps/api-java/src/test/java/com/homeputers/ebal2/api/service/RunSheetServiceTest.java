@@ -0,0 +1,125 @@
+package com.homeputers.ebal2.api.service;
+
+import com.homeputers.ebal2.api.domain.arrangement.Arrangement;
+import com.homeputers.ebal2.api.domain.arrangement.ArrangementMapper;
+import com.homeputers.ebal2.api.domain.serviceplanitem.ServicePlanItem;
+import com.homeputers.ebal2.api.domain.song.Song;
+import com.homeputers.ebal2.api.domain.songset.SongSet;
+import com.homeputers.ebal2.api.domain.songset.SongSetMapper;
+import com.homeputers.ebal2.api.domain.songsetitem.SongSetItem;
+import com.homeputers.ebal2.api.domain.songsetitem.SongSetItemMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RunSheetServiceTest {
+
+    private static final Song SONG = new Song(UUID.randomUUID(), "Amazing Grace", null, null, "G", List.of());
+
+    @Mock
+    private ServiceService serviceService;
+
+    @Mock
+    private ArrangementMapper arrangementMapper;
+
+    @Mock
+    private SongSetMapper songSetMapper;
+
+    @Mock
+    private SongSetItemMapper songSetItemMapper;
+
+    private final com.homeputers.ebal2.api.domain.service.Service sunday =
+            new com.homeputers.ebal2.api.domain.service.Service(UUID.randomUUID(), null, "Main Hall");
+    private RunSheetService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RunSheetService(serviceService, arrangementMapper, songSetMapper, songSetItemMapper);
+        when(serviceService.get(sunday.id())).thenReturn(sunday);
+    }
+
+    @Test
+    void resolvesEachReferenceTypeWithOneBatch() {
+        Arrangement first = arrangement();
+        Arrangement second = arrangement();
+        SongSet songSet = new SongSet(UUID.randomUUID(), "Communion");
+        givenPlan(
+                item("song", first.id()),
+                item("reading", null),
+                item("arrangement", second.id()),
+                item("song", first.id()),
+                item("song-set", songSet.id()));
+        when(arrangementMapper.findSummariesWithSongByIds(Set.of(first.id(), second.id())))
+                .thenReturn(List.of(second, first));
+        when(songSetMapper.findByIds(Set.of(songSet.id()))).thenReturn(List.of(songSet));
+        when(songSetItemMapper.findJoinedBySongSetIds(Set.of(songSet.id()))).thenReturn(List.of(
+                new SongSetItem(null, songSet, first, 1, 2, 0),
+                new SongSetItem(null, songSet, second, 2, 0, 0)));
+
+        RunSheet runSheet = service.get(sunday.id());
+
+        assertThat(runSheet.service()).isEqualTo(sunday);
+        assertThat(runSheet.items()).extracting(RunSheet.Entry::arrangement)
+                .containsExactly(first, null, second, first, null);
+        RunSheet.Entry set = runSheet.items().get(4);
+        assertThat(set.songSet()).isEqualTo(songSet);
+        assertThat(set.songSetItems()).extracting(SongSetItem::arrangement).containsExactly(first, second);
+        verify(arrangementMapper, times(1)).findSummariesWithSongByIds(anyCollection());
+        verify(songSetItemMapper, times(1)).findJoinedBySongSetIds(anyCollection());
+    }
+
+    @Test
+    void skipsLookupsWhenNothingIsReferenced() {
+        givenPlan(item("reading", null), item("note", null), item("note", UUID.randomUUID()));
+
+        RunSheet runSheet = service.get(sunday.id());
+
+        assertThat(runSheet.items()).hasSize(3)
+                .allSatisfy(entry -> assertThat(entry.arrangement()).isNull());
+        verifyNoInteractions(arrangementMapper, songSetMapper, songSetItemMapper);
+    }
+
+    @Test
+    void leavesMissingTargetsUnresolved() {
+        UUID deletedArrangement = UUID.randomUUID();
+        UUID deletedSet = UUID.randomUUID();
+        givenPlan(item("song", deletedArrangement), item("song-set", deletedSet));
+        when(arrangementMapper.findSummariesWithSongByIds(Set.of(deletedArrangement))).thenReturn(List.of());
+        when(songSetMapper.findByIds(Set.of(deletedSet))).thenReturn(List.of());
+        when(songSetItemMapper.findJoinedBySongSetIds(Set.of(deletedSet))).thenReturn(List.of());
+
+        RunSheet runSheet = service.get(sunday.id());
+
+        assertThat(runSheet.items()).allSatisfy(entry -> {
+            assertThat(entry.arrangement()).isNull();
+            assertThat(entry.songSet()).isNull();
+            assertThat(entry.songSetItems()).isEmpty();
+        });
+    }
+
+    private void givenPlan(ServicePlanItem... items) {
+        when(serviceService.listPlanItems(sunday.id())).thenReturn(List.of(items));
+    }
+
+    private ServicePlanItem item(String type, UUID refId) {
+        return new ServicePlanItem(null, sunday, type, refId, 0, null);
+    }
+
+    private static Arrangement arrangement() {
+        return new Arrangement(UUID.randomUUID(), SONG, "G", 72, "4/4", null, 0);
+    }
+}
@@ -1,9 +1,14 @@
 package com.homeputers.ebal2.api.serviceplanitem;
 
+import com.homeputers.ebal2.api.domain.changelog.ChangeLogEntry;
 import com.homeputers.ebal2.api.domain.service.Service;
 import com.homeputers.ebal2.api.domain.serviceplanitem.ServicePlanItem;
 import com.homeputers.ebal2.api.domain.serviceplanitem.ServicePlanItemMapper;
+import com.homeputers.ebal2.api.events.ChangeKind;
+import com.homeputers.ebal2.api.events.DomainEvents;
+import com.homeputers.ebal2.api.events.PlanItemChanged;
 import com.homeputers.ebal2.api.generated.model.ServicePlanItemRequest;
+import com.homeputers.ebal2.api.sync.ChangeLog;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -23,6 +28,12 @@ class ServicePlanItemServiceTest {
     @Mock
     private ServicePlanItemMapper mapper;
 
+    @Mock
+    private ChangeLog changeLog;
+
+    @Mock
+    private DomainEvents events;
+
     @InjectMocks
     private ServicePlanItemService service;
 
@@ -52,5 +63,7 @@ class ServicePlanItemServiceTest {
         assertThat(updated.notes()).isEmpty();
 
         verify(mapper).update(updated);
+        verify(changeLog).upserted(ChangeLogEntry.SERVICE_PLAN_ITEM, id);
+        verify(events).publish(new PlanItemChanged(serviceEntity.id(), id, ChangeKind.UPDATED));
     }
 }
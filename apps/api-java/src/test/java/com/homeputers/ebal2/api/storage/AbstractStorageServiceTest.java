@@ -0,0 +1,169 @@
+package com.homeputers.ebal2.api.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.time.Duration;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Behaviour every {@link StorageService} backend must share. Subclasses provide the backend and a way to follow its
+ * signed URLs.
+ */
+abstract class AbstractStorageServiceTest {
+
+    /**
+     * Larger than the smallest multipart part size, so backends that split uploads do so here.
+     */
+    static final int MULTIPART_SIZE = 12 * 1024 * 1024;
+
+    protected abstract StorageService storage();
+
+    /**
+     * Downloads the object behind a URL returned by {@link StorageService#signedUrl}.
+     */
+    protected abstract byte[] fetchSigned(String url) throws Exception;
+
+    /**
+     * Uploads {@code content} to a URL returned by {@link StorageService#signedUploadUrl}.
+     */
+    protected abstract void uploadSigned(String url, byte[] content) throws Exception;
+
+    @Test
+    void roundTripsSmallObjects() throws Exception {
+        String name = objectName("notes.txt");
+        byte[] content = "Capo 2, play softly".getBytes();
+
+        storage().put(name, new ByteArrayInputStream(content), content.length, "text/plain");
+
+        try (InputStream data = storage().get(name)) {
+            assertThat(data.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void roundTripsObjectsLargerThanOnePart() throws Exception {
+        String name = objectName("recording.bin");
+        byte[] content = randomBytes(MULTIPART_SIZE);
+
+        storage().put(name, new ByteArrayInputStream(content), content.length, "application/octet-stream");
+
+        try (InputStream data = storage().get(name)) {
+            assertThat(data.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void transferToWritesTheWholeObject() {
+        String name = objectName("chart.pdf");
+        byte[] content = randomBytes(300_000);
+        storage().put(name, new ByteArrayInputStream(content), content.length, "application/pdf");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = storage().transferTo(name, Channels.newChannel(out));
+
+        assertThat(written).isEqualTo(content.length);
+        assertThat(out.toByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    void putReplacesAnExistingObject() throws Exception {
+        String name = objectName("setlist.txt");
+        storage().put(name, new ByteArrayInputStream(new byte[]{1, 2, 3}), 3, null);
+        storage().put(name, new ByteArrayInputStream(new byte[]{4, 5}), 2, null);
+
+        try (InputStream data = storage().get(name)) {
+            assertThat(data.readAllBytes()).containsExactly(4, 5);
+        }
+    }
+
+    @Test
+    void putFailsWhenTheStreamEndsEarlyAndStoresNothing() {
+        String name = objectName("truncated.bin");
+
+        assertThatThrownBy(() -> storage().put(name, new ByteArrayInputStream(new byte[10]), 20, null))
+                .isInstanceOf(StorageException.class);
+        assertThatThrownBy(() -> storage().get(name)).isInstanceOf(StorageObjectNotFoundException.class);
+    }
+
+    @Test
+    void reportsMissingObjectsAsNotFound() {
+        String name = objectName("missing.bin");
+
+        assertThatThrownBy(() -> storage().get(name)).isInstanceOf(StorageObjectNotFoundException.class);
+        assertThatThrownBy(() -> storage().transferTo(name, Channels.newChannel(new ByteArrayOutputStream())))
+                .isInstanceOf(StorageObjectNotFoundException.class);
+    }
+
+    @Test
+    void deleteRemovesTheObjectAndIgnoresMissingOnes() {
+        String name = objectName("old.txt");
+        storage().put(name, new ByteArrayInputStream(new byte[]{1}), 1, null);
+
+        storage().delete(name);
+        storage().delete(name);
+
+        assertThatThrownBy(() -> storage().get(name)).isInstanceOf(StorageObjectNotFoundException.class);
+    }
+
+    @Test
+    void signedUrlsServeTheObject() throws Exception {
+        String name = objectName("lead sheet.txt");
+        byte[] content = "Verse, chorus, bridge".getBytes();
+        storage().put(name, new ByteArrayInputStream(content), content.length, "text/plain");
+
+        String url = storage().signedUrl(name, Duration.ofMinutes(5));
+
+        assertThat(fetchSigned(url)).isEqualTo(content);
+    }
+
+    @Test
+    void copiesObjects() throws Exception {
+        String source = objectName("take-1.mp3");
+        String target = objectName("take-1-copy.mp3");
+        byte[] content = randomBytes(4096);
+        storage().put(source, new ByteArrayInputStream(content), content.length, "audio/mpeg");
+
+        storage().copy(source, target);
+        storage().delete(source);
+
+        try (InputStream data = storage().get(target)) {
+            assertThat(data.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void copyingMissingObjectsFails() {
+        assertThatThrownBy(() -> storage().copy(objectName("missing"), objectName("copy")))
+                .isInstanceOf(StorageObjectNotFoundException.class);
+    }
+
+    @Test
+    void signedUploadUrlsStoreTheObject() throws Exception {
+        String name = objectName("upload.bin");
+        byte[] content = randomBytes(2048);
+
+        uploadSigned(storage().signedUploadUrl(name, content.length, Duration.ofMinutes(5)), content);
+
+        try (InputStream data = storage().get(name)) {
+            assertThat(data.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    static String objectName(String fileName) {
+        return "conformance/" + UUID.randomUUID() + "/" + fileName;
+    }
+
+    static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,151 @@
+package com.homeputers.ebal2.api.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FilesystemStorageServiceTest extends AbstractStorageServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-01T10:00:00Z");
+
+    @TempDir
+    Path root;
+
+    private FilesystemStorageService storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new FilesystemStorageService(root, "https://band.example.com/", "test-key",
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Override
+    protected StorageService storage() {
+        return storage;
+    }
+
+    @Override
+    protected byte[] fetchSigned(String url) throws Exception {
+        UriComponents uri = UriComponentsBuilder.fromUriString(url).build(true);
+        assertThat(uri.getPath()).isEqualTo(FilesystemStorageService.OBJECTS_PATH);
+        Path file = storage.resolveSigned(decode(uri.getQueryParams().getFirst("key")),
+                Long.parseLong(uri.getQueryParams().getFirst("expires")),
+                uri.getQueryParams().getFirst("signature"));
+        return Files.readAllBytes(file);
+    }
+
+    @Override
+    protected void uploadSigned(String url, byte[] content) {
+        UriComponents uri = UriComponentsBuilder.fromUriString(url).build(true);
+        assertThat(uri.getPath()).isEqualTo(FilesystemStorageService.OBJECTS_PATH);
+        storage.putSigned(decode(uri.getQueryParams().getFirst("key")),
+                Long.parseLong(uri.getQueryParams().getFirst("expires")),
+                Long.parseLong(uri.getQueryParams().getFirst("size")),
+                uri.getQueryParams().getFirst("signature"),
+                new ByteArrayInputStream(content), content.length, null);
+    }
+
+    @Test
+    void signedUploadsMustMatchTheSignedSize() {
+        String name = objectName("upload.bin");
+        UriComponents upload = UriComponentsBuilder
+                .fromUriString(storage.signedUploadUrl(name, 4, Duration.ofMinutes(5))).build(true);
+        long expires = Long.parseLong(upload.getQueryParams().getFirst("expires"));
+        String signature = upload.getQueryParams().getFirst("signature");
+
+        assertThatThrownBy(() -> storage.putSigned(name, expires, 8, signature,
+                new ByteArrayInputStream(new byte[8]), 8, null))
+                .isInstanceOf(StorageObjectNotFoundException.class);
+        assertThatThrownBy(() -> storage.putSigned(name, expires, 4, signature,
+                new ByteArrayInputStream(new byte[8]), 8, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        // without a Content-Length the body is read up to the signed size and one byte past it
+        assertThatThrownBy(() -> storage.putSigned(name, expires, 4, signature,
+                new ByteArrayInputStream(new byte[8]), -1, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(Files.exists(root.resolve(name))).isFalse();
+        assertThat(root.resolve(FilesystemStorageService.INCOMING_DIRECTORY)).isEmptyDirectory();
+    }
+
+    @Test
+    void downloadAndUploadSignaturesAreNotInterchangeable() {
+        String name = objectName("chart.pdf");
+        storage.put(name, new ByteArrayInputStream(new byte[]{7}), 1, null);
+        UriComponents download = UriComponentsBuilder.fromUriString(storage.signedUrl(name, Duration.ofMinutes(5)))
+                .build(true);
+        UriComponents upload = UriComponentsBuilder
+                .fromUriString(storage.signedUploadUrl(name, 1, Duration.ofMinutes(5))).build(true);
+
+        assertThatThrownBy(() -> storage.putSigned(name,
+                Long.parseLong(download.getQueryParams().getFirst("expires")), 1,
+                download.getQueryParams().getFirst("signature"), new ByteArrayInputStream(new byte[]{8}), 1, null))
+                .isInstanceOf(StorageObjectNotFoundException.class);
+        assertThatThrownBy(() -> storage.resolveSigned(name,
+                Long.parseLong(upload.getQueryParams().getFirst("expires")),
+                upload.getQueryParams().getFirst("signature")))
+                .isInstanceOf(StorageObjectNotFoundException.class);
+    }
+
+    @Test
+    void rejectsNamesOutsideTheRoot() {
+        for (String name : new String[]{"../escape.txt", "/etc/passwd", "a//b", ".incoming/x", "a/./b", "a\\b"}) {
+            assertThatThrownBy(() -> storage.put(name, new ByteArrayInputStream(new byte[1]), 1, null))
+                    .as(name)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void rejectsTamperedAndExpiredSignatures() throws Exception {
+        String name = objectName("chart.pdf");
+        storage.put(name, new ByteArrayInputStream(new byte[]{7}), 1, null);
+        UriComponents uri = UriComponentsBuilder.fromUriString(storage.signedUrl(name, Duration.ofMinutes(5)))
+                .build(true);
+        long expires = Long.parseLong(uri.getQueryParams().getFirst("expires"));
+        String signature = uri.getQueryParams().getFirst("signature");
+
+        assertThat(storage.resolveSigned(name, expires, signature)).exists();
+        assertThatThrownBy(() -> storage.resolveSigned(name, expires + 60, signature))
+                .isInstanceOf(StorageObjectNotFoundException.class);
+        assertThatThrownBy(() -> storage.resolveSigned(objectName("other.pdf"), expires, signature))
+                .isInstanceOf(StorageObjectNotFoundException.class);
+
+        FilesystemStorageService later = new FilesystemStorageService(root, "", "test-key",
+                Clock.fixed(NOW.plus(Duration.ofMinutes(6)), ZoneOffset.UTC));
+        assertThatThrownBy(() -> later.resolveSigned(name, expires, signature))
+                .isInstanceOf(StorageObjectNotFoundException.class);
+    }
+
+    @Test
+    void leavesNoTempFilesBehind() throws Exception {
+        storage.put(objectName("a.bin"), new ByteArrayInputStream(new byte[64]), 64, null);
+        try {
+            storage.put(objectName("b.bin"), new ByteArrayInputStream(new byte[8]), 64, null);
+        } catch (StorageException expected) {
+            // truncated upload
+        }
+
+        try (var files = Files.list(root.resolve(FilesystemStorageService.INCOMING_DIRECTORY))) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,203 @@
+package com.homeputers.ebal2.api.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalObjectCacheTest {
+
+    @TempDir
+    Path storageRoot;
+
+    @TempDir
+    Path cacheRoot;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private CountingStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new CountingStorage(new FilesystemStorageService(storageRoot, "", "test-key",
+                Clock.fixed(Instant.parse("2026-03-01T10:00:00Z"), ZoneOffset.UTC)));
+    }
+
+    @Test
+    void servesRepeatedReadsFromDisk() throws Exception {
+        put("media/a", "rehearsal");
+        LocalObjectCache cache = new LocalObjectCache(storage, cacheRoot, 1024, nanos::get);
+
+        LocalObjectCache.CachedObject first = cache.get("media/a");
+        LocalObjectCache.CachedObject second = cache.get("media/a");
+
+        assertThat(second).isEqualTo(first);
+        assertThat(first.size()).isEqualTo(9);
+        assertThat(Files.readString(first.file())).isEqualTo("rehearsal");
+        assertThat(fetches).hasValue(1);
+    }
+
+    @Test
+    void concurrentMissesShareOneFetch() throws Exception {
+        put("media/a", "rehearsal");
+        CountDownLatch release = new CountDownLatch(1);
+        storage.gate = release;
+        LocalObjectCache cache = new LocalObjectCache(storage, cacheRoot, 1024, nanos::get);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<LocalObjectCache.CachedObject>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> cache.get("media/a")));
+            }
+            // give every request time to reach the cache before the fetch completes
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<LocalObjectCache.CachedObject> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).size()).isEqualTo(9);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(fetches).hasValue(1);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondMaxBytes() throws Exception {
+        put("media/a", "aaaa");
+        put("media/b", "bbbb");
+        put("media/c", "cccc");
+        LocalObjectCache cache = new LocalObjectCache(storage, cacheRoot, 8, nanos::get);
+
+        cache.get("media/a");
+        nanos.addAndGet(1_000);
+        cache.get("media/b");
+        nanos.addAndGet(1_000);
+        cache.get("media/a");
+        nanos.addAndGet(1_000);
+        cache.get("media/c");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.totalBytes()).isEqualTo(8);
+        cache.get("media/a");
+        assertThat(fetches).hasValue(3);
+        cache.get("media/b");
+        assertThat(fetches).hasValue(4);
+    }
+
+    @Test
+    void deletesEvictedFilesAfterDelay() throws Exception {
+        put("media/a", "aaaa");
+        LocalObjectCache cache = new LocalObjectCache(storage, cacheRoot, 8, nanos::get);
+        Path file = cache.get("media/a").file();
+
+        cache.evict("media/a");
+        assertThat(file).exists();
+
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        cache.evict("media/other");
+        assertThat(file).doesNotExist();
+        assertThat(cache.totalBytes()).isZero();
+    }
+
+    @Test
+    void missingObjectIsNotFoundAndNotCached() {
+        LocalObjectCache cache = new LocalObjectCache(storage, cacheRoot, 8, nanos::get);
+
+        assertThatThrownBy(() -> cache.get("media/missing")).isInstanceOf(StorageObjectNotFoundException.class);
+        assertThatThrownBy(() -> cache.get("media/missing")).isInstanceOf(StorageObjectNotFoundException.class);
+        assertThat(cache.size()).isZero();
+        assertThat(fetches).hasValue(2);
+    }
+
+    @Test
+    void removesFilesLeftByPreviousProcess() throws Exception {
+        Path leftover = cacheRoot.resolve("a".repeat(64) + "-1");
+        Path unrelated = cacheRoot.resolve("notes.txt");
+        Files.writeString(leftover, "old");
+        Files.writeString(unrelated, "keep");
+
+        new LocalObjectCache(storage, cacheRoot, 8, nanos::get);
+
+        assertThat(leftover).doesNotExist();
+        assertThat(unrelated).exists();
+    }
+
+    private void put(String name, String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        storage.delegate.put(name, new ByteArrayInputStream(bytes), bytes.length, "audio/mpeg");
+    }
+
+    private final class CountingStorage implements StorageService {
+        private final StorageService delegate;
+        private volatile CountDownLatch gate;
+
+        private CountingStorage(StorageService delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void put(String objectName, InputStream data, long size, String contentType) {
+            delegate.put(objectName, data, size, contentType);
+        }
+
+        @Override
+        public InputStream get(String objectName) {
+            return delegate.get(objectName);
+        }
+
+        @Override
+        public long transferTo(String objectName, WritableByteChannel target) {
+            fetches.incrementAndGet();
+            if (gate != null) {
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return delegate.transferTo(objectName, target);
+        }
+
+        @Override
+        public void delete(String objectName) {
+            delegate.delete(objectName);
+        }
+
+        @Override
+        public void copy(String sourceName, String targetName) {
+            delegate.copy(sourceName, targetName);
+        }
+
+        @Override
+        public String signedUrl(String objectName, Duration expiry) {
+            return delegate.signedUrl(objectName, expiry);
+        }
+
+        @Override
+        public String signedUploadUrl(String objectName, long size, Duration expiry) {
+            return delegate.signedUploadUrl(objectName, size, expiry);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.homeputers.ebal2.api.storage;
+
+import io.minio.MakeBucketArgs;
+import io.minio.MinioClient;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers(disabledWithoutDocker = true)
+class MinioStorageServiceTest extends AbstractStorageServiceTest {
+
+    private static final String ACCESS_KEY = "conformance";
+    private static final String SECRET_KEY = "conformance-secret";
+    private static final String BUCKET = "attachments";
+
+    @Container
+    private static final GenericContainer<?> minio = new GenericContainer<>("minio/minio:RELEASE.2024-01-16T16-07-38Z")
+            .withCommand("server", "/data")
+            .withEnv("MINIO_ROOT_USER", ACCESS_KEY)
+            .withEnv("MINIO_ROOT_PASSWORD", SECRET_KEY)
+            .withExposedPorts(9000)
+            .waitingFor(Wait.forHttp("/minio/health/live").forPort(9000));
+
+    private static MinioStorageService storage;
+
+    @BeforeAll
+    static void createBucket() throws Exception {
+        String endpoint = "http://" + minio.getHost() + ":" + minio.getMappedPort(9000);
+        MinioClient.builder().endpoint(endpoint).credentials(ACCESS_KEY, SECRET_KEY).build()
+                .makeBucket(MakeBucketArgs.builder().bucket(BUCKET).build());
+        storage = new MinioStorageService(endpoint, ACCESS_KEY, SECRET_KEY, BUCKET, "",
+                5L * 1024 * 1024, 4, 100);
+    }
+
+    @AfterAll
+    static void shutDown() throws Exception {
+        storage.destroy();
+    }
+
+    @Override
+    protected StorageService storage() {
+        return storage;
+    }
+
+    @Override
+    protected byte[] fetchSigned(String url) throws Exception {
+        HttpResponse<byte[]> response = HttpClient.newHttpClient()
+                .send(HttpRequest.newBuilder(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return response.body();
+    }
+
+    @Override
+    protected void uploadSigned(String url, byte[] content) throws Exception {
+        HttpResponse<Void> response = HttpClient.newHttpClient()
+                .send(HttpRequest.newBuilder(URI.create(url)).PUT(HttpRequest.BodyPublishers.ofByteArray(content))
+                        .build(), HttpResponse.BodyHandlers.discarding());
+        assertThat(response.statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void reusesSignedUrlsWithinTheCacheWindow() {
+        String name = objectName("chart.pdf");
+
+        String first = storage.signedUrl(name, Duration.ofMinutes(10));
+        String second = storage.signedUrl(name, Duration.ofMinutes(10));
+        String otherExpiry = storage.signedUrl(name, Duration.ofMinutes(20));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(otherExpiry).isNotEqualTo(first);
+    }
+}
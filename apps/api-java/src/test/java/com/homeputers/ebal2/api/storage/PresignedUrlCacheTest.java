@@ -0,0 +1,69 @@
+package com.homeputers.ebal2.api.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PresignedUrlCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger signatures = new AtomicInteger();
+
+    @Test
+    void reusesUrlsForHalfOfTheirLifetime() {
+        PresignedUrlCache cache = new PresignedUrlCache(10, now::get);
+        Duration expiry = Duration.ofMinutes(10);
+
+        String first = cache.get("a", expiry, this::sign);
+        now.addAndGet(Duration.ofMinutes(4).toNanos());
+        String reused = cache.get("a", expiry, this::sign);
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+        String refreshed = cache.get("a", expiry, this::sign);
+
+        assertThat(reused).isEqualTo(first);
+        assertThat(refreshed).isNotEqualTo(first);
+        assertThat(signatures).hasValue(2);
+    }
+
+    @Test
+    void keysByObjectAndExpiry() {
+        PresignedUrlCache cache = new PresignedUrlCache(10, now::get);
+
+        String short1 = cache.get("a", Duration.ofMinutes(5), this::sign);
+        String long1 = cache.get("a", Duration.ofMinutes(60), this::sign);
+        String other = cache.get("b", Duration.ofMinutes(5), this::sign);
+
+        assertThat(short1).isNotEqualTo(long1).isNotEqualTo(other);
+        assertThat(cache.get("a", Duration.ofMinutes(5), this::sign)).isEqualTo(short1);
+    }
+
+    @Test
+    void staysWithinItsEntryLimit() {
+        PresignedUrlCache cache = new PresignedUrlCache(3, now::get);
+
+        for (int i = 0; i < 10; i++) {
+            cache.get("object-" + i, Duration.ofMinutes(5), this::sign);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void signsEveryTimeWhenDisabled() {
+        PresignedUrlCache cache = new PresignedUrlCache(0, now::get);
+
+        cache.get("a", Duration.ofMinutes(5), this::sign);
+        cache.get("a", Duration.ofMinutes(5), this::sign);
+
+        assertThat(signatures).hasValue(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    private String sign() {
+        return "https://minio.example.com/a?sig=" + signatures.incrementAndGet();
+    }
+}
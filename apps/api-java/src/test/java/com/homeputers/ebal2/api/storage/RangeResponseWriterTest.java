@@ -0,0 +1,160 @@
+package com.homeputers.ebal2.api.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.CacheControl;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RangeResponseWriterTest {
+
+    private static final Instant LAST_MODIFIED = Instant.parse("2026-03-01T10:00:00Z");
+    private static final String ETAG = "abc123";
+
+    @TempDir
+    Path directory;
+
+    private LocalObjectCache.CachedObject object;
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/media");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path file = directory.resolve("media");
+        Files.writeString(file, "0123456789");
+        object = new LocalObjectCache.CachedObject(file, 10);
+    }
+
+    @Test
+    void writesFullContentWithoutRange() throws Exception {
+        write();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+        assertThat(response.getHeader("Accept-Ranges")).isEqualTo("bytes");
+        assertThat(response.getHeader("ETag")).isEqualTo("\"abc123\"");
+        assertThat(response.getContentLengthLong()).isEqualTo(10);
+    }
+
+    @Test
+    void writesSingleRangeAsPartialContent() throws Exception {
+        request.addHeader("Range", "bytes=2-5");
+
+        write();
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 2-5/10");
+        assertThat(response.getContentAsString()).isEqualTo("2345");
+    }
+
+    @Test
+    void supportsSuffixAndOpenEndedRanges() throws Exception {
+        request.addHeader("Range", "bytes=-3");
+        write();
+        assertThat(response.getContentAsString()).isEqualTo("789");
+
+        MockHttpServletRequest openEnded = new MockHttpServletRequest("GET", "/media");
+        openEnded.addHeader("Range", "bytes=8-");
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        RangeResponseWriter.write(openEnded, second, object, "audio/mpeg", ETAG, LAST_MODIFIED, CacheControl.noCache());
+        assertThat(second.getHeader("Content-Range")).isEqualTo("bytes 8-9/10");
+        assertThat(second.getContentAsString()).isEqualTo("89");
+    }
+
+    @Test
+    void rejectsRangeBeyondEnd() throws Exception {
+        request.addHeader("Range", "bytes=10-20");
+
+        write();
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes */10");
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void ignoresRangeWhenIfRangeDoesNotMatch() throws Exception {
+        request.addHeader("Range", "bytes=2-5");
+        request.addHeader("If-Range", "\"other\"");
+
+        write();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+    }
+
+    @Test
+    void honoursRangeWhenIfRangeMatchesEtagOrDate() throws Exception {
+        request.addHeader("Range", "bytes=0-1");
+        request.addHeader("If-Range", "\"abc123\"");
+        write();
+        assertThat(response.getStatus()).isEqualTo(206);
+
+        MockHttpServletRequest byDate = new MockHttpServletRequest("GET", "/media");
+        byDate.addHeader("Range", "bytes=0-1");
+        byDate.addHeader("If-Range",
+                DateTimeFormatter.RFC_1123_DATE_TIME.format(LAST_MODIFIED.atZone(ZoneOffset.UTC)));
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        RangeResponseWriter.write(byDate, second, object, "audio/mpeg", ETAG, LAST_MODIFIED, CacheControl.noCache());
+        assertThat(second.getStatus()).isEqualTo(206);
+    }
+
+    @Test
+    void servesFullContentForMultipleRanges() throws Exception {
+        request.addHeader("Range", "bytes=0-1,4-5");
+
+        write();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("0123456789");
+    }
+
+    @Test
+    void answersNotModifiedForMatchingEtag() throws Exception {
+        request.addHeader("If-None-Match", "\"abc123\"");
+
+        write();
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void handsRangeToContainerSendfileWhenSupported() throws Exception {
+        request.setAttribute(RangeResponseWriter.SENDFILE_SUPPORT_ATTRIBUTE, Boolean.TRUE);
+        request.addHeader("Range", "bytes=2-5");
+
+        write();
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(request.getAttribute(RangeResponseWriter.SENDFILE_FILENAME_ATTRIBUTE))
+                .isEqualTo(object.file().toAbsolutePath().toString());
+        assertThat(request.getAttribute(RangeResponseWriter.SENDFILE_START_ATTRIBUTE)).isEqualTo(2L);
+        assertThat(request.getAttribute(RangeResponseWriter.SENDFILE_END_ATTRIBUTE)).isEqualTo(6L);
+    }
+
+    @Test
+    void headRequestSendsHeadersOnly() throws Exception {
+        request.setMethod("HEAD");
+
+        write();
+
+        assertThat(response.getContentLengthLong()).isEqualTo(10);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    private void write() throws Exception {
+        RangeResponseWriter.write(request, response, object, "audio/mpeg", ETAG, LAST_MODIFIED,
+                CacheControl.noCache());
+    }
+}
@@ -1,10 +1,13 @@
 package com.homeputers.ebal2.api.storage;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 
+import java.nio.file.Path;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class StorageFeatureFlagTest {
@@ -34,6 +37,20 @@ class StorageFeatureFlagTest {
                 });
     }
 
+    @Test
+    void filesystemBackendReplacesMinio(@TempDir Path root) {
+        contextRunner.withPropertyValues(
+                        "ebal.storage.enabled=true",
+                        "ebal.storage.backend=filesystem",
+                        "ebal.storage.filesystem.root=" + root
+                )
+                .run(context -> {
+                    assertThat(context).hasSingleBean(StorageService.class);
+                    assertThat(context).hasSingleBean(FilesystemStorageService.class);
+                    assertThat(context).hasSingleBean(StorageController.class);
+                });
+    }
+
     @Configuration(proxyBeanMethods = false)
     @ComponentScan(basePackageClasses = MinioStorageService.class)
     static class StorageComponentConfig {
@@ -0,0 +1,101 @@
+package com.homeputers.ebal2.api.sync;
+
+import com.homeputers.ebal2.api.domain.arrangement.ArrangementMapper;
+import com.homeputers.ebal2.api.domain.changelog.ChangeLogEntry;
+import com.homeputers.ebal2.api.domain.changelog.ChangeLogMapper;
+import com.homeputers.ebal2.api.domain.service.ServiceMapper;
+import com.homeputers.ebal2.api.domain.serviceplanitem.ServicePlanItemMapper;
+import com.homeputers.ebal2.api.domain.song.Song;
+import com.homeputers.ebal2.api.domain.song.SongMapper;
+import com.homeputers.ebal2.api.domain.songset.SongSetMapper;
+import com.homeputers.ebal2.api.domain.songsetitem.SongSetItemMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SyncServiceTest {
+
+    @Mock
+    private ChangeLogMapper changeLogMapper;
+
+    @Mock
+    private SongMapper songMapper;
+
+    @Mock
+    private ArrangementMapper arrangementMapper;
+
+    @Mock
+    private SongSetMapper songSetMapper;
+
+    @Mock
+    private SongSetItemMapper songSetItemMapper;
+
+    @Mock
+    private ServiceMapper serviceMapper;
+
+    @Mock
+    private ServicePlanItemMapper servicePlanItemMapper;
+
+    private SyncService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SyncService(changeLogMapper, songMapper, arrangementMapper, songSetMapper, songSetItemMapper,
+                serviceMapper, servicePlanItemMapper);
+    }
+
+    @Test
+    void returnsOnePageWithCurrentStateAndTombstones() {
+        Song song = new Song(UUID.randomUUID(), "Amazing Grace", null, null, "G", List.of());
+        UUID deletedSong = UUID.randomUUID();
+        UUID vanishedArrangement = UUID.randomUUID();
+        when(changeLogMapper.findAfter(10, 4)).thenReturn(List.of(
+                new ChangeLogEntry(ChangeLogEntry.SONG, song.id(), 11, false),
+                new ChangeLogEntry(ChangeLogEntry.SONG, deletedSong, 12, true),
+                new ChangeLogEntry(ChangeLogEntry.ARRANGEMENT, vanishedArrangement, 14, false),
+                new ChangeLogEntry(ChangeLogEntry.SERVICE, UUID.randomUUID(), 15, false)));
+        when(songMapper.findByIds(List.of(song.id()))).thenReturn(List.of(song));
+        when(arrangementMapper.findWithSongByIds(List.of(vanishedArrangement))).thenReturn(List.of());
+
+        SyncChanges page = service.changesSince("10", 3);
+
+        assertThat(page.changes()).extracting(SyncChanges.Change::value).containsExactly(song, null, null);
+        assertThat(page.changes()).extracting(SyncChanges.Change::deleted).containsExactly(false, true, true);
+        assertThat(page.cursor()).isEqualTo(14);
+        assertThat(page.hasMore()).isTrue();
+        verifyNoInteractions(serviceMapper);
+    }
+
+    @Test
+    void keepsTheCursorWhenNothingChanged() {
+        when(changeLogMapper.findAfter(42, 501)).thenReturn(List.of());
+
+        SyncChanges page = service.changesSince("42", 500);
+
+        assertThat(page.changes()).isEmpty();
+        assertThat(page.cursor()).isEqualTo(42);
+        assertThat(page.hasMore()).isFalse();
+    }
+
+    @Test
+    void rejectsMalformedCursorsAndLimits() {
+        assertThat(SyncService.parseCursor(null)).isZero();
+        assertThat(SyncService.parseCursor(" ")).isZero();
+        assertThatThrownBy(() -> service.changesSince("abc", 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.changesSince("-1", 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.changesSince(null, SyncService.MAX_LIMIT + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(changeLogMapper);
+    }
+}
@@ -3,7 +3,6 @@ import type { paths } from './types';
 import { PathParamsOf, ResponseOf } from './type-helpers';
 
 // API path literals derived from the generated OpenAPI types
-// TODO: replace with dedicated /arrangements/{id} endpoint when backend adds it.
 type ArrangementByIdPath = keyof paths & '/songs/arrangements/{arrangementId}';
 type SongByIdPath = keyof paths & '/songs/{id}';
 type SongArrangementsPath = keyof paths & '/songs/{id}/arrangements';
@@ -17,17 +16,30 @@ export type SongSummary = Pick<SongResponse, 'id' | 'title'>;
 export type ListSongArrangementsResponse = ResponseOf<SongArrangementsPath, 'get', 200>;
 export type ListSongArrangementsParams = PathParamsOf<SongArrangementsPath, 'get'>;
 
-export async function getArrangementById(id: string): Promise<ArrangementSummary | undefined> {
-  const { data } = await apiClient.get<ArrangementResponse>(`/songs/arrangements/${id}`);
-  if (!data) return undefined;
-
-  return {
-    id: data.id ?? id,
-    songId: data.songId,
-    key: data.key,
-    bpm: data.bpm,
-    meter: data.meter,
-  };
+// At most this many ids per batchGet request.
+export const BATCH_GET_MAX_IDS = 100;
+
+type BatchGetResult<K extends string, T> = { id: string; found: boolean } & { [P in K]?: T };
+
+/** Resolves arrangements in one request; ids that do not exist are left out. */
+export async function batchGetArrangements(ids: string[]): Promise<ArrangementSummary[]> {
+  const { data } = await apiClient.post<{
+    results?: BatchGetResult<'arrangement', ArrangementResponse>[];
+  }>('/arrangements:batchGet', { ids });
+
+  return (data?.results ?? []).flatMap(({ id, found, arrangement }) =>
+    found && arrangement
+      ? [
+          {
+            id,
+            songId: arrangement.songId,
+            key: arrangement.key,
+            bpm: arrangement.bpm,
+            meter: arrangement.meter,
+          },
+        ]
+      : [],
+  );
 }
 
 export async function listSongArrangements(params: ListSongArrangementsParams) {
@@ -36,12 +48,14 @@ export async function listSongArrangements(params: ListSongArrangementsParams) {
   return data;
 }
 
-export async function getSongById(id: string): Promise<SongSummary | undefined> {
-  const { data } = await apiClient.get<SongResponse>(`/songs/${id}`);
-  if (!data) return undefined;
+/** Resolves songs in one request; ids that do not exist are left out. */
+export async function batchGetSongs(ids: string[]): Promise<SongSummary[]> {
+  const { data } = await apiClient.post<{ results?: BatchGetResult<'song', SongResponse>[] }>(
+    '/songs:batchGet',
+    { ids },
+  );
 
-  return {
-    id: data.id ?? id,
-    title: data.title,
-  };
+  return (data?.results ?? []).flatMap(({ id, found, song }) =>
+    found && song ? [{ id, title: song.title }] : [],
+  );
 }
@@ -6,6 +6,7 @@ import {
   updateSong,
   deleteSong,
   listArrangements,
+  getArrangement,
   createArrangement,
   updateArrangement,
   deleteArrangement,
@@ -68,6 +69,15 @@ export function useArrangements(songId: string | undefined) {
   });
 }
 
+// The list leaves lyrics out; this loads them for a single arrangement.
+export function useArrangement(arrangementId: string | undefined) {
+  return useQuery({
+    queryKey: withLangKey(['songs', 'arrangement', arrangementId]),
+    queryFn: () => getArrangement(arrangementId!),
+    enabled: !!arrangementId,
+  });
+}
+
 export function useCreateArrangement(songId: string) {
   const qc = useQueryClient();
   return useMutation({
@@ -1,46 +1,57 @@
 import { getArrangementLabel, setArrangementLabel, type ArrangementLabel } from './arrangements-cache';
-import { getArrangementById, getSongById } from '@/api/arrangements';
+import { BATCH_GET_MAX_IDS, batchGetArrangements, batchGetSongs } from '@/api/arrangements';
+
+function chunks<T>(items: T[], size: number): T[][] {
+  const result: T[][] = [];
+  for (let i = 0; i < items.length; i += size) {
+    result.push(items.slice(i, i + size));
+  }
+  return result;
+}
 
 /**
  * Ensure the cache has labels for the given arrangementIds.
- * - Loads only missing ids.
- * - Optionally enriches with songTitle.
+ * - Loads only missing ids, with one batch request for arrangements and one for their songs.
+ * - Enriches with songTitle.
  */
 export async function ensureArrangementLabels(ids: Array<string | null | undefined>) {
   const unique = Array.from(new Set(ids.filter((id): id is string => typeof id === 'string' && id.length > 0)));
   const missing = unique.filter((id) => !getArrangementLabel(id));
+  if (missing.length === 0) return;
 
-  for (const id of missing) {
+  for (const batch of chunks(missing, BATCH_GET_MAX_IDS)) {
+    let arrangements: Awaited<ReturnType<typeof batchGetArrangements>>;
     try {
-      const arr = await getArrangementById(id);
-      if (!arr) continue;
-
-      let songTitle: string | undefined = undefined;
+      arrangements = await batchGetArrangements(batch);
+    } catch {
+      // leave missing; UI can show fallback "Arrangement {id}"
+      continue;
+    }
 
-      const arrWithTitle = arr as typeof arr & { songTitle?: string | null };
-      if (arrWithTitle.songTitle) {
-        songTitle = arrWithTitle.songTitle;
-      } else if (arr.songId) {
-        try {
-          const song = await getSongById(arr.songId);
-          songTitle = song?.title;
-        } catch {
-          // ignore song fetch errors; fallback handled below
+    const songTitles = new Map<string, string | undefined>();
+    const songIds = Array.from(
+      new Set(arrangements.map((arr) => arr.songId).filter((id): id is string => !!id)),
+    );
+    if (songIds.length > 0) {
+      try {
+        for (const song of await batchGetSongs(songIds)) {
+          songTitles.set(song.id!, song.title);
         }
+      } catch {
+        // ignore song fetch errors; fallback handled below
       }
+    }
 
+    for (const arr of arrangements) {
       const label: ArrangementLabel = {
-        id,
+        id: arr.id!,
         songId: arr.songId,
-        songTitle,
+        songTitle: arr.songId ? songTitles.get(arr.songId) : undefined,
         key: arr.key ?? undefined,
         bpm: arr.bpm ?? null,
         meter: arr.meter ?? null,
       };
-
-      setArrangementLabel(id, label);
-    } catch {
-      // leave missing; UI can show fallback "Arrangement {id}"
+      setArrangementLabel(arr.id!, label);
     }
   }
 }
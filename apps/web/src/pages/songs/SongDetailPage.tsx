@@ -7,6 +7,7 @@ import {
   useSong,
   useUpdateSong,
   useArrangements,
+  useArrangement,
   useCreateArrangement,
   useUpdateArrangement,
   useDeleteArrangement,
@@ -44,6 +45,7 @@ export default function SongDetailPage() {
   const editSongTitleId = useId();
   const createArrTitleId = useId();
   const editArrTitleId = useId();
+  const { data: editingArrDetail } = useArrangement(editingArr?.id);
 
   const canManageSongs = hasRole('ADMIN') || hasRole('PLANNER');
 
@@ -237,13 +239,16 @@ export default function SongDetailPage() {
             <h2 id={editArrTitleId} className="text-lg font-semibold mb-2">
               {tArrangements('modals.editTitle')}
             </h2>
-            {editingArr && (
+            {editingArr && !editingArrDetail && (
+              <div className="p-4">{tCommon('status.loading')}</div>
+            )}
+            {editingArr && editingArrDetail && (
               <ArrangementForm
                 defaultValues={{
-                  key: editingArr.key || '',
-                  bpm: editingArr.bpm,
-                  meter: editingArr.meter || '',
-                  lyricsChordpro: editingArr.lyricsChordpro || '',
+                  key: editingArrDetail.key || '',
+                  bpm: editingArrDetail.bpm,
+                  meter: editingArrDetail.meter || '',
+                  lyricsChordpro: editingArrDetail.lyricsChordpro || '',
                 }}
                 onSubmit={(vals) => handleUpdateArr(editingArr.id!, vals)}
                 onCancel={() => setEditingArr(null)}